@@ -21,10 +21,12 @@ package org.lifecompanion.framework.commons.fx.io;
 import javafx.beans.property.*;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
-import org.lifecompanion.framework.commons.utils.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.*;
@@ -32,7 +34,9 @@ import java.util.*;
 /**
  * Tool class to serialize base object field to XML using {@link XMLUtils}.<br>
  * Object properties can be ignored with transient.<br>
- * All possible attribute type can be found by check {@link DataWriters#DATA_TYPES}.
+ * All possible attribute type can be found by check {@link DataWriters#DATA_TYPES}.<br>
+ * For each serialized type, an accessor plan is computed once (method handles, data types, annotation values) and kept in a {@link ClassValue} :
+ * serialization doesn't use reflection once the plan is created, and can be called concurrently.
  *
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
@@ -42,14 +46,32 @@ public class XMLObjectSerializer {
     private static final List<Class<?>> VALID_PROPERTY_TYPE = Arrays.asList(DoubleProperty.class, IntegerProperty.class, LongProperty.class,
             FloatProperty.class, StringProperty.class, BooleanProperty.class);
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     @SuppressWarnings("rawtypes")
-    private static final Map<Class<CustomPropertyConverter>, CustomPropertyConverter> CACHED_CONVERTER = new HashMap<>();
+    private static final ClassValue<CustomPropertyConverter> CACHED_CONVERTER = new ClassValue<>() {
+        @Override
+        protected CustomPropertyConverter computeValue(Class<?> type) {
+            try {
+                return (CustomPropertyConverter) type.getDeclaredConstructor().newInstance();
+            } catch (Exception e) {
+                LOGGER.error("Couldn't create the custom property converter", e);
+                return null;
+            }
+        }
+    };
 
     /**
-     * Cache the field to serialize/deserialize for a given type.<br>
+     * Cache the field plans to serialize/deserialize for a given type.<br>
      * Done because Reflection cost runtime perf and serialized type are not modified on runtime.
      */
-    private static final Map<Class<?>, List<Field>> CACHED_FIELD_FOR_TYPE = new HashMap<>(50);
+    private static final ClassValue<FieldPlan[]> CACHED_PLANS_FOR_TYPE = new ClassValue<>() {
+        @Override
+        protected FieldPlan[] computeValue(Class<?> type) {
+            return createFieldPlans(type);
+        }
+    };
 
     /**
      * Serialize the attribute of a given class type into a XML element.<br>
@@ -60,24 +82,23 @@ public class XMLObjectSerializer {
      * @param element  the element we want to serialize instance attributes in
      */
     public static Element serializeInto(final Class<?> type, final Object instance, final Element element) {
-        // Get all the valid fields
-        List<Field> validFields = XMLObjectSerializer.getAllValidAccessibleField(type);
-        for (Field field : validFields) {
-            // Property
-            if (Property.class.isAssignableFrom(field.getType())) {
-                Property<?> prop = XMLObjectSerializer.getFieldValue(instance, field);
-                if (prop != null && XMLObjectSerializer.isValidPropertyField(field)) {
-                    XMLObjectSerializer.writeFieldValueIn(field, prop.getValue(), element);
-                }
-            }
-            // Primitive
-            else if (isDirectlyAssignedField(field)) {
-                Object fieldValue = XMLObjectSerializer.getFieldValue(instance, field);
-                XMLObjectSerializer.writeFieldValueIn(field, fieldValue, element);
-            }
-            //Custom converter
-            else if (field.isAnnotationPresent(XMLCustomProperty.class)) {
-                writeCustomProperty(instance, field, element);
+        for (FieldPlan fieldPlan : CACHED_PLANS_FOR_TYPE.get(type)) {
+            Object fieldValue = fieldPlan.getFieldValue(instance);
+            switch (fieldPlan.kind) {
+                // Property
+                case PROPERTY:
+                    if (fieldValue != null) {
+                        fieldPlan.writeValueIn(((Property<?>) fieldValue).getValue(), element);
+                    }
+                    break;
+                // Primitive
+                case DIRECT:
+                    fieldPlan.writeValueIn(fieldValue, element);
+                    break;
+                //Custom converter
+                case CUSTOM:
+                    fieldPlan.writeValueIn(fieldPlan.getConverterValue(fieldValue), element);
+                    break;
             }
         }
         return element;
@@ -93,59 +114,110 @@ public class XMLObjectSerializer {
      * @param element  the element that contains attribute values
      */
     public static void deserializeInto(final Class<?> type, final Object instance, final Element element) {
-        // Get all the valid fields
-        List<Field> validFields = XMLObjectSerializer.getAllValidAccessibleField(type);
-        for (Field field : validFields) {
+        for (FieldPlan fieldPlan : CACHED_PLANS_FOR_TYPE.get(type)) {
             try {
-                // Property
-                if (Property.class.isAssignableFrom(field.getType())) {
-                    Property<?> prop = XMLObjectSerializer.getFieldValue(instance, field);
-                    if (prop != null && XMLObjectSerializer.isValidPropertyField(field)) {
-                        // For a property, we determine the type with gen
-                        prop.setValue(XMLObjectSerializer.readFieldValue(field, element, XMLObjectSerializer.getPropertyGenericType(prop, field)));
-                    }
-                }
-                // "Primitive"
-                else if (isDirectlyAssignedField(field)) {
-                    XMLObjectSerializer.setFieldValue(field, instance, XMLObjectSerializer.readFieldValue(field, element, null));
-                }
-                //Custom converter
-                else if (field.isAnnotationPresent(XMLCustomProperty.class)) {
-                    readCustomProperty(instance, field, element);
+                switch (fieldPlan.kind) {
+                    // Property
+                    case PROPERTY:
+                        Object prop = fieldPlan.getFieldValue(instance);
+                        if (prop != null) {
+                            fieldPlan.setPropertyValue(prop, fieldPlan.readValue(element));
+                        }
+                        break;
+                    // "Primitive"
+                    case DIRECT:
+                        fieldPlan.setFieldValue(instance, fieldPlan.readValue(element));
+                        break;
+                    //Custom converter
+                    case CUSTOM:
+                        fieldPlan.setConverterValue(fieldPlan.getFieldValue(instance), fieldPlan.readValue(element));
+                        break;
                 }
             } catch (Exception e) {
-                XMLObjectSerializer.LOGGER.warn("Couldn't read the field {}, value didn't change", field.getName(), e);
+                XMLObjectSerializer.LOGGER.warn("Couldn't read the field {}, value didn't change", fieldPlan.name, e);
             }
         }
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
-    private static void readCustomProperty(final Object instance, Field field, Element element) {
-        Object customFieldValue = XMLObjectSerializer.getFieldValue(instance, field);
-        XMLCustomProperty customProp = field.getAnnotation(XMLCustomProperty.class);
-        CustomPropertyConverter converterFor = getConverterFor(customProp);
-        converterFor.setValue(customFieldValue, XMLObjectSerializer.readFieldValue(field, element, customProp.value()));
+    /**
+     * Copy the class attributes from the source instance to the target instance, without converting them to XML.<br>
+     * Copies the same attributes than {@link #serializeInto(Class, Object, Element)} : copying is the same as serializing the source and deserializing it into target.
+     *
+     * @param type   type of instances
+     * @param source the instance that contains attribute values
+     * @param target the instance where values are copied
+     */
+    public static void copyInto(final Class<?> type, final Object source, final Object target) {
+        for (FieldPlan fieldPlan : CACHED_PLANS_FOR_TYPE.get(type)) {
+            try {
+                switch (fieldPlan.kind) {
+                    // Property
+                    case PROPERTY:
+                        Object sourceProp = fieldPlan.getFieldValue(source);
+                        Object targetProp = fieldPlan.getFieldValue(target);
+                        if (sourceProp != null && targetProp != null) {
+                            fieldPlan.setPropertyValue(targetProp, copyValue(((Property<?>) sourceProp).getValue()));
+                        }
+                        break;
+                    // "Primitive"
+                    case DIRECT:
+                        fieldPlan.setFieldValue(target, copyValue(fieldPlan.getFieldValue(source)));
+                        break;
+                    //Custom converter
+                    case CUSTOM:
+                        fieldPlan.setConverterValue(fieldPlan.getFieldValue(target), copyValue(fieldPlan.getConverterValue(fieldPlan.getFieldValue(source))));
+                        break;
+                }
+            } catch (Exception e) {
+                XMLObjectSerializer.LOGGER.warn("Couldn't copy the field {}, value didn't change", fieldPlan.name, e);
+            }
+        }
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
-    private static void writeCustomProperty(final Object instance, Field field, Element element) {
-        Object customFieldValue = XMLObjectSerializer.getFieldValue(instance, field);
-        XMLCustomProperty customProp = field.getAnnotation(XMLCustomProperty.class);
-        CustomPropertyConverter converterFor = getConverterFor(customProp);
-        XMLObjectSerializer.writeFieldValueIn(field, converterFor.getValue(customFieldValue), element);
+    private static Object copyValue(Object value) {
+        // Every data type is immutable except dates
+        return value instanceof Date ? new Date(((Date) value).getTime()) : value;
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
-    private static CustomPropertyConverter getConverterFor(XMLCustomProperty customProp) {
-        Class<? extends CustomPropertyConverter> converterType = customProp.converter();
-        if (!CACHED_CONVERTER.containsKey(converterType)) {
-            try {
-                CACHED_CONVERTER.put((Class<CustomPropertyConverter>) converterType, converterType.newInstance());
-            } catch (Exception e) {
-                LOGGER.error("Couldn't create the custom property converter", e);
+    // PLAN
+    //========================================================================
+
+    /**
+     * Create the plans for all the field of a object that are not ignored, that are primitive type, or property.<br>
+     * Will try for each field to set it accessible.
+     *
+     * @param type the object type
+     * @return the plans for all valid field.
+     */
+    private static FieldPlan[] createFieldPlans(final Class<?> type) {
+        List<FieldPlan> fieldPlans = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : type.getDeclaredFields()) {
+            // Is a property or a primitive, and is not ignored
+            if (isFieldModifiersValid(field)) {
+                FieldKind kind = getFieldKind(field);
+                if (kind != null) {
+                    try {
+                        field.setAccessible(true);
+                        fieldPlans.add(new FieldPlan(field, kind, lookup));
+                    } catch (Exception e) {
+                        XMLObjectSerializer.LOGGER.warn("Couldn't set the field {} accessible", field.getName(), e);
+                    }
+                }
             }
         }
-        return CACHED_CONVERTER.get((Class<CustomPropertyConverter>) converterType);
+        return fieldPlans.toArray(new FieldPlan[0]);
+    }
+
+    private static FieldKind getFieldKind(Field field) {
+        if (Property.class.isAssignableFrom(field.getType())) {
+            return isValidPropertyField(field) ? FieldKind.PROPERTY : null;
+        } else if (isDirectlyAssignedField(field)) {
+            return FieldKind.DIRECT;
+        } else if (field.isAnnotationPresent(XMLCustomProperty.class)) {
+            return FieldKind.CUSTOM;
+        }
+        return null;
     }
 
     private static boolean isValidPropertyField(final Field field) {
@@ -169,150 +241,164 @@ public class XMLObjectSerializer {
         return false;
     }
 
-    @SuppressWarnings({"unchecked"})
-    private static <T> Class<T> getPropertyGenericType(final Property<T> prop, final Field field) {
-        Class<Property<T>> propertyClass = (Class<Property<T>>) prop.getClass();
-        Class<?> result = null;
+    private static Class<?> getPropertyGenericType(final Field field) {
+        Class<?> propertyType = field.getType();
         // Primitive properties
-        if (DoubleProperty.class.isAssignableFrom(propertyClass)) {
-            result = Double.class;
-        } else if (IntegerProperty.class.isAssignableFrom(propertyClass)) {
-            result = Integer.class;
-        } else if (FloatProperty.class.isAssignableFrom(propertyClass)) {
-            result = Float.class;
-        } else if (LongProperty.class.isAssignableFrom(propertyClass)) {
-            result = Long.class;
-        } else if (StringProperty.class.isAssignableFrom(propertyClass)) {
-            result = String.class;
-        } else if (BooleanProperty.class.isAssignableFrom(propertyClass)) {
-            result = Boolean.class;
+        if (DoubleProperty.class.isAssignableFrom(propertyType)) {
+            return Double.class;
+        } else if (IntegerProperty.class.isAssignableFrom(propertyType)) {
+            return Integer.class;
+        } else if (FloatProperty.class.isAssignableFrom(propertyType)) {
+            return Float.class;
+        } else if (LongProperty.class.isAssignableFrom(propertyType)) {
+            return Long.class;
+        } else if (StringProperty.class.isAssignableFrom(propertyType)) {
+            return String.class;
+        } else if (BooleanProperty.class.isAssignableFrom(propertyType)) {
+            return Boolean.class;
         }
         // Custom property for simple serializable types
-        else if (ObjectProperty.class.isAssignableFrom(propertyClass) && field.isAnnotationPresent(XMLGenericProperty.class)) {
-            XMLGenericProperty annotation = field.getAnnotation(XMLGenericProperty.class);
-            result = annotation.value();
-        } else {
-            XMLObjectSerializer.LOGGER.warn("Didn't find any valid type for property {}, will return a null type", prop.getClass().getSimpleName());
+        else {
+            return field.getAnnotation(XMLGenericProperty.class).value();
         }
-        return (Class<T>) result;
     }
 
-    private static void setFieldValue(final Field field, final Object object, final Object value) {
-        try {
-            field.set(object, value);
-        } catch (Exception e) {
-            XMLObjectSerializer.LOGGER.warn("Couldn't set value from {}", field.getName(), e);
-        }
+    private static boolean isDirectlyAssignedField(Field field) {
+        return DataWriters.isValidType(field.getType());
     }
 
-    @SuppressWarnings("unchecked")
-    private static <T> T readFieldValue(final Field field, final Element element, final Class<?> valueType) {
-        Attribute attribute = element.getAttribute(field.getName());
-        if (attribute != null) {
-            String elementValue = attribute.getValue();
-            Object valueNull = DataWriters.NULL_DATA_TYPE.stringToValue(elementValue);
-            // Because  property doesn't know the type "inside"
-            Class<?> realFieldType = valueType != null ? valueType : field.getType();
-            if (valueNull != null && DataWriters.isValidType(realFieldType)) {
-                return (T) DataWriters.getDataType(realFieldType).stringToValue(elementValue);
-            } else {
-                return null;
-            }
-        } else if (field.getAnnotation(XMLIgnoreNullValue.class) != null) {
-            return null;
-        } else if (field.getAnnotation(XMLIgnoreDefaultBooleanValue.class) != null) {
-            Object val = field.getAnnotation(XMLIgnoreDefaultBooleanValue.class).value();
-            return (T) val;
-        } else if (field.getAnnotation(XMLIgnoreDefaultDoubleValue.class) != null) {
-            Object val = field.getAnnotation(XMLIgnoreDefaultDoubleValue.class).value();
-            return (T) val;
-        } else {
-            throw new IllegalArgumentException("The xml element doesn't contains any field for the name " + field.getName());
-        }
+    private static boolean isFieldModifiersValid(Field field) {
+        int modifiers = field.getModifiers();
+        return (!isDirectlyAssignedField(field) || !Modifier.isFinal(modifiers)) && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers);
     }
 
-    private static void writeFieldValueIn(final Field field, final Object value, final Element element) {
-        if (value == null) {
-            if (field.getAnnotation(XMLIgnoreNullValue.class) == null) {
-                element.setAttribute(field.getName(), DataWriters.NULL_DATA_TYPE.valueToString(value));
-            }
-        } else if (checkIfNonNullValueShouldBeWritten(field, value)) {
-            element.setAttribute(field.getName(), DataWriters.getDataType(value.getClass()).valueToString(value));
-        }
+    private enum FieldKind {
+        PROPERTY, DIRECT, CUSTOM
     }
 
-    private static boolean checkIfNonNullValueShouldBeWritten(final Field field, final Object value) {
-        if (value instanceof Boolean) {
-            final XMLIgnoreDefaultBooleanValue xmlIgnoreDefaultBoolean = field.getAnnotation(XMLIgnoreDefaultBooleanValue.class);
-            if (xmlIgnoreDefaultBoolean != null && Objects.equals(value, xmlIgnoreDefaultBoolean.value())) {
-                return false;
-            }
+    /**
+     * Everything needed to read/write a field : accessors, value type and its data type, and annotation values.
+     */
+    private static class FieldPlan {
+        private final String name;
+        private final FieldKind kind;
+        private final MethodHandle getter, setter;
+        private final Class<?> valueType;
+        private final DataWriters.DataTypeI<Object> dataType;
+        @SuppressWarnings("rawtypes")
+        private final CustomPropertyConverter converter;
+        private final boolean ignoreNullValue, ignoreEmptyString;
+        private final Boolean ignoredDefaultBoolean;
+        private final Double ignoredDefaultDouble;
+
+        FieldPlan(Field field, FieldKind kind, MethodHandles.Lookup lookup) throws IllegalAccessException {
+            this.name = field.getName();
+            this.kind = kind;
+            this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            this.setter = kind == FieldKind.DIRECT ? lookup.unreflectSetter(field).asType(SETTER_TYPE) : null;
+            XMLCustomProperty customProp = field.getAnnotation(XMLCustomProperty.class);
+            // Because property doesn't know the type "inside"
+            Class<?> realFieldType = kind == FieldKind.PROPERTY ? getPropertyGenericType(field) : kind == FieldKind.CUSTOM ? customProp.value() : field.getType();
+            this.valueType = MethodType.methodType(realFieldType).wrap().returnType();
+            this.dataType = DataWriters.isValidType(realFieldType) ? DataWriters.getDataType(realFieldType) : null;
+            this.converter = kind == FieldKind.CUSTOM ? CACHED_CONVERTER.get(customProp.converter()) : null;
+            this.ignoreNullValue = field.isAnnotationPresent(XMLIgnoreNullValue.class);
+            this.ignoreEmptyString = field.isAnnotationPresent(XMLIgnoreEmptyString.class);
+            XMLIgnoreDefaultBooleanValue ignoreDefaultBoolean = field.getAnnotation(XMLIgnoreDefaultBooleanValue.class);
+            this.ignoredDefaultBoolean = ignoreDefaultBoolean != null ? ignoreDefaultBoolean.value() : null;
+            XMLIgnoreDefaultDoubleValue ignoreDefaultDouble = field.getAnnotation(XMLIgnoreDefaultDoubleValue.class);
+            this.ignoredDefaultDouble = ignoreDefaultDouble != null ? ignoreDefaultDouble.value() : null;
         }
-        if (value instanceof Double) {
-            final XMLIgnoreDefaultDoubleValue xmlIgnoreDefaultDoubleValue = field.getAnnotation(XMLIgnoreDefaultDoubleValue.class);
-            if (xmlIgnoreDefaultDoubleValue != null && Objects.equals(value, xmlIgnoreDefaultDoubleValue.value())) {
-                return false;
+
+        // ACCESSORS
+        //========================================================================
+        Object getFieldValue(final Object object) {
+            try {
+                return (Object) getter.invokeExact(object);
+            } catch (Throwable e) {
+                XMLObjectSerializer.LOGGER.warn("Couldn't get the value from {}, will return a null value", name, e);
+                return null;
             }
         }
-        if (value instanceof String) {
-            if (field.getAnnotation(XMLIgnoreEmptyString.class) != null && ((String) value).isEmpty()) {
-                return false;
+
+        void setFieldValue(final Object object, final Object value) {
+            try {
+                setter.invokeExact(object, value);
+            } catch (Throwable e) {
+                XMLObjectSerializer.LOGGER.warn("Couldn't set value from {}", name, e);
             }
         }
-        return true;
-    }
 
-    @SuppressWarnings("unchecked")
-    private static <T> T getFieldValue(final Object object, final Field field) {
-        try {
-            return (T) field.get(object);
-        } catch (Exception e) {
-            XMLObjectSerializer.LOGGER.warn("Couldn't get the value from {}, will return a null value", field.getName(), e);
-            return null;
+        @SuppressWarnings("unchecked")
+        void setPropertyValue(final Object property, final Object value) {
+            ((Property<Object>) property).setValue(value);
         }
-    }
 
-    /**
-     * Return all the field of a object that are not ignored, that are primitive
-     * type, or property.<br>
-     * Will try for each field to set it accessible.
-     *
-     * @param type the object type
-     * @return the list of all valid field.
-     */
-    private static List<Field> getAllValidAccessibleField(final Class<?> type) {
-        if (!CACHED_FIELD_FOR_TYPE.containsKey(type)) {
-            ArrayList<Field> validField = new ArrayList<>();
-            Field[] declaredFields = type.getDeclaredFields();
-            for (Field field : declaredFields) {
-                // Is a property or a primitive, and is not ignored
-                if (isFieldValidType(field) && isFieldModifiersValid(field)) {
-                    try {
-                        if (!field.isAccessible()) {
-                            field.setAccessible(true);
-                        }
-                        validField.add(field);
-                    } catch (Exception e) {
-                        XMLObjectSerializer.LOGGER.warn("Couldn't set the field {} accessible", field.getName(), e);
-                    }
+        @SuppressWarnings("unchecked")
+        Object getConverterValue(final Object customFieldValue) {
+            return converter.getValue(customFieldValue);
+        }
+
+        @SuppressWarnings("unchecked")
+        void setConverterValue(final Object customFieldValue, final Object value) {
+            converter.setValue(customFieldValue, value);
+        }
+        //========================================================================
+
+        // READ/WRITE
+        //========================================================================
+        Object readValue(final Element element) {
+            Attribute attribute = element.getAttribute(name);
+            if (attribute != null) {
+                String elementValue = attribute.getValue();
+                Object valueNull = DataWriters.NULL_DATA_TYPE.stringToValue(elementValue);
+                if (valueNull != null && dataType != null) {
+                    return dataType.stringToValue(elementValue);
+                } else {
+                    return null;
                 }
+            } else if (ignoreNullValue) {
+                return null;
+            } else if (ignoredDefaultBoolean != null) {
+                return ignoredDefaultBoolean;
+            } else if (ignoredDefaultDouble != null) {
+                return ignoredDefaultDouble;
+            } else {
+                throw new IllegalArgumentException("The xml element doesn't contains any field for the name " + name);
             }
-            CACHED_FIELD_FOR_TYPE.put(type, validField);
         }
-        return CACHED_FIELD_FOR_TYPE.get(type);
-    }
-
-    private static boolean isFieldValidType(Field field) {
-        return Property.class.isAssignableFrom(field.getType()) || isDirectlyAssignedField(field)
-                || field.isAnnotationPresent(XMLCustomProperty.class);
-    }
 
-    private static boolean isDirectlyAssignedField(Field field) {
-        return DataWriters.isValidType(field.getType());
-    }
+        void writeValueIn(final Object value, final Element element) {
+            if (value == null) {
+                if (!ignoreNullValue) {
+                    element.setAttribute(name, DataWriters.NULL_DATA_TYPE.valueToString(value));
+                }
+            } else if (checkIfNonNullValueShouldBeWritten(value)) {
+                // Runtime value type can differ from declared one (e.g. enum constant with a body)
+                DataWriters.DataTypeI<Object> valueDataType = value.getClass() == valueType && dataType != null ? dataType : DataWriters.getDataType(value.getClass());
+                element.setAttribute(name, valueDataType.valueToString(value));
+            }
+        }
 
-    private static boolean isFieldModifiersValid(Field field) {
-        int modifiers = field.getModifiers();
-        return (!isDirectlyAssignedField(field) || !Modifier.isFinal(modifiers)) && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers);
+        private boolean checkIfNonNullValueShouldBeWritten(final Object value) {
+            if (value instanceof Boolean) {
+                if (ignoredDefaultBoolean != null && Objects.equals(value, ignoredDefaultBoolean)) {
+                    return false;
+                }
+            }
+            if (value instanceof Double) {
+                if (ignoredDefaultDouble != null && Objects.equals(value, ignoredDefaultDouble)) {
+                    return false;
+                }
+            }
+            if (value instanceof String) {
+                if (ignoreEmptyString && ((String) value).isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        //========================================================================
     }
+    //========================================================================
 }
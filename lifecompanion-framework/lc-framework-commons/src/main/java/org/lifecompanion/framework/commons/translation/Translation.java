@@ -26,16 +26,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 
 /**
- * Class that load language resources and provide it to user.
+ * Class that load language resources and provide it to user.<br>
+ * Texts can be read while resources are loaded from another thread (e.g. plugin translations loaded on startup).
  *
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
@@ -48,7 +49,7 @@ public enum Translation {
     /**
      * Contains all the text
      */
-    private final HashMap<String, String> texts;
+    private final Map<String, String> texts;
 
     /**
      * Contains all the loaded resources ids
@@ -70,8 +71,8 @@ public enum Translation {
      * Load the default text for the framework.
      */
     private Translation() {
-        this.texts = new HashMap<>(200);
-        this.loadedResourcesIds = new HashSet<>(10);
+        this.texts = new ConcurrentHashMap<>(200);
+        this.loadedResourcesIds = ConcurrentHashMap.newKeySet(10);
     }
 
     /**
@@ -83,8 +84,8 @@ public enum Translation {
      * @return the text, or the key
      */
     public String getIText(final String key, final Object... args) {
-        if (this.texts.containsKey(key)) {
-            String txt = this.texts.get(key);
+        String txt = this.texts.get(key);
+        if (txt != null) {
             for (int i = 0; i < args.length; i++) {
                 txt = txt.replaceFirst("\\{\\}", this.toString(args[i]));
             }
@@ -140,11 +141,12 @@ public enum Translation {
     }
 
     /**
-     * Load the given XML and put key/value in map
+     * Load the given XML and put key/value in map.<br>
+     * Loading is synchronized so the same resource is never loaded twice.
      *
      * @param file the file to load
      */
-    public void load(final String id, final InputStream file, boolean warnOnDuplicates) throws Exception {
+    public synchronized void load(final String id, final InputStream file, boolean warnOnDuplicates) throws Exception {
         if (this.loadedResourcesIds.contains(id)) {
             LOGGER.info("Didn't load {} because it was already loaded", id);
         } else {
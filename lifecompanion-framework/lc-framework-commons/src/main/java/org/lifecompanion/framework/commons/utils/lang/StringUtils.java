@@ -34,6 +34,7 @@ public class StringUtils {
     }
 
     private static final String EMAIL_REGEX = "^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@" + "[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
+    private static final Pattern COMBINING_DIACRITICAL_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
     private static final SimpleDateFormat DATE_WITH_HOUR = new SimpleDateFormat("dd/MM/yyyy - HH:mm");
     private static final SimpleDateFormat DATE_WITHOUT_HOUR = new SimpleDateFormat("dd/MM/yyyy");
     private static final SimpleDateFormat DATE_ONLY_HOURS_MIN_SECOND = new SimpleDateFormat("HH:mm:ss");
@@ -272,8 +273,7 @@ public class StringUtils {
         if (str == null) {
             return null;
         }
-        final Pattern pattern = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
         final StringBuilder decomposed = new StringBuilder(Normalizer.normalize(str, Normalizer.Form.NFD));
-        return pattern.matcher(decomposed).replaceAll("");
+        return COMBINING_DIACRITICAL_MARKS.matcher(decomposed).replaceAll("");
     }
 }
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public enum OptionalResourceController implements LCStateListener {
@@ -69,6 +70,11 @@ public enum OptionalResourceController implements LCStateListener {
         });
     }
 
+    @Override
+    public List<LCStateListener> getStartDependencies() {
+        return List.of(InstallationController.INSTANCE);
+    }
+
     @Override
     public void lcExit() {
     }
@@ -20,14 +20,12 @@ package org.lifecompanion.controller.configurationcomponent;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
-import javafx.collections.ObservableMap;
-import org.lifecompanion.model.api.configurationcomponent.DisplayableComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
 import org.lifecompanion.model.impl.configurationcomponent.keyoption.note.NoteKeyOption;
 import org.lifecompanion.controller.resource.IconHelper;
 import org.lifecompanion.model.impl.imagedictionary.StaticImageElement;
@@ -51,16 +49,8 @@ public enum NoteKeyController implements ModeListenerI {
     // Class part : "Internal"
     //========================================================================
     private void searchForNoteKeys(final LCConfigurationI configuration) {
-        ObservableMap<String, DisplayableComponentI> allComponentMap = configuration.getAllComponent();
-        Set<String> keys = allComponentMap.keySet();
-        for (String id : keys) {
-            DisplayableComponentI configComponent = allComponentMap.get(id);
-            if (configComponent instanceof GridPartKeyComponentI) {
-                GridPartKeyComponentI key = (GridPartKeyComponentI) configComponent;
-                if (key.keyOptionProperty().get() instanceof NoteKeyOption) {
-                    this.noteKeys.add((NoteKeyOption) key.keyOptionProperty().get());
-                }
-            }
+        for (GridPartKeyComponentI key : configuration.getComponentIndex().getKeysByKeyOptionType(NoteKeyOption.class)) {
+            this.noteKeys.add((NoteKeyOption) key.keyOptionProperty().get());
         }
     }
     //========================================================================
@@ -115,6 +105,12 @@ public enum NoteKeyController implements ModeListenerI {
         this.searchForNoteKeys(configuration);
     }
 
+    @Override
+    public ModeStartPolicy getModeStartPolicy() {
+        // Only search for note keys in configuration
+        return ModeStartPolicy.CONCURRENT;
+    }
+
     @Override
     public void modeStop(LCConfigurationI configuration) {
         this.noteKeys.clear();
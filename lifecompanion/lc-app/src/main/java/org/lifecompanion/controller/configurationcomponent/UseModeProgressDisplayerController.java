@@ -22,6 +22,7 @@ import javafx.concurrent.Task;
 import org.lifecompanion.model.api.configurationcomponent.GridComponentI;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
 import org.lifecompanion.util.model.ConfigurationComponentUtils;
 import org.lifecompanion.util.javafx.FXThreadUtils;
 import org.lifecompanion.model.impl.configurationcomponent.keyoption.ProgressDisplayKeyOption;
@@ -101,6 +102,12 @@ public enum UseModeProgressDisplayerController implements ModeListenerI {
         }
     }
 
+    @Override
+    public ModeStartPolicy getModeStartPolicy() {
+        // Only search for progress display keys in configuration
+        return ModeStartPolicy.CONCURRENT;
+    }
+
     @Override
     public void modeStop(LCConfigurationI configuration) {
         hideAllProgress();
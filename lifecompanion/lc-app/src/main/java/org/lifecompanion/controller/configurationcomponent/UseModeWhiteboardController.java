@@ -26,6 +26,7 @@ import org.lifecompanion.framework.commons.utils.lang.CollectionUtils;
 import org.lifecompanion.model.api.configurationcomponent.GridComponentI;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
 import org.lifecompanion.model.impl.configurationcomponent.keyoption.WhiteboardKeyOption;
 import org.lifecompanion.util.model.ConfigurationComponentUtils;
 import org.slf4j.Logger;
@@ -96,6 +97,12 @@ public enum UseModeWhiteboardController implements ModeListenerI {
         this.whiteboardKeyOptionList = whiteboardKeyOptionsMap.values().stream().flatMap(List::stream).collect(Collectors.toList());
     }
 
+    @Override
+    public ModeStartPolicy getModeStartPolicy() {
+        // Only search for whiteboard keys in configuration
+        return ModeStartPolicy.CONCURRENT;
+    }
+
     @Override
     public void modeStop(LCConfigurationI configuration) {
         this.whiteboardKeyOptionList = null;
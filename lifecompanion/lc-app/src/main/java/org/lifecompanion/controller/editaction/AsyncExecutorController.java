@@ -25,8 +25,8 @@ import org.lifecompanion.util.model.LCTask;
 import org.lifecompanion.model.impl.constant.LCConstant;
 import org.lifecompanion.framework.utils.LCNamedThreadFactory;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -45,7 +45,7 @@ public enum AsyncExecutorController implements LCStateListener {
 
     AsyncExecutorController() {
         this.configurationActionThreadPool = Executors.newFixedThreadPool(LCConstant.CONFIGURATION_ACTION_POOL_SIZE, LCNamedThreadFactory.threadFactory("AsyncExecutorController"));
-        this.taskAddedForExecutionListeners = new ArrayList<>();
+        this.taskAddedForExecutionListeners = new CopyOnWriteArrayList<>();
     }
 
     public void addTaskAddedForExecutionListener(TaskAddedForExecutionListener taskAddedForExecutionListener) {
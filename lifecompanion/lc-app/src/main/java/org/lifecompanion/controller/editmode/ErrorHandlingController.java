@@ -35,6 +35,8 @@ import org.lifecompanion.framework.commons.translation.Translation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 public enum ErrorHandlingController implements LCStateListener {
     INSTANCE;
     private static final Logger LOGGER = LoggerFactory.getLogger(ErrorHandlingController.class);
@@ -63,6 +65,12 @@ public enum ErrorHandlingController implements LCStateListener {
         });
     }
 
+    @Override
+    public List<LCStateListener> getStartDependencies() {
+        // Task error notification should be added after task notification
+        return List.of(AsyncExecutorController.INSTANCE, LCNotificationController.INSTANCE);
+    }
+
     @Override
     public void lcExit() {
     }
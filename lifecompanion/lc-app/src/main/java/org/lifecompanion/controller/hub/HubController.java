@@ -28,12 +28,14 @@ import org.lifecompanion.framework.utils.LCNamedThreadFactory;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.lifecycle.LCStateListener;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
 import org.lifecompanion.model.impl.useapi.GlobalRuntimeConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
@@ -89,6 +91,11 @@ public enum HubController implements ModeListenerI, LCStateListener {
         }
     }
 
+    @Override
+    public List<LCStateListener> getStartDependencies() {
+        return List.of(HubService.INSTANCE);
+    }
+
     @Override
     public void lcExit() {
         if (this.autoSyncService != null) {
@@ -101,6 +108,12 @@ public enum HubController implements ModeListenerI, LCStateListener {
         this.currentRunningConfigurationId = configuration.getID();
     }
 
+    @Override
+    public ModeStartPolicy getModeStartPolicy() {
+        // Running configuration ID is only needed by config sync thread
+        return ModeStartPolicy.DEFERRED;
+    }
+
     @Override
     public void modeStop(LCConfigurationI configuration) {
     }
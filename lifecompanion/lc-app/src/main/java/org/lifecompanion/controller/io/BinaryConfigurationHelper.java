@@ -0,0 +1,161 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.Element;
+import org.lifecompanion.controller.useapi.GlobalRuntimeConfigurationController;
+import org.lifecompanion.model.impl.constant.LCConstant;
+import org.lifecompanion.model.impl.useapi.GlobalRuntimeConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Optional binary format for configurations : configuration, keylist and sequence XML are converted to a single binary file ({@link LCConstant#CONFIGURATION_BINARY_NAME}) in the configuration directory, one section per XML file.<br>
+ * Each section keeps the length and last modified date of the XML file it was converted from : a section is only used while its XML file is unchanged (or missing), so XML stays the reference format.<br>
+ * Enabled with {@link GlobalRuntimeConfiguration#PROP_BINARY_CONFIGURATION}
+ */
+public class BinaryConfigurationHelper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryConfigurationHelper.class);
+
+    public enum ConfigurationSection {
+        CONFIGURATION("configuration", null, LCConstant.CONFIGURATION_XML_NAME),
+        KEYLIST("keylist", LCConstant.CONFIGURATION_KEYLIST_DIRECTORY, LCConstant.KEYLIST_XML_NAME),
+        SEQUENCE("sequence", LCConstant.CONFIGURATION_SEQUENCE_DIRECTORY, LCConstant.SEQUENCE_XML_NAME);
+
+        private final String sectionName;
+        private final String directoryName;
+        private final String xmlName;
+
+        ConfigurationSection(String sectionName, String directoryName, String xmlName) {
+            this.sectionName = sectionName;
+            this.directoryName = directoryName;
+            this.xmlName = xmlName;
+        }
+
+        public String getSectionName() {
+            return sectionName;
+        }
+
+        public File getXmlFile(File configurationDirectory) {
+            return new File(configurationDirectory.getPath() + File.separator + (directoryName != null ? directoryName + File.separator : "") + xmlName);
+        }
+
+        /**
+         * @return the configuration directory for a directory where this section XML is loaded from
+         */
+        File getConfigurationDirectory(File xmlDirectory) {
+            return directoryName != null ? xmlDirectory.getParentFile() : xmlDirectory;
+        }
+
+        static ConfigurationSection forXmlName(String xmlName) {
+            for (ConfigurationSection section : values()) {
+                if (section.xmlName.equals(xmlName)) {
+                    return section;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return GlobalRuntimeConfigurationController.INSTANCE.isPresent(GlobalRuntimeConfiguration.PROP_BINARY_CONFIGURATION);
+    }
+
+    public static File getBinaryFile(File configurationDirectory) {
+        return new File(configurationDirectory.getPath() + File.separator + LCConstant.CONFIGURATION_BINARY_NAME);
+    }
+
+    // CONVERSION
+    //========================================================================
+
+    /**
+     * Convert configuration XML files (configuration, keylist, sequence) in the given directory to the binary file.<br>
+     * Missing XML files are ignored.
+     */
+    public static void convertXmlToBinary(File configurationDirectory) throws Exception {
+        long start = System.currentTimeMillis();
+        Map<String, BinaryXMLHelper.Section> sections = new LinkedHashMap<>();
+        for (ConfigurationSection configurationSection : ConfigurationSection.values()) {
+            File xmlFile = configurationSection.getXmlFile(configurationDirectory);
+            if (xmlFile.exists()) {
+                sections.put(configurationSection.getSectionName(), new BinaryXMLHelper.Section(XMLHelper.readXml(xmlFile), xmlFile.length(), xmlFile.lastModified()));
+            }
+        }
+        File binaryFile = getBinaryFile(configurationDirectory);
+        BinaryXMLHelper.writeFile(binaryFile, sections);
+        LOGGER.info("Configuration in {} converted to binary in {} ms ({} sections, {} bytes)", configurationDirectory, System.currentTimeMillis() - start, sections.size(), binaryFile.length());
+    }
+
+    /**
+     * Write configuration XML files (configuration, keylist, sequence) from the binary file in the given directory.<br>
+     * Existing XML files are replaced.
+     */
+    public static void convertBinaryToXml(File configurationDirectory) throws Exception {
+        BinaryXMLFile binaryFile = BinaryXMLFile.open(getBinaryFile(configurationDirectory));
+        for (ConfigurationSection configurationSection : ConfigurationSection.values()) {
+            Element element = binaryFile.readSection(configurationSection.getSectionName());
+            if (element != null) {
+                File xmlFile = configurationSection.getXmlFile(configurationDirectory);
+                xmlFile.getParentFile().mkdirs();
+                XMLHelper.writeXml(xmlFile, element);
+            }
+        }
+    }
+    //========================================================================
+
+    // READ
+    //========================================================================
+
+    /**
+     * Try to read an XML file from the configuration binary file.<br>
+     * Only the needed section is decoded.
+     *
+     * @param directory directory where XML file should be loaded from (configuration directory, or keylist/sequence directory)
+     * @param xmlName   XML file name
+     * @return the element read from binary section, or null if there is no binary file, if XML file is not a configuration file or if the XML file changed since binary file was written
+     */
+    public static Element readElementIfUpToDate(File directory, String xmlName) {
+        ConfigurationSection configurationSection = ConfigurationSection.forXmlName(xmlName);
+        if (configurationSection != null) {
+            File configurationDirectory = configurationSection.getConfigurationDirectory(directory);
+            File binaryFilePath = getBinaryFile(configurationDirectory);
+            if (binaryFilePath.exists()) {
+                try {
+                    BinaryXMLFile binaryFile = BinaryXMLFile.open(binaryFilePath);
+                    BinaryXMLFile.SectionInfo sectionInfo = binaryFile.getSectionInfo(configurationSection.getSectionName());
+                    File xmlFile = configurationSection.getXmlFile(configurationDirectory);
+                    if (sectionInfo != null && (!xmlFile.exists() || (xmlFile.length() == sectionInfo.getSourceLength() && xmlFile.lastModified() == sectionInfo.getSourceLastModified()))) {
+                        return binaryFile.readSection(configurationSection.getSectionName());
+                    } else {
+                        LOGGER.info("Binary section {} in {} is missing or outdated, XML will be used", configurationSection.getSectionName(), binaryFilePath);
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn("Couldn't read binary configuration file {}, XML will be used", binaryFilePath, e);
+                }
+            }
+        }
+        return null;
+    }
+    //========================================================================
+}
@@ -0,0 +1,133 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.Element;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A binary XML file written with {@link BinaryXMLHelper#writeFile(File, Map)}.<br>
+ * Only the section directory is read when opening the file : each section is decoded when requested with {@link #readSection(String)}.
+ */
+public class BinaryXMLFile {
+    private final File path;
+    private final long sectionsStart;
+    private final Map<String, SectionInfo> sections;
+
+    private BinaryXMLFile(File path, long sectionsStart, Map<String, SectionInfo> sections) {
+        this.path = path;
+        this.sectionsStart = sectionsStart;
+        this.sections = sections;
+    }
+
+    public static BinaryXMLFile open(File path) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            byte[] magic = new byte[BinaryXMLHelper.MAGIC.length];
+            dis.readFully(magic);
+            if (!Arrays.equals(magic, BinaryXMLHelper.MAGIC)) {
+                throw new IOException("Not a binary XML file : " + path);
+            }
+            int version = dis.readInt();
+            if (version != BinaryXMLHelper.VERSION) {
+                throw new IOException("Unsupported binary XML version " + version + " in " + path);
+            }
+            int directoryLength = dis.readInt();
+            int sectionCount = BinaryXMLHelper.readVarInt(dis);
+            Map<String, SectionInfo> sections = new LinkedHashMap<>();
+            for (int i = 0; i < sectionCount; i++) {
+                String name = dis.readUTF();
+                sections.put(name, new SectionInfo(dis.readLong(), dis.readLong(), dis.readLong(), dis.readInt()));
+            }
+            return new BinaryXMLFile(path, BinaryXMLHelper.MAGIC.length + 8L + directoryLength, sections);
+        }
+    }
+
+    public File getPath() {
+        return path;
+    }
+
+    public Set<String> getSectionNames() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    public SectionInfo getSectionInfo(String name) {
+        return sections.get(name);
+    }
+
+    /**
+     * Decode a section
+     *
+     * @param name section name
+     * @return the section root element, or null if there is no section with this name
+     */
+    public Element readSection(String name) throws IOException {
+        SectionInfo sectionInfo = sections.get(name);
+        if (sectionInfo == null) {
+            return null;
+        }
+        byte[] data = new byte[sectionInfo.length];
+        try (RandomAccessFile raf = new RandomAccessFile(path, "r")) {
+            raf.seek(sectionsStart + sectionInfo.offset);
+            raf.readFully(data);
+        }
+        return BinaryXMLHelper.decode(data);
+    }
+
+    public static class SectionInfo {
+        private final long sourceLength;
+        private final long sourceLastModified;
+        private final long offset;
+        private final int length;
+
+        private SectionInfo(long sourceLength, long sourceLastModified, long offset, int length) {
+            this.sourceLength = sourceLength;
+            this.sourceLastModified = sourceLastModified;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * @return length of the XML file this section was converted from, -1 if unknown
+         */
+        public long getSourceLength() {
+            return sourceLength;
+        }
+
+        /**
+         * @return last modified date of the XML file this section was converted from, -1 if unknown
+         */
+        public long getSourceLastModified() {
+            return sourceLastModified;
+        }
+
+        /**
+         * @return encoded section length in bytes
+         */
+        public int getLength() {
+            return length;
+        }
+    }
+}
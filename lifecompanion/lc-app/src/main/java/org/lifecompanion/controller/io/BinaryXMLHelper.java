@@ -0,0 +1,373 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.*;
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of JDOM element trees, lossless with the XML produced by {@link XMLHelper}.<br>
+ * A binary file contains a section directory followed by independent sections, each one being an encoded element tree : a section can be read without decoding the others (see {@link BinaryXMLFile}).<br>
+ * Each section starts with a string table (element names, attribute names and string values are written once),
+ * then the element tree, where attribute values are typed : int, double and boolean values are written in binary when converting them back to string gives exactly the same value.<br>
+ * Namespaces are not supported (they are not used in LifeCompanion files).
+ */
+public class BinaryXMLHelper {
+    static final byte[] MAGIC = {'L', 'C', 'B', 'X'};
+    static final int VERSION = 1;
+
+    // Node types
+    private static final byte NODE_ELEMENT = 1, NODE_TEXT = 2, NODE_CDATA = 3, NODE_COMMENT = 4;
+
+    // Attribute value types
+    private static final byte VALUE_STRING = 0, VALUE_INT = 1, VALUE_TRUE = 2, VALUE_FALSE = 3, VALUE_DOUBLE = 4;
+
+    // FILE
+    //========================================================================
+
+    /**
+     * Write a binary file containing the given sections.<br>
+     * File is written to a temp file and then moved to the destination.
+     *
+     * @param path     destination file
+     * @param sections sections to write, by section name
+     */
+    public static void writeFile(File path, Map<String, Section> sections) throws IOException {
+        // Encode every section first to know section offsets
+        List<byte[]> encodedSections = new ArrayList<>();
+        for (Section section : sections.values()) {
+            encodedSections.add(encode(section.getElement()));
+        }
+        ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+        DataOutputStream directory = new DataOutputStream(directoryBytes);
+        int sectionIndex = 0;
+        // Offset is computed relative to the end of the directory
+        long offset = 0;
+        writeVarInt(directory, sections.size());
+        for (Map.Entry<String, Section> entry : sections.entrySet()) {
+            directory.writeUTF(entry.getKey());
+            directory.writeLong(entry.getValue().getSourceLength());
+            directory.writeLong(entry.getValue().getSourceLastModified());
+            directory.writeLong(offset);
+            directory.writeInt(encodedSections.get(sectionIndex).length);
+            offset += encodedSections.get(sectionIndex++).length;
+        }
+        directory.flush();
+
+        IOUtils.createParentDirectoryIfNeeded(path);
+        File tempFile = new File(path.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos));
+            dos.write(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(directoryBytes.size());
+            directoryBytes.writeTo(dos);
+            for (byte[] encodedSection : encodedSections) {
+                dos.write(encodedSection);
+            }
+            dos.flush();
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(tempFile.toPath(), path.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), path.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A section to write : the element tree and information about the XML file it comes from (to detect if the binary section is outdated)
+     */
+    public static class Section {
+        private final Element element;
+        private final long sourceLength;
+        private final long sourceLastModified;
+
+        public Section(Element element, long sourceLength, long sourceLastModified) {
+            this.element = element;
+            this.sourceLength = sourceLength;
+            this.sourceLastModified = sourceLastModified;
+        }
+
+        public Section(Element element) {
+            this(element, -1, -1);
+        }
+
+        public Element getElement() {
+            return element;
+        }
+
+        public long getSourceLength() {
+            return sourceLength;
+        }
+
+        public long getSourceLastModified() {
+            return sourceLastModified;
+        }
+    }
+    //========================================================================
+
+    // ENCODE
+    //========================================================================
+    public static byte[] encode(Element element) throws IOException {
+        Map<String, Integer> stringTable = new LinkedHashMap<>();
+        collectStrings(element, stringTable);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(8192);
+        DataOutputStream dos = new DataOutputStream(baos);
+        writeVarInt(dos, stringTable.size());
+        for (String value : stringTable.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(dos, bytes.length);
+            dos.write(bytes);
+        }
+        writeElement(dos, element, stringTable);
+        dos.flush();
+        return baos.toByteArray();
+    }
+
+    private static void collectStrings(Element element, Map<String, Integer> stringTable) {
+        checkNoNamespace(element.getNamespace());
+        addString(element.getName(), stringTable);
+        for (Attribute attribute : element.getAttributes()) {
+            checkNoNamespace(attribute.getNamespace());
+            addString(attribute.getName(), stringTable);
+            if (getValueType(attribute.getValue()) == VALUE_STRING) {
+                addString(attribute.getValue(), stringTable);
+            }
+        }
+        for (Content content : element.getContent()) {
+            if (content instanceof Element) {
+                collectStrings((Element) content, stringTable);
+            } else if (content instanceof Text || content instanceof Comment) {
+                addString(content.getValue(), stringTable);
+            }
+        }
+    }
+
+    private static void addString(String value, Map<String, Integer> stringTable) {
+        stringTable.putIfAbsent(value, stringTable.size());
+    }
+
+    private static void checkNoNamespace(Namespace namespace) {
+        if (namespace != null && namespace != Namespace.NO_NAMESPACE) {
+            throw new IllegalArgumentException("Namespaces are not supported in binary XML (found " + namespace.getURI() + ")");
+        }
+    }
+
+    private static void writeElement(DataOutputStream dos, Element element, Map<String, Integer> stringTable) throws IOException {
+        dos.writeByte(NODE_ELEMENT);
+        writeVarInt(dos, stringTable.get(element.getName()));
+        List<Attribute> attributes = element.getAttributes();
+        writeVarInt(dos, attributes.size());
+        for (Attribute attribute : attributes) {
+            writeVarInt(dos, stringTable.get(attribute.getName()));
+            String value = attribute.getValue();
+            byte valueType = getValueType(value);
+            dos.writeByte(valueType);
+            if (valueType == VALUE_STRING) {
+                writeVarInt(dos, stringTable.get(value));
+            } else if (valueType == VALUE_INT) {
+                writeVarInt(dos, zigZag(Integer.parseInt(value)));
+            } else if (valueType == VALUE_DOUBLE) {
+                dos.writeDouble(Double.parseDouble(value));
+            }
+        }
+        List<Content> contents = element.getContent();
+        int contentCount = 0;
+        for (Content content : contents) {
+            if (isEncoded(content)) contentCount++;
+        }
+        writeVarInt(dos, contentCount);
+        for (Content content : contents) {
+            if (content instanceof Element) {
+                writeElement(dos, (Element) content, stringTable);
+            } else if (content instanceof CDATA) {
+                dos.writeByte(NODE_CDATA);
+                writeVarInt(dos, stringTable.get(content.getValue()));
+            } else if (content instanceof Text) {
+                dos.writeByte(NODE_TEXT);
+                writeVarInt(dos, stringTable.get(content.getValue()));
+            } else if (content instanceof Comment) {
+                dos.writeByte(NODE_COMMENT);
+                writeVarInt(dos, stringTable.get(content.getValue()));
+            }
+        }
+    }
+
+    private static boolean isEncoded(Content content) {
+        return content instanceof Element || content instanceof Text || content instanceof Comment;
+    }
+
+    /**
+     * Typed value only when the string representation is exactly the one Java would produce : decoding will give back the same string.
+     */
+    static byte getValueType(String value) {
+        int length = value.length();
+        if (length == 0 || length > 24) {
+            return VALUE_STRING;
+        }
+        if ("true".equals(value)) return VALUE_TRUE;
+        if ("false".equals(value)) return VALUE_FALSE;
+        char first = value.charAt(0);
+        if ((first >= '0' && first <= '9') || first == '-') {
+            boolean decimal = false;
+            for (int i = 1; i < length; i++) {
+                char c = value.charAt(i);
+                if (c == '.' || c == 'E') {
+                    decimal = true;
+                } else if (!((c >= '0' && c <= '9') || c == '-')) {
+                    return VALUE_STRING;
+                }
+            }
+            try {
+                if (!decimal) {
+                    return Integer.toString(Integer.parseInt(value)).equals(value) ? VALUE_INT : VALUE_STRING;
+                } else {
+                    return Double.toString(Double.parseDouble(value)).equals(value) ? VALUE_DOUBLE : VALUE_STRING;
+                }
+            } catch (NumberFormatException e) {
+                return VALUE_STRING;
+            }
+        }
+        return VALUE_STRING;
+    }
+    //========================================================================
+
+    // DECODE
+    //========================================================================
+    public static Element decode(byte[] data) throws IOException {
+        return decode(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    static Element decode(DataInputStream dis) throws IOException {
+        int stringCount = readVarInt(dis);
+        String[] strings = new String[stringCount];
+        byte[] buffer = new byte[256];
+        for (int i = 0; i < stringCount; i++) {
+            int length = readVarInt(dis);
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            dis.readFully(buffer, 0, length);
+            strings[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+        if (dis.readByte() != NODE_ELEMENT) {
+            throw new IOException("Invalid binary XML : root should be an element");
+        }
+        return readElement(dis, strings);
+    }
+
+    private static Element readElement(DataInputStream dis, String[] strings) throws IOException {
+        Element element = new Element(strings[readVarInt(dis)]);
+        int attributeCount = readVarInt(dis);
+        for (int i = 0; i < attributeCount; i++) {
+            String name = strings[readVarInt(dis)];
+            byte valueType = dis.readByte();
+            String value;
+            switch (valueType) {
+                case VALUE_STRING:
+                    value = strings[readVarInt(dis)];
+                    break;
+                case VALUE_INT:
+                    value = Integer.toString(unZigZag(readVarInt(dis)));
+                    break;
+                case VALUE_TRUE:
+                    value = "true";
+                    break;
+                case VALUE_FALSE:
+                    value = "false";
+                    break;
+                case VALUE_DOUBLE:
+                    value = Double.toString(dis.readDouble());
+                    break;
+                default:
+                    throw new IOException("Invalid binary XML : unknown attribute value type " + valueType);
+            }
+            element.setAttribute(name, value);
+        }
+        int contentCount = readVarInt(dis);
+        for (int i = 0; i < contentCount; i++) {
+            byte nodeType = dis.readByte();
+            switch (nodeType) {
+                case NODE_ELEMENT:
+                    element.addContent(readElement(dis, strings));
+                    break;
+                case NODE_TEXT:
+                    element.addContent(new Text(strings[readVarInt(dis)]));
+                    break;
+                case NODE_CDATA:
+                    element.addContent(new CDATA(strings[readVarInt(dis)]));
+                    break;
+                case NODE_COMMENT:
+                    element.addContent(new Comment(strings[readVarInt(dis)]));
+                    break;
+                default:
+                    throw new IOException("Invalid binary XML : unknown node type " + nodeType);
+            }
+        }
+        return element;
+    }
+    //========================================================================
+
+    // UTILS
+    //========================================================================
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 28) {
+                throw new IOException("Invalid binary XML : malformed var int");
+            }
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    //========================================================================
+}
@@ -31,13 +31,18 @@ import org.lifecompanion.model.impl.configurationcomponent.GridPartKeyComponent;
 import org.lifecompanion.model.impl.configurationcomponent.dynamickey.KeyListLeaf;
 import org.lifecompanion.model.impl.configurationcomponent.dynamickey.KeyListNode;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.impl.io.IOContext;
+import org.lifecompanion.model.impl.io.InstantiationMetric;
 import org.lifecompanion.model.impl.plugin.PluginInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
@@ -68,6 +73,21 @@ public class ConfigurationComponentIOHelper {
      */
     private static Map<Class<?>, String> optimizedTypeAlias;
 
+    /**
+     * Factories explicitly registered for a type (see {@link #registerFactory(Class, Supplier)})
+     */
+    private static final Map<Class<?>, Supplier<?>> registeredFactories = new ConcurrentHashMap<>();
+
+    /**
+     * Resolved factories for a type name found in XML (alias, simple name or backward compatible class name).<br>
+     * Filled on first creation of each type name, avoid class lookup and reflection on each created element.
+     */
+    private static final Map<String, TypeFactory> factoryForTypeName = new ConcurrentHashMap<>();
+
+    /**
+     * Resolved factories for a type (used when copying components, see {@link #createInstance(Class)})
+     */
+    private static final Map<Class<?>, TypeFactory> factoryForType = new ConcurrentHashMap<>();
 
     /**
      * Create the base serialize object from a xml serialized component.<br>
@@ -92,9 +112,7 @@ public class ConfigurationComponentIOHelper {
             }
             // Normal situation, no plugin or plugin is loaded
             else {
-                Class<XMLSerializable<IOContextI>> loadedClass = getClassForName(className);
-                XMLSerializable<IOContextI> createdObject = loadedClass.getDeclaredConstructor().newInstance();
-                return Pair.of(false, createdObject);
+                return Pair.of(false, getFactory(className).create(ioContext));
             }
         } catch (Throwable t) {
             // Unknown error on loading
@@ -107,6 +125,111 @@ public class ConfigurationComponentIOHelper {
         }
     }
 
+    // FACTORIES
+    //========================================================================
+
+    /**
+     * Register a factory to create instances of a serializable type on loading.<br>
+     * Can be used by plugins to avoid reflective instantiation for their types : when no factory is registered, instance are created with the no arg constructor.
+     *
+     * @param type    the serializable type
+     * @param factory the factory to create new instances
+     */
+    public static <T extends XMLSerializable<?>> void registerFactory(Class<T> type, Supplier<? extends T> factory) {
+        registeredFactories.put(type, factory);
+        factoryForTypeName.clear();
+        factoryForType.clear();
+    }
+
+    /**
+     * Create a new instance of the given type, with the same factory used when loading the type from XML.
+     *
+     * @param type the type to create
+     * @return the new instance
+     * @throws LCException if the instance can't be created
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T createInstance(Class<T> type) throws LCException {
+        try {
+            return (T) getFactory(type).create(null);
+        } catch (Throwable t) {
+            throw LCException.newException().withMessage("error.io.manager.xml.element.read", type.getSimpleName(), "").withCause(t).build();
+        }
+    }
+
+    private static TypeFactory getFactory(String className) throws Exception {
+        TypeFactory typeFactory = factoryForTypeName.get(className);
+        if (typeFactory == null) {
+            typeFactory = getFactory(getClassForName(className));
+            factoryForTypeName.put(className, typeFactory);
+        }
+        return typeFactory;
+    }
+
+    private static TypeFactory getFactory(Class<?> type) throws Exception {
+        TypeFactory typeFactory = factoryForType.get(type);
+        if (typeFactory == null) {
+            typeFactory = new TypeFactory(type, createFactory(type));
+            TypeFactory previous = factoryForType.putIfAbsent(type, typeFactory);
+            typeFactory = previous != null ? previous : typeFactory;
+        }
+        return typeFactory;
+    }
+
+    private static Supplier<?> createFactory(Class<?> type) throws Exception {
+        Supplier<?> registeredFactory = registeredFactories.get(type);
+        if (registeredFactory != null) {
+            return registeredFactory;
+        }
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        MethodHandle constructorHandle = MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return constructorHandle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Couldn't create a new instance of " + type.getName(), t);
+            }
+        };
+    }
+
+    private static class TypeFactory {
+        private final Class<?> type;
+        private final Supplier<?> factory;
+
+        private TypeFactory(Class<?> type, Supplier<?> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+
+        /**
+         * @param ioContext context to report instantiation to (when loading), can be null
+         */
+        @SuppressWarnings("unchecked")
+        XMLSerializable<IOContextI> create(IOContextI ioContext) {
+            long start = System.nanoTime();
+            XMLSerializable<IOContextI> created = (XMLSerializable<IOContextI>) factory.get();
+            if (ioContext != null) {
+                ioContext.instanceCreated(type, System.nanoTime() - start);
+            }
+            return created;
+        }
+    }
+    //========================================================================
+
+    // METRICS
+    //========================================================================
+    public static String getInstantiationReport(IOContext ioContext) {
+        StringBuilder report = new StringBuilder("Instantiated types");
+        for (InstantiationMetric metric : ioContext.getInstantiationMetrics()) {
+            report.append(String.format("\n\t%-40s %8d instances %10.2f ms", metric.getType().getSimpleName(), metric.getCount(), metric.getTotalNanos() / 1_000_000.0));
+        }
+        return report.toString();
+    }
+    //========================================================================
+
     /**
      * Set the base element on a XML serializable object to be deserialized
      *
@@ -144,6 +267,10 @@ public class ConfigurationComponentIOHelper {
             getOptimizedTypeAlias().forEach((type, name) -> {
                 typeAlias.put(name, Pair.of(type, null));
             });
+            // Most created types : avoid reflection even on first creation
+            registerFactory(GridPartKeyComponent.class, GridPartKeyComponent::new);
+            registerFactory(KeyListLeaf.class, KeyListLeaf::new);
+            registerFactory(KeyListNode.class, KeyListNode::new);
         }
     }
 
@@ -175,6 +302,8 @@ public class ConfigurationComponentIOHelper {
                 LOGGER.error("Found two types with the same name : {} / {} and {}", typeName, previous.getLeft().getName(), type.getName());
             }
         }
+        // Type names can now be resolved to other types
+        factoryForTypeName.clear();
     }
 
     // FIXME : change method names
@@ -0,0 +1,114 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.lifecompanion.controller.io;
+
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.impl.constant.LCConstant;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Keep track of the configuration sections unchanged since the configuration was loaded from/saved to a directory, so their serialization can be skipped on next save.<br>
+ * Key list and sequences are only changed by replacing their root (see {@link LCConfigurationI#rootKeyListNodeProperty()} and {@link LCConfigurationI#userActionSequencesProperty()}) :
+ * a section is unchanged while its root is the same instance than the loaded/saved one.<br>
+ * The configuration section itself is not tracked (every change on the configuration tree is not reported as an unsaved action) : it is always serialized.
+ */
+public class ConfigurationSectionTracker {
+
+    public enum Section {
+        KEY_LIST(LCConstant.CONFIGURATION_KEYLIST_DIRECTORY + File.separator + LCConstant.KEYLIST_XML_NAME, configuration -> configuration.rootKeyListNodeProperty().get()),
+        SEQUENCES(LCConstant.CONFIGURATION_SEQUENCE_DIRECTORY + File.separator + LCConstant.SEQUENCE_XML_NAME, configuration -> configuration.userActionSequencesProperty().get());
+
+        private final String xmlPath;
+        private final Function<LCConfigurationI, Object> rootGetter;
+
+        Section(String xmlPath, Function<LCConfigurationI, Object> rootGetter) {
+            this.xmlPath = xmlPath;
+            this.rootGetter = rootGetter;
+        }
+    }
+
+    /**
+     * Saved sections for each configuration (weak : sections are only tracked while the configuration is used)
+     */
+    private static final Map<LCConfigurationI, SavedSections> SAVED_SECTIONS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @return the current root of each section, to give to {@link #isUnchanged(LCConfigurationI, File, Map, Section)} and {@link #markSaved(LCConfigurationI, File, Map)}
+     */
+    public static Map<Section, Object> getSectionRoots(LCConfigurationI configuration) {
+        Map<Section, Object> roots = new EnumMap<>(Section.class);
+        for (Section section : Section.values()) {
+            roots.put(section, section.rootGetter.apply(configuration));
+        }
+        return roots;
+    }
+
+    /**
+     * @param configuration the saved configuration
+     * @param directory     the directory where configuration is saved
+     * @param sectionRoots  the section roots to save (from {@link #getSectionRoots(LCConfigurationI)})
+     * @param section       the section to check
+     * @return true if the section was loaded from/saved to the same directory with the same root, and its XML file still exists
+     */
+    public static boolean isUnchanged(LCConfigurationI configuration, File directory, Map<Section, Object> sectionRoots, Section section) {
+        SavedSections savedSections = SAVED_SECTIONS.get(configuration);
+        if (savedSections == null || !savedSections.directory.equals(normalize(directory))) {
+            return false;
+        }
+        WeakReference<Object> savedRoot = savedSections.roots.get(section);
+        Object root = sectionRoots.get(section);
+        return root != null && savedRoot != null && savedRoot.get() == root && new File(directory, section.xmlPath).exists();
+    }
+
+    /**
+     * Should be called once the configuration was saved to the directory (with the given section roots)
+     */
+    public static void markSaved(LCConfigurationI configuration, File directory, Map<Section, Object> sectionRoots) {
+        Map<Section, WeakReference<Object>> roots = new EnumMap<>(Section.class);
+        sectionRoots.forEach((section, root) -> roots.put(section, new WeakReference<>(root)));
+        SAVED_SECTIONS.put(configuration, new SavedSections(normalize(directory), roots));
+    }
+
+    /**
+     * Should be called once the configuration was loaded from the directory
+     */
+    public static void markLoaded(LCConfigurationI configuration, File directory) {
+        markSaved(configuration, directory, getSectionRoots(configuration));
+    }
+
+    private static File normalize(File directory) {
+        return directory.getAbsoluteFile().toPath().normalize().toFile();
+    }
+
+    private static class SavedSections {
+        private final File directory;
+        private final Map<Section, WeakReference<Object>> roots;
+
+        private SavedSections(File directory, Map<Section, WeakReference<Object>> roots) {
+            this.directory = directory;
+            this.roots = roots;
+        }
+    }
+}
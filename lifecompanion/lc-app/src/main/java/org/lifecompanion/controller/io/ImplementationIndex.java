@@ -0,0 +1,147 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.lifecompanion.controller.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Index of implementations per interface, generated on build (by lc-implementation-index Gradle plugin) and stored in app/plugin jars.<br>
+ * Allow to find use actions, events, serializable types... without scanning classes on each startup or plugin loading.<br>
+ * Index is a properties file where key is the interface name and value the comma separated list of concrete implementation names.
+ */
+public class ImplementationIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImplementationIndex.class);
+
+    public static final String INDEX_PATH = "META-INF/lifecompanion/implementation-index.properties";
+
+    private final Map<String, List<String>> implementationsByType;
+
+    private ImplementationIndex(Map<String, List<String>> implementationsByType) {
+        this.implementationsByType = implementationsByType;
+    }
+
+    /**
+     * @param typeName interface name
+     * @return the implementation names for the interface (empty if there is no implementation)
+     */
+    public List<String> getImplementationNames(String typeName) {
+        return implementationsByType.getOrDefault(typeName, Collections.emptyList());
+    }
+
+    /**
+     * Load every implementation of a type found in this index.<br>
+     * Classes are not initialized (as ClassGraph does).
+     *
+     * @param type        the implemented type
+     * @param classLoader class loader to load implementations
+     * @return loaded implementations
+     * @throws ClassNotFoundException if an implementation in index doesn't exist (index is outdated)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<Class<? extends T>> loadImplementations(Class<T> type, ClassLoader classLoader) throws ClassNotFoundException {
+        List<String> names = getImplementationNames(type.getName());
+        List<Class<? extends T>> classes = new ArrayList<>(names.size());
+        for (String name : names) {
+            classes.add((Class<? extends T>) Class.forName(name, false, classLoader));
+        }
+        return classes;
+    }
+
+    public int getIndexedTypeCount() {
+        return implementationsByType.size();
+    }
+
+    /**
+     * @param packageNames package names
+     * @return true if at least one implementation in this index is in the given packages (or in their sub packages)
+     */
+    public boolean containsImplementationsIn(String... packageNames) {
+        for (List<String> implementationNames : implementationsByType.values()) {
+            for (String implementationName : implementationNames) {
+                for (String packageName : packageNames) {
+                    if (implementationName.startsWith(packageName.trim() + ".")) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // READ
+    //========================================================================
+    private static volatile Optional<ImplementationIndex> appIndex;
+
+    /**
+     * @return the index built with LifeCompanion app, or null if the app was not built with it (e.g. when launched from IDE)
+     */
+    public static ImplementationIndex getAppIndex() {
+        if (appIndex == null) {
+            ImplementationIndex index = null;
+            try (InputStream is = ImplementationIndex.class.getResourceAsStream("/" + INDEX_PATH)) {
+                if (is != null) {
+                    index = read(is);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Couldn't read app implementation index, classes will be scanned", e);
+            }
+            appIndex = Optional.ofNullable(index);
+        }
+        return appIndex.orElse(null);
+    }
+
+    /**
+     * @param jarFile a plugin jar
+     * @return the index in the given jar, or null if the jar doesn't contains any index (or if it can't be read)
+     */
+    public static ImplementationIndex readFromJar(File jarFile) {
+        try (JarFile jar = new JarFile(jarFile)) {
+            ZipEntry entry = jar.getEntry(INDEX_PATH);
+            if (entry != null) {
+                try (InputStream is = jar.getInputStream(entry)) {
+                    return read(is);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't read implementation index in {}, classes will be scanned", jarFile, e);
+        }
+        return null;
+    }
+
+    public static ImplementationIndex read(InputStream is) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(is, StandardCharsets.UTF_8));
+        Map<String, List<String>> implementationsByType = new HashMap<>();
+        for (String typeName : properties.stringPropertyNames()) {
+            String value = properties.getProperty(typeName).trim();
+            implementationsByType.put(typeName, value.isEmpty() ? Collections.emptyList() : Arrays.asList(value.split(",")));
+        }
+        return new ImplementationIndex(implementationsByType);
+    }
+    //========================================================================
+}
@@ -32,7 +32,29 @@ public class ReflectionHelper {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReflectionHelper.class);
 
 
+    /**
+     * Find the implementations of a type in LifeCompanion app.<br>
+     * Use the implementation index generated on build if present, or scan the app module classes.
+     *
+     * @param type the implemented type
+     * @return every concrete implementation
+     */
     public static <T> List<Class<? extends T>> findImplementationsInModules(Class<T> type) {
+        ImplementationIndex appIndex = ImplementationIndex.getAppIndex();
+        if (appIndex != null) {
+            long start = System.currentTimeMillis();
+            try {
+                List<Class<? extends T>> classes = appIndex.loadImplementations(type, type.getClassLoader());
+                LOGGER.info("{} implementations loaded from index in {} ms, found {} types", type.getName(), System.currentTimeMillis() - start, classes.size());
+                return classes;
+            } catch (Throwable t) {
+                LOGGER.warn("Couldn't load {} implementations from index, will scan classes", type.getName(), t);
+            }
+        }
+        return scanImplementationsInModules(type);
+    }
+
+    public static <T> List<Class<? extends T>> scanImplementationsInModules(Class<T> type) {
         long start = System.currentTimeMillis();
         try (ScanResult scanResult = new ClassGraph()
                 .enableClassInfo()
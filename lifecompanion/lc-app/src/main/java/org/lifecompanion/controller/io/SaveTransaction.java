@@ -0,0 +1,375 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.Element;
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Group every file written/deleted while saving a directory (configuration, profile...) so the directory is always either in its previous or in its new state.<br>
+ * Files are first written to a staging directory (and synced to disk), then a journal listing every change is written and renamed : this rename is the commit point.
+ * Staged files are then moved to their final path and deleted files are removed.<br>
+ * If the save is interrupted (crash, power loss...), {@link #recoverIfNeeded(File)} should be called before reading the directory :
+ * without journal, staged files are just ignored, with a journal, changes are applied again (moves and deletions can be applied twice).
+ * When nothing was interrupted, recovery only checks that the journal and the staging directory don't exist.<br>
+ * Only one transaction can be running on a directory : {@link #begin(File)} waits for the running one to end, and recovery is skipped while a transaction is running
+ * (its staging directory is not abandoned). Each transaction stages its files in its own sub directory of {@link #STAGING_DIRECTORY}.
+ */
+public class SaveTransaction {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaveTransaction.class);
+
+    public static final String STAGING_DIRECTORY = ".lc-save-staging";
+    public static final String JOURNAL_NAME = ".lc-save-journal";
+
+    private static final String JOURNAL_STAGING = "S";
+    private static final String JOURNAL_MOVE = "M";
+    private static final String JOURNAL_DELETE = "D";
+    private static final String JOURNAL_SEPARATOR = "\t";
+
+    /**
+     * Called on each step of save and recovery, to simulate crashes in tests
+     */
+    static volatile FaultInjector faultInjector;
+
+    /**
+     * Lock for each directory, acquired while a transaction is running on it.<br>
+     * A transaction is only released on commit/rollback (not released when the process is stopped : nothing is running on next start)
+     */
+    private static final Map<File, Semaphore> DIRECTORY_LOCKS = new ConcurrentHashMap<>();
+
+    private final File directory;
+    private final Semaphore directoryLock;
+    private final String stagingName;
+    private final File stagingDirectory;
+    private final Map<String, String> stagedFiles;
+    private final Set<String> deletedFiles;
+    private boolean ended;
+    private boolean released;
+
+    private SaveTransaction(File directory, Semaphore directoryLock) {
+        this.directory = directory;
+        this.directoryLock = directoryLock;
+        this.stagingName = UUID.randomUUID().toString();
+        this.stagingDirectory = new File(new File(directory, STAGING_DIRECTORY), stagingName);
+        this.stagedFiles = new LinkedHashMap<>();
+        this.deletedFiles = new LinkedHashSet<>();
+    }
+
+    /**
+     * Start a new transaction on the given directory.<br>
+     * If another transaction is running on the same directory, waits for it to be committed or rolled back.
+     * A previously interrupted save in the same directory is then recovered.
+     *
+     * @param directory the directory where every saved file is located (can be in sub directories)
+     * @return the started transaction
+     * @throws IOException if the staging directory can't be created, or if the thread is interrupted while waiting for the running transaction
+     */
+    public static SaveTransaction begin(File directory) throws IOException {
+        Semaphore directoryLock = getDirectoryLock(directory);
+        try {
+            directoryLock.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the running save transaction on " + directory);
+        }
+        SaveTransaction transaction = new SaveTransaction(directory, directoryLock);
+        try {
+            recover(directory);
+            if (!transaction.stagingDirectory.mkdirs() && !transaction.stagingDirectory.isDirectory()) {
+                throw new IOException("Couldn't create save staging directory " + transaction.stagingDirectory);
+            }
+        } catch (Throwable t) {
+            transaction.release();
+            throw t;
+        }
+        return transaction;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    // CHANGES
+    //========================================================================
+
+    /**
+     * Stage the element to be written to the target file, only if the target file doesn't already contain the same XML.
+     *
+     * @return true if the file will be written, false if it is already up to date
+     */
+    public boolean writeXmlIfChanged(File target, Element element) throws IOException {
+        byte[] content = XMLHelper.toXmlBytes(element);
+        if (!stagedFiles.containsKey(getRelativePath(target)) && XMLHelper.isFileContentEqual(target, content)) {
+            return false;
+        }
+        File stagedFile = stage(target);
+        try (FileOutputStream fos = new FileOutputStream(stagedFile)) {
+            fos.write(content);
+            fos.getFD().sync();
+        }
+        fault("stage");
+        return true;
+    }
+
+    /**
+     * Stage a copy of the source file to be written to the target file.
+     */
+    public void copyFile(File source, File target) throws IOException {
+        File stagedFile = stage(target);
+        try (FileOutputStream fos = new FileOutputStream(stagedFile)) {
+            try (FileInputStream fis = new FileInputStream(source)) {
+                IOUtils.copyStream(fis, fos);
+            }
+            fos.getFD().sync();
+        }
+        fault("stage");
+    }
+
+    /**
+     * Delete the target file when the transaction is committed
+     */
+    public void delete(File target) {
+        String relativePath = getRelativePath(target);
+        if (!stagedFiles.containsKey(relativePath)) {
+            deletedFiles.add(relativePath);
+        }
+    }
+
+    /**
+     * @return true if the target file exists or will exist after commit
+     */
+    public boolean exists(File target) {
+        return stagedFiles.containsKey(getRelativePath(target)) || target.exists();
+    }
+
+    private File stage(File target) {
+        checkNotEnded();
+        String relativePath = getRelativePath(target);
+        deletedFiles.remove(relativePath);
+        String stagedName = stagedFiles.computeIfAbsent(relativePath, p -> String.valueOf(stagedFiles.size()));
+        return new File(stagingDirectory, stagedName);
+    }
+
+    private String getRelativePath(File target) {
+        String relativePath = directory.getAbsoluteFile().toPath().normalize().relativize(target.getAbsoluteFile().toPath().normalize()).toString().replace(File.separatorChar, '/');
+        if (relativePath.isEmpty() || relativePath.startsWith("..")) {
+            throw new IllegalArgumentException("Saved file " + target + " is not in transaction directory " + directory);
+        }
+        return relativePath;
+    }
+    //========================================================================
+
+    // COMMIT/ROLLBACK
+    //========================================================================
+
+    /**
+     * Apply every staged change to the directory.<br>
+     * Once the journal is written, changes will be applied even if this method doesn't end (on next {@link #recoverIfNeeded(File)})
+     */
+    public void commit() throws IOException {
+        checkNotEnded();
+        long start = System.currentTimeMillis();
+        File journalTempFile = new File(directory, JOURNAL_NAME + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(journalTempFile)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8));
+            writer.write(JOURNAL_STAGING + JOURNAL_SEPARATOR + stagingName + "\n");
+            for (Map.Entry<String, String> staged : stagedFiles.entrySet()) {
+                writer.write(JOURNAL_MOVE + JOURNAL_SEPARATOR + staged.getValue() + JOURNAL_SEPARATOR + staged.getKey() + "\n");
+            }
+            for (String deleted : deletedFiles) {
+                writer.write(JOURNAL_DELETE + JOURNAL_SEPARATOR + deleted + "\n");
+            }
+            writer.flush();
+            fos.getFD().sync();
+        }
+        fault("journal");
+        move(journalTempFile, new File(directory, JOURNAL_NAME));
+        syncDirectory(directory);
+        ended = true;
+        fault("commit");
+        replayJournal(directory);
+        release();
+        LOGGER.info("Save transaction on {} committed in {} ms ({} written, {} deleted)", directory, System.currentTimeMillis() - start, stagedFiles.size(), deletedFiles.size());
+    }
+
+    /**
+     * Cancel every staged change.<br>
+     * If the commit point was already reached, the transaction is completed instead (directory is then in its new state).
+     */
+    public void rollback() {
+        if (released) {
+            return;
+        }
+        if (new File(directory, JOURNAL_NAME).exists()) {
+            recover(directory);
+        } else {
+            IOUtils.deleteDirectoryAndChildren(stagingDirectory);
+            new File(directory, JOURNAL_NAME + ".tmp").delete();
+        }
+        ended = true;
+        release();
+    }
+
+    private void checkNotEnded() {
+        if (ended) {
+            throw new IllegalStateException("Save transaction on " + directory + " is already ended");
+        }
+    }
+
+    private void release() {
+        if (!released) {
+            released = true;
+            directoryLock.release();
+        }
+    }
+
+    private static Semaphore getDirectoryLock(File directory) {
+        return DIRECTORY_LOCKS.computeIfAbsent(directory.getAbsoluteFile().toPath().normalize().toFile(), d -> new Semaphore(1));
+    }
+
+    /**
+     * Forget every running transaction, as on a restart after a crash (tests only)
+     */
+    static void clearRunningTransactions() {
+        DIRECTORY_LOCKS.clear();
+    }
+    //========================================================================
+
+    // RECOVERY
+    //========================================================================
+
+    /**
+     * Bring back the directory to a consistent state if a save was interrupted in it.<br>
+     * Cost is constant when there is nothing to recover (two file existence checks).<br>
+     * Nothing is done while a transaction is running on the directory : its files are not from an interrupted save.
+     *
+     * @param directory the directory to check
+     * @return true if an interrupted save was found
+     */
+    public static boolean recoverIfNeeded(File directory) {
+        Semaphore directoryLock = getDirectoryLock(directory);
+        if (!directoryLock.tryAcquire()) {
+            LOGGER.debug("Save transaction running on {}, recovery skipped", directory);
+            return false;
+        }
+        try {
+            return recover(directory);
+        } finally {
+            directoryLock.release();
+        }
+    }
+
+    private static boolean recover(File directory) {
+        File journal = new File(directory, JOURNAL_NAME);
+        File stagingDirectory = new File(directory, STAGING_DIRECTORY);
+        if (journal.exists()) {
+            LOGGER.warn("Found an interrupted save in {}, will complete it", directory);
+            try {
+                replayJournal(directory);
+            } catch (IOException e) {
+                LOGGER.error("Couldn't complete interrupted save in {}", directory, e);
+            }
+            return true;
+        } else if (stagingDirectory.exists()) {
+            LOGGER.warn("Found an interrupted save in {} (before commit), staged files are ignored", directory);
+            IOUtils.deleteDirectoryAndChildren(stagingDirectory);
+            new File(directory, JOURNAL_NAME + ".tmp").delete();
+            return true;
+        }
+        return false;
+    }
+
+    private static void replayJournal(File directory) throws IOException {
+        File journal = new File(directory, JOURNAL_NAME);
+        File stagingRootDirectory = new File(directory, STAGING_DIRECTORY);
+        // Journal without staging name : files are directly in the staging directory
+        File stagingDirectory = stagingRootDirectory;
+        List<String> lines = Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.split(JOURNAL_SEPARATOR);
+            if (JOURNAL_STAGING.equals(parts[0]) && parts.length == 2) {
+                stagingDirectory = new File(stagingRootDirectory, parts[1]);
+            } else if (JOURNAL_MOVE.equals(parts[0]) && parts.length == 3) {
+                // Staged file is missing when it was already moved
+                File stagedFile = new File(stagingDirectory, parts[1]);
+                if (stagedFile.exists()) {
+                    File target = new File(directory, parts[2]);
+                    IOUtils.createParentDirectoryIfNeeded(target);
+                    move(stagedFile, target);
+                    fault("apply");
+                }
+            } else if (JOURNAL_DELETE.equals(parts[0]) && parts.length == 2) {
+                File target = new File(directory, parts[1]);
+                if (target.exists()) {
+                    Files.delete(target.toPath());
+                    fault("delete");
+                }
+            }
+        }
+        Files.delete(journal.toPath());
+        fault("cleanup");
+        IOUtils.deleteDirectoryAndChildren(stagingRootDirectory);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void syncDirectory(File directory) {
+        // Not supported on every system (e.g. Windows) : rename is then synced by the file system itself
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.debug("Couldn't sync directory {}", directory, e);
+        }
+    }
+    //========================================================================
+
+    // FAULT INJECTION
+    //========================================================================
+    private static void fault(String point) throws IOException {
+        FaultInjector injector = faultInjector;
+        if (injector != null) {
+            injector.reached(point);
+        }
+    }
+
+    interface FaultInjector {
+        void reached(String point) throws IOException;
+    }
+    //========================================================================
+}
@@ -22,37 +22,103 @@ package org.lifecompanion.controller.io;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.input.SAXBuilder;
+import org.jdom2.SlimJDOMFactory;
+import org.jdom2.input.StAXStreamBuilder;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 import org.lifecompanion.model.api.io.XMLSerializable;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 
+/**
+ * Read and write XML files used by configurations, profiles, keylists, sequences...<br>
+ * Files are parsed with a StAX stream reader (factory is created once and shared).
+ * When reading, duplicated names and values (attribute names, style values, etc.) are shared between elements (see {@link SlimJDOMFactory}) to reduce the memory needed to load big configurations.
+ */
 public class XMLHelper {
     private static final Format FORMAT = Format
             //            .getPrettyFormat()
             .getCompactFormat()
             .setEncoding(StandardCharsets.UTF_8.name());
 
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
     public static void writeXml(File path, Element element) throws IOException {
+        // Kept with XMLOutputter : StAX writer doesn't escape new lines/tabs in attribute values (they would be lost on next read)
         XMLOutputter xmlOutputter = new XMLOutputter(FORMAT);
         try (OutputStream os = new FileOutputStream(path)) {
             xmlOutputter.output(element, os);// Internally buffered
         }
     }
 
+    /**
+     * Write the element to the given file, only if the file doesn't already contain the same XML.<br>
+     * Comparing with the existing file is faster than writing it again, and keeps file modification date for unchanged files.
+     *
+     * @return true if the file was written, false if it was already up to date
+     */
+    public static boolean writeXmlIfChanged(File path, Element element) throws IOException {
+        byte[] content = toXmlBytes(element);
+        if (isFileContentEqual(path, content)) {
+            return false;
+        }
+        try (OutputStream os = new FileOutputStream(path)) {
+            os.write(content);
+        }
+        return true;
+    }
+
+    public static byte[] toXmlBytes(Element element) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(64 * 1024);
+        new XMLOutputter(FORMAT).output(element, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * @return true if the file exists and has exactly the given content
+     */
+    public static boolean isFileContentEqual(File path, byte[] content) throws IOException {
+        return path.exists() && path.length() == content.length && Arrays.equals(Files.readAllBytes(path.toPath()), content);
+    }
+
     public static String toXmlString(Element element) {
         XMLOutputter xmlOutputter = new XMLOutputter(FORMAT);
         return xmlOutputter.outputString(element);
     }
 
+    /**
+     * Read the whole XML file as a JDOM tree.<br>
+     * Large sections are not streamed : every {@link XMLSerializable} deserializes from a JDOM element, so the tree is always fully built.
+     * StAX is only used to build it with less memory and time than with a SAX builder.
+     *
+     * @param path the XML file to read
+     * @return the root element of the file
+     */
     public static Element readXml(File path) throws IOException, JDOMException {
-        SAXBuilder saxBuilder = new SAXBuilder();
-        try (BufferedReader is = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
-            Document doc = saxBuilder.build(is);
-            return doc.getRootElement();
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            XMLStreamReader xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+            try {
+                StAXStreamBuilder builder = new StAXStreamBuilder();
+                builder.setFactory(new SlimJDOMFactory());
+                return builder.build(xmlStreamReader).getRootElement();
+            } finally {
+                xmlStreamReader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new JDOMException("Couldn't read XML from " + path, e);
         }
     }
 
@@ -19,7 +19,11 @@
 package org.lifecompanion.controller.io.task;
 
 import org.jdom2.Element;
+import org.lifecompanion.controller.io.BinaryConfigurationHelper;
+import org.lifecompanion.controller.io.ConfigurationComponentIOHelper;
+import org.lifecompanion.controller.io.ConfigurationSectionTracker;
 import org.lifecompanion.controller.io.IOHelper;
+import org.lifecompanion.controller.io.SaveTransaction;
 import org.lifecompanion.controller.io.XMLHelper;
 import org.lifecompanion.controller.media.VideoPlayerController;
 import org.lifecompanion.model.api.profile.LCConfigurationDescriptionI;
@@ -85,6 +89,7 @@ public abstract class AbstractLoadUtilsTask<T> extends LCTask<T> {
         // Load sequences
         final UserActionSequencesI sequences = ThreadUtils.executeInCurrentThread(IOHelper.createLoadSequenceTask(directory));
         config.userActionSequencesProperty().set(sequences);
+        ConfigurationSectionTracker.markLoaded(config, directory);
 
         AbstractLoadUtilsTask.LOGGER.info("Configuration successfully loaded from {}", directory);
         if (configurationDescription != null) {
@@ -101,6 +106,7 @@ public abstract class AbstractLoadUtilsTask<T> extends LCTask<T> {
             throws Exception {
         updateProgress(progress, 0.0, 3.0);
         AbstractLoadUtilsTask.LOGGER.info("A element will be loaded from {}", directory);
+        SaveTransaction.recoverIfNeeded(directory);
         //Load images
         IOContext ioContext = new IOContext(directory);
         File imageDirectory = new File(directory.getPath() + File.separator + LCConstant.CONFIGURATION_IMAGE_DIRECTORY + File.separator);
@@ -109,6 +115,7 @@ public abstract class AbstractLoadUtilsTask<T> extends LCTask<T> {
             for (File imagePath : imagePaths) {
                 loadImage(imagePath, ioContext);
             }
+            ImageDictionaries.INSTANCE.saveImageMetadataIndexIfNeeded();
         }
         loadVideos(directory, ioContext);
         updateProgress(progress, 1.0, 3.0);
@@ -116,10 +123,16 @@ public abstract class AbstractLoadUtilsTask<T> extends LCTask<T> {
         AbstractLoadUtilsTask.LOGGER.info("Loaded {} resources", ioContext.getIOResource().size());
         updateProgress(progress, 2.0, 3.0);
 
-        //Load xml
+        //Load xml (or its binary version if enabled)
         long start = System.currentTimeMillis();
-        XMLHelper.loadXMLSerializable(new File(directory.getPath() + File.separator + xmlName), element, ioContext);
-        LOGGER.info("Loading took {} ms", (System.currentTimeMillis() - start));
+        Element binaryElement = BinaryConfigurationHelper.isEnabled() ? BinaryConfigurationHelper.readElementIfUpToDate(directory, xmlName) : null;
+        if (binaryElement != null) {
+            element.deserialize(binaryElement, ioContext);
+        } else {
+            XMLHelper.loadXMLSerializable(new File(directory.getPath() + File.separator + xmlName), element, ioContext);
+        }
+        LOGGER.info("Loading took {} ms (from binary : {})", (System.currentTimeMillis() - start), binaryElement != null);
+        LOGGER.info(ConfigurationComponentIOHelper.getInstantiationReport(ioContext));
         updateProgress(progress, 3.0, 3.0);
     }
 
@@ -184,6 +197,7 @@ public abstract class AbstractLoadUtilsTask<T> extends LCTask<T> {
     //========================================================================
     protected LCConfigurationDescriptionI loadDescription(final File directory) throws Exception {
         this.updateProgress(0, 1);
+        SaveTransaction.recoverIfNeeded(directory);
         //Try to load XML
         File configDescriptionXMLPath = new File(directory.getPath() + File.separator + LCConstant.CONFIGURATION_DESCRIPTION_XML_NAME);
         if (configDescriptionXMLPath.exists()) {
@@ -19,6 +19,7 @@
 package org.lifecompanion.controller.io.task;
 
 import org.jdom2.Element;
+import org.lifecompanion.controller.io.SaveTransaction;
 import org.lifecompanion.controller.io.XMLHelper;
 import org.lifecompanion.model.api.profile.LCConfigurationDescriptionI;
 import org.lifecompanion.model.api.profile.LCProfileI;
@@ -54,6 +55,7 @@ public abstract class AbstractProfileLoadUtilsTask<T> extends LCTask<T> {
 
     protected LCProfileI loadProfileDescription(final File directory) throws Exception {
         //Load the profile XML
+        SaveTransaction.recoverIfNeeded(directory);
         LCProfile profile = XMLHelper.loadXMLSerializable(new File(directory.getPath() + File.separator + LCConstant.PROFILE_XML_NAME), new LCProfile(), new ProfileIOContext(directory, false));
 
         // Count configuration number
@@ -72,6 +74,7 @@ public abstract class AbstractProfileLoadUtilsTask<T> extends LCTask<T> {
 
     protected LCProfileI loadFullProfileAndConfigurationDescription(final File directory, LCProfileI profile, boolean runChangesOnFXThread) throws Exception {
         //Load the profile XML with the full loading flag
+        SaveTransaction.recoverIfNeeded(directory);
         final Element profileElement = XMLHelper.readXml(new File(directory.getPath() + File.separator + LCConstant.PROFILE_XML_NAME));
         final Runnable deserializeProfileInfo = () -> {
             try {
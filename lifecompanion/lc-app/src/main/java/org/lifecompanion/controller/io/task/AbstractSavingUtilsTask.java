@@ -19,7 +19,7 @@
 package org.lifecompanion.controller.io.task;
 
 import org.jdom2.Element;
-import org.lifecompanion.controller.io.XMLHelper;
+import org.lifecompanion.controller.io.SaveTransaction;
 import org.lifecompanion.model.api.configurationcomponent.VideoElementI;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
 import org.lifecompanion.model.api.io.IOContextI;
@@ -34,13 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 
 /**
@@ -52,31 +47,86 @@ public abstract class AbstractSavingUtilsTask<T> extends LCTask<T> {
 
     private final static Logger LOGGER = LoggerFactory.getLogger(AbstractSavingUtilsTask.class);
 
+    /**
+     * Report for each saved XML (filled by {@link #saveXmlSerializable(XMLSerializable, File, String)})
+     */
+    private final List<SavedSectionReport> savedSectionReports;
+
+    /**
+     * Transaction shared with other saving tasks (null if this task should use its own)
+     */
+    private SaveTransaction transaction;
+
     protected AbstractSavingUtilsTask(String title) {
         super(title);
+        this.savedSectionReports = new ArrayList<>(2);
+    }
+
+    public List<SavedSectionReport> getSavedSectionReports() {
+        return savedSectionReports;
     }
 
+    /**
+     * Set the transaction where saved files will be written.<br>
+     * The transaction is then not committed by this task : caller is responsible to commit it.
+     *
+     * @param transaction the transaction to use, null to use a separate transaction when saving
+     */
+    public void setTransaction(SaveTransaction transaction) {
+        this.transaction = transaction;
+    }
+
+    /**
+     * Save the element to the given XML file, with its images, videos and resources.<br>
+     * XML file is only written if its content changed (fallback for sections not tracked or changed with the same content), images/videos/resources are only copied when they are not already saved.<br>
+     * Every file is written in a {@link SaveTransaction} : if the save is interrupted, previous files are kept.
+     */
     protected void saveXmlSerializable(final XMLSerializable<IOContextI> element, final File directory, final String xmlName) throws Exception {
+        if (this.transaction != null) {
+            this.saveXmlSerializable(element, directory, xmlName, this.transaction);
+        } else {
+            IOUtils.createParentDirectoryIfNeeded(new File(directory, xmlName));
+            SaveTransaction ownTransaction = SaveTransaction.begin(directory);
+            try {
+                this.saveXmlSerializable(element, directory, xmlName, ownTransaction);
+                ownTransaction.commit();
+            } catch (Throwable t) {
+                ownTransaction.rollback();
+                throw t;
+            }
+        }
+    }
+
+    private void saveXmlSerializable(final XMLSerializable<IOContextI> element, final File directory, final String xmlName, final SaveTransaction transaction) throws Exception {
         File file = new File(directory.getPath() + File.separator + xmlName);
         IOUtils.createParentDirectoryIfNeeded(file);
+        SavedSectionReport report = new SavedSectionReport(xmlName);
         //Save the XML
         IOContext context = new IOContext(directory);
+        long start = System.currentTimeMillis();
+        Element xmlElement = element.serialize(context);
+        report.serializeDuration = System.currentTimeMillis() - start;
         LOGGER.info("XML tree created from the element.");
         this.updateProgress(1, 6);
-        XMLHelper.saveXMLSerializable(file, element, context);
+        start = System.currentTimeMillis();
+        report.xmlWritten = transaction.writeXmlIfChanged(file, xmlElement);
+        report.writeDuration = System.currentTimeMillis() - start;
         this.updateProgress(2, 6);
-        LOGGER.info("XML saved to {}", file);
+        LOGGER.info("XML staged to {} (written : {})", file, report.xmlWritten);
 
-        this.saveImages(directory, context);
-        this.saveVideos(directory, context);
+        start = System.currentTimeMillis();
+        report.copiedImageCount = this.saveImages(directory, context, transaction);
+        report.copiedVideoCount = this.saveVideos(directory, context, transaction);
 
         //Resources
         Map<String, IOResourceI> resources = context.getIOResource();
-        this.saveResources(directory, resources);
+        report.copiedResourceCount = this.saveResources(directory, resources, transaction);
+        report.resourcesDuration = System.currentTimeMillis() - start;
         this.updateProgress(5, 6);
+        savedSectionReports.add(report);
     }
 
-    private void saveImages(final File directory, IOContext context) {
+    private int saveImages(final File directory, IOContext context, SaveTransaction transaction) {
         //Images saving
         File imageDirectory = new File(directory.getPath() + File.separator + LCConstant.CONFIGURATION_IMAGE_DIRECTORY + File.separator);
         if (!imageDirectory.exists()) {
@@ -86,28 +136,31 @@ public abstract class AbstractSavingUtilsTask<T> extends LCTask<T> {
         LOGGER.info("Will save {} images for the element", images.size());
         long start = System.currentTimeMillis();
         HashSet<String> imageIds = new HashSet<>();
+        int copiedImages = 0;
         for (ImageElementI image : images) {
             if (image.shouldSaveImage()) {
-                this.saveImage(imageDirectory, context, image);
+                if (this.saveImage(imageDirectory, image, transaction)) {
+                    copiedImages++;
+                }
                 imageIds.add(image.getId());
             }
         }
         //Clean images
-        int deletedImages = this.cleanUnknownFiles(imageDirectory, imageIds);
-        LOGGER.info("{} images saved and {} images deleted in {} ms", images.size(), deletedImages,
+        int deletedImages = this.cleanUnknownFiles(imageDirectory, imageIds, transaction);
+        LOGGER.info("{} images saved ({} copied) and {} images deleted in {} ms", images.size(), copiedImages, deletedImages,
                 System.currentTimeMillis() - start);
         this.updateProgress(3, 6);
+        return copiedImages;
     }
 
-
-    private int cleanUnknownFiles(final File imageDirectory, final Set<String> imageIds) {
+    private int cleanUnknownFiles(final File imageDirectory, final Set<String> imageIds, SaveTransaction transaction) {
         int count = 0;
         File[] images = imageDirectory.listFiles();
         if (images != null) {
             for (File image : images) {
                 String imageId = FileNameUtils.getNameWithoutExtension(image);
                 if (!imageIds.contains(imageId)) {
-                    image.delete();
+                    transaction.delete(image);
                     count++;
                 }
             }
@@ -119,12 +172,13 @@ public abstract class AbstractSavingUtilsTask<T> extends LCTask<T> {
      * Save the image if necessary
      *
      * @param imageDirectory directory where image are saved
-     * @param context        the saving context
      * @param image          the image to save
+     * @param transaction    transaction where the image is copied
+     * @return true if the image was copied (false if it was already saved)
      */
-    private void saveImage(final File imageDirectory, final IOContextI context, final ImageElementI image) {
+    private boolean saveImage(final File imageDirectory, final ImageElementI image, SaveTransaction transaction) {
         File imageFile = new File(imageDirectory.getPath() + File.separator + image.getId() + "." + image.getExtension());
-        if (!imageFile.exists()) {
+        if (!transaction.exists(imageFile)) {
             try {
                 /*
                  * Avoid saving the image to the loaded dimensions (previous implementation did this)
@@ -133,57 +187,57 @@ public abstract class AbstractSavingUtilsTask<T> extends LCTask<T> {
                  * 3 : the only disadvantage is that configuration are bigger
                  */
                 //Copy the image in configuration directory
-                try (FileOutputStream fos = new FileOutputStream(imageFile)) {
-                    try (FileInputStream fis = new FileInputStream(image.getRealFilePath())) {
-                        IOUtils.copyStream(fis, fos);
-                    }
-                }
+                transaction.copyFile(image.getRealFilePath(), imageFile);
+                return true;
             } catch (Exception e) {
                 LOGGER.warn("The given image {} was not save!", image.getId(), e);
             }
         }
-
+        return false;
     }
 
-    private void saveVideos(final File directory, IOContext context) {
+    private int saveVideos(final File directory, IOContext context, SaveTransaction transaction) {
         File videoDirectory = new File(directory.getPath() + File.separator + LCConstant.CONFIGURATION_VIDEO_DIRECTORY + File.separator);
         if (!videoDirectory.exists()) {
             videoDirectory.mkdirs();
         }
         LOGGER.info("Will save {} videos for the element", context.getVideos().size());
         long start = System.currentTimeMillis();
+        int copiedVideos = 0;
         for (VideoElementI video : context.getVideos().values()) {
-            this.saveVideo(videoDirectory, context, video);
+            if (this.saveVideo(videoDirectory, video, transaction)) {
+                copiedVideos++;
+            }
         }
         //Clean images
-        int deletedVideos = this.cleanUnknownFiles(videoDirectory, context.getVideos().keySet());
+        int deletedVideos = this.cleanUnknownFiles(videoDirectory, context.getVideos().keySet(), transaction);
         LOGGER.info("{} video saved and {} videos deleted in {} ms", context.getVideos().size(), deletedVideos,
                 System.currentTimeMillis() - start);
         this.updateProgress(4, 6);
+        return copiedVideos;
     }
 
-    private void saveVideo(File videoDirectory, IOContext context, VideoElementI video) {
+    private boolean saveVideo(File videoDirectory, VideoElementI video, SaveTransaction transaction) {
         // FIXME : extension
         File imageFile = new File(videoDirectory.getPath() + File.separator + video.getId() + ".mp4");//+ video.getExtension());
-        if (!imageFile.exists()) {
+        if (!transaction.exists(imageFile)) {
             try {
-                try (FileOutputStream fos = new FileOutputStream(imageFile)) {
-                    try (FileInputStream fis = new FileInputStream(video.getPath())) {
-                        IOUtils.copyStream(fis, fos);
-                    }
-                }
+                transaction.copyFile(video.getPath(), imageFile);
+                return true;
             } catch (Exception e) {
                 LOGGER.warn("The given image {} was not save!", video.getId(), e);
             }
         }
+        return false;
     }
 
     /**
      * Save all the resource associated to the configuration
      *
+     * @return copied resource count
      * @throws IOException if the resource XML can't be saved
      */
-    private void saveResources(final File directory, final Map<String, IOResourceI> resources) throws IOException {
+    private int saveResources(final File directory, final Map<String, IOResourceI> resources, SaveTransaction transaction) throws IOException {
         LOGGER.info("Will save {} resources for the element", resources.size());
         long start = System.currentTimeMillis();
         Element root = new Element(IOResourceI.NODE_RESOURCES);
@@ -193,13 +247,15 @@ public abstract class AbstractSavingUtilsTask<T> extends LCTask<T> {
         }
         Set<String> ids = resources.keySet();
         HashSet<String> validResourceIds = new HashSet<>();
+        int copiedResources = 0;
         for (String resourceId : ids) {
             IOResourceI resource = resources.get(resourceId);
             //Try to copy the resource only if the resource is not already present or if the size is not the same
             File resourcePath = new File(resourceDirectory.getPath() + File.separator + resourceId);
             if (!resourcePath.exists() || resource.getFileLength() != resourcePath.length()) {
                 try {
-                    IOUtils.copyFiles(resource.getPath(), resourcePath);
+                    transaction.copyFile(resource.getPath(), resourcePath);
+                    copiedResources++;
                     validResourceIds.add(resourceId);
                     root.addContent(resource.serialize(null));
                 } catch (Exception e) {
@@ -216,17 +272,88 @@ public abstract class AbstractSavingUtilsTask<T> extends LCTask<T> {
         File[] resourceFiles = resourceDirectory.listFiles();
         if (resourceFiles != null) {
             for (File resourceFile : resourceFiles) {
-                if (!validResourceIds.contains(resourceFile.getName())) {
-                    boolean deleted = resourceFile.delete();
-                    LOGGER.info("Delete invalid resource file {} (resource ID {}) : {}", resourceFile, resourceFile.getName(),
-                            deleted);
+                if (!validResourceIds.contains(resourceFile.getName()) && !LCConstant.CONFIGURATION_RESOURCE_XML.equals(resourceFile.getName())) {
+                    transaction.delete(resourceFile);
+                    LOGGER.info("Delete invalid resource file {} (resource ID {})", resourceFile, resourceFile.getName());
                 }
             }
         }
         //Save the resource XML
-        XMLHelper.writeXml(new File(resourceDirectory.getPath() + File.separator + LCConstant.CONFIGURATION_RESOURCE_XML), root);
+        transaction.writeXmlIfChanged(new File(resourceDirectory.getPath() + File.separator + LCConstant.CONFIGURATION_RESOURCE_XML), root);
 
-        LOGGER.info("{} resources saved in {} ms", resources.size(), System.currentTimeMillis() - start);
+        LOGGER.info("{} resources saved ({} copied) in {} ms", resources.size(), copiedResources, System.currentTimeMillis() - start);
+        return copiedResources;
+    }
+
+    public static class SavedSectionReport {
+        private final String name;
+        private long serializeDuration, writeDuration, resourcesDuration;
+        private boolean serialized = true, xmlWritten;
+        private int copiedImageCount, copiedVideoCount, copiedResourceCount;
+
+        private SavedSectionReport(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return report for a section not saved because it didn't change since last save (see {@link org.lifecompanion.controller.io.ConfigurationSectionTracker})
+         */
+        public static SavedSectionReport unchanged(String name) {
+            SavedSectionReport report = new SavedSectionReport(name);
+            report.serialized = false;
+            return report;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSerializeDuration() {
+            return serializeDuration;
+        }
+
+        public long getWriteDuration() {
+            return writeDuration;
+        }
+
+        public long getResourcesDuration() {
+            return resourcesDuration;
+        }
+
+        /**
+         * @return false if the section didn't change since last save (nothing serialized nor written)
+         */
+        public boolean isSerialized() {
+            return serialized;
+        }
+
+        /**
+         * @return false if the XML file already had the same content (not written)
+         */
+        public boolean isXmlWritten() {
+            return xmlWritten;
+        }
+
+        public int getCopiedImageCount() {
+            return copiedImageCount;
+        }
+
+        public int getCopiedVideoCount() {
+            return copiedVideoCount;
+        }
+
+        public int getCopiedResourceCount() {
+            return copiedResourceCount;
+        }
+
+        @Override
+        public String toString() {
+            if (!serialized) {
+                return String.format("%-35s unchanged since last save, not serialized", name);
+            }
+            return String.format("%-35s serialize %5d ms, write %5d ms (%s), resources %5d ms (%d images, %d videos, %d resources copied)",
+                    name, serializeDuration, writeDuration, xmlWritten ? "written" : "unchanged", resourcesDuration, copiedImageCount, copiedVideoCount, copiedResourceCount);
+        }
     }
 
 }
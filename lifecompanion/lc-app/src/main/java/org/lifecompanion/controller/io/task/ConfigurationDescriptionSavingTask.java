@@ -18,6 +18,7 @@
  */
 package org.lifecompanion.controller.io.task;
 
+import org.lifecompanion.controller.io.SaveTransaction;
 import org.lifecompanion.controller.io.XMLHelper;
 import org.lifecompanion.model.api.profile.LCConfigurationDescriptionI;
 import org.lifecompanion.util.model.LCTask;
@@ -37,6 +38,7 @@ public class ConfigurationDescriptionSavingTask extends LCTask<Void> {
     private final static Logger LOGGER = LoggerFactory.getLogger(ConfigurationDescriptionSavingTask.class);
     private final File directory;
     private final LCConfigurationDescriptionI description;
+    private SaveTransaction transaction;
 
     public ConfigurationDescriptionSavingTask(final File directoryP, final LCConfigurationDescriptionI descriptionP) {
         super("task.title.save.config.description");
@@ -44,11 +46,22 @@ public class ConfigurationDescriptionSavingTask extends LCTask<Void> {
         this.description = descriptionP;
     }
 
+    /**
+     * Set the transaction where the description will be written (caller is then responsible to commit it)
+     */
+    public void setTransaction(SaveTransaction transaction) {
+        this.transaction = transaction;
+    }
+
     @Override
     protected Void call() throws Exception {
         this.description.getTechInfo().updateInformation();//Update with current info.
         File configDescriptionXmlFile = new File(this.directory.getPath() + File.separator + LCConstant.CONFIGURATION_DESCRIPTION_XML_NAME);
-        XMLHelper.writeXml(configDescriptionXmlFile, this.description.serialize(this.directory));
+        if (this.transaction != null) {
+            this.transaction.writeXmlIfChanged(configDescriptionXmlFile, this.description.serialize(this.directory));
+        } else {
+            XMLHelper.writeXml(configDescriptionXmlFile, this.description.serialize(this.directory));
+        }
         ConfigurationDescriptionSavingTask.LOGGER.info("Configuration description saved to {}", configDescriptionXmlFile);
         return null;
     }
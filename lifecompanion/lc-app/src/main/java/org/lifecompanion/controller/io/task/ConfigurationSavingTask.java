@@ -19,7 +19,10 @@
 
 package org.lifecompanion.controller.io.task;
 
+import org.lifecompanion.controller.io.BinaryConfigurationHelper;
+import org.lifecompanion.controller.io.ConfigurationSectionTracker;
 import org.lifecompanion.controller.io.IOHelper;
+import org.lifecompanion.controller.io.SaveTransaction;
 import org.lifecompanion.model.api.profile.LCConfigurationDescriptionI;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.profile.LCProfileI;
@@ -35,11 +38,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 
 /**
- * Task to save a configuration in a directory.
+ * Task to save a configuration in a directory.<br>
+ * Configuration, key lists, sequences and description are written in a single {@link SaveTransaction} : an interrupted save keeps the previous configuration.<br>
+ * Key lists and sequences are not serialized when they didn't change since the configuration was loaded from/saved to the same directory (see {@link ConfigurationSectionTracker}).
  *
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
@@ -66,14 +75,63 @@ public class ConfigurationSavingTask extends AbstractSavingUtilsTask<Void> {
     @Override
     protected Void call() throws Exception {
         ConfigurationSavingTask.LOGGER.info("Will save the configuration {} to {}", this.configuration.getID(), this.directory);
+        long start = System.currentTimeMillis();
+        if (!this.directory.exists()) {
+            this.directory.mkdirs();
+        }
+        Map<ConfigurationSectionTracker.Section, Object> sectionRoots = ConfigurationSectionTracker.getSectionRoots(this.configuration);
+        SaveTransaction transaction = SaveTransaction.begin(this.directory);
+        List<SavedSectionReport> reports;
+        try {
+            reports = this.saveInTransaction(transaction, sectionRoots);
+            transaction.commit();
+        } catch (Throwable t) {
+            transaction.rollback();
+            throw t;
+        }
+        ConfigurationSectionTracker.markSaved(this.configuration, this.directory, sectionRoots);
+
+        // Binary version of saved XML (only when a XML changed)
+        if (BinaryConfigurationHelper.isEnabled() && (reports.stream().anyMatch(SavedSectionReport::isXmlWritten) || !BinaryConfigurationHelper.getBinaryFile(this.directory).exists())) {
+            try {
+                BinaryConfigurationHelper.convertXmlToBinary(this.directory);
+            } catch (Exception e) {
+                // Not an issue as XML will be loaded
+                LOGGER.warn("Couldn't save binary configuration in {}", this.directory, e);
+            }
+        }
+
+        this.updateProgress(5, 5);
+        ConfigurationSavingTask.LOGGER.info("Configuration successfully saved to {} in {} ms\n\t{}", this.directory, System.currentTimeMillis() - start,
+                reports.stream().map(SavedSectionReport::toString).collect(Collectors.joining("\n\t")));
+        return null;
+    }
+
+    private List<SavedSectionReport> saveInTransaction(SaveTransaction transaction, Map<ConfigurationSectionTracker.Section, Object> sectionRoots) throws Exception {
         //Call parent
+        this.setTransaction(transaction);
         this.saveXmlSerializable(this.configuration, this.directory, LCConstant.CONFIGURATION_XML_NAME);
+        List<SavedSectionReport> reports = new ArrayList<>(this.getSavedSectionReports());
 
         // Save key list
-        ThreadUtils.executeInCurrentThread(IOHelper.createSaveKeyListTask(configuration, this.directory));
+        if (ConfigurationSectionTracker.isUnchanged(configuration, this.directory, sectionRoots, ConfigurationSectionTracker.Section.KEY_LIST)) {
+            reports.add(SavedSectionReport.unchanged(LCConstant.KEYLIST_XML_NAME));
+        } else {
+            KeyListSavingTask keyListSavingTask = IOHelper.createSaveKeyListTask(configuration, this.directory);
+            keyListSavingTask.setTransaction(transaction);
+            ThreadUtils.executeInCurrentThread(keyListSavingTask);
+            reports.addAll(keyListSavingTask.getSavedSectionReports());
+        }
 
         // Save sequences
-        ThreadUtils.executeInCurrentThread(IOHelper.createSaveSequenceTask(configuration, this.directory));
+        if (ConfigurationSectionTracker.isUnchanged(configuration, this.directory, sectionRoots, ConfigurationSectionTracker.Section.SEQUENCES)) {
+            reports.add(SavedSectionReport.unchanged(LCConstant.SEQUENCE_XML_NAME));
+        } else {
+            UserActionSequenceSavingTask sequenceSavingTask = IOHelper.createSaveSequenceTask(configuration, this.directory);
+            sequenceSavingTask.setTransaction(transaction);
+            ThreadUtils.executeInCurrentThread(sequenceSavingTask);
+            reports.addAll(sequenceSavingTask.getSavedSectionReports());
+        }
 
         // Generate changelog entry
         ChangelogEntry changelogEntry = new ChangelogEntry(
@@ -90,10 +148,9 @@ public class ConfigurationSavingTask extends AbstractSavingUtilsTask<Void> {
 
         //Configuration description update
         this.configurationDescription.configurationLastDateProperty().set(new Date());
-        ThreadUtils.executeInCurrentThread(IOHelper.createSaveConfigDescriptionTask(this.configurationDescription, this.directory));
-
-        this.updateProgress(5, 5);
-        ConfigurationSavingTask.LOGGER.info("Configuration successfully saved to {}", this.directory);
-        return null;
+        ConfigurationDescriptionSavingTask descriptionSavingTask = IOHelper.createSaveConfigDescriptionTask(this.configurationDescription, this.directory);
+        descriptionSavingTask.setTransaction(transaction);
+        ThreadUtils.executeInCurrentThread(descriptionSavingTask);
+        return reports;
     }
 }
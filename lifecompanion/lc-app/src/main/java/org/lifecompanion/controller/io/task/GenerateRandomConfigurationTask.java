@@ -42,6 +42,8 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.List;
 import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 
 /**
@@ -59,24 +61,7 @@ public class GenerateRandomConfigurationTask extends LCTask<Void> {
 
     @Override
     protected Void call() throws Exception {
-        LCConfigurationComponent configuration = new LCConfigurationComponent();
-
-        // Root stack
-        StackComponent stackComponent = new StackComponent();
-        stackComponent.xProperty().set(10);
-        stackComponent.yProperty().set(150);
-        stackComponent.widthProperty().set(600);
-        stackComponent.heightProperty().set(400);
-
-        // Add grid
-        int baseGridCount = randBetween(20, 30);
-        for (int i = 0; i < baseGridCount; i++) {
-            stackComponent.getComponentList().add(createRandomGrid());
-            updateProgress(i, baseGridCount);
-        }
-
-        // Add to configuration
-        configuration.getChildren().add(stackComponent);
+        LCConfigurationComponent configuration = generateConfiguration(random, this::getRandomImage, (done, total) -> updateProgress(done, total));
 
         // Save configuration
         LCProfileI fakeProfile = new LCProfile();
@@ -100,36 +85,76 @@ public class GenerateRandomConfigurationTask extends LCTask<Void> {
         return null;
     }
 
+    /**
+     * Generate a random configuration (a stack with random grids and keys).<br>
+     * Doesn't need the task to be run : can be used to get a big configuration in tests.
+     *
+     * @param random              random to use (seeded random gives the same configuration)
+     * @param randomImageSupplier supplier for key images, can be null to generate keys without image
+     * @param progressCallback    called with (done, total) after each generated grid, can be null
+     * @return the generated configuration (not saved)
+     */
+    public static LCConfigurationComponent generateConfiguration(Random random, Supplier<ImageElementI> randomImageSupplier, BiConsumer<Integer, Integer> progressCallback) {
+        LCConfigurationComponent configuration = new LCConfigurationComponent();
 
-    private GridPartGridComponent createRandomGrid() {
+        // Root stack
+        StackComponent stackComponent = new StackComponent();
+        stackComponent.xProperty().set(10);
+        stackComponent.yProperty().set(150);
+        stackComponent.widthProperty().set(600);
+        stackComponent.heightProperty().set(400);
+
+        // Add grid
+        int baseGridCount = randBetween(random, 20, 30);
+        for (int i = 0; i < baseGridCount; i++) {
+            stackComponent.getComponentList().add(createRandomGrid(random, randomImageSupplier));
+            if (progressCallback != null) {
+                progressCallback.accept(i, baseGridCount);
+            }
+        }
+
+        // Add to configuration
+        configuration.getChildren().add(stackComponent);
+        return configuration;
+    }
+
+    private static GridPartGridComponent createRandomGrid(Random random, Supplier<ImageElementI> randomImageSupplier) {
         GridPartGridComponent grid = new GridPartGridComponent();
-        grid.getGrid().setRow(randBetween(1, 20));
-        grid.getGrid().setColumn(randBetween(1, 20));
+        grid.getGrid().setRow(randBetween(random, 1, 20));
+        grid.getGrid().setColumn(randBetween(random, 1, 20));
         grid.forEachKeys(key -> {
-            key.textContentProperty().set(String.valueOf(randBetween(1000, 50000)));
+            key.textContentProperty().set(String.valueOf(randBetween(random, 1000, 50000)));
             if (random.nextBoolean()) {
-                key.getKeyStyle().backgroundColorProperty().selected().setValue(Color.rgb(randBetween(0, 255), randBetween(0, 255), randBetween(0, 255)));
+                key.getKeyStyle().backgroundColorProperty().selected().setValue(Color.rgb(randBetween(random, 0, 255), randBetween(random, 0, 255), randBetween(random, 0, 255)));
             }
-            if (random.nextBoolean()) {
-                final List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> images = getImageSearch();
-                final Pair<ImageDictionaryI, List<List<ImageElementI>>> result = getImageSearch().get(random.nextInt(images.size()));
-                final List<List<ImageElementI>> imageList = result.getValue();
-                if (!imageList.isEmpty()) {
-                    final List<ImageElementI> page = imageList.get(random.nextInt(imageList.size()));
-                    key.imageVTwoProperty().set(page.get(random.nextInt(page.size())));
+            if (randomImageSupplier != null && random.nextBoolean()) {
+                ImageElementI image = randomImageSupplier.get();
+                if (image != null) {
+                    key.imageVTwoProperty().set(image);
                 }
             }
         });
         return grid;
     }
 
+    private ImageElementI getRandomImage() {
+        final List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> images = getImageSearch();
+        final Pair<ImageDictionaryI, List<List<ImageElementI>>> result = getImageSearch().get(random.nextInt(images.size()));
+        final List<List<ImageElementI>> imageList = result.getValue();
+        if (!imageList.isEmpty()) {
+            final List<ImageElementI> page = imageList.get(random.nextInt(imageList.size()));
+            return page.get(random.nextInt(page.size()));
+        }
+        return null;
+    }
+
     private List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> cachedImageSearch;
 
     private List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> getImageSearch() {
         return cachedImageSearch != null ? cachedImageSearch : (cachedImageSearch = ImageDictionaries.INSTANCE.searchImage("de la du"));
     }
 
-    int randBetween(int minInclusive, int maxExclusive) {
+    static int randBetween(Random random, int minInclusive, int maxExclusive) {
         return minInclusive + random.nextInt(maxExclusive - minInclusive);
     }
 }
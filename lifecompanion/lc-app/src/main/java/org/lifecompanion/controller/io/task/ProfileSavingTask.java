@@ -18,7 +18,7 @@
  */
 package org.lifecompanion.controller.io.task;
 
-import org.lifecompanion.controller.io.XMLHelper;
+import org.lifecompanion.controller.io.SaveTransaction;
 import org.lifecompanion.model.api.profile.LCProfileI;
 import org.lifecompanion.util.model.LCTask;
 import org.lifecompanion.model.impl.constant.LCConstant;
@@ -51,9 +51,16 @@ public class ProfileSavingTask extends LCTask<Void> {
         if (!this.directory.exists()) {
             this.directory.mkdirs();
         }
-        //Save XML for profile
+        //Save XML for profile (previous profile is kept if save is interrupted)
         final File xmlFile = new File(this.directory.getPath() + File.separator + LCConstant.PROFILE_XML_NAME);
-        XMLHelper.writeXml(xmlFile, this.profile.serialize(new ProfileIOContext(this.directory, true)));
+        SaveTransaction transaction = SaveTransaction.begin(this.directory);
+        try {
+            transaction.writeXmlIfChanged(xmlFile, this.profile.serialize(new ProfileIOContext(this.directory, true)));
+            transaction.commit();
+        } catch (Throwable t) {
+            transaction.rollback();
+            throw t;
+        }
         ProfileSavingTask.LOGGER.info("Profile XML saved to {}", xmlFile);
         return null;
     }
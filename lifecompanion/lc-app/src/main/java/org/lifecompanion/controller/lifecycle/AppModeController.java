@@ -48,6 +48,7 @@ import org.lifecompanion.controller.virtualkeyboard.WinAutoHotKeyKeyboardReceive
 import org.lifecompanion.controller.virtualmouse.DirectionalMouseController;
 import org.lifecompanion.controller.virtualmouse.ScanningMouseController;
 import org.lifecompanion.controller.voicesynthesizer.VoiceSynthesizerController;
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
 import org.lifecompanion.model.api.profile.LCConfigurationDescriptionI;
@@ -59,20 +60,31 @@ import org.lifecompanion.util.javafx.FXThreadUtils;
 import org.lifecompanion.util.model.LCTask;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public enum AppModeController {
     INSTANCE;
 
+    private static final int USE_MODE_START_THREAD_COUNT = 4;
+
     private final ObjectProperty<AppMode> mode;
     private final UseModeContext useModeContext;
     private final EditModeContext editModeContext;
+    private final ExecutorService useModeStartExecutor;
+    private ModeListenerStarter useModeListenerStarter;
+    private CompletableFuture<Void> useModeListenersStopped;
 
     AppModeController() {
         mode = new SimpleObjectProperty<>();
         mode.addListener((obs, ov, nv) -> stopModeIfNeeded(ov));
         this.useModeContext = new UseModeContext();
         this.editModeContext = new EditModeContext();
+        this.useModeStartExecutor = Executors.newFixedThreadPool(USE_MODE_START_THREAD_COUNT, LCNamedThreadFactory.daemonThreadFactory("UseModeStart"));
+        this.useModeListenersStopped = CompletableFuture.completedFuture(null);
     }
 
     // PROPS
@@ -173,12 +185,15 @@ public enum AppModeController {
     private static final List<ModeListenerI> USE_MODE_LISTENERS = Arrays.asList(//
             PluginController.INSTANCE,
             WordPredictionController.INSTANCE, //
+            WordPredictionController.INSTANCE.getPredictorModeListener(), //
             VirtualKeyboardController.INSTANCE, //
             ScanningMouseController.INSTANCE, //
             DirectionalMouseController.INSTANCE, //
             WritingStateController.INSTANCE, //
             CustomCharPredictionController.INSTANCE, //
+            CustomCharPredictionController.INSTANCE.getPredictorModeListener(), //
             AutoCharPredictionController.INSTANCE, //
+            AutoCharPredictionController.INSTANCE.getPredictorModeListener(), //
             UseActionController.INSTANCE, //
             UseVariableController.INSTANCE, //
             KeyListController.INSTANCE, //
@@ -199,10 +214,19 @@ public enum AppModeController {
             WinAutoHotKeyKeyboardReceiverController.INSTANCE // Need the "blocked keys" from other modes
     );
 
+    /**
+     * @return every use mode listener, in their sequential start order
+     */
+    public List<ModeListenerI> getUseModeListeners() {
+        return Collections.unmodifiableList(USE_MODE_LISTENERS);
+    }
+
     private void launchUseMode(boolean notifyChange) {
         final LCProfileI currentProfile = ProfileController.INSTANCE.currentProfileProperty().get();
         final LCConfigurationI configuration = useModeContext.configurationProperty().get();
         final LCConfigurationDescriptionI configurationDescription = useModeContext.configurationDescription.get();
+        final ModeListenerStarter modeListenerStarter = new ModeListenerStarter(USE_MODE_LISTENERS, useModeStartExecutor, false);
+        this.useModeListenerStarter = modeListenerStarter;
 
         final LCTask<UseModeScene> startUseMode = new LCTask<>("change.mode.task.title") {
             @Override
@@ -210,7 +234,7 @@ public enum AppModeController {
                 final UseModeScene useScene = new UseModeScene(configuration);
                 useScene.initAll();
                 IOHelper.loadUseInformation(configuration);
-                USE_MODE_LISTENERS.forEach(modeListenerI -> modeListenerI.modeStart(configuration));
+                modeListenerStarter.startBeforeFirstFrame(configuration);
                 SessionStatsController.INSTANCE.modeStarted(AppMode.USE, configuration);
                 return useScene;
             }
@@ -220,6 +244,8 @@ public enum AppModeController {
             useModeContext.initStage(useModeStage);
             useModeStage.show();
             editModeContext.getStage().hide();
+            // Previous deferred listeners could still be stopping
+            modeListenerStarter.startDeferred(configuration, useModeListenersStopped);
         });
         startUseMode.setOnFailed(e -> startEditMode());
         AsyncExecutorController.INSTANCE.addAndExecute(true, notifyChange, startUseMode);
@@ -230,9 +256,15 @@ public enum AppModeController {
             final LCConfigurationI configuration = useModeContext.configurationProperty().get();
             useModeContext.saveStateBeforeStop();
             if (configuration != null) {
-                USE_MODE_LISTENERS.forEach(modeListenerI -> modeListenerI.modeStop(configuration));
+                if (useModeListenerStarter != null) {
+                    // Doesn't wait for deferred starts : deferred listeners are stopped once started
+                    useModeListenersStopped = useModeListenerStarter.stop(configuration);
+                } else {
+                    USE_MODE_LISTENERS.forEach(modeListenerI -> modeListenerI.modeStop(configuration));
+                }
                 IOHelper.saveUseInformation(configuration);
             }
+            useModeListenerStarter = null;
             SessionStatsController.INSTANCE.modeStopped(AppMode.USE);
             useModeContext.cleanAfterStop();
         }
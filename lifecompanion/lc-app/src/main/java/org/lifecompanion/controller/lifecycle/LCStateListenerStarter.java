@@ -0,0 +1,190 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.lifecycle;
+
+import org.lifecompanion.controller.metrics.StartupMetricsController;
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
+import org.lifecompanion.model.api.lifecycle.LCStateListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Start {@link LCStateListener} following their {@link LCStateListener#getStartDependencies()} : a listener is started once all its dependencies are started,
+ * and listeners that don't depend on each other are started concurrently on a bounded thread pool.<br>
+ * Listeners should be given in a valid sequential start order (dependencies before dependents) : this order is the one used with a single thread, and it guarantees there is no dependency cycle.<br>
+ * Start time of every listener is recorded (in {@link StartupMetricsController} too) to produce a critical path report : the dependency chain that ended last, which is the minimal start duration with enough threads.
+ */
+public class LCStateListenerStarter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LCStateListenerStarter.class);
+
+    static final String STARTUP_METRICS_CATEGORY = "lcStart";
+
+    private final List<LCStateListener> listeners;
+    private final int threadCount;
+    private final Map<LCStateListener, StartTiming> timings;
+    private long startTime, endTime;
+
+    /**
+     * @param listeners   listeners to start, ordered so every listener is after its dependencies
+     * @param threadCount max listener count started at the same time
+     * @throws IllegalArgumentException if a listener dependency is not before the listener in the list
+     */
+    public LCStateListenerStarter(List<LCStateListener> listeners, int threadCount) {
+        this.listeners = new ArrayList<>(listeners);
+        this.threadCount = Math.max(1, threadCount);
+        this.timings = new ConcurrentHashMap<>();
+        Set<LCStateListener> previousListeners = new HashSet<>();
+        for (LCStateListener listener : this.listeners) {
+            for (LCStateListener dependency : listener.getStartDependencies()) {
+                if (!previousListeners.contains(dependency)) {
+                    throw new IllegalArgumentException(getName(listener) + " depends on " + getName(dependency) + " which is not started before it");
+                }
+            }
+            previousListeners.add(listener);
+        }
+    }
+
+    // START
+    //========================================================================
+
+    /**
+     * Start every listener and wait for all of them to be started.<br>
+     * A listener failing to start is logged and doesn't prevent its dependents to be started (as each listener is responsible for its own errors).
+     */
+    public void start() {
+        startTime = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, LCNamedThreadFactory.daemonThreadFactory("LCStateListenerStarter"));
+        try {
+            Map<LCStateListener, CompletableFuture<Void>> startedFutures = new HashMap<>();
+            for (LCStateListener listener : listeners) {
+                CompletableFuture<?>[] dependencies = listener.getStartDependencies().stream().map(startedFutures::get).toArray(CompletableFuture[]::new);
+                startedFutures.put(listener, CompletableFuture.allOf(dependencies).thenRunAsync(() -> startListener(listener), executor));
+            }
+            CompletableFuture.allOf(startedFutures.values().toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+            endTime = System.nanoTime();
+        }
+        LOGGER.info(getReport());
+    }
+
+    private void startListener(LCStateListener listener) {
+        long startMs = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            listener.lcStart();
+        } catch (Throwable t) {
+            LOGGER.error("Start of {} failed", getName(listener), t);
+        } finally {
+            timings.put(listener, new StartTiming(start - startTime, System.nanoTime() - start, Thread.currentThread().getName()));
+            StartupMetricsController.INSTANCE.record(STARTUP_METRICS_CATEGORY, getName(listener), startMs);
+        }
+    }
+    //========================================================================
+
+    // REPORT
+    //========================================================================
+
+    /**
+     * @return the listener chain that ended last : each listener is the dependency of the next one that ended last (from first started to last ended)
+     */
+    public List<LCStateListener> getCriticalPath() {
+        LinkedList<LCStateListener> criticalPath = new LinkedList<>();
+        LCStateListener current = getLastEnded(listeners);
+        while (current != null) {
+            criticalPath.addFirst(current);
+            current = getLastEnded(current.getStartDependencies());
+        }
+        return criticalPath;
+    }
+
+    /**
+     * @return total start duration, in nanoseconds
+     */
+    public long getDuration() {
+        return endTime - startTime;
+    }
+
+    /**
+     * @return sum of every listener start duration (the total start duration if listeners were started one after the other), in nanoseconds
+     */
+    public long getSequentialDuration() {
+        return timings.values().stream().mapToLong(StartTiming::getDuration).sum();
+    }
+
+    public String getReport() {
+        StringBuilder report = new StringBuilder(String.format("Listeners started in %.1f ms with %d threads (%.1f ms if started sequentially), critical path :",
+                getDuration() / 1_000_000.0, threadCount, getSequentialDuration() / 1_000_000.0));
+        for (LCStateListener listener : getCriticalPath()) {
+            StartTiming timing = timings.get(listener);
+            report.append(String.format("\n\t+%7.1f ms %7.1f ms  %-40s (%s)", timing.getStartOffset() / 1_000_000.0, timing.getDuration() / 1_000_000.0, getName(listener), timing.getThreadName()));
+        }
+        return report.toString();
+    }
+
+    private LCStateListener getLastEnded(List<LCStateListener> candidates) {
+        LCStateListener lastEnded = null;
+        for (LCStateListener candidate : candidates) {
+            StartTiming timing = timings.get(candidate);
+            if (timing != null && (lastEnded == null || timing.getEndOffset() > timings.get(lastEnded).getEndOffset())) {
+                lastEnded = candidate;
+            }
+        }
+        return lastEnded;
+    }
+
+    private static String getName(LCStateListener listener) {
+        return listener.getClass().getSimpleName();
+    }
+
+    private static class StartTiming {
+        private final long startOffset, duration;
+        private final String threadName;
+
+        private StartTiming(long startOffset, long duration, String threadName) {
+            this.startOffset = startOffset;
+            this.duration = duration;
+            this.threadName = threadName;
+        }
+
+        long getStartOffset() {
+            return startOffset;
+        }
+
+        long getDuration() {
+            return duration;
+        }
+
+        long getEndOffset() {
+            return startOffset + duration;
+        }
+
+        String getThreadName() {
+            return threadName;
+        }
+    }
+    //========================================================================
+}
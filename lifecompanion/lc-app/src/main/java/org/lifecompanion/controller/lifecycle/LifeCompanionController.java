@@ -28,24 +28,31 @@ import org.lifecompanion.controller.editmode.LCStateController;
 import org.lifecompanion.controller.hub.HubController;
 import org.lifecompanion.controller.hub.HubService;
 import org.lifecompanion.controller.metrics.SessionStatsController;
+import org.lifecompanion.controller.metrics.StartupMetricsController;
 import org.lifecompanion.controller.plugin.PluginController;
 import org.lifecompanion.controller.profile.UserCompController;
 import org.lifecompanion.controller.textprediction.AutoCharPredictionController;
 import org.lifecompanion.controller.textprediction.CustomCharPredictionController;
 import org.lifecompanion.controller.textprediction.WordPredictionController;
 import org.lifecompanion.controller.training.TrainingController;
+import org.lifecompanion.controller.useapi.GlobalRuntimeConfigurationController;
 import org.lifecompanion.controller.voicesynthesizer.VoiceSynthesizerController;
 import org.lifecompanion.model.api.lifecycle.LCStateListener;
 import org.lifecompanion.model.impl.imagedictionary.ImageDictionaries;
+import org.lifecompanion.model.impl.useapi.GlobalRuntimeConfiguration;
 import org.lifecompanion.ui.notification.LCNotificationController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
 public enum LifeCompanionController {
     INSTANCE;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LifeCompanionController.class);
 
+    private static final int DEFAULT_START_THREAD_COUNT = 4;
+
 
     private boolean started = false;
 
@@ -54,6 +61,10 @@ public enum LifeCompanionController {
 
     // START/STOP
     //========================================================================
+
+    /**
+     * Listeners started with {@link LCStateListenerStarter} : order is the start order with a single thread (each listener after its start dependencies)
+     */
     final LCStateListener[] STATE_LISTENER = {
             AsyncExecutorController.INSTANCE,
 
@@ -74,8 +85,8 @@ public enum LifeCompanionController {
             LCNotificationController.INSTANCE,
             ErrorHandlingController.INSTANCE,
 
-            HubController.INSTANCE,
             HubService.INSTANCE,
+            HubController.INSTANCE,
 
             OptionalResourceController.INSTANCE,
 
@@ -84,9 +95,20 @@ public enum LifeCompanionController {
 
     public void lcStart() {
         started = true;
-        for (LCStateListener stateListener : STATE_LISTENER) {
-            stateListener.lcStart();
+        new LCStateListenerStarter(Arrays.asList(STATE_LISTENER), getStartThreadCount()).start();
+        // Image dictionaries are the last to be loaded (in background)
+        ImageDictionaries.INSTANCE.getDictionariesLoadedFuture().thenRun(StartupMetricsController.INSTANCE::logReport);
+    }
+
+    private static int getStartThreadCount() {
+        if (GlobalRuntimeConfigurationController.INSTANCE.isPresent(GlobalRuntimeConfiguration.PROP_START_THREAD_COUNT)) {
+            try {
+                return Integer.parseInt(GlobalRuntimeConfigurationController.INSTANCE.getParameter(GlobalRuntimeConfiguration.PROP_START_THREAD_COUNT));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid start thread count, will use default thread count", e);
+            }
         }
+        return Math.min(DEFAULT_START_THREAD_COUNT, Runtime.getRuntime().availableProcessors());
     }
 
     public void lcExit() {
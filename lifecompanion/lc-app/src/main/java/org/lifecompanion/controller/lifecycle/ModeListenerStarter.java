@@ -0,0 +1,298 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.lifecycle;
+
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Start {@link ModeListenerI} for a use mode start, following their {@link ModeListenerI#getModeStartPolicy()} :
+ * <ul>
+ *     <li>{@link #startBeforeFirstFrame(LCConfigurationI)} starts {@link ModeStartPolicy#SEQUENTIAL} listeners on the calling thread, while {@link ModeStartPolicy#CONCURRENT} listeners are started on the executor</li>
+ *     <li>{@link #startDeferred(LCConfigurationI, CompletableFuture)} starts {@link ModeStartPolicy#DEFERRED} listeners on the executor, once use mode is displayed</li>
+ *     <li>{@link #stop(LCConfigurationI)} stops listeners without waiting for deferred starts : deferred listeners are stopped once their start ends</li>
+ * </ul>
+ * Each listener start is added to a timeline, logged once every listener is started.
+ */
+public class ModeListenerStarter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModeListenerStarter.class);
+
+    private final List<ModeListenerI> listeners;
+    private final Executor executor;
+    private final boolean sequential;
+    private final List<TimelineEntry> timeline;
+    private final List<ModeListenerI> startedDeferredListeners;
+    private volatile CompletableFuture<Void> deferredStart;
+    private volatile boolean stopped;
+    private long startTime, readyTime, endTime;
+
+    /**
+     * @param listeners  listeners to start, in their sequential start order
+     * @param executor   executor for concurrent and deferred starts
+     * @param sequential true to ignore listener policies and start every listener before first frame in listener order (as it was before start policies)
+     */
+    public ModeListenerStarter(List<ModeListenerI> listeners, Executor executor, boolean sequential) {
+        this.listeners = new ArrayList<>(listeners);
+        this.executor = executor;
+        this.sequential = sequential;
+        this.timeline = new ArrayList<>();
+        this.startedDeferredListeners = new ArrayList<>();
+    }
+
+    // START
+    //========================================================================
+
+    /**
+     * Start every listener needed before use mode is displayed, and wait for them to be started.
+     *
+     * @param configuration the used configuration
+     * @throws RuntimeException the first listener start failure (if a sequential start fails, the next sequential listeners are not started)
+     */
+    public void startBeforeFirstFrame(LCConfigurationI configuration) {
+        startTime = System.nanoTime();
+        List<CompletableFuture<Void>> concurrentStarts = new ArrayList<>();
+        for (ModeListenerI listener : listeners) {
+            if (getPolicy(listener) == ModeStartPolicy.CONCURRENT) {
+                concurrentStarts.add(CompletableFuture.runAsync(() -> startListener(listener, configuration), executor));
+            }
+        }
+        Throwable concurrentFailure = null;
+        try {
+            for (ModeListenerI listener : listeners) {
+                if (getPolicy(listener) == ModeStartPolicy.SEQUENTIAL) {
+                    startListener(listener, configuration);
+                }
+            }
+        } finally {
+            // Even on failure, concurrent starts should be done before mode stop
+            for (CompletableFuture<Void> concurrentStart : concurrentStarts) {
+                try {
+                    concurrentStart.join();
+                } catch (CompletionException e) {
+                    LOGGER.error("Concurrent mode start failed", e.getCause());
+                    concurrentFailure = concurrentFailure == null ? e.getCause() : concurrentFailure;
+                }
+            }
+            readyTime = System.nanoTime();
+        }
+        if (concurrentFailure instanceof RuntimeException) {
+            throw (RuntimeException) concurrentFailure;
+        } else if (concurrentFailure instanceof Error) {
+            throw (Error) concurrentFailure;
+        } else if (concurrentFailure != null) {
+            throw new CompletionException(concurrentFailure);
+        }
+    }
+
+    /**
+     * Start deferred listeners in background, should be called once use mode is displayed.<br>
+     * A deferred listener failing to start is logged and doesn't prevent next deferred listeners to be started.<br>
+     * Deferred listeners not started yet when {@link #stop(LCConfigurationI)} is called are not started at all.
+     *
+     * @param configuration the used configuration
+     * @param previousStop  the previous use mode stop (see {@link #stop(LCConfigurationI)}), deferred listeners are started once it is done
+     */
+    public void startDeferred(LCConfigurationI configuration, CompletableFuture<Void> previousStop) {
+        if (stopped) return;
+        deferredStart = previousStop.handleAsync((r, t) -> {
+            for (ModeListenerI listener : listeners) {
+                if (getPolicy(listener) == ModeStartPolicy.DEFERRED) {
+                    if (stopped) {
+                        LOGGER.info("Use mode stopped before deferred mode start of {}, listener is not started", getName(listener));
+                        break;
+                    }
+                    startedDeferredListeners.add(listener);
+                    try {
+                        startListener(listener, configuration);
+                    } catch (Throwable e) {
+                        LOGGER.error("Deferred mode start of {} failed", getName(listener), e);
+                    }
+                }
+            }
+            endTime = System.nanoTime();
+            LOGGER.info(getTimelineReport());
+            return null;
+        }, executor);
+    }
+
+    public void startDeferred(LCConfigurationI configuration) {
+        startDeferred(configuration, CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Wait for deferred listeners to be started (if they were started) : should never be called on FX thread (only used to measure start duration).
+     */
+    public void awaitDeferredStart() {
+        CompletableFuture<Void> deferredStartToWait = this.deferredStart;
+        if (deferredStartToWait != null) {
+            deferredStartToWait.join();
+        }
+    }
+
+    private void startListener(ModeListenerI listener, LCConfigurationI configuration) {
+        long start = System.nanoTime();
+        try {
+            listener.modeStart(configuration);
+        } finally {
+            synchronized (timeline) {
+                timeline.add(new TimelineEntry(getName(listener), getPolicy(listener), start - startTime, System.nanoTime() - start, Thread.currentThread().getName()));
+            }
+        }
+    }
+
+    private ModeStartPolicy getPolicy(ModeListenerI listener) {
+        return sequential ? ModeStartPolicy.SEQUENTIAL : listener.getModeStartPolicy();
+    }
+    //========================================================================
+
+    // STOP
+    //========================================================================
+
+    /**
+     * Stop every started listener without waiting for deferred starts (can be called on FX thread).<br>
+     * Non deferred listeners are stopped on the calling thread, in listener order.
+     * Deferred listeners are stopped on the executor once the deferred start ends (only the ones that were started), in listener order.
+     *
+     * @param configuration the used configuration
+     * @return a future completed once every listener is stopped
+     */
+    public CompletableFuture<Void> stop(LCConfigurationI configuration) {
+        stopped = true;
+        for (ModeListenerI listener : listeners) {
+            if (getPolicy(listener) != ModeStartPolicy.DEFERRED) {
+                stopListener(listener, configuration);
+            }
+        }
+        CompletableFuture<Void> deferredStartToStop = this.deferredStart;
+        if (deferredStartToStop == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return deferredStartToStop.thenRunAsync(() -> {
+            for (ModeListenerI listener : startedDeferredListeners) {
+                stopListener(listener, configuration);
+            }
+        }, executor);
+    }
+
+    private void stopListener(ModeListenerI listener, LCConfigurationI configuration) {
+        try {
+            listener.modeStop(configuration);
+        } catch (Throwable t) {
+            LOGGER.error("Mode stop of {} failed", getName(listener), t);
+        }
+    }
+    //========================================================================
+
+    // TIMELINE
+    //========================================================================
+
+    /**
+     * @return duration before use mode can be displayed, in nanoseconds
+     */
+    public long getReadyDuration() {
+        return readyTime - startTime;
+    }
+
+    /**
+     * @return duration before every listener is started (including deferred ones), in nanoseconds
+     */
+    public long getDuration() {
+        return endTime - startTime;
+    }
+
+    /**
+     * @return every listener start, ordered by start time
+     */
+    public List<TimelineEntry> getTimeline() {
+        List<TimelineEntry> sortedTimeline;
+        synchronized (timeline) {
+            sortedTimeline = new ArrayList<>(timeline);
+        }
+        sortedTimeline.sort(Comparator.comparingLong(TimelineEntry::getStartOffset));
+        return sortedTimeline;
+    }
+
+    public String getTimelineReport() {
+        List<TimelineEntry> sortedTimeline = getTimeline();
+        StringBuilder report = new StringBuilder(String.format("Use mode listeners started : ready to display after %.1f ms, every listener started after %.1f ms (%.1f ms if started sequentially)",
+                getReadyDuration() / 1_000_000.0, getDuration() / 1_000_000.0, sortedTimeline.stream().mapToLong(TimelineEntry::getDuration).sum() / 1_000_000.0));
+        for (TimelineEntry entry : sortedTimeline) {
+            report.append(String.format("\n\t+%7.1f ms %7.1f ms  %-10s %-40s (%s)", entry.getStartOffset() / 1_000_000.0, entry.getDuration() / 1_000_000.0, entry.getPolicy(), entry.getName(), entry.getThreadName()));
+        }
+        return report.toString();
+    }
+
+    private static String getName(ModeListenerI listener) {
+        // Controllers are singletons : their type is enough, other listeners (e.g. inner listeners) can be named with toString()
+        return listener.getClass().isMemberClass() ? listener.toString() : listener.getClass().getSimpleName();
+    }
+
+    public static class TimelineEntry {
+        private final String name;
+        private final ModeStartPolicy policy;
+        private final long startOffset, duration;
+        private final String threadName;
+
+        private TimelineEntry(String name, ModeStartPolicy policy, long startOffset, long duration, String threadName) {
+            this.name = name;
+            this.policy = policy;
+            this.startOffset = startOffset;
+            this.duration = duration;
+            this.threadName = threadName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ModeStartPolicy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * @return start time from use mode start, in nanoseconds
+         */
+        public long getStartOffset() {
+            return startOffset;
+        }
+
+        /**
+         * @return start duration, in nanoseconds
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+    }
+    //========================================================================
+}
@@ -42,10 +42,8 @@ public class UseModeContext extends AbstractModeContext {
 
     void saveStateBeforeStop() {
         LCConfigurationI configuration = this.configuration.get();
-        Map<String, String> displayedComponentsInStack = configuration.getAllComponent().values()
+        Map<String, String> displayedComponentsInStack = configuration.getComponentIndex().getByType(StackComponentI.class)
                 .stream()
-                .filter(c -> c instanceof StackComponentI)
-                .map(c -> (StackComponentI) c)
                 .collect(Collectors.toMap(IdentifiableComponentI::getID, stack -> stack.displayedComponentProperty().get() != null ? stack.displayedComponentProperty().get().getID() : "none"));
         this.savedUseState = new UseModeState(displayedComponentsInStack, KeyListController.INSTANCE.getCurrentNodeId());
     }
@@ -43,6 +43,7 @@ import org.lifecompanion.model.impl.metrics.SessionEventType;
 import org.lifecompanion.model.impl.metrics.SessionPart;
 import org.lifecompanion.model.impl.metrics.SessionType;
 import org.lifecompanion.util.ThreadUtils;
+import org.lifecompanion.util.javafx.FXThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -174,7 +175,7 @@ public enum SessionStatsController implements LCStateListener {
     //========================================================================
     @Override
     public void lcStart() {
-        AppModeController.INSTANCE.getEditModeContext().configurationDescriptionProperty().addListener((obs, ov, nv) -> {
+        FXThreadUtils.runOnFXThread(() -> AppModeController.INSTANCE.getEditModeContext().configurationDescriptionProperty().addListener((obs, ov, nv) -> {
             if (AppModeController.INSTANCE.modeProperty().get() == AppMode.EDIT) {
                 if (ov != null) {
                     this.modeStopped(AppMode.EDIT);
@@ -183,7 +184,7 @@ public enum SessionStatsController implements LCStateListener {
                     this.modeStarted(AppMode.EDIT, AppModeController.INSTANCE.getEditModeContext().configurationProperty().get());
                 }
             }
-        });
+        }));
         LOGGER.info("Current session stat ID : {}", currentSessionId);
     }
 
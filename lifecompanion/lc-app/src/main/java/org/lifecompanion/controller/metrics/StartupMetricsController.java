@@ -0,0 +1,153 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collect timing (and optional memory footprint) of startup steps, to find what makes LifeCompanion slow to start.<br>
+ * Metrics are only kept in memory and can be printed with {@link #getReport()}.
+ */
+public enum StartupMetricsController {
+    INSTANCE;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupMetricsController.class);
+
+    private final long creationTime;
+    private final List<StartupMetric> metrics;
+
+    StartupMetricsController() {
+        this.creationTime = System.currentTimeMillis();
+        this.metrics = new ArrayList<>();
+    }
+
+    /**
+     * Record a startup step
+     *
+     * @param category    step category (e.g. "ImageDictionaries")
+     * @param name        step name (e.g. a dictionary name)
+     * @param startTime   step start time (from {@link System#currentTimeMillis()})
+     * @param memoryBytes estimated memory used by step result, or -1 if not relevant
+     */
+    public void record(String category, String name, long startTime, long memoryBytes) {
+        StartupMetric metric = new StartupMetric(category, name, startTime - creationTime, System.currentTimeMillis() - startTime, memoryBytes, Thread.currentThread().getName());
+        synchronized (metrics) {
+            metrics.add(metric);
+        }
+    }
+
+    public void record(String category, String name, long startTime) {
+        record(category, name, startTime, -1);
+    }
+
+    public List<StartupMetric> getMetrics() {
+        synchronized (metrics) {
+            return new ArrayList<>(metrics);
+        }
+    }
+
+    public List<StartupMetric> getMetrics(String category) {
+        List<StartupMetric> result = new ArrayList<>();
+        for (StartupMetric metric : getMetrics()) {
+            if (metric.getCategory().equals(category)) {
+                result.add(metric);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return every recorded metric, ordered by start time
+     */
+    public String getReport() {
+        List<StartupMetric> sortedMetrics = getMetrics();
+        sortedMetrics.sort(Comparator.comparingLong(StartupMetric::getStartOffset));
+        StringBuilder report = new StringBuilder("Startup metrics");
+        for (StartupMetric metric : sortedMetrics) {
+            report.append(String.format("\n\t+%6d ms %6d ms  %-20s %-40s %s",
+                    metric.getStartOffset(),
+                    metric.getDuration(),
+                    metric.getCategory(),
+                    metric.getName(),
+                    metric.getMemoryBytes() >= 0 ? String.format("~%.1f MB (%s)", metric.getMemoryBytes() / 1_000_000.0, metric.getThreadName()) : "(" + metric.getThreadName() + ")"));
+        }
+        return report.toString();
+    }
+
+    public void logReport() {
+        LOGGER.info(getReport());
+    }
+
+    public static class StartupMetric {
+        private final String category;
+        private final String name;
+        private final long startOffset;
+        private final long duration;
+        private final long memoryBytes;
+        private final String threadName;
+
+        private StartupMetric(String category, String name, long startOffset, long duration, long memoryBytes, String threadName) {
+            this.category = category;
+            this.name = name;
+            this.startOffset = startOffset;
+            this.duration = duration;
+            this.memoryBytes = memoryBytes;
+            this.threadName = threadName;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return step start time, in ms from app start
+         */
+        public long getStartOffset() {
+            return startOffset;
+        }
+
+        /**
+         * @return step duration in ms
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return estimated memory used by step result, or -1
+         */
+        public long getMemoryBytes() {
+            return memoryBytes;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+    }
+}
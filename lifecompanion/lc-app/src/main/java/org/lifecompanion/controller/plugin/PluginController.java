@@ -25,8 +25,14 @@ import javafx.beans.property.ObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import org.jdom2.Element;
+import org.lifecompanion.controller.categorizedelement.useaction.UseActionController;
 import org.lifecompanion.controller.io.ConfigurationComponentIOHelper;
+import org.lifecompanion.controller.io.ImplementationIndex;
+import org.lifecompanion.controller.textprediction.AutoCharPredictionController;
+import org.lifecompanion.controller.textprediction.CustomCharPredictionController;
+import org.lifecompanion.controller.textprediction.WordPredictionController;
 import org.lifecompanion.controller.useapi.GlobalRuntimeConfigurationController;
+import org.lifecompanion.controller.voicesynthesizer.VoiceSynthesizerController;
 import org.lifecompanion.model.api.configurationcomponent.ConfigurationChildComponentI;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
 import org.lifecompanion.model.api.configurationcomponent.keyoption.KeyOptionConfigurationViewI;
@@ -289,20 +295,31 @@ public enum PluginController implements LCStateListener, ModeListenerI {
                 // Add to plugin list
                 loadedPlugins.put(pluginInfo.getPluginId(), pluginInstance);
 
-                // Will now look for implementations
-                try (ScanResult scanResult = new ClassGraph()
-                        .whitelistJars(pluginJar.getName())
-                        .whitelistPackages(pluginInfo.getPluginPackageScanningBase().split(","))
-                        .enableClassInfo()
-                        .scan()
-                ) {
-                    // Register every serializable types to IOManager
-                    List<Class<? extends XMLSerializable>> serializableClassesInPlugin = getClassesInPlugin(scanResult, XMLSerializable.class);
-                    ConfigurationComponentIOHelper.addSerializableTypes(serializableClassesInPlugin, pluginInfo);
-
-                    // Find and register plugin custom implementations
-                    for (PluginImplementationLoadingHandler pluginImplementationLoadingHandler : pluginImplementationLoadingHandlers) {
-                        scanForImplementationInPlugin(pluginInfo, scanResult, pluginImplementationLoadingHandler);
+                // Will now look for implementations : from index built with plugin, or by scanning plugin jar
+                String[] pluginPackages = pluginInfo.getPluginPackageScanningBase().split(",");
+                ImplementationIndex implementationIndex = readPluginImplementationIndex(pluginInfo, pluginJar, pluginPackages);
+                if (implementationIndex != null) {
+                    LOGGER.info("Plugin {} implementations will be loaded from index", pluginInfo.getPluginId());
+                    ClassLoader classLoader = pluginClassType.getClassLoader();
+                    registerPluginImplementations(pluginInfo, new ImplementationFinder() {
+                        @Override
+                        public <T> List<Class<? extends T>> find(Class<T> type) throws Exception {
+                            return implementationIndex.loadImplementations(type, classLoader);
+                        }
+                    });
+                } else {
+                    try (ScanResult scanResult = new ClassGraph()
+                            .whitelistJars(pluginJar.getName())
+                            .whitelistPackages(pluginPackages)
+                            .enableClassInfo()
+                            .scan()
+                    ) {
+                        registerPluginImplementations(pluginInfo, new ImplementationFinder() {
+                            @Override
+                            public <T> List<Class<? extends T>> find(Class<T> type) {
+                                return getClassesInPlugin(scanResult, type);
+                            }
+                        });
                     }
                 }
                 pluginInfo.stateProperty().set(PluginInfoState.LOADED);
@@ -315,8 +332,35 @@ public enum PluginController implements LCStateListener, ModeListenerI {
         }
     }
 
-    private <T extends Class<T>> void scanForImplementationInPlugin(PluginInfo pluginInfo, ScanResult scanResult, PluginImplementationLoadingHandler<T> pluginImplementationLoadingHandler) {
-        List<Class<? extends T>> classes = getClassesInPlugin(scanResult, pluginImplementationLoadingHandler.getType());
+    private ImplementationIndex readPluginImplementationIndex(PluginInfo pluginInfo, File pluginJar, String[] pluginPackages) {
+        ImplementationIndex implementationIndex = ImplementationIndex.readFromJar(pluginJar);
+        if (implementationIndex != null && !implementationIndex.containsImplementationsIn(pluginPackages)) {
+            // Index was not generated for plugin packages (e.g. generated for another package than the scanning base) : plugin would be loaded without its implementations
+            LOGGER.warn("Plugin {} implementation index doesn't contain any class from {}, plugin classes will be scanned", pluginInfo.getPluginId(), pluginInfo.getPluginPackageScanningBase());
+            return null;
+        }
+        return implementationIndex;
+    }
+
+    private interface ImplementationFinder {
+        <T> List<Class<? extends T>> find(Class<T> type) throws Exception;
+    }
+
+    private void registerPluginImplementations(PluginInfo pluginInfo, ImplementationFinder implementationFinder) throws Exception {
+        long start = System.currentTimeMillis();
+        // Register every serializable types to IOManager
+        List<Class<? extends XMLSerializable>> serializableClassesInPlugin = implementationFinder.find(XMLSerializable.class);
+        ConfigurationComponentIOHelper.addSerializableTypes(serializableClassesInPlugin, pluginInfo);
+
+        // Find and register plugin custom implementations
+        for (PluginImplementationLoadingHandler pluginImplementationLoadingHandler : pluginImplementationLoadingHandlers) {
+            scanForImplementationInPlugin(pluginInfo, implementationFinder, pluginImplementationLoadingHandler);
+        }
+        LOGGER.info("Plugin {} implementations found in {} ms", pluginInfo.getPluginId(), System.currentTimeMillis() - start);
+    }
+
+    private <T extends Class<T>> void scanForImplementationInPlugin(PluginInfo pluginInfo, ImplementationFinder implementationFinder, PluginImplementationLoadingHandler<T> pluginImplementationLoadingHandler) throws Exception {
+        List<Class<? extends T>> classes = implementationFinder.find(pluginImplementationLoadingHandler.getType());
         pluginImplementationLoadingHandler.elementAdded(pluginInfo.getPluginId(), (Collection<T>) classes);
         LOGGER.info("Found {} {} implementations in plugin {}", classes.size(), pluginImplementationLoadingHandler.getType().getName(), pluginInfo.getPluginId());
     }
@@ -520,6 +564,13 @@ public enum PluginController implements LCStateListener, ModeListenerI {
         }
     }
 
+    @Override
+    public List<LCStateListener> getStartDependencies() {
+        // Plugin implementations are given to controllers once they are started, and plugin update check is done after installation ID is got
+        // Plugin errors and updates are shown as notifications (plugin update task notification too)
+        return List.of(InstallationController.INSTANCE, LCNotificationController.INSTANCE, VoiceSynthesizerController.INSTANCE, UseActionController.INSTANCE, WordPredictionController.INSTANCE, AutoCharPredictionController.INSTANCE, CustomCharPredictionController.INSTANCE);
+    }
+
     @Override
     public void lcExit() {
         for (Map.Entry<String, PluginI> pluginE : this.loadedPlugins.entrySet()) {
@@ -91,7 +91,8 @@ public enum UserCompController implements LCStateListener {
     @SuppressWarnings("unchecked")
     @Override
     public void lcStart() {
-        ProfileController.INSTANCE.currentProfileProperty().addListener((obs, ov, nv) -> {
+        // Listeners are started concurrently : profile property listener should only be added from FX thread
+        FXThreadUtils.runOnFXThread(() -> ProfileController.INSTANCE.currentProfileProperty().addListener((obs, ov, nv) -> {
             if (nv != null) {
                 MultiUserCompDescriptionLoadingTask loadTask = IOHelper.createMultiUserCompDescriptionLoadingTask(nv);
                 loadTask.setOnSucceeded(e -> {
@@ -107,7 +108,7 @@ public enum UserCompController implements LCStateListener {
                 loadTask.setOnFailed(e -> FXThreadUtils.runOnFXThread(this.userComponents::clear));
                 AsyncExecutorController.INSTANCE.addAndExecute(true, true, loadTask);
             }
-        });
+        }));
     }
 
     @Override
@@ -21,7 +21,6 @@ package org.lifecompanion.controller.selectionmode;
 import javafx.beans.property.*;
 import javafx.beans.value.ChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
@@ -29,7 +28,7 @@ import javafx.util.Pair;
 import org.lifecompanion.controller.categorizedelement.useaction.UseActionController;
 import org.lifecompanion.controller.configurationcomponent.GlobalKeyEventController;
 import org.lifecompanion.controller.io.IOHelper;
-import org.lifecompanion.controller.io.task.ConfigurationLoadingTask;
+import org.lifecompanion.controller.io.task.AbstractLoadUtilsTask;
 import org.lifecompanion.controller.lifecycle.AppMode;
 import org.lifecompanion.controller.lifecycle.AppModeController;
 import org.lifecompanion.controller.profile.ProfileController;
@@ -37,18 +36,19 @@ import org.lifecompanion.controller.useapi.GlobalRuntimeConfigurationController;
 import org.lifecompanion.model.api.configurationcomponent.*;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
 import org.lifecompanion.model.api.profile.LCConfigurationDescriptionI;
+import org.lifecompanion.model.api.profile.LCProfileI;
 import org.lifecompanion.model.api.selectionmode.*;
 import org.lifecompanion.model.impl.configurationcomponent.GridComponentInformation;
 import org.lifecompanion.model.impl.selectionmode.*;
 import org.lifecompanion.model.impl.useapi.GlobalRuntimeConfiguration;
 import org.lifecompanion.model.impl.useapi.LifeCompanionControlServerEndpoint;
-import org.lifecompanion.util.ThreadUtils;
 import org.lifecompanion.util.binding.BindingUtils;
 import org.lifecompanion.util.javafx.FXThreadUtils;
 import org.lifecompanion.util.model.SelectionModeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -128,6 +128,11 @@ public enum SelectionModeController implements ModeListenerI {
      */
     private LCConfigurationDescriptionI previousConfigurationInUseMode;
 
+    /**
+     * Recently used configurations in use mode : to change configuration in use mode without loading it again
+     */
+    private final UseModeConfigurationCache useModeConfigurationCache;
+
     /**
      * Property for playing property of current scanning mode
      */
@@ -163,9 +168,12 @@ public enum SelectionModeController implements ModeListenerI {
             }
         };
         configurationChangingListeners = new HashSet<>();
+        this.useModeConfigurationCache = new UseModeConfigurationCache();
         AppModeController.INSTANCE.modeProperty().addListener((obs, ov, nv) -> {
             if (nv == AppMode.EDIT) {
                 previousConfigurationInUseMode = null;
+                // Configurations can be modified in edit mode
+                useModeConfigurationCache.clear();
             }
         });
     }
@@ -579,15 +587,9 @@ public enum SelectionModeController implements ModeListenerI {
                 this.modeStop(currentConfiguration);
 
                 // Restore each grid selection mode to default
-                ObservableMap<String, DisplayableComponentI> allComponent = currentConfiguration.getAllComponent();
-                Set<String> componentIds = allComponent.keySet();
-                for (String id : componentIds) {
-                    final DisplayableComponentI component = currentConfiguration.getAllComponent().get(id);
-                    if (component instanceof GridComponentI) {
-                        GridComponentI gridComponent = (GridComponentI) component;
-                        if (!gridComponent.useParentSelectionModeProperty().get() && gridComponent.getSelectionModeParameter().selectionModeParameterAreSystemDefinedProperty().get()) {
-                            gridComponent.useParentSelectionModeProperty().set(true);
-                        }
+                for (GridComponentI gridComponent : currentConfiguration.getComponentIndex().getByType(GridComponentI.class)) {
+                    if (!gridComponent.useParentSelectionModeProperty().get() && gridComponent.getSelectionModeParameter().selectionModeParameterAreSystemDefinedProperty().get()) {
+                        gridComponent.useParentSelectionModeProperty().set(true);
                     }
                 }
 
@@ -730,50 +732,44 @@ public enum SelectionModeController implements ModeListenerI {
      * @param configuration the configuration to check.
      */
     private void checkSelectionConfiguration(final LCConfigurationI configuration) {
-        ObservableMap<String, DisplayableComponentI> allComponent = configuration.getAllComponent();
-        Set<String> componentIds = allComponent.keySet();
         SelectionModeParameterI configurationSelectionModeParameter = configuration.getSelectionModeParameter();
-        for (String id : componentIds) {
-            final DisplayableComponentI component = configuration.getAllComponent().get(id);
-            if (component instanceof GridComponentI) {
-                GridComponentI grid = (GridComponentI) component;
-                SelectionModeParameterI gridParameter = getSelectionModeParameter(grid, configurationSelectionModeParameter);
-                // Row column and only 1 row
-                if (isGridSelectionMode(grid, configurationSelectionModeParameter, RowColumnScanSelectionMode.class) &&
-                        SelectionModeUtils.getRowColumnScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get()).size() <= 1) {
-                    changeGridSelectionModeTo(grid, gridParameter, HorizontalDirectKeyScanSelectionMode.class);
-                }
-                // Row column and only 1 component per row
-                if (isGridSelectionMode(grid,
-                        configurationSelectionModeParameter,
-                        RowColumnScanSelectionMode.class) && SelectionModeUtils.containsOnlyOneComponentPerPart(SelectionModeUtils.getRowColumnScanningComponents(grid,
-                        !gridParameter.skipEmptyComponentProperty().get()))) {
-                    changeGridSelectionModeTo(grid, gridParameter, VerticalDirectKeyScanSelectionMode.class);
-                }
-                // Column row and only 1 column
-                if (isGridSelectionMode(grid, configurationSelectionModeParameter, ColumnRowScanSelectionMode.class) &&
-                        SelectionModeUtils.getColumnRowScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get()).size() <= 1) {
+        for (GridComponentI grid : configuration.getComponentIndex().getByType(GridComponentI.class)) {
+            SelectionModeParameterI gridParameter = getSelectionModeParameter(grid, configurationSelectionModeParameter);
+            // Row column and only 1 row
+            if (isGridSelectionMode(grid, configurationSelectionModeParameter, RowColumnScanSelectionMode.class) &&
+                    SelectionModeUtils.getRowColumnScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get()).size() <= 1) {
+                changeGridSelectionModeTo(grid, gridParameter, HorizontalDirectKeyScanSelectionMode.class);
+            }
+            // Row column and only 1 component per row
+            if (isGridSelectionMode(grid,
+                    configurationSelectionModeParameter,
+                    RowColumnScanSelectionMode.class) && SelectionModeUtils.containsOnlyOneComponentPerPart(SelectionModeUtils.getRowColumnScanningComponents(grid,
+                    !gridParameter.skipEmptyComponentProperty().get()))) {
+                changeGridSelectionModeTo(grid, gridParameter, VerticalDirectKeyScanSelectionMode.class);
+            }
+            // Column row and only 1 column
+            if (isGridSelectionMode(grid, configurationSelectionModeParameter, ColumnRowScanSelectionMode.class) &&
+                    SelectionModeUtils.getColumnRowScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get()).size() <= 1) {
+                changeGridSelectionModeTo(grid, gridParameter, VerticalDirectKeyScanSelectionMode.class);
+            }
+            // Column row and only 1 component per column
+            if (isGridSelectionMode(grid, configurationSelectionModeParameter, ColumnRowScanSelectionMode.class) &&
+                    SelectionModeUtils.containsOnlyOneComponentPerPart(SelectionModeUtils.getColumnRowScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get()))) {
+                changeGridSelectionModeTo(grid, gridParameter, HorizontalDirectKeyScanSelectionMode.class);
+            }
+            // Horizontal and 1 column
+            if (isGridSelectionMode(grid, configurationSelectionModeParameter, HorizontalDirectKeyScanSelectionMode.class)) {
+                List<GridComponentInformation> components = SelectionModeUtils.getDirectHorizontalScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get());
+                if (!SelectionModeUtils.hasTwoDiffColumnIn(components)) {
                     changeGridSelectionModeTo(grid, gridParameter, VerticalDirectKeyScanSelectionMode.class);
                 }
-                // Column row and only 1 component per column
-                if (isGridSelectionMode(grid, configurationSelectionModeParameter, ColumnRowScanSelectionMode.class) &&
-                        SelectionModeUtils.containsOnlyOneComponentPerPart(SelectionModeUtils.getColumnRowScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get()))) {
+            }
+            // Vertical and 1 row
+            if (isGridSelectionMode(grid, configurationSelectionModeParameter, VerticalDirectKeyScanSelectionMode.class)) {
+                List<GridComponentInformation> components = SelectionModeUtils.getDirectVerticalScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get());
+                if (!SelectionModeUtils.hasTwoDiffRowIn(components)) {
                     changeGridSelectionModeTo(grid, gridParameter, HorizontalDirectKeyScanSelectionMode.class);
                 }
-                // Horizontal and 1 column
-                if (isGridSelectionMode(grid, configurationSelectionModeParameter, HorizontalDirectKeyScanSelectionMode.class)) {
-                    List<GridComponentInformation> components = SelectionModeUtils.getDirectHorizontalScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get());
-                    if (!SelectionModeUtils.hasTwoDiffColumnIn(components)) {
-                        changeGridSelectionModeTo(grid, gridParameter, VerticalDirectKeyScanSelectionMode.class);
-                    }
-                }
-                // Vertical and 1 row
-                if (isGridSelectionMode(grid, configurationSelectionModeParameter, VerticalDirectKeyScanSelectionMode.class)) {
-                    List<GridComponentInformation> components = SelectionModeUtils.getDirectVerticalScanningComponents(grid, !gridParameter.skipEmptyComponentProperty().get());
-                    if (!SelectionModeUtils.hasTwoDiffRowIn(components)) {
-                        changeGridSelectionModeTo(grid, gridParameter, HorizontalDirectKeyScanSelectionMode.class);
-                    }
-                }
             }
         }
     }
@@ -1069,14 +1065,23 @@ public enum SelectionModeController implements ModeListenerI {
             UseActionController.INSTANCE.pauseActionLaunch();
             //Enable changing view
             configurationChangingListeners.forEach(l -> l.accept(true));
-            //Load the configuration (synch. because the action is executed in another Thread)
-            ConfigurationLoadingTask configurationLoadingTask = IOHelper.createLoadConfigurationTask(configurationDescription, ProfileController.INSTANCE.currentProfileProperty().get());
+            //Load the configuration or get it from cache (synch. because the action is executed in another Thread)
+            LCProfileI profile = ProfileController.INSTANCE.currentProfileProperty().get();
+            File configurationDirectory = IOHelper.getConfigurationPath(profile.getID(), configurationDescription.getConfigurationId());
             try {
-                LCConfigurationI loadedConfiguration = ThreadUtils.executeInCurrentThread(configurationLoadingTask);
+                LCConfigurationI loadedConfiguration = useModeConfigurationCache.getOrLoad(getUseModeConfigurationCacheKey(profile, configurationDescription),
+                        UseModeConfigurationCache.getConfigurationVersion(configurationDirectory), () -> AbstractLoadUtilsTask.loadConfiguration(configurationDirectory, null, null));
+                configurationDescription.loadedConfigurationProperty().set(loadedConfiguration);
                 final LCConfigurationDescriptionI previous = AppModeController.INSTANCE.getUseModeContext().getConfigurationDescription();
                 AppModeController.INSTANCE.switchUseModeConfiguration(loadedConfiguration, configurationDescription);
                 this.previousConfigurationInUseMode = previous;
                 AppModeController.INSTANCE.getEditModeContext().clearPreviouslyEditedConfiguration();
+                // User will often go back to previous configuration
+                if (previous != null && profile.getConfigurationById(previous.getConfigurationId()) != null) {
+                    File previousDirectory = IOHelper.getConfigurationPath(profile.getID(), previous.getConfigurationId());
+                    useModeConfigurationCache.prefetch(getUseModeConfigurationCacheKey(profile, previous), UseModeConfigurationCache.getConfigurationVersion(previousDirectory),
+                            () -> AbstractLoadUtilsTask.loadConfiguration(previousDirectory, null, null));
+                }
             } catch (Throwable t) {
                 this.LOGGER.warn("Couldn't load the configuration for change configuration use action", t);
                 configurationChangingListeners.forEach(l -> l.accept(false));
@@ -1085,6 +1090,10 @@ public enum SelectionModeController implements ModeListenerI {
         }
     }
 
+    private static String getUseModeConfigurationCacheKey(LCProfileI profile, LCConfigurationDescriptionI configurationDescription) {
+        return profile.getID() + "/" + configurationDescription.getConfigurationId();
+    }
+
     /**
      * Go back in the previous configuration before the last call of {@link #changeConfigurationInUseMode(LCConfigurationDescriptionI)}
      */
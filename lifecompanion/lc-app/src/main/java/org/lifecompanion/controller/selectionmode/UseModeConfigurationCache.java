@@ -0,0 +1,287 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.selectionmode;
+
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.impl.constant.LCConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keep the recently used configurations loaded, to switch between configurations in use mode without loading them again from disk.<br>
+ * Cached configurations are never used directly : each cached configuration is kept in its loaded state (pristine) and a copy of it
+ * ({@link LCConfigurationI#duplicate(boolean)}, IDs kept) is prepared in background.
+ * The prepared copy is given on next switch to this configuration (so it has no use mode state from a previous use) and a new copy is then prepared.<br>
+ * Copying a configuration costs almost as much as loading it, so on first switch to a configuration, the loaded configuration is used directly and
+ * the pristine configuration is loaded again in background.<br>
+ * A cached configuration is only used if its version (see {@link #getConfigurationVersion(File)}) didn't change since it was loaded.<br>
+ * Memory is bounded : at most {@link #DEFAULT_MAX_CONFIGURATION_COUNT} configurations are kept (least recently used is removed first),
+ * and nothing is cached (the cache is cleared) when free heap is under {@link #DEFAULT_MIN_FREE_HEAP_RATIO}.<br>
+ * Every background work (loading, copy) is done one task at a time on a low priority thread. Getting a configuration whose copy is not ready waits for it.
+ */
+public class UseModeConfigurationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UseModeConfigurationCache.class);
+
+    public static final int DEFAULT_MAX_CONFIGURATION_COUNT = 3;
+    public static final double DEFAULT_MIN_FREE_HEAP_RATIO = 0.35;
+
+    private final int maxConfigurationCount;
+    private final double minFreeHeapRatio;
+    private final DoubleSupplier freeHeapRatio;
+    private final LinkedHashMap<String, CachedConfiguration> configurations;
+    private ExecutorService backgroundExecutor;
+
+    private int hitCount, missCount;
+    private long hitTime, missTime;
+
+    public UseModeConfigurationCache() {
+        this(DEFAULT_MAX_CONFIGURATION_COUNT, DEFAULT_MIN_FREE_HEAP_RATIO, UseModeConfigurationCache::getFreeHeapRatio);
+    }
+
+    /**
+     * @param maxConfigurationCount max cached configuration count
+     * @param minFreeHeapRatio      configurations are not cached (and the cache is cleared) when free heap ratio is under this value
+     * @param freeHeapRatio         supplier for current free heap ratio (0 - 1)
+     */
+    public UseModeConfigurationCache(int maxConfigurationCount, double minFreeHeapRatio, DoubleSupplier freeHeapRatio) {
+        this.maxConfigurationCount = maxConfigurationCount;
+        this.minFreeHeapRatio = minFreeHeapRatio;
+        this.freeHeapRatio = freeHeapRatio;
+        this.configurations = new LinkedHashMap<>(maxConfigurationCount * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedConfiguration> eldest) {
+                if (size() > UseModeConfigurationCache.this.maxConfigurationCount) {
+                    eldest.getValue().cancel();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // GET/PREFETCH
+    //========================================================================
+
+    /**
+     * Get a configuration to use : the prepared copy if the configuration is cached with the same version, otherwise the loaded configuration (then cached in background).
+     *
+     * @param key     configuration key (profile and configuration ID)
+     * @param version current configuration version
+     * @param loader  to load the configuration if needed
+     * @return a configuration that can be used (never the pristine cached instance)
+     * @throws Exception if the configuration loading failed
+     */
+    public LCConfigurationI getOrLoad(String key, long version, Callable<LCConfigurationI> loader) throws Exception {
+        long start = System.nanoTime();
+        Future<LCConfigurationI> readyCopy = takeReadyCopy(key, version);
+        LCConfigurationI result = null;
+        if (readyCopy != null) {
+            try {
+                result = readyCopy.get();
+            } catch (ExecutionException | CancellationException e) {
+                LOGGER.warn("Couldn't get cached configuration {}, will load it", key, e);
+                remove(key);
+            }
+        }
+        boolean hit = result != null;
+        if (!hit) {
+            result = loader.call();
+            addIfNeeded(key, version, loader);
+        }
+        long time = System.nanoTime() - start;
+        synchronized (this) {
+            if (hit) {
+                hitCount++;
+                hitTime += time;
+            } else {
+                missCount++;
+                missTime += time;
+            }
+        }
+        LOGGER.info("Configuration {} got in {} ms (from cache : {})", key, time / 1_000_000.0, hit);
+        return result;
+    }
+
+    /**
+     * Load the configuration in background if it is not already cached with the same version
+     *
+     * @param key     configuration key (profile and configuration ID)
+     * @param version current configuration version
+     * @param loader  to load the configuration
+     */
+    public void prefetch(String key, long version, Callable<LCConfigurationI> loader) {
+        addIfNeeded(key, version, loader);
+    }
+
+    private synchronized Future<LCConfigurationI> takeReadyCopy(String key, long version) {
+        CachedConfiguration cachedConfiguration = configurations.get(key);
+        if (cachedConfiguration != null) {
+            if (cachedConfiguration.version == version) {
+                Future<LCConfigurationI> readyCopy = cachedConfiguration.readyCopy;
+                cachedConfiguration.readyCopy = null;
+                // Prepare the copy for next switch
+                if (isHeapAvailable(key)) {
+                    cachedConfiguration.readyCopy = submitCopy(cachedConfiguration.pristine);
+                }
+                return readyCopy;
+            }
+            // Outdated
+            remove(key);
+        }
+        return null;
+    }
+
+    private synchronized void addIfNeeded(String key, long version, Callable<LCConfigurationI> loader) {
+        CachedConfiguration cachedConfiguration = configurations.get(key);
+        if ((cachedConfiguration == null || cachedConfiguration.version != version) && isHeapAvailable(key)) {
+            if (cachedConfiguration != null) {
+                cachedConfiguration.cancel();
+            }
+            Future<LCConfigurationI> pristine = getBackgroundExecutor().submit(() -> {
+                long start = System.nanoTime();
+                LCConfigurationI loaded = loader.call();
+                LOGGER.info("Configuration {} loaded in background in {} ms", key, (System.nanoTime() - start) / 1_000_000.0);
+                return loaded;
+            });
+            configurations.put(key, new CachedConfiguration(version, pristine, submitCopy(pristine)));
+        }
+    }
+
+    private Future<LCConfigurationI> submitCopy(Future<LCConfigurationI> pristine) {
+        // Tasks are executed in order : pristine is always loaded before
+        return getBackgroundExecutor().submit(() -> (LCConfigurationI) pristine.get().duplicate(false));
+    }
+
+    private synchronized void remove(String key) {
+        CachedConfiguration removed = configurations.remove(key);
+        if (removed != null) {
+            removed.cancel();
+        }
+    }
+
+    private boolean isHeapAvailable(String key) {
+        double freeHeap = freeHeapRatio.getAsDouble();
+        if (freeHeap < minFreeHeapRatio) {
+            LOGGER.info("Free heap is {} %, use mode configuration cache cleared and configuration {} not cached", (int) (freeHeap * 100.0), key);
+            configurations.values().forEach(CachedConfiguration::cancel);
+            configurations.clear();
+            return false;
+        }
+        return true;
+    }
+
+    private ExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = LCNamedThreadFactory.daemonThreadFactory("UseModeConfigurationCache").newThread(r);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return backgroundExecutor;
+    }
+    //========================================================================
+
+    // STATE
+    //========================================================================
+    public synchronized void clear() {
+        if (hitCount + missCount > 0) {
+            LOGGER.info("Use mode configuration cache : {} hits (average {} ms), {} misses (average {} ms)", hitCount, getAverageHitTime(), missCount, getAverageMissTime());
+        }
+        configurations.values().forEach(CachedConfiguration::cancel);
+        configurations.clear();
+    }
+
+    public synchronized int size() {
+        return configurations.size();
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return average time to get a configuration from cache, in ms
+     */
+    public synchronized double getAverageHitTime() {
+        return hitCount > 0 ? hitTime / 1_000_000.0 / hitCount : 0.0;
+    }
+
+    /**
+     * @return average time to get a configuration not cached, in ms
+     */
+    public synchronized double getAverageMissTime() {
+        return missCount > 0 ? missTime / 1_000_000.0 / missCount : 0.0;
+    }
+    //========================================================================
+
+    // UTILS
+    //========================================================================
+
+    /**
+     * Compute the version of a saved configuration : changes each time one of the configuration files (configuration, key lists, sequences) is written.
+     *
+     * @param configurationDirectory the configuration directory
+     * @return the current version
+     */
+    public static long getConfigurationVersion(File configurationDirectory) {
+        long version = new File(configurationDirectory, LCConstant.CONFIGURATION_XML_NAME).lastModified();
+        version = 31 * version + new File(configurationDirectory, LCConstant.CONFIGURATION_KEYLIST_DIRECTORY + File.separator + LCConstant.KEYLIST_XML_NAME).lastModified();
+        version = 31 * version + new File(configurationDirectory, LCConstant.CONFIGURATION_SEQUENCE_DIRECTORY + File.separator + LCConstant.SEQUENCE_XML_NAME).lastModified();
+        return version;
+    }
+
+    private static double getFreeHeapRatio() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return 1.0 - (double) used / runtime.maxMemory();
+    }
+
+    private static class CachedConfiguration {
+        private final long version;
+        private final Future<LCConfigurationI> pristine;
+        private Future<LCConfigurationI> readyCopy;
+
+        private CachedConfiguration(long version, Future<LCConfigurationI> pristine, Future<LCConfigurationI> readyCopy) {
+            this.version = version;
+            this.pristine = pristine;
+            this.readyCopy = readyCopy;
+        }
+
+        private void cancel() {
+            pristine.cancel(false);
+            if (readyCopy != null) {
+                readyCopy.cancel(false);
+            }
+        }
+    }
+    //========================================================================
+}
@@ -42,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Consumer;
 
 /**
@@ -64,6 +65,7 @@ public enum WritingStateController implements ModeListenerI, WritingStateControl
      */
     private final StringBuilder totalTextBuilder;
     private String lastAddedTextToTotalText;
+    private final Set<Consumer<String>> committedTextListeners;
     //========================================================================
 
     WritingStateController() {
@@ -72,6 +74,7 @@ public enum WritingStateController implements ModeListenerI, WritingStateControl
         this.writingDevices.add(writingStateEntryContainer = new WritingStateEntryContainer());
 
         this.totalTextBuilder = new StringBuilder();
+        this.committedTextListeners = new CopyOnWriteArraySet<>();
 
         this.writingEventListeners = new HashSet<>(2);
 
@@ -453,12 +456,12 @@ public enum WritingStateController implements ModeListenerI, WritingStateControl
             // TODO : could learn twice the same text when the user close the configuration,
             // launch it again with the same message but append a new message.
             // text is different but the first part of the text will be learned twice.
-            // TODO : could launch dynamic training here
 
             // Append only if changed
             if (!StringUtils.isEquals(textToAppend, lastAddedTextToTotalText)) {
                 this.totalTextBuilder.append(textToAppend).append("\n");
                 this.lastAddedTextToTotalText = textToAppend;
+                this.committedTextListeners.forEach(l -> l.accept(textToAppend));
                 // TODO : save in a file for debug purposes...
             } else {
                 LOGGER.warn("Didn't add text \"{}\" to total text because it's the same than a previous added text", textToAppend);
@@ -472,22 +475,17 @@ public enum WritingStateController implements ModeListenerI, WritingStateControl
     public void modeStart(LCConfigurationI configuration) {
         WriterDisplayerI referenceWriterDisplayer = null;
 
-        final Collection<DisplayableComponentI> allComponent = configuration.getAllComponent().values();
+        final List<WriterDisplayerI> writerDisplayers = configuration.getComponentIndex().getByType(WriterDisplayerI.class);
         // Try to find the first root WriterDisplayerI as reference editor
-        for (DisplayableComponentI comp : allComponent) {
-            if (comp instanceof WriterDisplayerI && comp instanceof RootGraphicComponentI) {
-                referenceWriterDisplayer = (WriterDisplayerI) comp;
+        for (WriterDisplayerI writerDisplayer : writerDisplayers) {
+            if (writerDisplayer instanceof RootGraphicComponentI) {
+                referenceWriterDisplayer = writerDisplayer;
                 break;
             }
         }
         // Accept other writer displayer
-        if (referenceWriterDisplayer == null) {
-            for (DisplayableComponentI comp : allComponent) {
-                if (comp instanceof WriterDisplayerI) {
-                    referenceWriterDisplayer = (WriterDisplayerI) comp;
-                    break;
-                }
-            }
+        if (referenceWriterDisplayer == null && !writerDisplayers.isEmpty()) {
+            referenceWriterDisplayer = writerDisplayers.get(0);
         }
         this.writingStateEntryContainer.setCurrentDisplayerAndBindChangeListenerCaret(referenceWriterDisplayer);
         this.writingStateEntryContainer.setWriterEntries(configuration.getUseModeWriterEntries());
@@ -516,6 +514,13 @@ public enum WritingStateController implements ModeListenerI, WritingStateControl
         return totalTextBuilder.toString();
     }
 
+    /**
+     * @param committedTextListener listener called each time a text is added to total text (see {@link #getTotalTextFromStart()})
+     */
+    public void addCommittedTextListener(Consumer<String> committedTextListener) {
+        this.committedTextListeners.add(committedTextListener);
+    }
+
     public WriterDisplayerI getReferencedTextEditor() {
         return this.writingStateEntryContainer.getCurrentDisplayer();
     }
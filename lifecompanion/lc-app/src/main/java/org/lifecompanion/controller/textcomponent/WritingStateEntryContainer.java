@@ -18,11 +18,9 @@
  */
 package org.lifecompanion.controller.textcomponent;
 
-import javafx.beans.binding.Bindings;
+import javafx.beans.binding.StringBinding;
 import javafx.beans.property.*;
-import javafx.beans.value.ChangeListener;
 import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import org.lifecompanion.controller.textprediction.WordPredictionController;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
@@ -38,14 +36,17 @@ import org.lifecompanion.model.impl.exception.LCException;
 import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineHelper;
 import org.lifecompanion.util.CopyUtils;
 import org.lifecompanion.util.javafx.FXThreadUtils;
-import org.predict4all.nlp.Separator;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
+ * Default writing device : text is a list of entries.<br>
+ * Text properties are computed lazily from a {@link WritingTextModel} (incrementally updated on entry changes) : writing doesn't create the whole text again
+ * until someone needs it, and position/word lookups don't depend on the text length.
+ *
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
 public class WritingStateEntryContainer implements WritingStateControllerI {
@@ -53,6 +54,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
     // ATTRIBUTES
     //========================================================================
     private final ObservableList<WriterEntryI> entries;
+    private final WritingTextModel textModel;
 
     private final StringProperty currentText;
     private final StringProperty textBeforeCaret;
@@ -68,8 +70,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
 
     private WritingStateEntryContainerState savedState;
 
-    private final ChangeListener<String> changeListenerTextBeforeCaret;
-
+    private final TextBinding currentTextBinding, textBeforeCaretBinding, textAfterCaretBinding;
 
     /**
      * Represent the writer displayer used to compute lines calculation for caret position.<br>
@@ -78,7 +79,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
     private WriterDisplayerI currentDisplayer;
     //========================================================================
 
-    WritingStateEntryContainer() {
+    public WritingStateEntryContainer() {
 
         this.entries = FXCollections.observableArrayList();
         this.currentText = new SimpleStringProperty(this, "currentText", "");
@@ -92,20 +93,19 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
         this.upperCase = new SimpleBooleanProperty();
         this.capitalizeNext = new SimpleBooleanProperty();
 
-        changeListenerTextBeforeCaret = (obs, ov, nv) -> {
-            evaluateWriterProperties(nv);
-        };
+        this.textModel = new WritingTextModel(this.entries, this::textChanged);
+        this.currentTextBinding = new TextBinding(() -> textModel.getText());
+        this.textBeforeCaretBinding = new TextBinding(() -> textModel.substring(0, caretPosition.get()));
+        this.textAfterCaretBinding = new TextBinding(() -> textModel.substring(caretPosition.get(), Integer.MAX_VALUE));
         initEntriesBindings();
     }
 
     public void setCurrentDisplayerAndBindChangeListenerCaret(WriterDisplayerI currentDisplayer) {
         this.currentDisplayer = currentDisplayer;
-        this.textBeforeCaret.addListener(changeListenerTextBeforeCaret);
     }
 
     public void clearCurrentDisplayerAndUnbindCaret() {
         this.currentDisplayer = null;
-        this.textBeforeCaret.removeListener(changeListenerTextBeforeCaret);
         // Disable uppercase if needed
         FXThreadUtils.runOnFXThread(() -> {
             this.nextCapitalizedAutoEnabled = false;
@@ -127,49 +127,37 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
     // BINDINGS/STATE
     //========================================================================
     private void initEntriesBindings() {
-        this.entries.addListener((ListChangeListener<WriterEntryI>) (change) -> {
-            this.currentText.unbind();
-            ObservableList<WriterEntryI> entryList = this.getWriterEntries();
-            // List every string properties
-            List<StringProperty> entryTextProperty = new ArrayList<>(entryList.size());
-            for (WriterEntryI entry : entryList) {
-                entryTextProperty.add(entry.entryTextProperty());
-            }
-            // Create bindings
-            this.currentText.bind(Bindings.createStringBinding(() -> {
-                StringBuilder sb = new StringBuilder();
-                for (StringProperty strProp : entryTextProperty) {
-                    sb.append(strProp.get());
-                }
-                return sb.toString();
-            }, entryTextProperty.toArray(new StringProperty[0])));
+        // Text properties are only computed when needed (text model notify changes)
+        this.currentText.bind(this.currentTextBinding);
+        this.textBeforeCaret.bind(this.textBeforeCaretBinding);
+        this.textAfterCaret.bind(this.textAfterCaretBinding);
+        this.caretPosition.addListener(inv -> {
+            this.textBeforeCaretBinding.invalidate();
+            this.textAfterCaretBinding.invalidate();
+            this.caretOrTextChanged();
         });
-        // Bind the text before/after caret on the the text and caret position
-        this.textBeforeCaret.bind(Bindings.createStringBinding(() -> {
-            String text = this.currentText.get();
-            int caret = caretPosition.get();
-            boolean textEmpty = StringUtils.isEmpty(text);
-            if (textEmpty || caret == 0) {
-                return "";
-            } else {
-                return StringUtils.safeSubstring(text, 0, caret);
-            }
-        }, this.currentText, this.caretPosition));
-        this.textAfterCaret.bind(Bindings.createStringBinding(() -> {
-            String text = this.currentText.get();
-            int caret = caretPosition.get();
-            if (StringUtils.isEmpty(text) || caret == text.length()) {
-                return "";
-            } else {
-                return StringUtils.safeSubstring(text, caret, text.length());
-            }
-        }, this.currentText, this.caretPosition));
     }
 
-    private void evaluateWriterProperties(String nv) {
-        this.currentWord.set(this.getLastWord());
-        this.lastCompleteWord.set(this.getLastCompleteWord());
-        this.currentChar.set(nv != null && nv.length() > 0 ? "" + nv.charAt(nv.length() - 1) : "");
+    private void textChanged() {
+        this.currentTextBinding.invalidate();
+        this.textBeforeCaretBinding.invalidate();
+        this.textAfterCaretBinding.invalidate();
+        this.caretOrTextChanged();
+    }
+
+    private void caretOrTextChanged() {
+        // Caret position is read to validate it again (invalidation listener is only called once between two reads)
+        int caret = this.caretPosition.get();
+        if (this.currentDisplayer != null) {
+            this.evaluateWriterProperties(caret);
+        }
+    }
+
+    private void evaluateWriterProperties(int caret) {
+        this.currentWord.set(this.textModel.getLastWord(caret));
+        this.lastCompleteWord.set(this.textModel.getLastCompleteWord(caret));
+        int charBefore = this.textModel.charBefore(caret);
+        this.currentChar.set(charBefore >= 0 ? String.valueOf((char) charBefore) : "");
     }
 
     void evaluateAutoUpperCase() {
@@ -241,26 +229,12 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
     //========================================================================
     @Override
     public WriterEntryI getEntryBeforeCaretPosition(final int caretPosition) {
-        int totalTextLength = 0;
-        for (WriterEntryI entry : this.getWriterEntries()) {
-            totalTextLength += entry.entryTextProperty().get().length();
-            if (totalTextLength >= caretPosition) {
-                return entry;
-            }
-        }
-        return null;
+        return this.textModel.getEntryEndingAtOrAfter(caretPosition);
     }
 
     @Override
     public WriterEntryI getEntryAfterCaretPosition(final int caretPosition) {
-        int totalTextLength = 0;
-        for (WriterEntryI entry : this.getWriterEntries()) {
-            totalTextLength += entry.entryTextProperty().get().length();
-            if (totalTextLength > caretPosition) {
-                return entry;
-            }
-        }
-        return null;
+        return this.textModel.getEntryEndingAfter(caretPosition);
     }
 
     @Override
@@ -270,106 +244,33 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
 
     @Override
     public String getLastWord() {
-        // Get text before caret
-        StringBuilder lastWord = new StringBuilder();
-        String textBefore = this.textBeforeCaretProperty().get();
-        // Search for the last word
-        boolean found = false;
-        boolean notStopCharFound = false;
-        for (int i = textBefore.length() - 1; !found && i >= 0; i--) {
-            char charAt = textBefore.charAt(i);
-            boolean stopChar = Separator.getSeparatorFor(charAt) != null;
-            if (stopChar && notStopCharFound) {
-                found = true;
-            } else if (!stopChar) {
-                lastWord.insert(0, charAt);
-                notStopCharFound = true;
-            }
-        }
-        return lastWord.toString();
+        return this.textModel.getLastWord(this.caretPosition.get());
     }
 
     @Override
     public String getLastCompleteWord() {
-        // Get text before caret
-        StringBuilder lastWord = new StringBuilder();
-        String textBefore = this.textBeforeCaretProperty().get();
-        // Search for the last word
-        boolean found = false;
-        boolean firstStopCharFound = false;
-        boolean noStopCharFound = false;
-        for (int i = textBefore.length() - 1; !found && i >= 0; i--) {
-            char charAt = textBefore.charAt(i);
-            boolean stopChar = Separator.getSeparatorFor(charAt) != null;
-            if (stopChar) {
-                if (firstStopCharFound && noStopCharFound)
-                    found = true;
-                else firstStopCharFound = true;
-            } else if (firstStopCharFound) {
-                lastWord.insert(0, charAt);
-                noStopCharFound = true;
-            }
-        }
-        return lastWord.toString();
+        return this.textModel.getLastCompleteWord(this.caretPosition.get());
     }
 
     @Override
     public String getLastSentence() {
-        // Get text before caret
-        StringBuilder lastSentence = new StringBuilder();
-        String textBefore = this.textBeforeCaretProperty().get();
-        // Search for the last word
-        boolean found = false;
-        boolean notStopCharFound = false;
-        for (int i = textBefore.length() - 1; !found && i >= 0; i--) {
-            char charAt = textBefore.charAt(i);
-            final Separator stopCharFor = Separator.getSeparatorFor(charAt);
-            boolean sentenceStartChar = stopCharFor != null && stopCharFor.isSentenceSeparator();
-            if (sentenceStartChar && notStopCharFound) {
-                found = true;
-            } else if (!sentenceStartChar) {
-                lastSentence.insert(0, charAt);
-                notStopCharFound = true;
-            }
-        }
-        return lastSentence.toString();
+        return this.textModel.getLastSentence(this.caretPosition.get());
     }
 
 
     @Override
     public int getTextLengthBefore(final WriterEntryI targetEntry) {
-        return getTextLengthBeforeImpl(targetEntry, false);
+        return this.textModel.getTextLengthBefore(targetEntry);
     }
 
     @Override
     public WriterEntryI getEntryAtCaretPosition(final int position) {
-        ObservableList<WriterEntryI> entries = this.getWriterEntries();
-        int lastEntryStart = 0;
-        for (WriterEntryI entry : entries) {
-            int entryLength = StringUtils.safeLength(entry.entryTextProperty().get());
-            if (position > lastEntryStart && position < lastEntryStart + entryLength) {
-                return entry;
-            }
-            lastEntryStart += entryLength;
-        }
-        return null;
+        return this.textModel.getEntryContaining(position);
     }
 
     @Override
     public int getCaretEntryIndex(final int caretPosition) {
-        ObservableList<WriterEntryI> entries = this.getWriterEntries();
-        int lastEntryStart = 0;
-        int caretTextflowIndex = 0;
-        for (WriterEntryI entry : entries) {
-            int entryLength = entry.entryTextProperty().get().length();
-            lastEntryStart += entryLength;
-            if (lastEntryStart > caretPosition) {
-                return caretTextflowIndex;
-            } else {
-                caretTextflowIndex++;
-            }
-        }
-        return caretTextflowIndex;
+        return this.textModel.getEntryIndexAt(caretPosition);
     }
     //========================================================================
 
@@ -398,7 +299,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
 
     @Override
     public void moveCaretForward(WritingEventSource src) {
-        if (this.caretPosition.get() < this.currentText.get().length()) {
+        if (this.caretPosition.get() < this.textModel.length()) {
             this.caretPosition.set(this.caretPosition.get() + 1);
         }
     }
@@ -410,7 +311,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
 
     @Override
     public void moveCaretToEnd(WritingEventSource src) {
-        this.caretPosition.set(this.currentText.get().length());
+        this.caretPosition.set(this.textModel.length());
     }
 
     @Override
@@ -467,7 +368,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
                 } else {
                     int nCaret = line.getCaretPositionFromX(xInEditor, TextDisplayerLineHelper.BOUNDS_PROVIDER, displayer.getTextDisplayerTextStyle());
                     if (nCaret >= 0) {
-                        caretPosition.set(Math.min(nCaret, this.currentTextProperty().get().length()));
+                        caretPosition.set(Math.min(nCaret, this.textModel.length()));
                         return;
                     }
                 }
@@ -644,25 +545,8 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
     }
 
     int getLastWordAndStopCharCount() {
-        // Get text before caret
-        String textBefore = this.textBeforeCaretProperty().get();
-        // Search for the last word
         // Don't use "getLastWord()" because we need the count that include stop char
-        boolean found = false;
-        boolean notStopCharFound = false;
-        int charToRemove = 0;
-        for (int i = textBefore.length() - 1; !found && i >= 0; i--) {
-            boolean stopChar = Separator.getSeparatorFor(textBefore.charAt(i)) != null;
-            if (stopChar && notStopCharFound) {
-                found = true;
-            } else if (!stopChar) {
-                notStopCharFound = true;
-            }
-            if (!found) {
-                charToRemove++;
-            }
-        }
-        return charToRemove;
+        return this.textModel.getLastWordAndSeparatorLength(this.caretPosition.get());
     }
 
     //========================================================================
@@ -695,7 +579,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
     public void restoreState() {
         if (containsSavedState()) {
             this.entries.setAll(savedState.getEntries());
-            if (savedState.getCaretPosition() >= 0 && savedState.getCaretPosition() <= this.currentText.get().length()) {
+            if (savedState.getCaretPosition() >= 0 && savedState.getCaretPosition() <= this.textModel.length()) {
                 this.caretPosition.set(savedState.getCaretPosition());
             }
         }
@@ -771,19 +655,6 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
         }
     }
 
-    private int getTextLengthBeforeImpl(final WriterEntryI targetEntry, final boolean includeEntry) {
-        int textLength = 0;
-        ObservableList<WriterEntryI> entries = this.getWriterEntries();
-        for (WriterEntryI entry : entries) {
-            if (entry == targetEntry) {
-                return includeEntry ? textLength + entry.entryTextProperty().get().length() : textLength;
-            } else {
-                textLength += entry.entryTextProperty().get().length();
-            }
-        }
-        return textLength;
-    }
-
     private void moveCaretOnLine(WritingEventSource src, int direction) {
         if (this.currentDisplayer != null) {
             List<TextDisplayerLineI> lines = currentDisplayer.getLastCachedLines();
@@ -807,7 +678,7 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
                         double previousXPos = lines.get(currentLineIndex).getCaretXFromPosition(caret, TextDisplayerLineHelper.BOUNDS_PROVIDER, currentDisplayer.getTextDisplayerTextStyle());
                         int nCaret = lines.get(newLineIndex).getCaretPositionFromX(previousXPos, TextDisplayerLineHelper.BOUNDS_PROVIDER, currentDisplayer.getTextDisplayerTextStyle());
                         if (nCaret >= 0) {
-                            caretPosition.set(Math.min(nCaret, this.currentTextProperty().get().length()));
+                            caretPosition.set(Math.min(nCaret, this.textModel.length()));
                         }
                     }
                 }
@@ -817,4 +688,20 @@ public class WritingStateEntryContainer implements WritingStateControllerI {
 
 
     //========================================================================
+
+    /**
+     * Text binding invalidated by the container when text model or caret changes
+     */
+    private static class TextBinding extends StringBinding {
+        private final Supplier<String> textSupplier;
+
+        private TextBinding(Supplier<String> textSupplier) {
+            this.textSupplier = textSupplier;
+        }
+
+        @Override
+        protected String computeValue() {
+            return textSupplier.get();
+        }
+    }
 }
@@ -0,0 +1,347 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textcomponent;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
+import org.predict4all.nlp.Separator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Text model for a writer entry list : the whole text is kept in a single buffer where entry changes are applied in place,
+ * with the end offset of each entry (prefix sums) searched by binary search to find the entry at a text position.<br>
+ * Both are updated incrementally on entry list and entry text changes : only the changed entry and the text after it are updated,
+ * so typing at the end of a long text doesn't concatenate or scan every entry.<br>
+ * Word and sentence boundaries are searched from a position in the text buffer (without copying text), so their cost depends on word/sentence length only.<br>
+ * Model is updated by listeners on the entry list (synchronously, on the thread modifying the list) and can be read from any thread.
+ */
+class WritingTextModel {
+    private final StringBuilder text;
+    private final List<TrackedEntry> trackedEntries;
+    private final Map<WriterEntryI, TrackedEntry> trackedEntryByEntry;
+    private final Runnable textChangedCallback;
+
+    /**
+     * Text offset after each entry (entryEnds[i] = text length of entries from 0 to i)
+     */
+    private int[] entryEnds;
+
+    WritingTextModel(ObservableList<WriterEntryI> observedEntries, Runnable textChangedCallback) {
+        this.text = new StringBuilder();
+        this.trackedEntries = new ArrayList<>();
+        this.trackedEntryByEntry = new IdentityHashMap<>();
+        this.entryEnds = new int[16];
+        this.textChangedCallback = textChangedCallback;
+        observedEntries.addListener(this::entriesChanged);
+        addEntries(0, observedEntries);
+    }
+
+    // UPDATE
+    //========================================================================
+    private void entriesChanged(ListChangeListener.Change<? extends WriterEntryI> change) {
+        synchronized (this) {
+            // Changes are ordered : each change index is relative to the list after previous changes
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    removeEntries(0, trackedEntries.size());
+                    addEntries(0, change.getList());
+                } else {
+                    if (change.wasRemoved()) {
+                        removeEntries(change.getFrom(), change.getRemovedSize());
+                    }
+                    if (change.wasAdded()) {
+                        addEntries(change.getFrom(), change.getAddedSubList());
+                    }
+                }
+            }
+        }
+        textChangedCallback.run();
+    }
+
+    private void addEntries(int from, List<? extends WriterEntryI> added) {
+        int count = added.size();
+        if (count > 0) {
+            if (entryEnds.length < trackedEntries.size() + count) {
+                entryEnds = Arrays.copyOf(entryEnds, Math.max(trackedEntries.size() + count, entryEnds.length * 2));
+            }
+            System.arraycopy(entryEnds, from, entryEnds, from + count, trackedEntries.size() - from);
+            int start = getEntryStart(from);
+            StringBuilder addedText = new StringBuilder();
+            List<TrackedEntry> addedEntries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                WriterEntryI entry = added.get(i);
+                TrackedEntry trackedEntry = new TrackedEntry(entry);
+                entry.entryTextProperty().addListener(trackedEntry);
+                trackedEntryByEntry.put(entry, trackedEntry);
+                addedEntries.add(trackedEntry);
+                addedText.append(getText(entry));
+                entryEnds[from + i] = start + addedText.length();
+            }
+            text.insert(start, addedText);
+            trackedEntries.addAll(from, addedEntries);
+            updateFrom(from, from + count, addedText.length());
+        }
+    }
+
+    private void removeEntries(int from, int count) {
+        if (count > 0) {
+            int start = getEntryStart(from);
+            int end = entryEnds[from + count - 1];
+            text.delete(start, end);
+            List<TrackedEntry> removedEntries = trackedEntries.subList(from, from + count);
+            for (TrackedEntry trackedEntry : removedEntries) {
+                trackedEntry.entry.entryTextProperty().removeListener(trackedEntry);
+                trackedEntryByEntry.remove(trackedEntry.entry);
+            }
+            removedEntries.clear();
+            System.arraycopy(entryEnds, from + count, entryEnds, from, trackedEntries.size() - from);
+            updateFrom(from, from, start - end);
+        }
+    }
+
+    /**
+     * Update trackedEntry indexes from the first given index, and shift entry ends from the second given index
+     */
+    private void updateFrom(int indexFrom, int shiftFrom, int delta) {
+        for (int i = indexFrom; i < trackedEntries.size(); i++) {
+            trackedEntries.get(i).index = i;
+            if (i >= shiftFrom) {
+                entryEnds[i] += delta;
+            }
+        }
+    }
+
+    private void entryTextChanged(TrackedEntry trackedEntry, String oldValue, String newValue) {
+        synchronized (this) {
+            if (trackedEntryByEntry.get(trackedEntry.entry) != trackedEntry) {
+                return;
+            }
+            int start = getEntryStart(trackedEntry.index);
+            int oldLength = entryEnds[trackedEntry.index] - start;
+            String newText = newValue != null ? newValue : "";
+            text.replace(start, start + oldLength, newText);
+            int delta = newText.length() - oldLength;
+            for (int i = trackedEntry.index; i < trackedEntries.size(); i++) {
+                entryEnds[i] += delta;
+            }
+        }
+        textChangedCallback.run();
+    }
+
+    private static String getText(WriterEntryI entry) {
+        String entryText = entry.entryTextProperty().get();
+        return entryText != null ? entryText : "";
+    }
+    //========================================================================
+
+    // TEXT
+    //========================================================================
+    synchronized int length() {
+        return text.length();
+    }
+
+    synchronized String getText() {
+        return text.toString();
+    }
+
+    /**
+     * @return text between the given positions (positions are clamped to text bounds)
+     */
+    synchronized String substring(int start, int end) {
+        int length = text.length();
+        int s = Math.max(0, Math.min(start, length));
+        return text.substring(s, Math.max(s, Math.min(end, length)));
+    }
+
+    /**
+     * @return the char just before the given position, or -1 if there is no char before
+     */
+    synchronized int charBefore(int position) {
+        return position > 0 && position <= text.length() ? text.charAt(position - 1) : -1;
+    }
+    //========================================================================
+
+    // ENTRIES
+    //========================================================================
+    private int getEntryStart(int index) {
+        return index > 0 ? entryEnds[index - 1] : 0;
+    }
+
+    /**
+     * @return index of the first entry ending after the given position (or at the position if inclusive), entry count if there is no such entry
+     */
+    private int getFirstEntryEndingAfter(int position, boolean inclusive) {
+        int low = 0, high = trackedEntries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (inclusive ? entryEnds[mid] >= position : entryEnds[mid] > position) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return first entry ending at or after the position
+     */
+    synchronized WriterEntryI getEntryEndingAtOrAfter(int position) {
+        int index = getFirstEntryEndingAfter(position, true);
+        return index < trackedEntries.size() ? trackedEntries.get(index).entry : null;
+    }
+
+    /**
+     * @return first entry ending after the position
+     */
+    synchronized WriterEntryI getEntryEndingAfter(int position) {
+        int index = getFirstEntryEndingAfter(position, false);
+        return index < trackedEntries.size() ? trackedEntries.get(index).entry : null;
+    }
+
+    /**
+     * @return entry containing the position strictly (not at entry start or end)
+     */
+    synchronized WriterEntryI getEntryContaining(int position) {
+        int index = getFirstEntryEndingAfter(position, false);
+        return index < trackedEntries.size() && getEntryStart(index) < position ? trackedEntries.get(index).entry : null;
+    }
+
+    /**
+     * @return index of the first entry ending after the position, entry count if there is no such entry
+     */
+    synchronized int getEntryIndexAt(int position) {
+        return getFirstEntryEndingAfter(position, false);
+    }
+
+    /**
+     * @return text length before the entry (whole text length if the entry is not in the model)
+     */
+    synchronized int getTextLengthBefore(WriterEntryI entry) {
+        TrackedEntry trackedEntry = trackedEntryByEntry.get(entry);
+        return trackedEntry != null ? getEntryStart(trackedEntry.index) : text.length();
+    }
+    //========================================================================
+
+    // BOUNDARIES
+    //========================================================================
+
+    /**
+     * Search backward from the position : skip separators, then the chars that are not separators.
+     *
+     * @return start of the last char sequence without separator before the position
+     */
+    private int getLastTokenStart(int end, IntPredicate separator) {
+        int i = end - 1;
+        while (i >= 0 && separator.test(text.charAt(i))) {
+            i--;
+        }
+        while (i >= 0 && !separator.test(text.charAt(i))) {
+            i--;
+        }
+        return i + 1;
+    }
+
+    private int getLastTokenEnd(int end, IntPredicate separator) {
+        int i = end - 1;
+        while (i >= 0 && separator.test(text.charAt(i))) {
+            i--;
+        }
+        return i + 1;
+    }
+
+    private static boolean isWordSeparator(int c) {
+        return Separator.getSeparatorFor((char) c) != null;
+    }
+
+    private static boolean isSentenceSeparator(int c) {
+        Separator separator = Separator.getSeparatorFor((char) c);
+        return separator != null && separator.isSentenceSeparator();
+    }
+
+    /**
+     * @return the last word before the position (the current word if the position is in a word)
+     */
+    synchronized String getLastWord(int position) {
+        int end = Math.min(position, text.length());
+        return text.substring(getLastTokenStart(end, WritingTextModel::isWordSeparator), getLastTokenEnd(end, WritingTextModel::isWordSeparator));
+    }
+
+    /**
+     * @return the last word before the position, ignoring the word the position is in
+     */
+    synchronized String getLastCompleteWord(int position) {
+        int i = Math.min(position, text.length()) - 1;
+        while (i >= 0 && !isWordSeparator(text.charAt(i))) {
+            i--;
+        }
+        if (i < 0) {
+            return "";
+        }
+        return text.substring(getLastTokenStart(i + 1, WritingTextModel::isWordSeparator), getLastTokenEnd(i + 1, WritingTextModel::isWordSeparator));
+    }
+
+    /**
+     * @return the last sentence before the position (without sentence separators after it)
+     */
+    synchronized String getLastSentence(int position) {
+        int end = Math.min(position, text.length());
+        return text.substring(getLastTokenStart(end, WritingTextModel::isSentenceSeparator), getLastTokenEnd(end, WritingTextModel::isSentenceSeparator));
+    }
+
+    /**
+     * @return char count from the last word start to the position (including separators after the word)
+     */
+    synchronized int getLastWordAndSeparatorLength(int position) {
+        int end = Math.min(position, text.length());
+        return end - getLastTokenStart(end, WritingTextModel::isWordSeparator);
+    }
+    //========================================================================
+
+    // TRACKED ENTRY
+    //========================================================================
+
+    /**
+     * Entry in the model, with its current index
+     */
+    private class TrackedEntry implements ChangeListener<String> {
+        private final WriterEntryI entry;
+        private int index;
+
+        private TrackedEntry(WriterEntryI entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends String> observable, String oldValue, String newValue) {
+            entryTextChanged(this, oldValue, newValue);
+        }
+    }
+    //========================================================================
+}
@@ -35,11 +35,13 @@ import org.lifecompanion.model.impl.exception.LCException;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.lifecycle.LCStateListener;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
 import org.lifecompanion.model.api.textprediction.BasePredictorI;
 import org.lifecompanion.util.model.ConfigurationComponentUtils;
 import org.lifecompanion.controller.textcomponent.WritingStateController;
 import org.lifecompanion.controller.plugin.PluginImplementationLoadingHandler;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.lifecompanion.util.javafx.FXThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +49,7 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -58,7 +61,8 @@ import java.util.function.Consumer;
 public abstract class AbstractPredictionController<T extends BasePredictorI, K, V extends KeyOptionI> implements LCStateListener, ModeListenerI {
     private final Logger LOGGER = LoggerFactory.getLogger(AbstractPredictionController.class);
 
-    private static final long PREDICTION_DELAY_MS = 100;
+    private static final int PREDICTION_CACHE_SIZE = 32;
+    private static final int SPECULATIVE_PREDICTION_COUNT = 3;
 
     /**
      * The list of all current used char prediction
@@ -101,10 +105,22 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
     protected PredictionParameterI parameter;
 
     /**
-     * Executor to avoid over loading predictors (delay each call, prediction will update only when type end for {@link #PREDICTION_DELAY_MS})
+     * Executor to avoid over loading predictors (delay each call, prediction will update only when type end for {@link #predictionDelay})
      */
     private final ScheduledExecutorService scheduledExecutor;
 
+    /**
+     * Delay before each prediction, from input rate and prediction cost
+     */
+    private final AdaptivePredictionDelay predictionDelay;
+
+    /**
+     * Last prediction results (cleared on mode start/stop and training)
+     */
+    private final PredictionCache<K> predictionCache;
+
+    private final PredictionMetrics predictionMetrics;
+
     /**
      * Current prediction task (running or cancelled)
      */
@@ -115,7 +131,13 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
      */
     private final BooleanProperty disableTrainingOnThisSession;
 
-    private String lastPredictionRequestId;
+    /**
+     * Train current predictor with committed texts while it is used (if supported by predictor)
+     */
+    private final DynamicModelTrainer dynamicModelTrainer;
+
+    private final AtomicLong predictionRequestCounter;
+    private volatile long lastPredictionRequestId;
     private String lastTextBeforeCaret;
 
     private boolean forcePredictionLoad;
@@ -123,6 +145,16 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
     private final Set<Consumer<T>> predictorStartedListeners;
     private boolean modeStarted;
 
+    /**
+     * Incremented on each mode stop, to ignore the end of a mode start after mode was stopped
+     */
+    private final AtomicLong modeGeneration;
+
+    /**
+     * Start/stop the current predictor, once use mode is displayed
+     */
+    private final PredictorModeListener predictorModeListener;
+
     protected AbstractPredictionController(final Class<V> keyOptionTypeP) {
         this.keyOptionType = keyOptionTypeP;
         this.availablePredictor = FXCollections.observableArrayList();
@@ -131,7 +163,14 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
         this.predictorFromPluginIds = new HashMap<>();
         this.predictorStartedListeners = new HashSet<>();
         this.predictionTask = new AtomicReference<>();
+        this.predictionDelay = new AdaptivePredictionDelay();
+        this.predictionCache = new PredictionCache<>(PREDICTION_CACHE_SIZE);
+        this.predictionMetrics = new PredictionMetrics();
+        this.predictionRequestCounter = new AtomicLong();
+        this.modeGeneration = new AtomicLong();
+        this.predictorModeListener = new PredictorModeListener();
         this.disableTrainingOnThisSession = new SimpleBooleanProperty();
+        this.dynamicModelTrainer = new DynamicModelTrainer(this.getClass().getSimpleName());
         this.textChangedListener = (inv) -> {
             this.launchPrediction();
         };
@@ -182,11 +221,13 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
             final String textBeforeCaret = WritingStateController.INSTANCE.textBeforeCaretProperty().get();
             if (StringUtils.isDifferent(lastTextBeforeCaret, textBeforeCaret)) {
                 // Create the new task
-                final String id = UUID.randomUUID().toString();
+                final long requestTime = System.nanoTime();
+                final long id = predictionRequestCounter.incrementAndGet();
+                this.predictionDelay.inputReceived(requestTime);
                 this.lastPredictionRequestId = id;
                 this.lastTextBeforeCaret = textBeforeCaret;
                 final String textAfterCaret = WritingStateController.INSTANCE.textAfterCaretProperty().get();
-                PredictionTask predTask = new PredictionTask(id, textBeforeCaret, textAfterCaret);
+                PredictionTask predTask = new PredictionTask(id, requestTime, textBeforeCaret, textAfterCaret);
 
                 // Cancel previous task if running
                 AbstractPredictionController<T, K, V>.PredictionTask previousTask = predictionTask.getAndSet(predTask);
@@ -194,18 +235,21 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
                     previousTask.cancel(false);
                 }
 
-                // Launch new task
-                this.scheduledExecutor.schedule(predTask, PREDICTION_DELAY_MS, TimeUnit.MILLISECONDS);
+                // Launch new task (cached results are still dispatched from executor to keep dispatch order)
+                long delay = this.predictionCache.contains(textBeforeCaret, textAfterCaret) ? 0 : this.predictionDelay.getDelay();
+                this.scheduledExecutor.schedule(predTask, delay, TimeUnit.MILLISECONDS);
             }
         }
     }
 
     private class PredictionTask extends Task<Void> {
-        private final String predictionId, textBeforeCaret, textAfterCaret;
+        private final long predictionId, requestTime;
+        private final String textBeforeCaret, textAfterCaret;
 
-        public PredictionTask(String predictionId, String textBeforeCaret, String textAfterCaret) {
+        public PredictionTask(long predictionId, long requestTime, String textBeforeCaret, String textAfterCaret) {
             super();
             this.predictionId = predictionId;
+            this.requestTime = requestTime;
             this.textBeforeCaret = textBeforeCaret;
             this.textAfterCaret = textAfterCaret;
         }
@@ -214,15 +258,27 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
         protected Void call() throws Exception {
             if (AbstractPredictionController.this.currentPredictor.isInitialized()) {
                 if (!isCancelled()) {
-                    AbstractPredictionController.this.dispatchPredictionResult(Collections.nCopies(
-                            AbstractPredictionController.this.wantedPredictionCount, AbstractPredictionController.this.getWaitingElement()), true);
-                    if (!isCancelled()) {
-                        List<K> predictions = AbstractPredictionController.this.predict(textBeforeCaret, textAfterCaret, wantedPredictionCount);
-                        if (predictionId.equals(lastPredictionRequestId)) {
-                            AbstractPredictionController.this.dispatchPredictionResult(predictions, false);
-                        } else {
-                            LOGGER.warn("Got a prediction result but wasn't the last prediction request.");
+                    List<K> predictions = predictionCache.get(textBeforeCaret, textAfterCaret);
+                    boolean fromCache = predictions != null;
+                    if (!fromCache) {
+                        if (predictionDelay.isWaitingElementNeeded()) {
+                            AbstractPredictionController.this.dispatchPredictionResult(Collections.nCopies(
+                                    AbstractPredictionController.this.wantedPredictionCount, AbstractPredictionController.this.getWaitingElement()), true);
+                        }
+                        if (isCancelled()) {
+                            return null;
                         }
+                        long start = System.nanoTime();
+                        predictions = AbstractPredictionController.this.predict(textBeforeCaret, textAfterCaret, wantedPredictionCount);
+                        predictionDelay.predictionDone(System.nanoTime() - start);
+                        predictionCache.put(textBeforeCaret, textAfterCaret, predictions);
+                    }
+                    if (predictionId == lastPredictionRequestId) {
+                        AbstractPredictionController.this.dispatchPredictionResult(predictions, false);
+                        predictionMetrics.predictionDispatched(System.nanoTime() - requestTime, fromCache);
+                        launchSpeculativePredictions(predictionId, textBeforeCaret, textAfterCaret);
+                    } else {
+                        LOGGER.warn("Got a prediction result but wasn't the last prediction request.");
                     }
                 }
             }
@@ -236,6 +292,27 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
         }
 
     }
+
+    /**
+     * Compute and cache predictions for the likely next texts, only if they are expected to be computed before next input.<br>
+     * Each speculative prediction is skipped if a new prediction was requested.
+     */
+    private void launchSpeculativePredictions(long predictionId, String textBeforeCaret, String textAfterCaret) {
+        if (predictionDelay.isIdleTimeExpected(SPECULATIVE_PREDICTION_COUNT)) {
+            for (String nextTextBeforeCaret : getLikelyNextTextsBeforeCaret(textBeforeCaret, SPECULATIVE_PREDICTION_COUNT)) {
+                this.scheduledExecutor.execute(() -> {
+                    if (predictionId == lastPredictionRequestId && this.currentPredictor.isInitialized() && !predictionCache.contains(nextTextBeforeCaret, textAfterCaret)) {
+                        try {
+                            predictionCache.put(nextTextBeforeCaret, textAfterCaret, this.predict(nextTextBeforeCaret, textAfterCaret, wantedPredictionCount));
+                            predictionMetrics.speculativePredictionDone();
+                        } catch (Throwable t) {
+                            LOGGER.warn("Speculative prediction failed for prediction type {}", this.getClass().getSimpleName(), t);
+                        }
+                    }
+                });
+            }
+        }
+    }
     //========================================================================
 
     // Class part : "Utils"
@@ -265,6 +342,14 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
         this.disableTrainingOnThisSession.set(true);
     }
 
+    public PredictionMetrics getPredictionMetrics() {
+        return this.predictionMetrics;
+    }
+
+    public DynamicModelTrainer.TrainingMetrics getTrainingMetrics() {
+        return this.dynamicModelTrainer.getMetrics();
+    }
+
     //========================================================================
 
     // Class part : "Initialization"
@@ -272,8 +357,11 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
     @Override
     public void modeStart(final LCConfigurationI configuration) {
         this.wantedPredictionCount = 0;
-        this.lastPredictionRequestId = null;
+        this.lastPredictionRequestId = predictionRequestCounter.incrementAndGet();
         this.lastTextBeforeCaret = null;
+        this.predictionCache.clear();
+        this.predictionDelay.reset();
+        this.predictionMetrics.reset();
         //Select predictor from configuration
         this.parameter = configuration.getPredictionParameters();
         this.currentPredictor = this.getPredictorFor(configuration.getPredictionParameters());
@@ -282,52 +370,110 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
         this.keyPrepared();
         this.LOGGER.info("Wanted prediction count for the current configuration {} (predictor {})", this.wantedPredictionCount,
                 this.getClass().getSimpleName());
-
-        //Initialize if needed
-        if (!this.currentPredictor.isInitialized() && (this.wantedPredictionCount > 0 || forcePredictionLoad)) {
-            try {
-                this.currentPredictor.initialize();
-                this.LOGGER.info("Prediction {} initialized : {}", this.currentPredictor.getClass().getSimpleName(),
-                        this.currentPredictor.isInitialized());
-            } catch (Exception e) {
-                this.LOGGER.error("Couldn't initialize the word predictor", e);
-            }
-        }
-        //Mode start if needed
-        if (this.currentPredictor.isInitialized()) {
-            this.currentPredictor.modeStart(configuration);
-            this.firePredictorLoadedListener();
-        }
-        //First prediction
-        this.launchPrediction();
-        //Bind current text
-        WritingStateController.INSTANCE.textBeforeCaretProperty().addListener(this.textChangedListener);
-        this.modeStarted = true;
+        // Predictor is started once use mode is displayed (see getPredictorModeListener())
     }
 
     @Override
     public void modeStop(final LCConfigurationI configuration) {
         this.modeStarted = false;
-        if (this.currentPredictor.isInitialized()) {
-            this.currentPredictor.modeStop(configuration);
+        this.modeGeneration.incrementAndGet();
+        this.predictionCache.clear();
+        if (this.wantedPredictionCount > 0) {
+            LOGGER.info("Prediction {} metrics : {}", this.getClass().getSimpleName(), this.predictionMetrics);
         }
         this.predictionOptions.clear();
         WritingStateController.INSTANCE.textBeforeCaretProperty().removeListener(this.textChangedListener);
         this.predictorStartedListeners.clear();
     }
 
+    /**
+     * @return the listener that initialize and start the current predictor (selected on {@link #modeStart(LCConfigurationI)}).<br>
+     * Predictor initialization can be long : it is started once use mode is displayed, and predictions are displayed once it is done.
+     */
+    public ModeListenerI getPredictorModeListener() {
+        return predictorModeListener;
+    }
+
+    private class PredictorModeListener implements ModeListenerI {
+        private T startedPredictor;
+
+        @Override
+        public void modeStart(LCConfigurationI configuration) {
+            // Read controller state first : it can be changed by the next use mode start as soon as use mode is stopped
+            final long startedModeGeneration = modeGeneration.get();
+            final T predictor = currentPredictor;
+            final boolean initializationNeeded = wantedPredictionCount > 0 || forcePredictionLoad;
+
+            //Initialize if needed
+            if (!predictor.isInitialized() && initializationNeeded) {
+                try {
+                    predictor.initialize();
+                    LOGGER.info("Prediction {} initialized : {}", predictor.getClass().getSimpleName(), predictor.isInitialized());
+                } catch (Exception e) {
+                    LOGGER.error("Couldn't initialize the word predictor", e);
+                }
+            }
+            //Mode start if needed
+            if (predictor.isInitialized()) {
+                predictor.modeStart(configuration);
+                this.startedPredictor = predictor;
+                if (predictor.isIncrementalTrainingSupported()) {
+                    dynamicModelTrainer.setTarget(new PredictorTrainingTarget(predictor));
+                }
+            }
+            //Bind current text and launch first prediction : on FX Thread as text is changed on FX Thread (ignored if mode was stopped in between)
+            FXThreadUtils.runOnFXThread(() -> {
+                if (modeGeneration.get() == startedModeGeneration) {
+                    firePredictorLoadedListener();
+                    modeStarted = true;
+                    launchPrediction();
+                    WritingStateController.INSTANCE.textBeforeCaretProperty().addListener(textChangedListener);
+                }
+            });
+        }
+
+        @Override
+        public ModeStartPolicy getModeStartPolicy() {
+            return ModeStartPolicy.DEFERRED;
+        }
+
+        @Override
+        public void modeStop(LCConfigurationI configuration) {
+            // Model is saved once by the predictor when stopped
+            dynamicModelTrainer.flush(false);
+            dynamicModelTrainer.setTarget(null);
+            if (startedPredictor != null) {
+                startedPredictor.modeStop(configuration);
+                startedPredictor = null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return AbstractPredictionController.this.getClass().getSimpleName() + ".predictor";
+        }
+    }
+
     @Override
     public void lcStart() {
+        WritingStateController.INSTANCE.addCommittedTextListener(text -> {
+            if (!disableTrainingOnThisSession.get()) {
+                this.dynamicModelTrainer.submit(text);
+            }
+        });
     }
 
     @Override
     public void lcExit() {
-        //Dispose and train all predictor
+        //Dispose and train all predictor (predictors trained while used are only trained with texts that were not already trained)
         String trainText = WritingStateController.INSTANCE.getTotalTextFromStart();
+        String notTrainedText = this.dynamicModelTrainer.drainPendingText();
+        this.dynamicModelTrainer.shutdown();
         LOGGER.info("Will train predictor {} with\n{}", this.getClass().getSimpleName(), trainText);
+        LOGGER.info("Predictor {} training while used : {}", this.getClass().getSimpleName(), this.dynamicModelTrainer.getMetrics());
         for (T t : this.availablePredictor) {
             if (!disableTrainingOnThisSession.get()) {
-                t.trainDynamicModel(trainText);
+                t.trainDynamicModel(t.isIncrementalTrainingSupported() ? notTrainedText : trainText);
             }
             if (t.isInitialized()) {
                 this.disposePredictor(t);
@@ -348,6 +494,27 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
     }
     //========================================================================
 
+    private class PredictorTrainingTarget implements DynamicModelTrainer.TrainingTarget {
+        private final BasePredictorI predictor;
+
+        private PredictorTrainingTarget(BasePredictorI predictor) {
+            this.predictor = predictor;
+        }
+
+        @Override
+        public void train(String text) throws Exception {
+            predictor.trainDynamicModelIncrementally(text);
+            // Model changed : cached predictions could be different
+            predictionCache.clear();
+        }
+
+        @Override
+        public void checkpoint() throws Exception {
+            predictor.saveDynamicModel();
+        }
+    }
+    //========================================================================
+
     // Class part : "Prediction keys preparation"
     //========================================================================
     private void preparePredictionKeys(final LCConfigurationI configuration) {
@@ -361,6 +528,18 @@ public abstract class AbstractPredictionController<T extends BasePredictorI, K,
 
     protected abstract K getWaitingElement();
 
+    /**
+     * Subclass can implements this method to give the most probable texts after the next input, to compute their predictions in advance (default implementation returns an empty list).<br>
+     * Called on prediction thread.
+     *
+     * @param textBeforeCaret the current text before caret
+     * @param count           the max text count
+     * @return the most probable texts before caret after the next input, the most probable first
+     */
+    protected List<String> getLikelyNextTextsBeforeCaret(String textBeforeCaret, int count) {
+        return Collections.emptyList();
+    }
+
     public abstract T getDefaultPredictor();
 
     protected abstract T getPredictorFor(PredictionParameterI parameter);
@@ -0,0 +1,113 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textprediction;
+
+/**
+ * Compute the delay before launching a prediction from the observed input rate and prediction cost.<br>
+ * When a prediction is expected to end before the next input, there is no reason to wait : prediction is launched directly (slow input, e.g. scanning, or fast predictor).
+ * Otherwise, prediction is delayed a little more than the usual input interval : it will be cancelled if the user types again, so predictors are not overloaded by fast typists.<br>
+ * Input interval and prediction cost are exponential moving averages.
+ */
+public class AdaptivePredictionDelay {
+    /**
+     * Delay used until input interval and prediction cost are known
+     */
+    public static final long DEFAULT_DELAY_MS = 100;
+    public static final long MAX_DELAY_MS = 250;
+
+    /**
+     * Waiting elements are displayed only if prediction is expected to take longer than this
+     */
+    public static final double WAITING_ELEMENT_MIN_COST_MS = 50;
+
+    private static final double DELAY_INPUT_INTERVAL_FACTOR = 1.2;
+    private static final double MAX_INPUT_INTERVAL_MS = 2_000;
+    private static final double SMOOTHING = 0.3;
+
+    private long lastInputTime;
+    private double inputInterval, predictionCost;
+
+    public AdaptivePredictionDelay() {
+        reset();
+    }
+
+    public synchronized void reset() {
+        lastInputTime = -1;
+        inputInterval = -1;
+        predictionCost = -1;
+    }
+
+    /**
+     * @param time input time (nano time)
+     */
+    public synchronized void inputReceived(long time) {
+        if (lastInputTime >= 0) {
+            inputInterval = smooth(inputInterval, Math.min(MAX_INPUT_INTERVAL_MS, (time - lastInputTime) / 1_000_000.0));
+        }
+        lastInputTime = time;
+    }
+
+    /**
+     * @param duration prediction duration (nano time)
+     */
+    public synchronized void predictionDone(long duration) {
+        predictionCost = smooth(predictionCost, duration / 1_000_000.0);
+    }
+
+    /**
+     * @return the delay before launching a prediction, in ms
+     */
+    public synchronized long getDelay() {
+        if (inputInterval < 0 || predictionCost < 0) {
+            return DEFAULT_DELAY_MS;
+        }
+        if (predictionCost * 2.0 < inputInterval) {
+            return 0;
+        }
+        return Math.min(MAX_DELAY_MS, Math.round(inputInterval * DELAY_INPUT_INTERVAL_FACTOR));
+    }
+
+    /**
+     * @return true if waiting elements should be displayed while predicting
+     */
+    public synchronized boolean isWaitingElementNeeded() {
+        return predictionCost < 0 || predictionCost > WAITING_ELEMENT_MIN_COST_MS;
+    }
+
+    /**
+     * @param predictionCount prediction count to do after the current one
+     * @return true if the given prediction count is expected to end before next input
+     */
+    public synchronized boolean isIdleTimeExpected(int predictionCount) {
+        return inputInterval >= 0 && predictionCost >= 0 && predictionCost * (predictionCount + 1) < inputInterval;
+    }
+
+    public synchronized double getInputInterval() {
+        return inputInterval;
+    }
+
+    public synchronized double getPredictionCost() {
+        return predictionCost;
+    }
+
+    private static double smooth(double average, double value) {
+        return average < 0 ? value : average + SMOOTHING * (value - average);
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textprediction;
+
+import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+
+/**
+ * Train a predictor dynamic model with the texts committed while it is used, on a low priority background thread, instead of training once on the whole session text on exit.<br>
+ * Committed texts are batched : a batch is trained when texts were waiting for the batch delay, or when the pending text is long enough.
+ * The model is saved (checkpoint) periodically, so training is not lost if the application is killed.<br>
+ * Texts are joined with a new line, as in session total text : training every batch gives the same model than training once on every text.
+ */
+public class DynamicModelTrainer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DynamicModelTrainer.class);
+
+    public static final long DEFAULT_BATCH_DELAY_MS = 10_000;
+    public static final int DEFAULT_BATCH_MAX_LENGTH = 2_000;
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MS = 120_000;
+
+    private final String name;
+    private final long batchDelay;
+    private final int batchMaxLength;
+    private final long checkpointInterval;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Texts waiting to be trained (guarded by this)
+     */
+    private final Deque<PendingText> pendingTexts;
+    private int pendingLength;
+    private ScheduledFuture<?> scheduledBatch;
+
+    /**
+     * Current model to train (guarded by this), null if there is no model to train (texts are kept until a target is set, or drained)
+     */
+    private TrainingTarget target;
+    private boolean trainedSinceCheckpoint;
+    private long lastCheckpoint;
+
+    private final TrainingMetrics metrics;
+
+    public DynamicModelTrainer(String name, long batchDelay, int batchMaxLength, long checkpointInterval) {
+        this.name = name;
+        this.batchDelay = batchDelay;
+        this.batchMaxLength = batchMaxLength;
+        this.checkpointInterval = checkpointInterval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(LCNamedThreadFactory.daemonThreadFactoryWithPriority("DynamicModelTraining-" + name, Thread.MIN_PRIORITY));
+        this.pendingTexts = new ArrayDeque<>();
+        this.metrics = new TrainingMetrics();
+    }
+
+    public DynamicModelTrainer(String name) {
+        this(name, DEFAULT_BATCH_DELAY_MS, DEFAULT_BATCH_MAX_LENGTH, DEFAULT_CHECKPOINT_INTERVAL_MS);
+    }
+
+    // Class part : "Public API"
+    //========================================================================
+
+    /**
+     * Set the model trained with committed texts.<br>
+     * Texts committed while there was no target are trained on next batch.
+     *
+     * @param target the target, or null to stop training (a batch already started is ended with the previous target)
+     */
+    public synchronized void setTarget(TrainingTarget target) {
+        this.target = target;
+        this.lastCheckpoint = System.currentTimeMillis();
+        this.trainedSinceCheckpoint = false;
+        if (target != null && !pendingTexts.isEmpty()) {
+            scheduleBatch(0);
+        }
+    }
+
+    /**
+     * Add a committed text, will be trained on next batch
+     */
+    public synchronized void submit(String text) {
+        if (StringUtils.isNotBlank(text)) {
+            pendingTexts.add(new PendingText(text, System.nanoTime()));
+            pendingLength += text.length();
+            if (target != null) {
+                scheduleBatch(pendingLength >= batchMaxLength ? 0 : batchDelay);
+            }
+        }
+    }
+
+    /**
+     * Train every pending text and save the model (if there is a current target), and wait for the training end.
+     */
+    public void flush() {
+        flush(true);
+    }
+
+    /**
+     * Train every pending text (if there is a current target), and wait for the training end.
+     *
+     * @param saveModel true to save the model once trained, false when the caller saves it itself (e.g. predictor saves its model when stopped)
+     */
+    public void flush(boolean saveModel) {
+        try {
+            executor.submit(() -> trainPendingTexts(saveModel)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException | ExecutionException e) {
+            LOGGER.warn("Couldn't flush {} dynamic model training", name, e);
+        }
+    }
+
+    /**
+     * Remove every pending text without training it
+     *
+     * @return pending texts (joined with new lines, as given to training)
+     */
+    public synchronized String drainPendingText() {
+        StringBuilder text = new StringBuilder(pendingLength + pendingTexts.size());
+        for (PendingText pendingText : pendingTexts) {
+            text.append(pendingText.text).append("\n");
+        }
+        pendingTexts.clear();
+        pendingLength = 0;
+        cancelScheduledBatch();
+        return text.toString();
+    }
+
+    public synchronized int getPendingLength() {
+        return pendingLength;
+    }
+
+    public TrainingMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    //========================================================================
+
+    // Class part : "Training"
+    //========================================================================
+    private void scheduleBatch(long delay) {
+        // Keep the already scheduled batch if it will be executed before
+        if (scheduledBatch != null && !scheduledBatch.isDone() && scheduledBatch.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+            return;
+        }
+        cancelScheduledBatch();
+        try {
+            scheduledBatch = executor.schedule(() -> trainPendingTexts(false), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("{} dynamic model training is stopped, batch ignored", name);
+        }
+    }
+
+    private void cancelScheduledBatch() {
+        if (scheduledBatch != null) {
+            scheduledBatch.cancel(false);
+            scheduledBatch = null;
+        }
+    }
+
+    /**
+     * Called on training thread only
+     */
+    private void trainPendingTexts(boolean forceCheckpoint) {
+        TrainingTarget currentTarget;
+        String batchText;
+        long oldestCommit;
+        synchronized (this) {
+            currentTarget = this.target;
+            if (currentTarget == null) {
+                return;
+            }
+            oldestCommit = pendingTexts.isEmpty() ? 0 : pendingTexts.getFirst().commitTime;
+            batchText = pendingTexts.isEmpty() ? null : drainPendingText();
+        }
+        if (batchText != null) {
+            long start = System.nanoTime();
+            try {
+                currentTarget.train(batchText);
+                synchronized (this) {
+                    trainedSinceCheckpoint = true;
+                }
+                metrics.batchTrained(batchText.length(), System.nanoTime() - start, System.nanoTime() - oldestCommit);
+                LOGGER.debug("{} dynamic model trained with a batch of {} chars in {} ms", name, batchText.length(), (System.nanoTime() - start) / 1_000_000.0);
+            } catch (Throwable t) {
+                LOGGER.error("Couldn't train {} dynamic model", name, t);
+            }
+        }
+        boolean checkpoint;
+        synchronized (this) {
+            checkpoint = trainedSinceCheckpoint && (forceCheckpoint || System.currentTimeMillis() - lastCheckpoint >= checkpointInterval);
+        }
+        if (checkpoint) {
+            try {
+                currentTarget.checkpoint();
+                metrics.checkpointDone();
+                synchronized (this) {
+                    lastCheckpoint = System.currentTimeMillis();
+                    trainedSinceCheckpoint = false;
+                }
+            } catch (Throwable t) {
+                LOGGER.error("Couldn't save {} dynamic model", name, t);
+            }
+        }
+    }
+
+    public interface TrainingTarget {
+        /**
+         * Train the model with a text (called on training thread)
+         */
+        void train(String text) throws Exception;
+
+        /**
+         * Save the current model (called on training thread)
+         */
+        void checkpoint() throws Exception;
+    }
+
+    private static class PendingText {
+        private final String text;
+        private final long commitTime;
+
+        private PendingText(String text, long commitTime) {
+            this.text = text;
+            this.commitTime = commitTime;
+        }
+    }
+    //========================================================================
+
+    // Class part : "Metrics"
+    //========================================================================
+    public static class TrainingMetrics {
+        private long batchCount, trainedLength, trainingTime, lastLag, maxLag, checkpointCount;
+
+        private synchronized void batchTrained(int length, long time, long lag) {
+            batchCount++;
+            trainedLength += length;
+            trainingTime += time;
+            lastLag = lag;
+            maxLag = Math.max(maxLag, lag);
+        }
+
+        private synchronized void checkpointDone() {
+            checkpointCount++;
+        }
+
+        public synchronized long getBatchCount() {
+            return batchCount;
+        }
+
+        public synchronized long getTrainedLength() {
+            return trainedLength;
+        }
+
+        public synchronized long getCheckpointCount() {
+            return checkpointCount;
+        }
+
+        /**
+         * @return time between the commit of the oldest text in the last batch and the end of its training, in ms
+         */
+        public synchronized double getLastLagMs() {
+            return lastLag / 1_000_000.0;
+        }
+
+        public synchronized double getMaxLagMs() {
+            return maxLag / 1_000_000.0;
+        }
+
+        /**
+         * @return trained chars per second (only counting time spent in training)
+         */
+        public synchronized double getThroughput() {
+            return trainingTime > 0 ? trainedLength * 1_000_000_000.0 / trainingTime : 0.0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%d batches, %d chars, %.0f chars/s, lag %.1f ms (max %.1f ms), %d checkpoints", batchCount, trainedLength, getThroughput(), getLastLagMs(),
+                    getMaxLagMs(), checkpointCount);
+        }
+    }
+    //========================================================================
+}
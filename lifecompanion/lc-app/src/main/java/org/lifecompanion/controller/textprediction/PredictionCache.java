@@ -0,0 +1,65 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textprediction;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small LRU cache of prediction results, keyed by text before and after caret.<br>
+ * Should be cleared each time the predictor or its model changes.
+ */
+public class PredictionCache<K> {
+    private final Map<String, List<K>> entries;
+
+    public PredictionCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(maxSize + 1, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<K>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized List<K> get(String textBeforeCaret, String textAfterCaret) {
+        return entries.get(getKey(textBeforeCaret, textAfterCaret));
+    }
+
+    public synchronized boolean contains(String textBeforeCaret, String textAfterCaret) {
+        return entries.containsKey(getKey(textBeforeCaret, textAfterCaret));
+    }
+
+    public synchronized void put(String textBeforeCaret, String textAfterCaret, List<K> predictions) {
+        entries.put(getKey(textBeforeCaret, textAfterCaret), predictions);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static String getKey(String textBeforeCaret, String textAfterCaret) {
+        return (textBeforeCaret != null ? textBeforeCaret : "") + '\u0000' + (textAfterCaret != null ? textAfterCaret : "");
+    }
+}
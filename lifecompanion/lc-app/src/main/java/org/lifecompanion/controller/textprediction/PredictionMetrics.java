@@ -0,0 +1,90 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textprediction;
+
+import java.util.Arrays;
+
+/**
+ * Prediction latency (from text change to prediction result dispatch) on the last predictions, and prediction cache use.
+ */
+public class PredictionMetrics {
+    private static final int LATENCY_SAMPLE_COUNT = 512;
+
+    private final long[] latencies;
+    private int latencyCount;
+    private long cacheHitCount, cacheMissCount, speculativePredictionCount;
+
+    public PredictionMetrics() {
+        this.latencies = new long[LATENCY_SAMPLE_COUNT];
+    }
+
+    public synchronized void predictionDispatched(long latency, boolean fromCache) {
+        latencies[latencyCount++ % LATENCY_SAMPLE_COUNT] = latency;
+        if (fromCache) {
+            cacheHitCount++;
+        } else {
+            cacheMissCount++;
+        }
+    }
+
+    public synchronized void speculativePredictionDone() {
+        speculativePredictionCount++;
+    }
+
+    /**
+     * @param percentile percentile (0 - 100)
+     * @return the latency percentile on the last predictions, in ms (0 if there is no prediction)
+     */
+    public synchronized double getLatencyPercentile(double percentile) {
+        int count = Math.min(latencyCount, LATENCY_SAMPLE_COUNT);
+        if (count == 0) {
+            return 0.0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+    }
+
+    /**
+     * @return dispatched predictions that were found in cache (0 - 1)
+     */
+    public synchronized double getCacheHitRate() {
+        long total = cacheHitCount + cacheMissCount;
+        return total > 0 ? (double) cacheHitCount / total : 0.0;
+    }
+
+    public synchronized long getSpeculativePredictionCount() {
+        return speculativePredictionCount;
+    }
+
+    public synchronized void reset() {
+        latencyCount = 0;
+        cacheHitCount = 0;
+        cacheMissCount = 0;
+        speculativePredictionCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d predictions, latency p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, cache hit rate %.0f %%, %d speculative predictions", cacheHitCount + cacheMissCount,
+                getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99), getCacheHitRate() * 100.0, speculativePredictionCount);
+    }
+}
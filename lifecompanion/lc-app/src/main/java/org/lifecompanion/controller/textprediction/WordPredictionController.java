@@ -30,9 +30,14 @@ import org.lifecompanion.model.api.textprediction.WordPredictionResultI;
 import org.lifecompanion.model.api.textprediction.WordPredictorI;
 import org.lifecompanion.model.impl.configurationcomponent.keyoption.WordPredictionKeyOption;
 import org.lifecompanion.model.impl.textprediction.WordPrediction;
+import org.lifecompanion.model.impl.textprediction.charprediction.LCCharPredictor;
 import org.lifecompanion.model.impl.textprediction.predict4all.Predict4AllWordPredictor;
 import org.lifecompanion.util.javafx.FXThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -43,6 +48,8 @@ import java.util.stream.Collectors;
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
 public class WordPredictionController extends AbstractPredictionController<WordPredictorI, WordPredictionI, WordPredictionKeyOption> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WordPredictionController.class);
+
     //Enum can't extends abstract class
     public static final WordPredictionController INSTANCE = new WordPredictionController();
 
@@ -50,6 +57,11 @@ public class WordPredictionController extends AbstractPredictionController<WordP
 
     private WordPredictionResultI lastPredictionResult;
 
+    /**
+     * Char predictor used to find likely next texts, initialized on first speculative prediction
+     */
+    private boolean charPredictorInitializationDone;
+
     private final Predict4AllWordPredictor predict4AllWordPredictor = new Predict4AllWordPredictor();
 
     protected WordPredictionController() {
@@ -100,27 +112,63 @@ public class WordPredictionController extends AbstractPredictionController<WordP
     @Override
     protected List<WordPredictionI> predict(String textBeforeCaret, String textAfterCaret, int count) {
         synchronized (this.currentPredictor) {
-            this.lastPredictionResult = this.currentPredictor.predict(textBeforeCaret, textAfterCaret, count);
+            WordPredictionResultI predictionResult = this.currentPredictor.predict(textBeforeCaret, textAfterCaret, count);
             if (this.parameter.enableMinWordPredictionScoreThresholdProperty().get()) {
-                double maxScore = lastPredictionResult.getPredictions()
+                double maxScore = predictionResult.getPredictions()
                         .stream()
                         .mapToDouble(WordPredictionI::getScore)
                         .max().orElse(0.0);
 
                 double scoreThreshold = maxScore * this.parameter.minWordPredictionScoreThresholdProperty().get(); // defined the threshold min score to display a prediction
-                return lastPredictionResult.getPredictions()
+                return new WordPredictionList(predictionResult, predictionResult.getPredictions()
                         .stream()
                         .filter(pred -> pred.getScore() >= scoreThreshold)
-                        .collect(Collectors.toList());
+                        .collect(Collectors.toList()));
             } else {
-                return lastPredictionResult.getPredictions();
+                return new WordPredictionList(predictionResult, predictionResult.getPredictions());
             }
         }
     }
 
+    @Override
+    protected List<String> getLikelyNextTextsBeforeCaret(String textBeforeCaret, int count) {
+        if (!charPredictorInitializationDone) {
+            charPredictorInitializationDone = true;
+            if (!LCCharPredictor.INSTANCE.isInitialized()) {
+                try {
+                    LCCharPredictor.INSTANCE.initialize();
+                } catch (Exception e) {
+                    LOGGER.info("Char predictor couldn't be initialized, word predictions will not be computed in advance", e);
+                }
+            }
+        }
+        if (LCCharPredictor.INSTANCE.isInitialized()) {
+            List<String> nextTexts = new ArrayList<>(count);
+            for (Character nextChar : LCCharPredictor.INSTANCE.predict(textBeforeCaret, count)) {
+                nextTexts.add((textBeforeCaret != null ? textBeforeCaret : "") + nextChar);
+            }
+            return nextTexts;
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Predictions with the predictor result they come from (to keep the result of the dispatched predictions)
+     */
+    private static class WordPredictionList extends ArrayList<WordPredictionI> {
+        private final WordPredictionResultI predictionResult;
+
+        private WordPredictionList(WordPredictionResultI predictionResult, List<WordPredictionI> predictions) {
+            super(predictions);
+            this.predictionResult = predictionResult;
+        }
+    }
 
     @Override
     protected void dispatchPredictionResult(List<WordPredictionI> result, boolean waitingDispatch) {
+        if (result instanceof WordPredictionList) {
+            this.lastPredictionResult = ((WordPredictionList) result).predictionResult;
+        }
         Set<GridComponentI> grids = this.predictionOptions.keySet();
         for (GridComponentI grid : grids) {
             List<WordPredictionKeyOption> options = this.predictionOptions.get(grid);
@@ -141,6 +189,7 @@ public class WordPredictionController extends AbstractPredictionController<WordP
     public void modeStop(LCConfigurationI configuration) {
         super.modeStop(configuration);
         lastPredictionResult = null;
+        charPredictorInitializationDone = false;
     }
 
 }
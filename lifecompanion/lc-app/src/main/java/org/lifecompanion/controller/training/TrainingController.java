@@ -10,6 +10,8 @@ import org.lifecompanion.util.ThreadUtils;
 import org.lifecompanion.util.javafx.FXThreadUtils;
 import org.lifecompanion.util.javafx.StageUtils;
 
+import java.util.List;
+
 import static org.lifecompanion.model.impl.constant.LCConstant.TRAINING_DIALOG_SHOW_DELAY;
 
 public enum TrainingController implements LCStateListener {
@@ -20,7 +22,7 @@ public enum TrainingController implements LCStateListener {
     @Override
     public void lcStart() {
         if (shouldTrainingInformationBeDisplayed()) {
-            AppModeController.INSTANCE.modeProperty().addListener((obs, ov, nv) -> {
+            FXThreadUtils.runOnFXThread(() -> AppModeController.INSTANCE.modeProperty().addListener((obs, ov, nv) -> {
                 if (nv == AppMode.EDIT) {
                     ThreadUtils.runAfter(TRAINING_DIALOG_SHOW_DELAY, () -> {
                         if (AppModeController.INSTANCE.isEditMode() && !shown && shouldTrainingInformationBeDisplayed()) {
@@ -29,10 +31,15 @@ public enum TrainingController implements LCStateListener {
                         }
                     });
                 }
-            });
+            }));
         }
     }
 
+    @Override
+    public List<LCStateListener> getStartDependencies() {
+        return List.of(LCStateController.INSTANCE);
+    }
+
     private static boolean shouldTrainingInformationBeDisplayed() {
         return !LCStateController.INSTANCE.hideTrainingDialogProperty()
                                           .get() && System.currentTimeMillis() - LCStateController.INSTANCE.getLastTrainingDialogShow() >= LCConstant.TRAINING_DIALOG_SHOW_INTERVAL;
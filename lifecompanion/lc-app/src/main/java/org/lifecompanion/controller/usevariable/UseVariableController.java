@@ -25,7 +25,6 @@ import javafx.beans.InvalidationListener;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
 import javafx.scene.input.Clipboard;
 import javafx.util.Duration;
 import org.lifecompanion.controller.plugin.PluginController;
@@ -36,7 +35,6 @@ import org.lifecompanion.framework.commons.utils.lang.CollectionUtils;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
 import org.lifecompanion.framework.utils.Pair;
 import org.lifecompanion.model.api.categorizedelement.useevent.UseEventGeneratorI;
-import org.lifecompanion.model.api.configurationcomponent.DisplayableComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
 import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
@@ -478,16 +476,8 @@ public enum UseVariableController implements ModeListenerI {
     }
 
     private void searchForVariableInformationKeys(final LCConfigurationI configuration) {
-        ObservableMap<String, DisplayableComponentI> allComponentMap = configuration.getAllComponent();
-        Set<String> keys = allComponentMap.keySet();
-        for (String id : keys) {
-            DisplayableComponentI configComponent = allComponentMap.get(id);
-            if (configComponent instanceof GridPartKeyComponentI) {
-                GridPartKeyComponentI key = (GridPartKeyComponentI) configComponent;
-                if (key.keyOptionProperty().get() instanceof VariableInformationKeyOption) {
-                    this.variablesInformationKeyOptions.add((VariableInformationKeyOption) key.keyOptionProperty().get());
-                }
-            }
+        for (GridPartKeyComponentI key : configuration.getComponentIndex().getKeysByKeyOptionType(VariableInformationKeyOption.class)) {
+            this.variablesInformationKeyOptions.add((VariableInformationKeyOption) key.keyOptionProperty().get());
         }
     }
 
@@ -21,8 +21,10 @@ package org.lifecompanion.model.api.categorizedelement.useaction;
 import javafx.collections.ObservableList;
 import org.lifecompanion.model.api.configurationcomponent.DuplicableComponentI;
 import org.lifecompanion.model.api.configurationcomponent.UseInformationSerializableI;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.io.XMLSerializable;
+import org.lifecompanion.model.impl.exception.LCException;
 
 import java.util.Map;
 
@@ -105,4 +107,12 @@ public interface UseActionManagerI extends XMLSerializable<IOContextI>, UseInfor
      */
     void dispatchIdsChanged(Map<String, String> changes);
 
+    /**
+     * Add a copy of every source action to this manager (actions attached to key options are not copied, as on serialization)
+     *
+     * @param source  the manager that contains actions to copy
+     * @param context the copy context used to copy each action
+     */
+    void copyActionsFrom(UseActionManagerI source, ComponentCopyContextI context) throws LCException;
+
 }
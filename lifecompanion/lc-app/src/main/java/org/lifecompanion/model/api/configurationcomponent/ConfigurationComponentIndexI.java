@@ -0,0 +1,57 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.api.configurationcomponent;
+
+import org.lifecompanion.model.api.configurationcomponent.keyoption.KeyOptionI;
+
+import java.util.List;
+
+/**
+ * Index on every component of a configuration (see {@link LCConfigurationI#getAllComponent()}), maintained when components are added/removed or changed.<br>
+ * Lookups don't walk the configuration tree : they should be used instead of iterating on every component (especially on use mode start).<br>
+ * Returned lists are copies and can be freely modified.
+ */
+public interface ConfigurationComponentIndexI {
+
+    /**
+     * @param id   the component ID
+     * @param type the expected component type
+     * @return the component with the given ID, or null if there is no such component or if it's not the expected type
+     */
+    <T> T getById(String id, Class<T> type);
+
+    /**
+     * @param type the wanted type (can be an interface or a super class)
+     * @return every component that is an instance of the given type (no specific order, as in {@link LCConfigurationI#getAllComponent()})
+     */
+    <T> List<T> getByType(Class<T> type);
+
+    /**
+     * @param grid the grid parent
+     * @return every component which grid parent is the given grid (direct children only)
+     */
+    List<GridPartComponentI> getByParentGrid(GridComponentI grid);
+
+    /**
+     * @param keyOptionType the wanted key option type (can be an interface or a super class)
+     * @return every key which current key option is an instance of the given type (e.g. keys displaying a key list node with KeyListNodeKeyOption)
+     */
+    List<GridPartKeyComponentI> getKeysByKeyOptionType(Class<? extends KeyOptionI> keyOptionType);
+}
@@ -75,6 +75,11 @@ public interface LCConfigurationI extends DisplayableComponentI, VoiceSynthesize
      */
     ObservableMap<String, DisplayableComponentI> getAllComponent();
 
+    /**
+     * @return the index on {@link #getAllComponent()} : should be used to find components by type, parent grid or key option, instead of iterating on every component.
+     */
+    ConfigurationComponentIndexI getComponentIndex();
+
     /**
      * @return a property that define this configuration width.<br>
      * This width is managed by the configuration implementation itself, it can be fixed, but it can also change
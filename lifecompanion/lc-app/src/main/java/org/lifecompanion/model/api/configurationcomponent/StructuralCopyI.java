@@ -0,0 +1,40 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.api.configurationcomponent;
+
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
+import org.lifecompanion.model.impl.exception.LCException;
+
+/**
+ * Represent a component that can be copied without XML serialization (see {@link org.lifecompanion.util.CopyUtils#createDeepCopy(DuplicableComponentI, boolean)}).<br>
+ * As for serialize/deserialize, each class copies its own state and then call super implementation.
+ * A type is copied this way only if it declares this method itself : subclasses that don't override it are copied with XML serialization.
+ */
+public interface StructuralCopyI {
+
+    /**
+     * Copy the state of the given source into this newly created component.
+     *
+     * @param source  the copied component (always the same type as this component)
+     * @param context the copy context, to copy children and parts that can't be copied directly
+     * @throws LCException if a part can't be copied
+     */
+    void copyStateFrom(StructuralCopyI source, ComponentCopyContextI context) throws LCException;
+}
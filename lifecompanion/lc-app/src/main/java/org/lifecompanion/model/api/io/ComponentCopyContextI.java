@@ -0,0 +1,61 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.api.io;
+
+import org.lifecompanion.model.impl.exception.LCException;
+
+/**
+ * Context given to {@link org.lifecompanion.model.api.configurationcomponent.StructuralCopyI#copyStateFrom(org.lifecompanion.model.api.configurationcomponent.StructuralCopyI, ComponentCopyContextI)}.<br>
+ * Keep the ID changes done while copying, and copy the parts that are not structurally copyable with their XML serialization.
+ */
+public interface ComponentCopyContextI {
+
+    /**
+     * @return true if copied components should get new IDs
+     */
+    boolean isChangeID();
+
+    /**
+     * Register an ID change : every change is dispatched once on the copied tree when the copy ends.
+     *
+     * @param previousId the source component ID
+     * @param newId      the copied component ID
+     */
+    void idChanged(String previousId, String newId);
+
+    /**
+     * Create a copy of the given element : structurally if its type supports it, with its XML serialization otherwise.
+     *
+     * @param source the element to copy
+     * @return the copied element
+     * @throws LCException if the element can't be copied
+     */
+    <T extends XMLSerializable<IOContextI>> T copy(T source) throws LCException;
+
+    /**
+     * Copy the source into an already existing target, with its XML serialization.<br>
+     * Useful for parts that are not created by their owner (e.g. parameters in final fields).
+     *
+     * @param source the element to copy
+     * @param target the element where source state is deserialized
+     * @throws LCException if the element can't be copied
+     */
+    <T extends XMLSerializable<IOContextI>> void copyInto(T source, T target) throws LCException;
+}
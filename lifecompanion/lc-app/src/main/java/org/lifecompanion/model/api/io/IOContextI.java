@@ -89,4 +89,16 @@ public interface IOContextI {
     //========================================================================
     Map<String, String> getBackwardImageCompatibilityIdsMap();
     //========================================================================
+
+    // METRICS
+    //========================================================================
+
+    /**
+     * Called each time a serializable element is instantiated from XML in this context
+     *
+     * @param type          the instantiated type
+     * @param durationNanos the instantiation duration
+     */
+    void instanceCreated(Class<?> type, long durationNanos);
+    //========================================================================
 }
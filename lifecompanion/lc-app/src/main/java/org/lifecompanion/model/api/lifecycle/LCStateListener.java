@@ -19,6 +19,9 @@
 
 package org.lifecompanion.model.api.lifecycle;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * To listen the LC state (startup and exit)
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
@@ -39,5 +42,14 @@ public interface LCStateListener {
 	 * Called once in application life cycle.
 	 */
 	void lcExit();
+
+	/**
+	 * The listeners that should be started before this listener : {@link #lcStart()} will only be called once their {@link #lcStart()} is done.<br>
+	 * Listeners that don't depend on each other can be started concurrently, so every listener this listener {@link #lcStart()} relies on should be returned.
+	 * @return the listeners to start before this one (empty by default)
+	 */
+	default List<LCStateListener> getStartDependencies() {
+		return Collections.emptyList();
+	}
 	//========================================================================
 }
@@ -40,4 +40,12 @@ public interface ModeListenerI {
 	 * @param configuration the configuration where the mode stops (the same configuration that the {@link #modeStart(LCConfigurationI)} configuration)
 	 */
 	void modeStop(LCConfigurationI configuration);
+
+	/**
+	 * Define when {@link #modeStart(LCConfigurationI)} is called compared to other listeners and to use mode display.
+	 * @return the start policy ({@link ModeStartPolicy#SEQUENTIAL} by default)
+	 */
+	default ModeStartPolicy getModeStartPolicy() {
+		return ModeStartPolicy.SEQUENTIAL;
+	}
 }
@@ -0,0 +1,44 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.api.lifecycle;
+
+/**
+ * Define when a {@link ModeListenerI} is started when use mode starts, to display use mode as soon as possible.<br>
+ * Use mode is displayed once every {@link #SEQUENTIAL} and {@link #CONCURRENT} listener is started.
+ */
+public enum ModeStartPolicy {
+    /**
+     * Started before use mode is displayed, one after the other in listener order
+     */
+    SEQUENTIAL,
+
+    /**
+     * Started before use mode is displayed, but at the same time than every other listener.<br>
+     * The listener should only read the configuration (without modifying it) and its own state.
+     */
+    CONCURRENT,
+
+    /**
+     * Started once use mode is displayed (once every other listener is started), one after the other in listener order, while the user can already use the configuration.<br>
+     * The listener should work correctly if it is used before its start ends.
+     * If use mode stops before its start, the listener is neither started nor stopped, otherwise it is stopped once its start ends (after non deferred listeners).
+     */
+    DEFERRED
+}
@@ -84,4 +84,30 @@ public interface BasePredictorI extends ModeListenerI, XMLSerializable<IOContext
      * @param text text to train the predictor (raw)
      */
     void trainDynamicModel(String text);
+
+    /**
+     * @return true if this predictor can be trained while it is used (see {@link #trainDynamicModelIncrementally(String)}).<br>
+     * Otherwise, the predictor is trained on exit with {@link #trainDynamicModel(String)} (default implementation returns false)
+     */
+    default boolean isIncrementalTrainingSupported() {
+        return false;
+    }
+
+    /**
+     * Called on a background thread to train the currently used model (between mode start and mode stop) with texts committed in use mode.<br>
+     * Should be thread safe with prediction.
+     *
+     * @param text text to train the predictor (raw)
+     * @throws Exception if training fails
+     */
+    default void trainDynamicModelIncrementally(String text) throws Exception {
+    }
+
+    /**
+     * Called on a background thread to save the currently used dynamic model after incremental training.
+     *
+     * @throws Exception if saving fails
+     */
+    default void saveDynamicModel() throws Exception {
+    }
 }
@@ -25,6 +25,7 @@ import org.jdom2.Element;
 import org.lifecompanion.controller.io.ConfigurationComponentIOHelper;
 import org.lifecompanion.model.api.categorizedelement.useaction.*;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.io.XMLSerializable;
 import org.lifecompanion.framework.commons.fx.io.XMLUtils;
@@ -180,6 +181,24 @@ public class SimpleUseActionManager implements UseActionManagerI {
             }
         }
     }
+
+    @Override
+    public void copyActionsFrom(final UseActionManagerI source, final ComponentCopyContextI context) {
+        for (Map.Entry<UseActionEvent, ObservableList<BaseUseActionI<?>>> sourceActions : source.componentActions().entrySet()) {
+            ObservableList<BaseUseActionI<?>> actionList = this.actions.get(sourceActions.getKey());
+            if (actionList != null) {
+                for (BaseUseActionI<?> action : sourceActions.getValue()) {
+                    if (!action.attachedToKeyOptionProperty().get()) {
+                        try {
+                            actionList.add(context.copy(action));
+                        } catch (Throwable t) {
+                            SimpleUseActionManager.LOGGER.warn("Couldn't copy the use action {}", action, t);
+                        }
+                    }
+                }
+            }
+        }
+    }
     //========================================================================
 
     // Class part : "XML"
@@ -31,6 +31,7 @@ import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
 import org.lifecompanion.model.api.configurationcomponent.ComponentGridI;
 import org.lifecompanion.model.api.configurationcomponent.KeyFactory;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.io.XMLSerializable;
 import org.lifecompanion.framework.commons.fx.io.XMLObjectSerializer;
@@ -1075,26 +1076,52 @@ public class ComponentGrid implements XMLSerializable<IOContextI>, ComponentGrid
             if (!gridPartResult.getLeft()) {
                 gridPart.deserialize(gridComponent, contextP);
             }
+            this.putLoadedComponent(gridPart);
+            loadedChildren.add(gridPart);
+        }
+        this.componentsAdded(loadedChildren);
+    }
 
-            // Put into the grid
-            this.grid[gridPart.rowProperty().get()][gridPart.columnProperty().get()] = gridPart;
-
-            // Create component span if needed
-            if (gridPart.rowSpanProperty().get() > 1 || gridPart.columnSpanProperty().get() > 1) {
-                int endRowIndex = gridPart.rowProperty().get() + gridPart.rowSpanProperty().get();
-                int endColumnIndex = gridPart.columnProperty().get() + gridPart.columnSpanProperty().get();
-                for (int rowIndex = gridPart.rowProperty().get(); rowIndex < endRowIndex; rowIndex++) {
-                    for (int columnIndex = gridPart.columnProperty().get(); columnIndex < endColumnIndex; columnIndex++) {
-                        if (rowIndex != gridPart.rowProperty().get() || columnIndex != gridPart.columnProperty().get()) {
-                            grid[rowIndex][columnIndex] = createSpan(gridPart, rowIndex, columnIndex);
-                        }
+    /**
+     * Copy the source grid content into this grid : each source component is copied and put at the same place.
+     *
+     * @param source   the grid to copy (should be the same size than this grid)
+     * @param contextP the copy context
+     * @throws LCException if a component can't be copied
+     */
+    public void copyFrom(final ComponentGrid source, final ComponentCopyContextI contextP) throws LCException {
+        XMLObjectSerializer.copyInto(ComponentGrid.class, source, this);
+        this.createGrid();
+        List<GridPartComponentI> copiedChildren = new ArrayList<>();
+        for (int rowIndex = 0; rowIndex < source.row.get(); rowIndex++) {
+            for (int columnIndex = 0; columnIndex < source.column.get(); columnIndex++) {
+                GridPartComponentI component = source.grid[rowIndex][columnIndex];
+                if (!(component instanceof ComponentSpan)) {
+                    GridPartComponentI gridPart = contextP.copy(component);
+                    this.putLoadedComponent(gridPart);
+                    copiedChildren.add(gridPart);
+                }
+            }
+        }
+        this.componentsAdded(copiedChildren);
+    }
+
+    private void putLoadedComponent(final GridPartComponentI gridPart) {
+        // Put into the grid
+        this.grid[gridPart.rowProperty().get()][gridPart.columnProperty().get()] = gridPart;
+
+        // Create component span if needed
+        if (gridPart.rowSpanProperty().get() > 1 || gridPart.columnSpanProperty().get() > 1) {
+            int endRowIndex = gridPart.rowProperty().get() + gridPart.rowSpanProperty().get();
+            int endColumnIndex = gridPart.columnProperty().get() + gridPart.columnSpanProperty().get();
+            for (int rowIndex = gridPart.rowProperty().get(); rowIndex < endRowIndex; rowIndex++) {
+                for (int columnIndex = gridPart.columnProperty().get(); columnIndex < endColumnIndex; columnIndex++) {
+                    if (rowIndex != gridPart.rowProperty().get() || columnIndex != gridPart.columnProperty().get()) {
+                        grid[rowIndex][columnIndex] = createSpan(gridPart, rowIndex, columnIndex);
                     }
                 }
             }
-            // Fire
-            loadedChildren.add(gridPart);
         }
-        this.componentsAdded(loadedChildren);
     }
     // ========================================================================
 
@@ -0,0 +1,294 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.configurationcomponent;
+
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ObservableMap;
+import org.lifecompanion.model.api.configurationcomponent.*;
+import org.lifecompanion.model.api.configurationcomponent.keyoption.KeyOptionI;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation for {@link ConfigurationComponentIndexI} : indexes are updated from the configuration component map changes,
+ * and from the grid parent and key option of each indexed component.<br>
+ * This index is not thread safe, as the component map, it should only be modified on FX Thread.
+ * Lookups can be done from several threads at the same time while the index is not modified (e.g. on use mode start).
+ */
+public class ConfigurationComponentIndex implements ConfigurationComponentIndexI {
+    private final LCConfigurationI configuration;
+    private final ObservableMap<String, DisplayableComponentI> allComponents;
+
+    /**
+     * Components by their concrete type
+     */
+    private final Map<Class<?>, Set<DisplayableComponentI>> componentsByType;
+
+    /**
+     * Concrete types that are instance of a requested type (cleared when a new concrete type is indexed, can contain types that are not indexed anymore)
+     */
+    private final Map<Class<?>, List<Class<?>>> concreteTypesForType;
+
+    private final Map<GridComponentI, Set<GridPartComponentI>> componentsByParentGrid;
+
+    /**
+     * Keys by their current key option concrete type
+     */
+    private final Map<Class<?>, Set<GridPartKeyComponentI>> keysByKeyOptionType;
+    private final Map<Class<?>, List<Class<?>>> concreteTypesForKeyOptionType;
+
+    private final Map<DisplayableComponentI, IndexedComponent> indexedComponents;
+
+    ConfigurationComponentIndex(LCConfigurationI configuration, ObservableMap<String, DisplayableComponentI> allComponents) {
+        this.configuration = configuration;
+        this.allComponents = allComponents;
+        this.componentsByType = new HashMap<>();
+        this.concreteTypesForType = new ConcurrentHashMap<>();
+        this.componentsByParentGrid = new HashMap<>();
+        this.keysByKeyOptionType = new HashMap<>();
+        this.concreteTypesForKeyOptionType = new ConcurrentHashMap<>();
+        this.indexedComponents = new IdentityHashMap<>();
+    }
+
+    // Class part : "Lookups"
+    //========================================================================
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getById(String id, Class<T> type) {
+        DisplayableComponentI component = id != null ? allComponents.get(id) : null;
+        return component != null && type.isInstance(component) ? (T) component : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getByType(Class<T> type) {
+        List<T> result = new ArrayList<>();
+        for (Class<?> concreteType : getConcreteTypes(type, componentsByType.keySet(), concreteTypesForType)) {
+            Set<DisplayableComponentI> components = componentsByType.get(concreteType);
+            if (components != null) {
+                result.addAll((Set<T>) components);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<GridPartComponentI> getByParentGrid(GridComponentI grid) {
+        Set<GridPartComponentI> children = componentsByParentGrid.get(grid);
+        return children != null ? new ArrayList<>(children) : new ArrayList<>();
+    }
+
+    @Override
+    public List<GridPartKeyComponentI> getKeysByKeyOptionType(Class<? extends KeyOptionI> keyOptionType) {
+        List<GridPartKeyComponentI> result = new ArrayList<>();
+        for (Class<?> concreteType : getConcreteTypes(keyOptionType, keysByKeyOptionType.keySet(), concreteTypesForKeyOptionType)) {
+            Set<GridPartKeyComponentI> keys = keysByKeyOptionType.get(concreteType);
+            if (keys != null) {
+                result.addAll(keys);
+            }
+        }
+        return result;
+    }
+
+    private static List<Class<?>> getConcreteTypes(Class<?> type, Set<Class<?>> indexedTypes, Map<Class<?>, List<Class<?>>> cache) {
+        return cache.computeIfAbsent(type, t -> {
+            List<Class<?>> concreteTypes = new ArrayList<>();
+            for (Class<?> indexedType : indexedTypes) {
+                if (t.isAssignableFrom(indexedType)) {
+                    concreteTypes.add(indexedType);
+                }
+            }
+            return concreteTypes;
+        });
+    }
+    //========================================================================
+
+    // Class part : "Index update"
+    //========================================================================
+    void componentAdded(DisplayableComponentI component) {
+        if (indexedComponents.containsKey(component)) {
+            return;
+        }
+        IndexedComponent indexedComponent = new IndexedComponent();
+        indexedComponents.put(component, indexedComponent);
+        add(componentsByType, component.getClass(), component, concreteTypesForType);
+        if (component instanceof GridChildComponentI && component instanceof GridPartComponentI) {
+            GridPartComponentI gridPart = (GridPartComponentI) component;
+            indexedComponent.gridParentListener = (obs, ov, nv) -> {
+                removeGridChild(ov, gridPart);
+                addGridChild(nv, gridPart);
+            };
+            gridPart.gridParentProperty().addListener(indexedComponent.gridParentListener);
+            addGridChild(gridPart.gridParentProperty().get(), gridPart);
+        }
+        if (component instanceof GridPartKeyComponentI) {
+            GridPartKeyComponentI key = (GridPartKeyComponentI) component;
+            indexedComponent.keyOptionListener = (obs, ov, nv) -> {
+                if (ov != null) remove(keysByKeyOptionType, ov.getClass(), key);
+                if (nv != null) add(keysByKeyOptionType, nv.getClass(), key, concreteTypesForKeyOptionType);
+            };
+            key.keyOptionProperty().addListener(indexedComponent.keyOptionListener);
+            KeyOptionI keyOption = key.keyOptionProperty().get();
+            if (keyOption != null) {
+                add(keysByKeyOptionType, keyOption.getClass(), key, concreteTypesForKeyOptionType);
+            }
+        }
+    }
+
+    void componentRemoved(DisplayableComponentI component) {
+        IndexedComponent indexedComponent = indexedComponents.remove(component);
+        if (indexedComponent == null) {
+            return;
+        }
+        remove(componentsByType, component.getClass(), component);
+        if (indexedComponent.gridParentListener != null) {
+            GridPartComponentI gridPart = (GridPartComponentI) component;
+            gridPart.gridParentProperty().removeListener(indexedComponent.gridParentListener);
+            removeGridChild(gridPart.gridParentProperty().get(), gridPart);
+        }
+        if (indexedComponent.keyOptionListener != null) {
+            GridPartKeyComponentI key = (GridPartKeyComponentI) component;
+            key.keyOptionProperty().removeListener(indexedComponent.keyOptionListener);
+            KeyOptionI keyOption = key.keyOptionProperty().get();
+            if (keyOption != null) {
+                remove(keysByKeyOptionType, keyOption.getClass(), key);
+            }
+        }
+    }
+
+    private void addGridChild(GridComponentI grid, GridPartComponentI gridPart) {
+        if (grid != null) {
+            componentsByParentGrid.computeIfAbsent(grid, g -> new LinkedHashSet<>()).add(gridPart);
+        }
+    }
+
+    private void removeGridChild(GridComponentI grid, GridPartComponentI gridPart) {
+        if (grid != null) {
+            remove(componentsByParentGrid, grid, gridPart);
+        }
+    }
+
+    private static <K, V> void add(Map<K, Set<V>> map, K type, V value, Map<Class<?>, List<Class<?>>> concreteTypesCache) {
+        Set<V> values = map.get(type);
+        if (values == null) {
+            values = new LinkedHashSet<>();
+            map.put(type, values);
+            concreteTypesCache.clear();
+        }
+        values.add(value);
+    }
+
+    private static <K, V> void remove(Map<K, Set<V>> map, K key, V value) {
+        Set<V> values = map.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Listeners added to an indexed component (to remove them when the component is removed)
+     */
+    private static class IndexedComponent {
+        private ChangeListener<GridComponentI> gridParentListener;
+        private ChangeListener<KeyOptionI> keyOptionListener;
+    }
+    //========================================================================
+
+    // Class part : "Consistency"
+    //========================================================================
+
+    /**
+     * Check this index against a full walk of the configuration tree : every component found in the tree should be indexed the same way it would be if the index was built from scratch.
+     *
+     * @return every found inconsistency (empty if the index is consistent)
+     */
+    public List<String> checkConsistency() {
+        List<String> errors = new ArrayList<>();
+        Set<DisplayableComponentI> treeComponents = Collections.newSetFromMap(new IdentityHashMap<>());
+        walkTree(configuration, treeComponents);
+
+        for (DisplayableComponentI component : treeComponents) {
+            if (getById(component.getID(), DisplayableComponentI.class) != component) {
+                errors.add("Component " + component.getID() + " is not indexed by ID");
+            }
+            Set<DisplayableComponentI> sameType = componentsByType.get(component.getClass());
+            if (sameType == null || !sameType.contains(component)) {
+                errors.add("Component " + component.getID() + " is not indexed by type " + component.getClass().getSimpleName());
+            }
+            if (component instanceof GridPartComponentI && component instanceof GridChildComponentI) {
+                GridComponentI gridParent = ((GridPartComponentI) component).gridParentProperty().get();
+                if (gridParent != null && !componentsByParentGrid.getOrDefault(gridParent, Collections.emptySet()).contains(component)) {
+                    errors.add("Component " + component.getID() + " is not indexed in its parent grid " + gridParent.getID());
+                }
+            }
+            if (component instanceof GridPartKeyComponentI) {
+                KeyOptionI keyOption = ((GridPartKeyComponentI) component).keyOptionProperty().get();
+                if (keyOption != null && !keysByKeyOptionType.getOrDefault(keyOption.getClass(), Collections.emptySet()).contains(component)) {
+                    errors.add("Key " + component.getID() + " is not indexed by key option " + keyOption.getClass().getSimpleName());
+                }
+            }
+        }
+
+        // Indexed components that are not in tree anymore
+        checkOnlyTreeComponents(indexedComponents.keySet(), treeComponents, "Removed component {} is still indexed", errors);
+        componentsByType.forEach((type, components) -> checkOnlyTreeComponents(components, treeComponents, "Removed component {} is still indexed by type", errors));
+        componentsByParentGrid.forEach((grid, components) -> {
+            checkOnlyTreeComponents(components, treeComponents, "Removed component {} is still indexed by parent grid", errors);
+            for (GridPartComponentI component : components) {
+                if (component.gridParentProperty().get() != grid) {
+                    errors.add("Component " + component.getID() + " is indexed in a grid that is not its parent : " + grid.getID());
+                }
+            }
+        });
+        keysByKeyOptionType.forEach((type, keys) -> {
+            checkOnlyTreeComponents(keys, treeComponents, "Removed key {} is still indexed by key option", errors);
+            for (GridPartKeyComponentI key : keys) {
+                if (key.keyOptionProperty().get() == null || key.keyOptionProperty().get().getClass() != type) {
+                    errors.add("Key " + key.getID() + " is indexed with a key option type that is not its current key option : " + type.getSimpleName());
+                }
+            }
+        });
+        return errors;
+    }
+
+    private static void walkTree(TreeIdentifiableComponentI node, Set<DisplayableComponentI> components) {
+        if (node instanceof DisplayableComponentI) {
+            components.add((DisplayableComponentI) node);
+        }
+        if (!node.isTreeIdentifiableComponentLeaf()) {
+            for (TreeIdentifiableComponentI child : node.<TreeIdentifiableComponentI>getTreeIdentifiableChildren()) {
+                walkTree(child, components);
+            }
+        }
+    }
+
+    private static void checkOnlyTreeComponents(Collection<? extends DisplayableComponentI> components, Set<DisplayableComponentI> treeComponents, String message, List<String> errors) {
+        for (DisplayableComponentI component : components) {
+            if (!treeComponents.contains(component)) {
+                errors.add(message.replace("{}", component.getID() + " (" + component.getClass().getSimpleName() + ")"));
+            }
+        }
+    }
+    //========================================================================
+}
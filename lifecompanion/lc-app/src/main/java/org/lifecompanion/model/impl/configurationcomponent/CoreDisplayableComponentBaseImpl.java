@@ -25,6 +25,7 @@ import org.jdom2.Element;
 import org.lifecompanion.controller.io.ConfigurationComponentIOHelper;
 import org.lifecompanion.model.api.configurationcomponent.*;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.ui.configurationcomponent.ComponentViewI;
 import org.lifecompanion.model.api.ui.configurationcomponent.ViewProviderI;
@@ -42,7 +43,7 @@ import java.util.Map;
  *
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
-public abstract class CoreDisplayableComponentBaseImpl implements DisplayableComponentI {
+public abstract class CoreDisplayableComponentBaseImpl implements DisplayableComponentI, StructuralCopyI {
     /**
      * Object unique identifier
      */
@@ -248,7 +249,7 @@ public abstract class CoreDisplayableComponentBaseImpl implements DisplayableCom
      */
     @Override
     public DuplicableComponentI duplicate(final boolean changeID) {
-        return CopyUtils.createDeepCopyViaXMLSerialization(this, changeID);
+        return CopyUtils.createDeepCopy(this, changeID);
     }
 
     @Override
@@ -316,6 +317,17 @@ public abstract class CoreDisplayableComponentBaseImpl implements DisplayableCom
     public void deserialize(final Element nodeP, final IOContextI contextP) throws LCException {
         XMLObjectSerializer.deserializeInto(CoreDisplayableComponentBaseImpl.class, this, nodeP);
     }
+
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        // Keep the ID generated on creation when ID should change
+        String newId = this.id;
+        XMLObjectSerializer.copyInto(CoreDisplayableComponentBaseImpl.class, sourceP, this);
+        if (contextP.isChangeID()) {
+            contextP.idChanged(this.id, newId);
+            this.id = newId;
+        }
+    }
     //========================================================================
 
     // Class part : "Use information serializable"
@@ -22,6 +22,7 @@ import javafx.beans.property.*;
 import org.jdom2.Element;
 import org.lifecompanion.framework.commons.fx.io.XMLObjectSerializer;
 import org.lifecompanion.model.api.configurationcomponent.*;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.style.GridCompStyleI;
 import org.lifecompanion.model.api.style.GridStyleUserI;
@@ -474,6 +475,15 @@ public abstract class GridPartComponentBaseImpl extends DisplayableComponentBase
         StyleSerialializer.deserializeGridStyle(this, nodeP, contextP);
         StyleSerialializer.deserializeKeyStyle(this, nodeP, contextP);
     }
+
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        super.copyStateFrom(sourceP, contextP);
+        GridPartComponentBaseImpl source = (GridPartComponentBaseImpl) sourceP;
+        XMLObjectSerializer.copyInto(GridPartComponentBaseImpl.class, source, this);
+        StyleSerialializer.copyGridStyle(source, this);
+        StyleSerialializer.copyKeyStyle(source, this);
+    }
     //========================================================================
 
 }
@@ -26,6 +26,7 @@ import org.lifecompanion.model.api.configurationcomponent.ComponentGridI;
 import org.lifecompanion.model.api.configurationcomponent.*;
 import org.lifecompanion.model.api.selectionmode.SelectionModeParameterI;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.ui.configurationcomponent.ViewProviderI;
 import org.lifecompanion.model.impl.selectionmode.SelectionModeParameter;
@@ -42,7 +43,7 @@ public class GridPartGridComponent extends GridPartComponentBaseImpl implements
     /**
      * The grid that contains every element placed in this grid
      */
-    private final ComponentGridI grid;
+    private final ComponentGrid grid;
 
     /**
      * Number of row count and column count
@@ -256,6 +257,17 @@ public class GridPartGridComponent extends GridPartComponentBaseImpl implements
         }
     }
 
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        super.copyStateFrom(sourceP, contextP);
+        GridPartGridComponent source = (GridPartGridComponent) sourceP;
+        XMLObjectSerializer.copyInto(GridPartGridComponent.class, source, this);
+        if (!this.useParentSelectionMode.get()) {
+            contextP.copyInto(source.selectionModeParameter, this.selectionModeParameter);
+        }
+        this.grid.copyFrom(source.grid, contextP);
+    }
+
     //========================================================================
 
     // Class part : "Tree part"
@@ -38,6 +38,7 @@ import org.lifecompanion.model.api.categorizedelement.useaction.UseActionManager
 import org.lifecompanion.model.api.configurationcomponent.*;
 import org.lifecompanion.model.api.configurationcomponent.keyoption.KeyOptionI;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.io.XMLSerializable;
 import org.lifecompanion.model.api.style.TextPosition;
@@ -491,6 +492,20 @@ public class GridPartKeyComponent extends GridPartComponentBaseImpl implements G
         }
         this.changeKeyOption(loadedkeyOption, false);
     }
+
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        super.copyStateFrom(sourceP, contextP);
+        GridPartKeyComponent source = (GridPartKeyComponent) sourceP;
+        XMLObjectSerializer.copyInto(GridPartKeyComponent.class, source, this);
+        this.imageUseComponentPropertyWrapper.copyFrom(source.imageUseComponentPropertyWrapper);
+        this.videoUseComponentPropertyWrapper.copyFrom(source.videoUseComponentPropertyWrapper);
+        this.actionManager.copyActionsFrom(source.actionManager, contextP);
+        //Option (base key option is already set on creation)
+        if (!(source.keyOption.get() instanceof BasicKeyOption)) {
+            this.changeKeyOption(contextP.copy(source.keyOption.get()), false);
+        }
+    }
     //========================================================================
 
     // Class part : "Use information"
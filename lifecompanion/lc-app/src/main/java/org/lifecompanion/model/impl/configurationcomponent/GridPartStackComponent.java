@@ -26,8 +26,10 @@ import org.jdom2.Element;
 import org.lifecompanion.model.api.configurationcomponent.GridComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.api.configurationcomponent.StructuralCopyI;
 import org.lifecompanion.model.api.configurationcomponent.TreeDisplayableType;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.impl.configurationcomponent.GridPartComponentBaseImpl;
 import org.lifecompanion.model.impl.configurationcomponent.StackComponentBaseImpl;
@@ -158,6 +160,12 @@ public class GridPartStackComponent extends GridPartComponentBaseImpl implements
         super.deserialize(nodeP, contextP);
         StackComponentBaseImpl.deserialize(this, nodeP, contextP);
     }
+
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        super.copyStateFrom(sourceP, contextP);
+        StackComponentBaseImpl.copy((GridPartStackComponent) sourceP, this, contextP);
+    }
     //========================================================================
 
 }
@@ -466,6 +466,16 @@ public class ImageUseComponentPropertyWrapper {
             this.imageVTwo.set(deserializeImageUseV2(element, contextP));
         }
     }
+
+    /**
+     * Copy image use parameters from the given wrapper (same values than XML serialization, but image is directly shared)
+     */
+    public void copyFrom(final ImageUseComponentPropertyWrapper source) {
+        if (source.imageVTwo.get() != null) {
+            XMLObjectSerializer.copyInto(ImageUseComponentPropertyWrapper.class, source, this);
+            this.imageVTwo.set(source.imageVTwo.get());
+        }
+    }
     //========================================================================
 
     // Class part : "Public API : image user"
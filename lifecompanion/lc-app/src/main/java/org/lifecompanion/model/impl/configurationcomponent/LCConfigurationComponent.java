@@ -86,6 +86,11 @@ public class LCConfigurationComponent extends CoreDisplayableComponentBaseImpl i
      */
     private final ObservableMap<String, DisplayableComponentI> allComponents;
 
+    /**
+     * Index on {@link #allComponents} (by ID, type, parent grid and key option)
+     */
+    private final transient ConfigurationComponentIndex componentIndex;
+
     /**
      * Configuration size
      */
@@ -207,6 +212,7 @@ public class LCConfigurationComponent extends CoreDisplayableComponentBaseImpl i
         this.removeCallbacks = new ArrayList<>();
         this.voiceSynthesizerParameter = new VoiceSynthesizerParameter();
         this.allComponents = FXCollections.observableHashMap();
+        this.componentIndex = new ConfigurationComponentIndex(this, this.allComponents);
         this.unsavedAction = new SimpleIntegerProperty(this, "unsavedAction");
         this.width = new SimpleDoubleProperty(this, "width", 0.0);
         this.automaticWidth = new SimpleDoubleProperty(this, "automaticWidth", 0.0);
@@ -353,6 +359,11 @@ public class LCConfigurationComponent extends CoreDisplayableComponentBaseImpl i
         return this.allComponents;
     }
 
+    @Override
+    public ConfigurationComponentIndex getComponentIndex() {
+        return this.componentIndex;
+    }
+
     @Override
     public Set<String> getManualPluginDependencyIds() {
         return manualPluginDependencyIds;
@@ -702,6 +713,7 @@ public class LCConfigurationComponent extends CoreDisplayableComponentBaseImpl i
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     private void componentAdded(final DisplayableComponentI component) {
+        this.componentIndex.componentAdded(component);
         component.removedProperty().addListener((obs, ov, nv) -> {
             if (nv) {
                 LCConfigurationComponent.this.allComponents.remove(component.getID());
@@ -714,6 +726,7 @@ public class LCConfigurationComponent extends CoreDisplayableComponentBaseImpl i
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     private void componentRemoved(final DisplayableComponentI component) {
+        this.componentIndex.componentRemoved(component);
         for (Consumer removedCallback : this.removeCallbacks) {
             removedCallback.accept(component);
         }
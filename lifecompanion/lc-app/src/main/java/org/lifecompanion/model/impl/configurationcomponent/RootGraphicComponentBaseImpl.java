@@ -24,7 +24,9 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import org.jdom2.Element;
 import org.lifecompanion.model.api.configurationcomponent.RootGraphicComponentI;
+import org.lifecompanion.model.api.configurationcomponent.StructuralCopyI;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.framework.commons.fx.io.XMLObjectSerializer;
 
@@ -123,5 +125,11 @@ public abstract class RootGraphicComponentBaseImpl extends DisplayableComponentB
         super.deserialize(nodeP, contextP);
         XMLObjectSerializer.deserializeInto(RootGraphicComponentBaseImpl.class, this, nodeP);
     }
+
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        super.copyStateFrom(sourceP, contextP);
+        XMLObjectSerializer.copyInto(RootGraphicComponentBaseImpl.class, sourceP, this);
+    }
     //========================================================================
 }
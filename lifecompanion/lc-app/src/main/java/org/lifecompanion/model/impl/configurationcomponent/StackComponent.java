@@ -24,9 +24,11 @@ import javafx.beans.property.ObjectProperty;
 import javafx.collections.ObservableList;
 import org.jdom2.Element;
 import org.lifecompanion.model.api.configurationcomponent.GridComponentI;
+import org.lifecompanion.model.api.configurationcomponent.StructuralCopyI;
 import org.lifecompanion.model.api.configurationcomponent.TreeDisplayableType;
 import org.lifecompanion.model.api.style.GridCompStyleI;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.style.KeyCompStyleI;
 import org.lifecompanion.model.api.style.TextCompStyleI;
@@ -177,6 +179,15 @@ public class StackComponent extends RootGraphicComponentBaseImpl implements Stac
         StyleSerialializer.deserializeGridStyle(this, nodeP, contextP);
         StyleSerialializer.deserializeKeyStyle(this, nodeP, contextP);
     }
+
+    @Override
+    public void copyStateFrom(final StructuralCopyI sourceP, final ComponentCopyContextI contextP) throws LCException {
+        super.copyStateFrom(sourceP, contextP);
+        StackComponent source = (StackComponent) sourceP;
+        StackComponentBaseImpl.copy(source, this, contextP);
+        StyleSerialializer.copyGridStyle(source, this);
+        StyleSerialializer.copyKeyStyle(source, this);
+    }
     //========================================================================
 
 }
@@ -29,6 +29,7 @@ import org.lifecompanion.controller.io.ConfigurationComponentIOHelper;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
 import org.lifecompanion.model.api.configurationcomponent.*;
 import org.lifecompanion.model.impl.exception.LCException;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.io.XMLSerializable;
 import org.lifecompanion.framework.commons.fx.io.XMLUtils;
@@ -324,5 +325,32 @@ public interface StackComponentBaseImpl extends TreeDisplayableComponentI, Stack
         displayed.set(toDisplay);
     }
 
+    /**
+     * Useful method to copy a stack component : copy every source grid and display the copy of the source displayed grid.
+     *
+     * @param source   the stack component to copy
+     * @param target   the newly created stack component
+     * @param contextP the copy context
+     * @throws LCException if a problem happen when copying
+     */
+    static void copy(final StackComponentI source, final StackComponentI target, final ComponentCopyContextI contextP) throws LCException {
+        ObservableList<GridComponentI> sourceComponents = source.getComponentList();
+        List<GridComponentI> copiedComponents = new ArrayList<>(sourceComponents.size() + 5);
+        GridComponentI toDisplay = null;
+        for (GridComponentI grid : sourceComponents) {
+            GridComponentI copiedComponent = contextP.copy(grid);
+            // Source displayed is found by instance : copied component ID can be different
+            if (grid == source.displayedComponentProperty().get()) {
+                toDisplay = copiedComponent;
+            }
+            copiedComponents.add(copiedComponent);
+        }
+        if (copiedComponents.isEmpty()) {
+            copiedComponents.add(new GridPartGridComponent());
+        }
+        target.getComponentList().addAll(copiedComponents);
+        target.displayedComponentProperty().set(toDisplay);
+    }
+
     //========================================================================
 }
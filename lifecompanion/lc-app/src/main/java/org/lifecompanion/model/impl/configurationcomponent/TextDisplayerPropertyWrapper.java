@@ -39,7 +39,7 @@ import org.lifecompanion.model.impl.style.StyleSerialializer;
 import org.lifecompanion.model.impl.style.TextDisplayerShapeCompStyle;
 import org.lifecompanion.model.impl.style.TextDisplayerTextCompStyle;
 import org.lifecompanion.model.impl.textcomponent.CachedLineListenerData;
-import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineHelper;
+import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineLayout;
 
 import java.util.HashSet;
 import java.util.List;
@@ -77,11 +77,7 @@ public class TextDisplayerPropertyWrapper {
 
         // This invalidation listener is called on graphics changes (this displayer config) or on global text changed (added via bind method)
         InvalidationListener invalidationListenerForWritingState = inv -> {
-            cachedLinesListeners.forEach(listener -> {
-                List<TextDisplayerLineI> lines = TextDisplayerLineHelper.generateLines(WritingStateController.INSTANCE, this.textDisplayerComponent, getTextDisplayerTextStyle(), listener.maxWidthProperty().get());
-                cachedLines = lines;
-                listener.getListener().accept(lines);
-            });
+            cachedLinesListeners.forEach(listener -> listener.getAssociatedInvalidationListener().invalidated(inv));
         };
         this.enableImageProperty().addListener(invalidationListenerForWritingState);
         this.lineSpacingProperty().addListener(invalidationListenerForWritingState);
@@ -151,8 +147,11 @@ public class TextDisplayerPropertyWrapper {
     // LINE UPDATE LISTENER
     //========================================================================
     public CachedLineListenerDataI addCachedLinesUpdateListener(Consumer<List<TextDisplayerLineI>> listener, DoubleBinding maxWithProperty) {
+        // Each listener has its own width : keep its own layout to only layout again changed lines
+        TextDisplayerLineLayout lineLayout = new TextDisplayerLineLayout();
         InvalidationListener wil = i -> {
-            List<TextDisplayerLineI> lines = TextDisplayerLineHelper.generateLines(WritingStateController.INSTANCE, this.textDisplayerComponent, getTextDisplayerTextStyle(), maxWithProperty.get());
+            List<TextDisplayerLineI> lines = lineLayout.generateLines(WritingStateController.INSTANCE.getWriterEntries(), getTextDisplayerTextStyle(), maxWithProperty.get(),
+                    this.textDisplayerComponent.enableWordWrapProperty().get());
             cachedLines = lines;
             listener.accept(lines);
         };
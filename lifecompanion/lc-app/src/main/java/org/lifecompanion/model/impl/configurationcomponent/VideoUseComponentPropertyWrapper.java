@@ -98,6 +98,13 @@ public class VideoUseComponentPropertyWrapper {
         }
     }
 
+    public void copyFrom(final VideoUseComponentPropertyWrapper source) {
+        if (source.video.get() != null) {
+            XMLObjectSerializer.copyInto(VideoUseComponentPropertyWrapper.class, source, this);
+            this.video.set(source.video.get());
+        }
+    }
+
     public static void serializeVideoUse(VideoElementI video, final Element element, final IOContextI contextP) {
         contextP.getVideos().put(video.getId(), video);
         XMLUtils.write(video.getId(), VideoUseComponentPropertyWrapper.ATB_VIDEO_ID, element);
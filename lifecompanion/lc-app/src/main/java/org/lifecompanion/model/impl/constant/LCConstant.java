@@ -116,6 +116,7 @@ public class LCConstant {
     public final static String CONFIGURATION_XML_NAME = "lifecompanion-configuration.xml";
     public final static String KEYLIST_XML_NAME = "lifecompanion-keylist.xml";
     public final static String SEQUENCE_XML_NAME = "lifecompanion-sequence.xml";
+    public final static String CONFIGURATION_BINARY_NAME = "lifecompanion-configuration.lcb";
     public final static String USER_COMP_XML_NAME = "component.xml";
     public final static String USER_COMP_DESCRIPTION_XML_NAME = "component-description.xml";
     public final static String CONFIGURATION_USE_INFO_XML_NAME = "lifecompanion-use-information.xml";
@@ -190,6 +191,7 @@ public class LCConstant {
     public static final String DICTIONARY_NAME_USER_IMAGES = DICTIONARY_ID_USER_IMAGES + ".json";
     public static final String DICTIONARY_ID_CONFIGURATION_IMAGES = "configuration-images";
     public static final String DICTIONARY_NAME_CONFIGURATION_IMAGES = DICTIONARY_ID_CONFIGURATION_IMAGES + ".json";
+    public static final String IMAGE_METADATA_INDEX_NAME = "image-metadata-index.json";
     //========================================================================
 
     // PLUGINS
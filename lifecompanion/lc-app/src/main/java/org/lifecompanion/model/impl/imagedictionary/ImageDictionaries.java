@@ -21,12 +21,12 @@ package org.lifecompanion.model.impl.imagedictionary;
 
 import javafx.concurrent.WorkerStateEvent;
 import javafx.event.EventHandler;
-import javafx.scene.image.Image;
 import javafx.util.Pair;
 import org.lifecompanion.controller.appinstallation.InstallationConfigurationController;
 import org.lifecompanion.controller.editmode.LCStateController;
 import org.lifecompanion.controller.io.JsonHelper;
 import org.lifecompanion.controller.lifecycle.AppModeController;
+import org.lifecompanion.controller.metrics.StartupMetricsController;
 import org.lifecompanion.controller.useapi.GlobalRuntimeConfigurationController;
 import org.lifecompanion.controller.userconfiguration.UserConfigurationController;
 import org.lifecompanion.framework.commons.translation.Translation;
@@ -42,10 +42,10 @@ import org.lifecompanion.model.api.imagedictionary.ImageDictionaryI;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
 import org.lifecompanion.model.api.lifecycle.LCStateListener;
 import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
 import org.lifecompanion.model.impl.constant.LCConstant;
 import org.lifecompanion.model.impl.useapi.GlobalRuntimeConfiguration;
 import org.lifecompanion.util.ThreadUtils;
-import org.lifecompanion.util.javafx.ImageUtils;
 import org.lifecompanion.util.model.ConfigurationComponentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,10 +53,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -73,6 +70,11 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
     public static final int ALL_PAGE_SIZE = 18;
     private static final String CHECKING_ID_PASS_UNSAFE = "CheckingImage123456!";
 
+    private static final String STARTUP_METRICS_CATEGORY = "ImageDictionaries";
+
+    private static final long THUMBNAIL_CACHE_DEFAULT_MAX_BYTES = 48_000_000L;
+    private static final int THUMBNAIL_CACHE_MAX_ENTRIES = 2_000;
+
     /**
      * Available dictionaries
      */
@@ -104,55 +106,80 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
     private final ExecutorService loadingService;
 
     /**
-     * Executor to create thumbnail
+     * Executor to create and decode thumbnails (requests are prioritized, see {@link ThumbnailRequest})
      */
-    private final ExecutorService thumbnailService;
+    private final ThreadPoolExecutor thumbnailService;
 
     /**
      * Currently running loading tasks
      */
     private final ConcurrentHashMap<String, CopyOnWriteArrayList<ImageLoadingTask>> runningLoadingTasks;
 
+    /**
+     * Currently running thumbnail loadings, by image ID (so the same thumbnail is never generated/decoded twice at the same time)
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<CachedThumbnailInformation>> runningThumbnailLoadings;
+
     /**
      * Thumbnail for images
      */
-    private final Map<String, CachedThumbnailInformation> loadedThumbnails;
+    private ThumbnailCache loadedThumbnails;
+
+    /**
+     * Index to avoid hashing unchanged images on each configuration loading
+     */
+    private ImageMetadataIndex imageMetadataIndex;
+
+    /**
+     * Completed when dictionaries are loaded
+     */
+    private volatile CompletableFuture<Void> dictionariesLoaded;
 
     ImageDictionaries() {
         this.dictionaries = new ArrayList<>();
-        this.loadedThumbnails = new HashMap<>();
+        this.loadedThumbnails = new ThumbnailCache(THUMBNAIL_CACHE_DEFAULT_MAX_BYTES, THUMBNAIL_CACHE_MAX_ENTRIES);
         this.allImages = new HashMap<>();
         this.loadingService = Executors.newSingleThreadExecutor();
-        this.thumbnailService = Executors.newSingleThreadExecutor();
+        int thumbnailWorkerCount = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        this.thumbnailService = new ThreadPoolExecutor(thumbnailWorkerCount, thumbnailWorkerCount, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+                LCNamedThreadFactory.daemonThreadFactory("ThumbnailLoading"));
+        this.thumbnailService.allowCoreThreadTimeOut(true);
         this.runningLoadingTasks = new ConcurrentHashMap<>();
+        this.runningThumbnailLoadings = new ConcurrentHashMap<>();
         this.hiddenImageDictionary = new ImageDictionary();
         this.hiddenImageDictionary.setCustomDictionary(true);
+        this.dictionariesLoaded = CompletableFuture.completedFuture(null);
     }
 
     public List<ImageDictionary> getDictionaries() {
+        waitForDictionariesLoaded();
         return dictionaries;
     }
 
     // ADD/GET IMAGE
     //========================================================================
     public ImageElementI getOrAddToUserImagesDictionary(File imagePath) {
+        waitForDictionariesLoaded();
         return getOrAdd(imagePath, userImagesDictionary, null);
     }
 
     public ImageElementI getOrAddToConfigurationImageDictionary(File imagePath) {
+        waitForDictionariesLoaded();
         return getOrAdd(imagePath, configurationImageDictionary, null);
     }
 
     public ImageElementI getOrAddForVideoThumbnail(File imagePath, String name) {
+        waitForDictionariesLoaded();
         return getOrAdd(imagePath, hiddenImageDictionary, name);
     }
 
     private ImageElementI getOrAdd(File imagePath, ImageDictionaryI dictionary, String forceName) {
         try {
             String originalFileName = FileNameUtils.getNameWithoutExtension(imagePath);
+            final File sourceImagePath = imagePath;
 
-            // Hash image to find its ID
-            final String id = IOUtils.fileSha256HexToString(imagePath);
+            // Hash image to find its ID (from index if the image didn't change)
+            final String id = imageMetadataIndex != null ? imageMetadataIndex.getSha256(imagePath) : IOUtils.fileSha256HexToString(imagePath);
             final ImageElementI previousImage = allImages.get(id);
 
             // Check for imported images (will be used only for custom dictionaries)
@@ -179,6 +206,9 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
                     previousImage.getDictionary().getImages().remove(previousImage);
                 }
                 dictionary.getImages().add(newerImage);
+                if (imageMetadataIndex != null) {
+                    imageMetadataIndex.setDictionaryId(sourceImagePath, dictionary.getId());
+                }
                 return newerImage;
             } else {
                 return previousImage;
@@ -190,44 +220,62 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
     }
 
     public ImageElementI getById(String imageId) {
+        waitForDictionariesLoaded();
         return allImages.get(imageId);
     }
+
+    /**
+     * Save the image metadata index if images were hashed since last save (e.g. after loading a configuration with new images)
+     */
+    public void saveImageMetadataIndexIfNeeded() {
+        if (imageMetadataIndex != null) {
+            imageMetadataIndex.saveIfNeeded();
+        }
+    }
     //========================================================================
 
     // THUMBNAIL
     //========================================================================
-    public void requestLoadThumbnail(ImageElementI imageElementI, Consumer<CachedThumbnailInformation> callback) {
-        File thumbnailRoot = new File(InstallationConfigurationController.INSTANCE.getUserDirectory().getPath() + File.separator + LCConstant.THUMBNAIL_DIR_NAME + File.separator);
+    public ThumbnailRequest requestLoadThumbnail(ImageElementI imageElementI, Consumer<CachedThumbnailInformation> callback) {
+        return requestLoadThumbnail(imageElementI, ThumbnailRequest.Priority.VISIBLE, callback);
+    }
+
+    /**
+     * Request a thumbnail for the given image.<br>
+     * If the thumbnail is in cache, callback is called directly, otherwise, the thumbnail is generated/decoded on a worker thread and callback is called on FX Thread.
+     *
+     * @param imageElementI the image
+     * @param priority      request priority : visible thumbnails are loaded before prefetched ones
+     * @param callback      called when the thumbnail is loaded (can be null to just fill the cache)
+     * @return the loading request that can be cancelled, null if the thumbnail was already in cache
+     */
+    public ThumbnailRequest requestLoadThumbnail(ImageElementI imageElementI, ThumbnailRequest.Priority priority, Consumer<CachedThumbnailInformation> callback) {
+        if (priority == ThumbnailRequest.Priority.PREFETCH && this.loadedThumbnails.contains(imageElementI.getId())) {
+            return null;
+        }
         CachedThumbnailInformation cachedThumbnailInformation = this.loadedThumbnails.get(imageElementI.getId());
         if (cachedThumbnailInformation != null) {
-            callback.accept(cachedThumbnailInformation);
+            if (callback != null) {
+                callback.accept(cachedThumbnailInformation);
+            }
+            return null;
         } else {
+            File thumbnailRoot = new File(InstallationConfigurationController.INSTANCE.getUserDirectory().getPath() + File.separator + LCConstant.THUMBNAIL_DIR_NAME + File.separator);
             File thumbnailPath = new File(thumbnailRoot.getPath() + File.separator + imageElementI.getId() + "." + imageElementI.getExtension());
-            // Prepare loading task
-            ImageLoadingTask imageLoadingTask = new ImageLoadingTask(thumbnailPath.getPath(), null, thumbnailPath, THUMBNAIL_WIDTH, -1, true, true, null);
-            imageLoadingTask.setOnSucceeded(e -> {
-                try {
-                    Image loadedImage = imageLoadingTask.get();
-                    CachedThumbnailInformation info = new CachedThumbnailInformation(loadedImage, ImageUtils.computeFullImageViewPort(loadedImage));
-                    loadedThumbnails.put(imageElementI.getId(), info);
-                    callback.accept(info);
-                } catch (Exception ex) {
-                    LOGGER.warn("Loading thumbnail failed", ex);
-                }
-            });
-            // Create thumbnail if needed
-            if (thumbnailPath.exists()) {
-                this.loadingService.submit(imageLoadingTask);
-            } else {
-                ThumbnailGenerationTask thumbnailGenerationTask = new ThumbnailGenerationTask(imageElementI, thumbnailPath);
-                thumbnailGenerationTask.setOnSucceeded(e -> this.loadingService.submit(imageLoadingTask));
-                thumbnailGenerationTask.setOnFailed(e -> LOGGER.warn("Could not generate thumbnail {}", thumbnailPath, e.getSource().getException()));
-                thumbnailService.submit(thumbnailGenerationTask);
+            ThumbnailRequest thumbnailRequest = new ThumbnailRequest(imageElementI, thumbnailPath, loadedThumbnails, runningThumbnailLoadings, thumbnailService, priority, callback);
+            if (!this.thumbnailService.isShutdown()) {
+                this.thumbnailService.execute(thumbnailRequest);
             }
+            return thumbnailRequest;
         }
     }
 
+    public ThumbnailCache getThumbnailCache() {
+        return loadedThumbnails;
+    }
+
     public void clearThumbnailCache() {
+        LOGGER.info("Thumbnail cache cleared : {}", loadedThumbnails);
         this.loadedThumbnails.clear();
     }
     //========================================================================
@@ -235,8 +283,7 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
 
     // SEARCH
     //========================================================================
-    private static final Comparator<Pair<ImageElementI, Double>> SCORE_MAP_COMPARATOR = (e1, e2) -> Double.compare(e2.getValue(), e1.getValue());
-    private static final Comparator<Pair<ImageElementI, Double>> ALPHABETICAL_MAP_COMPARATOR = Comparator.comparing(e -> StringUtils.trimToEmpty(e.getKey().getName()));
+    private static final Comparator<ImageElementI> ALPHABETICAL_COMPARATOR = Comparator.comparing(e -> StringUtils.trimToEmpty(e.getName()));
 
     public List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> searchImage(String rawSearchString, boolean displayAll, double minScore) {
         return searchImage(rawSearchString, displayAll, minScore, null);
@@ -247,6 +294,7 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
     }
 
     public List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> searchImage(String rawSearchString, boolean displayAll, double minScore, Predicate<? super ImageDictionary> imageDictionaryFilter) {
+        waitForDictionariesLoaded();
         long start = System.currentTimeMillis();
         List<Pair<ImageDictionaryI, List<List<ImageElementI>>>> result = new ArrayList<>();
         String searchFull = StringUtils.stripToEmpty(rawSearchString).toLowerCase();
@@ -259,13 +307,10 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
                         Boolean.compare(LCStateController.INSTANCE.getFavoriteImageDictionaries().contains(d2.getName()),
                                 LCStateController.INSTANCE.getFavoriteImageDictionaries().contains(d1.getName()))
                 ).forEach(imageDictionary -> {
-                    List<ImageElementI> resultList = imageDictionary.getImages()
-                            .parallelStream()
-                            .map(e -> new Pair<>(e, displayAll ? 0.0 : getSimilarityScore(e.getKeywords(), searchFull)))
-                            .sorted(displayAll ? ALPHABETICAL_MAP_COMPARATOR : SCORE_MAP_COMPARATOR)
-                            .filter(e -> displayAll || e.getValue() >= minScore)
-                            .map(Pair::getKey)
-                            .collect(Collectors.toList());
+                    List<ImageElementI> resultList = displayAll ? imageDictionary.getImages()
+                            .stream()
+                            .sorted(ALPHABETICAL_COMPARATOR)
+                            .collect(Collectors.toList()) : imageDictionary.getKeywordIndex().search(searchFull, minScore, -1);
                     if (LangUtils.isNotEmpty(resultList)) {
                         int pageSize = displayAll ? ALL_PAGE_SIZE : SEARCH_PAGE_SIZE;
                         final List<List<ImageElementI>> resultPages = IntStream.range(0, resultList.size())
@@ -330,20 +375,57 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
 
     // IO
     //========================================================================
-    public void loadDictionaries() {
-        // TODO : parallel loading for dictionaries ?
+
+    /**
+     * Future completed when dictionaries are loaded (see {@link #lcStart()}).<br>
+     * Already completed when dictionaries are not loaded on start.
+     */
+    public CompletableFuture<Void> getDictionariesLoadedFuture() {
+        return dictionariesLoaded;
+    }
+
+    /**
+     * Wait for dictionaries to be loaded : method that read or modify dictionaries and images should call this before.
+     */
+    private void waitForDictionariesLoaded() {
+        if (!dictionariesLoaded.isDone()) {
+            long start = System.currentTimeMillis();
+            dictionariesLoaded.join();
+            LOGGER.info("Waited {} ms for image dictionaries to be loaded", System.currentTimeMillis() - start);
+        }
+    }
+
+    private void loadDictionaries() {
         long start = System.currentTimeMillis();
         File imageDictionariesRoot = new File(LCConstant.DEFAULT_IMAGE_DICTIONARIES);
         File[] potentialDictionaries = imageDictionariesRoot.listFiles();
         if (potentialDictionaries != null) {
-            for (File potentialDictionary : potentialDictionaries) {
-                if (potentialDictionary.isFile() && StringUtils.isEqualsIgnoreCase("json", FileNameUtils.getExtension(potentialDictionary))) {
-                    loadImageDictionary(potentialDictionary);
+            List<File> dictionaryFiles = Arrays.stream(potentialDictionaries)
+                    .filter(potentialDictionary -> potentialDictionary.isFile() && StringUtils.isEqualsIgnoreCase("json", FileNameUtils.getExtension(potentialDictionary)))
+                    .collect(Collectors.toList());
+            if (!dictionaryFiles.isEmpty()) {
+                // Parse concurrently, but register in file order to always get the same dictionary order
+                int threadCount = Math.min(dictionaryFiles.size(), Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+                ExecutorService parsingService = Executors.newFixedThreadPool(threadCount, LCNamedThreadFactory.daemonThreadFactory("ImageDictionaryParsing"));
+                try {
+                    List<Future<ImageDictionary>> parsedDictionaries = dictionaryFiles.stream()
+                            .map(dictionaryFile -> parsingService.submit(() -> parseImageDictionary(dictionaryFile)))
+                            .collect(Collectors.toList());
+                    for (Future<ImageDictionary> parsedDictionary : parsedDictionaries) {
+                        registerImageDictionary(parsedDictionary.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.warn("Image dictionary loading interrupted", e);
+                } catch (ExecutionException e) {
+                    LOGGER.error("Couldn't load image dictionaries", e);
+                } finally {
+                    parsingService.shutdownNow();
                 }
             }
         }
-        userImagesDictionary = this.loadImageDictionary(new File(InstallationConfigurationController.INSTANCE.getUserDirectory()
-                .getPath() + LCConstant.IMAGE_RESOURCES_DIR_NAME + LCConstant.DICTIONARY_NAME_USER_IMAGES));
+        userImagesDictionary = registerImageDictionary(parseImageDictionary(new File(InstallationConfigurationController.INSTANCE.getUserDirectory()
+                .getPath() + LCConstant.IMAGE_RESOURCES_DIR_NAME + LCConstant.DICTIONARY_NAME_USER_IMAGES)));
         if (userImagesDictionary == null) {
             userImagesDictionary = new ImageDictionary();
             this.userImagesDictionary.setId(LCConstant.DICTIONARY_ID_USER_IMAGES);
@@ -351,8 +433,8 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
             this.userImagesDictionary.setCustomDictionary(true);
             this.dictionaries.add(userImagesDictionary);
         }
-        configurationImageDictionary = this.loadImageDictionary(new File(InstallationConfigurationController.INSTANCE.getUserDirectory()
-                .getPath() + LCConstant.IMAGE_RESOURCES_DIR_NAME + LCConstant.DICTIONARY_NAME_CONFIGURATION_IMAGES));
+        configurationImageDictionary = registerImageDictionary(parseImageDictionary(new File(InstallationConfigurationController.INSTANCE.getUserDirectory()
+                .getPath() + LCConstant.IMAGE_RESOURCES_DIR_NAME + LCConstant.DICTIONARY_NAME_CONFIGURATION_IMAGES)));
         if (configurationImageDictionary == null) {
             configurationImageDictionary = new ImageDictionary();
             this.userImagesDictionary.setId(LCConstant.DICTIONARY_ID_CONFIGURATION_IMAGES);
@@ -360,10 +442,12 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
             this.configurationImageDictionary.setCustomDictionary(true);
             this.dictionaries.add(configurationImageDictionary);
         }
+        StartupMetricsController.INSTANCE.record(STARTUP_METRICS_CATEGORY, "All dictionaries", start, dictionaries.stream().mapToLong(ImageDictionary::estimateMemoryFootprint).sum());
         LOGGER.info("Image dictionaries loading done in {} s", (System.currentTimeMillis() - start) / 1000.0);
     }
 
     public void removeDictionary(String id) {
+        waitForDictionariesLoaded();
         this.dictionaries.stream().filter(dic -> id.equals(dic.getId())).findAny().ifPresent(dictionaryToRemove -> {
             dictionaryToRemove.getImages().forEach(imageElement -> {
                 allImages.remove(imageElement.getId());
@@ -373,7 +457,18 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
     }
 
     public ImageDictionary loadImageDictionary(File dictionaryFile) {
+        waitForDictionariesLoaded();
+        return registerImageDictionary(parseImageDictionary(dictionaryFile));
+    }
+
+    /**
+     * Read a dictionary from its JSON file, without adding it to available dictionaries (can be called from any Thread)
+     *
+     * @return the read dictionary, or null if it doesn't exist or is invalid
+     */
+    private ImageDictionary parseImageDictionary(File dictionaryFile) {
         if (dictionaryFile.exists()) {
+            long start = System.currentTimeMillis();
             try (Reader is = new BufferedReader(new InputStreamReader(new FileInputStream(dictionaryFile), StandardCharsets.UTF_8))) {
                 ImageDictionary imageDictionary = JsonHelper.GSON.fromJson(is, ImageDictionary.class);
                 imageDictionary.setId(FileNameUtils.getNameWithoutExtension(dictionaryFile));
@@ -385,9 +480,8 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
                     }
                 }
                 imageDictionary.setImageDirectory(new File(dictionaryFile.getParentFile() + File.separator + FileNameUtils.getNameWithoutExtension(dictionaryFile)));
-                imageDictionary.loaded(this.allImages);
-                this.dictionaries.add(imageDictionary);
-                LOGGER.info("Image dictionary {} loaded from {} ({} images)", imageDictionary.getName(), dictionaryFile, imageDictionary.getImages().size());
+                StartupMetricsController.INSTANCE.record(STARTUP_METRICS_CATEGORY, imageDictionary.getName(), start, imageDictionary.estimateMemoryFootprint());
+                LOGGER.info("Image dictionary {} loaded from {} ({} images) in {} ms", imageDictionary.getName(), dictionaryFile, imageDictionary.getImages().size(), System.currentTimeMillis() - start);
                 return imageDictionary;
             } catch (Exception e) {
                 LOGGER.error("Couldn't load dictionary from {}", dictionaryFile, e);
@@ -398,10 +492,40 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
         return null;
     }
 
+    private ImageDictionary registerImageDictionary(ImageDictionary imageDictionary) {
+        if (imageDictionary != null) {
+            imageDictionary.loaded(this.allImages);
+            this.dictionaries.add(imageDictionary);
+        }
+        return imageDictionary;
+    }
+
 
     @Override
     public void lcStart() {
-        this.loadDictionaries();
+        this.imageMetadataIndex = new ImageMetadataIndex(new File(InstallationConfigurationController.INSTANCE.getUserDirectory()
+                .getPath() + LCConstant.IMAGE_RESOURCES_DIR_NAME + LCConstant.IMAGE_METADATA_INDEX_NAME));
+        this.imageMetadataIndex.load();
+        if (GlobalRuntimeConfigurationController.INSTANCE.isPresent(GlobalRuntimeConfiguration.PROP_THUMBNAIL_CACHE_MAX_SIZE)) {
+            try {
+                long maxBytes = Long.parseLong(GlobalRuntimeConfigurationController.INSTANCE.getParameter(GlobalRuntimeConfiguration.PROP_THUMBNAIL_CACHE_MAX_SIZE)) * 1_000_000L;
+                this.loadedThumbnails = new ThumbnailCache(maxBytes, THUMBNAIL_CACHE_MAX_ENTRIES);
+                LOGGER.info("Thumbnail cache size set to {} bytes", maxBytes);
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid thumbnail cache size, will use default size", e);
+            }
+        }
+        // Dictionaries are only needed when images are searched or added : load them in background
+        this.dictionariesLoaded = new CompletableFuture<>();
+        LCNamedThreadFactory.daemonThreadFactory("ImageDictionaryLoading").newThread(() -> {
+            try {
+                this.loadDictionaries();
+            } catch (Throwable t) {
+                LOGGER.error("Image dictionaries loading failed", t);
+            } finally {
+                this.dictionariesLoaded.complete(null);
+            }
+        }).start();
         startImageLoadingDebug();
     }
 
@@ -434,9 +558,11 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
 
     @Override
     public void lcExit() {
+        waitForDictionariesLoaded();
         // Save default user dictionary
         saveDictionary(userImagesDictionary, LCConstant.DICTIONARY_NAME_USER_IMAGES);
         saveDictionary(configurationImageDictionary, LCConstant.DICTIONARY_NAME_CONFIGURATION_IMAGES);
+        saveImageMetadataIndexIfNeeded();
         this.loadingService.shutdownNow();
         this.thumbnailService.shutdownNow();
         this.runningLoadingTasks.clear();
@@ -462,6 +588,12 @@ public enum ImageDictionaries implements LCStateListener, ModeListenerI {
         clearThumbnailCache();
     }
 
+    @Override
+    public ModeStartPolicy getModeStartPolicy() {
+        // Thumbnail cache clearing is not needed to display use mode
+        return ModeStartPolicy.DEFERRED;
+    }
+
     @Override
     public void modeStop(LCConfigurationI configuration) {
     }
@@ -19,10 +19,12 @@
 
 package org.lifecompanion.model.impl.imagedictionary;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.ObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.image.Image;
+import org.lifecompanion.controller.userconfiguration.UserConfigurationController;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
 import org.lifecompanion.model.api.imagedictionary.ImageDictionaryI;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
@@ -49,6 +51,12 @@ public class ImageDictionary implements ImageDictionaryI {
 
     private transient File imageDirectory;
 
+    /**
+     * Keyword index used for search (built on first search, cleared when images change)
+     */
+    private transient ImageKeywordIndex keywordIndex;
+    private transient InvalidationListener keywordIndexInvalidationListener;
+
     public ImageDictionary() {
         images = FXCollections.observableArrayList();
     }
@@ -155,6 +163,56 @@ public class ImageDictionary implements ImageDictionaryI {
         ImageDictionaries.INSTANCE.requestImageLoading(new ImageLoadingTask(imageId, target, pathSupplier, width, height, keepRatio, smooth, callback));
     }
 
+    // SEARCH
+    //========================================================================
+    public synchronized ImageKeywordIndex getKeywordIndex() {
+        String languageCode = UserConfigurationController.INSTANCE.userLanguageProperty().get();
+        if (keywordIndex == null || !StringUtils.isEquals(languageCode, keywordIndex.getLanguageCode())) {
+            // Listener is added here as images list is replaced on JSON deserialization
+            if (keywordIndexInvalidationListener == null) {
+                keywordIndexInvalidationListener = inv -> invalidateKeywordIndex();
+                images.addListener(keywordIndexInvalidationListener);
+            }
+            long start = System.currentTimeMillis();
+            keywordIndex = ImageKeywordIndex.build(images, languageCode);
+            LOGGER.info("Keyword index for image dictionary {} built in {} ms ({} keywords)", name, System.currentTimeMillis() - start, keywordIndex.getKeywordCount());
+        }
+        return keywordIndex;
+    }
+
+    public synchronized void invalidateKeywordIndex() {
+        this.keywordIndex = null;
+    }
+    //========================================================================
+
+    /**
+     * @return a rough estimation of the memory used by this dictionary images (objects, names and keywords, without loaded images)
+     */
+    public long estimateMemoryFootprint() {
+        long bytes = 0;
+        for (ImageElementI image : images) {
+            // Element, properties and maps
+            bytes += 350;
+            bytes += estimateStringBytes(image.getId()) + estimateStringBytes(image.getName());
+            if (image instanceof ImageElement && ((ImageElement) image).keywords != null) {
+                for (Map.Entry<String, String[]> entry : ((ImageElement) image).keywords.entrySet()) {
+                    bytes += 32 + estimateStringBytes(entry.getKey());
+                    if (entry.getValue() != null) {
+                        bytes += 16 + 4L * entry.getValue().length;
+                        for (String keyword : entry.getValue()) {
+                            bytes += estimateStringBytes(keyword);
+                        }
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateStringBytes(String value) {
+        return value != null ? 40 + value.length() : 0;
+    }
+
     public void loaded(Map<String, ImageElementI> allImageMap) {
         // TODO : clean > delete files that doesn't exist...
         this.images.forEach(e -> {
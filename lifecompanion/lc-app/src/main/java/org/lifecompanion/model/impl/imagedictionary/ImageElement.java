@@ -154,6 +154,7 @@ public class ImageElement implements ImageElementI {
     @Override
     public void setKeywords(String languageCode, String[] keyWords) {
         this.keywords.put(languageCode, keyWords);
+        this.keywordsChanged();
     }
 
     @Override
@@ -193,6 +194,13 @@ public class ImageElement implements ImageElementI {
     public void updateNameAndKeywords(String name, String languageCode, String[] keywords) {
         this.name = name;
         this.keywords.put(languageCode, keywords);
+        this.keywordsChanged();
+    }
+
+    private void keywordsChanged() {
+        if (dictionary instanceof ImageDictionary) {
+            ((ImageDictionary) dictionary).invalidateKeywordIndex();
+        }
     }
 
     // LOADING
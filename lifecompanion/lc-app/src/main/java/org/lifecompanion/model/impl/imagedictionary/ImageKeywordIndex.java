@@ -0,0 +1,221 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.util.model.ConfigurationComponentUtils;
+
+import java.util.*;
+
+import static org.lifecompanion.util.model.ConfigurationComponentUtils.*;
+
+/**
+ * Inverted index on image keywords, to search images without computing similarity on every dictionary keyword.<br>
+ * Keywords are normalized once (see {@link ConfigurationComponentUtils#normalizeForSimilarity(String)}) and every of their 1, 2 and 3 char grams are indexed.
+ * On search, only keywords containing at least one of the searched terms are scored.<br>
+ * Resulting scores are the same than {@link ConfigurationComponentUtils#getSimilarityScoreFor(String, Object, java.util.function.Function[])} summed on image keywords.
+ */
+public class ImageKeywordIndex {
+    private static final int MAX_GRAM_LENGTH = 3;
+
+    private final String languageCode;
+    private final ImageElementI[] images;
+    private final String[] keywords;
+    private final String[][] keywordTerms;
+    private final int[] keywordImage;
+    private final Map<String, int[]> gramPostings;
+
+    private ImageKeywordIndex(String languageCode, ImageElementI[] images, String[] keywords, String[][] keywordTerms, int[] keywordImage, Map<String, int[]> gramPostings) {
+        this.languageCode = languageCode;
+        this.images = images;
+        this.keywords = keywords;
+        this.keywordTerms = keywordTerms;
+        this.keywordImage = keywordImage;
+        this.gramPostings = gramPostings;
+    }
+
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    public int getKeywordCount() {
+        return keywords.length;
+    }
+
+    // BUILD
+    //========================================================================
+    public static ImageKeywordIndex build(List<ImageElementI> imageList, String languageCode) {
+        ImageElementI[] images = imageList.toArray(new ImageElementI[0]);
+        List<String> keywords = new ArrayList<>(images.length * 2);
+        TIntArrayList keywordImage = new TIntArrayList(images.length * 2);
+        Map<String, TIntArrayList> postings = new HashMap<>();
+        for (int i = 0; i < images.length; i++) {
+            for (String keywordRaw : images[i].getKeywords()) {
+                String keyword = normalizeForSimilarity(keywordRaw);
+                int keywordIndex = keywords.size();
+                keywords.add(keyword);
+                keywordImage.add(i);
+                for (int start = 0; start < keyword.length(); start++) {
+                    for (int length = 1; length <= MAX_GRAM_LENGTH && start + length <= keyword.length(); length++) {
+                        TIntArrayList posting = postings.computeIfAbsent(keyword.substring(start, start + length), g -> new TIntArrayList(4));
+                        // Keyword indexes are increasing : avoid duplicates when a gram is present twice in the same keyword
+                        if (posting.isEmpty() || posting.get(posting.size() - 1) != keywordIndex) {
+                            posting.add(keywordIndex);
+                        }
+                    }
+                }
+            }
+        }
+        Map<String, int[]> gramPostings = new HashMap<>((int) (postings.size() / 0.75f) + 1);
+        postings.forEach((gram, posting) -> gramPostings.put(gram, posting.toArray()));
+        String[] keywordArray = keywords.toArray(new String[0]);
+        String[][] keywordTerms = new String[keywordArray.length][];
+        for (int i = 0; i < keywordArray.length; i++) {
+            keywordTerms[i] = keywordArray[i].split(" ");
+        }
+        return new ImageKeywordIndex(languageCode, images, keywordArray, keywordTerms, keywordImage.toArray(), gramPostings);
+    }
+    //========================================================================
+
+    // SEARCH
+    //========================================================================
+
+    /**
+     * Search images for the given text.
+     *
+     * @param rawSearch  searched text
+     * @param minScore   min score for an image to be returned
+     * @param maxResults max result count, or -1 to get every matching image
+     * @return matching images, sorted by descending score (images with same score keep the dictionary order)
+     */
+    public List<ImageElementI> search(String rawSearch, double minScore, int maxResults) {
+        String search = normalizeForSimilarity(rawSearch);
+        if (search.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] searchTerms = search.split(" ");
+        double totalTermLength = Arrays.stream(searchTerms).mapToDouble(String::length).sum();
+
+        // Find candidate keywords : every keyword containing at least one term
+        TIntHashSet candidateKeywords = new TIntHashSet();
+        for (String term : searchTerms) {
+            if (!term.isEmpty()) {
+                addKeywordsContaining(term, candidateKeywords);
+            }
+        }
+
+        // Score on candidates only (in keyword order to sum image scores as the full scan does)
+        int[] sortedCandidateKeywords = candidateKeywords.toArray();
+        Arrays.sort(sortedCandidateKeywords);
+        TIntDoubleHashMap imageScores = new TIntDoubleHashMap();
+        for (int keywordIndex : sortedCandidateKeywords) {
+            double score = getScore(keywordIndex, search, searchTerms, totalTermLength);
+            imageScores.adjustOrPutValue(keywordImage[keywordIndex], score, score);
+        }
+
+        Comparator<ScoredImage> comparator = Comparator.comparingDouble((ScoredImage s) -> s.score).reversed().thenComparingInt(s -> s.imageIndex);
+        List<ScoredImage> scoredImages = new ArrayList<>();
+        PriorityQueue<ScoredImage> topResults = maxResults > 0 ? new PriorityQueue<>(maxResults + 1, comparator.reversed()) : null;
+        imageScores.forEachEntry((imageIndex, score) -> {
+            if (score >= minScore) {
+                ScoredImage scoredImage = new ScoredImage(imageIndex, score);
+                if (topResults != null) {
+                    topResults.add(scoredImage);
+                    if (topResults.size() > maxResults) {
+                        topResults.poll();
+                    }
+                } else {
+                    scoredImages.add(scoredImage);
+                }
+            }
+            return true;
+        });
+        if (topResults != null) {
+            scoredImages.addAll(topResults);
+        }
+        scoredImages.sort(comparator);
+
+        List<ImageElementI> result = new ArrayList<>(scoredImages.size());
+        for (ScoredImage scoredImage : scoredImages) {
+            result.add(images[scoredImage.imageIndex]);
+        }
+        return result;
+    }
+
+    private void addKeywordsContaining(String term, TIntHashSet result) {
+        if (term.length() <= MAX_GRAM_LENGTH) {
+            int[] posting = gramPostings.get(term);
+            if (posting != null) {
+                result.addAll(posting);
+            }
+        } else {
+            // Use the smallest posting list between term grams, then check that keywords really contain the term
+            int[] smallestPosting = null;
+            for (int start = 0; start + MAX_GRAM_LENGTH <= term.length(); start++) {
+                int[] posting = gramPostings.get(term.substring(start, start + MAX_GRAM_LENGTH));
+                if (posting == null) {
+                    return;
+                }
+                if (smallestPosting == null || posting.length < smallestPosting.length) {
+                    smallestPosting = posting;
+                }
+            }
+            for (int keywordIndex : smallestPosting) {
+                if (keywords[keywordIndex].contains(term)) {
+                    result.add(keywordIndex);
+                }
+            }
+        }
+    }
+
+    private double getScore(int keywordIndex, String search, String[] searchTerms, double totalTermLength) {
+        String source = keywords[keywordIndex];
+        double score = 0.0;
+        if (StringUtils.isEquals(source, search)) {
+            score += SIMILARITY_EXACT_MATCH;
+        }
+        if (source.startsWith(search)) {
+            score += SIMILARITY_START_WITH;
+        }
+        for (String searchTerm : searchTerms) {
+            double factor = searchTerm.length() / totalTermLength;
+            for (String sourceTerm : keywordTerms[keywordIndex]) {
+                score += StringUtils.isEquals(sourceTerm, searchTerm) ? factor * SIMILARITY_EXACT_TERM_MATCH : 0.0;
+            }
+            score += source.contains(searchTerm) ? factor * SIMILARITY_CONTAINS : 0.0;
+        }
+        return score;
+    }
+
+    private static class ScoredImage {
+        private final int imageIndex;
+        private final double score;
+
+        private ScoredImage(int imageIndex, double score) {
+            this.imageIndex = imageIndex;
+            this.score = score;
+        }
+    }
+    //========================================================================
+}
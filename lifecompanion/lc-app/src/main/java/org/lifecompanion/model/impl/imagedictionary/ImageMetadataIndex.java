@@ -0,0 +1,270 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import org.lifecompanion.controller.io.JsonHelper;
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persistent index of image file metadata (SHA-256, dimensions, dictionary) keyed by path, size and last modification date.<br>
+ * Used to avoid hashing again images that didn't change between two configuration loading.<br>
+ * Index is saved to a temp file and then moved to its final path : a crash while saving keeps the previous index, and an unreadable index is just ignored (images are hashed again).
+ */
+public class ImageMetadataIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageMetadataIndex.class);
+
+    private static final int INDEX_VERSION = 1;
+
+    private final File indexFile;
+    private final Map<String, ImageMetadata> entries;
+    private volatile boolean dirty;
+
+    private final AtomicInteger hitCount, missCount;
+
+    public ImageMetadataIndex(File indexFile) {
+        this.indexFile = indexFile;
+        this.entries = new ConcurrentHashMap<>();
+        this.hitCount = new AtomicInteger();
+        this.missCount = new AtomicInteger();
+    }
+
+    // GET
+    //========================================================================
+
+    /**
+     * Get the metadata for the given image file.<br>
+     * If the file is indexed and its size and last modification date didn't change, the indexed metadata is returned without reading the file.
+     * Otherwise, the file is hashed and the index updated.
+     *
+     * @param imageFile the image file
+     * @return the image metadata (never null)
+     * @throws IOException if the file can't be read
+     */
+    public ImageMetadata getOrCompute(File imageFile) throws IOException {
+        String key = getKey(imageFile);
+        long size = imageFile.length();
+        long lastModified = imageFile.lastModified();
+        ImageMetadata metadata = entries.get(key);
+        if (metadata != null && metadata.size == size && metadata.lastModified == lastModified) {
+            hitCount.incrementAndGet();
+            return metadata;
+        }
+        missCount.incrementAndGet();
+        ImageMetadata computed = new ImageMetadata();
+        computed.size = size;
+        computed.lastModified = lastModified;
+        computed.sha256 = IOUtils.fileSha256HexToString(imageFile);
+        readDimensions(imageFile, computed);
+        entries.put(key, computed);
+        dirty = true;
+        return computed;
+    }
+
+    /**
+     * Same as {@link #getOrCompute(File)} but only returns the SHA-256
+     */
+    public String getSha256(File imageFile) throws IOException {
+        return getOrCompute(imageFile).sha256;
+    }
+
+    /**
+     * Store the dictionary where the image was added.<br>
+     * Do nothing if the file is not already indexed.
+     */
+    public void setDictionaryId(File imageFile, String dictionaryId) {
+        ImageMetadata metadata = entries.get(getKey(imageFile));
+        if (metadata != null && !StringUtils.isEquals(metadata.dictionaryId, dictionaryId)) {
+            metadata.dictionaryId = dictionaryId;
+            dirty = true;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getHitCount() {
+        return hitCount.get();
+    }
+
+    public int getMissCount() {
+        return missCount.get();
+    }
+
+    private static String getKey(File imageFile) {
+        return imageFile.getAbsolutePath();
+    }
+
+    private static void readDimensions(File imageFile, ImageMetadata metadata) {
+        // Only read image header (no decoding)
+        try (ImageInputStream iis = ImageIO.createImageInputStream(imageFile)) {
+            if (iis != null) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+                if (readers.hasNext()) {
+                    ImageReader reader = readers.next();
+                    try {
+                        reader.setInput(iis, true, true);
+                        metadata.width = reader.getWidth(0);
+                        metadata.height = reader.getHeight(0);
+                    } finally {
+                        reader.dispose();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Couldn't read image dimensions for {}", imageFile, e);
+        }
+    }
+    //========================================================================
+
+    // IO
+    //========================================================================
+    public void load() {
+        long start = System.currentTimeMillis();
+        entries.clear();
+        if (indexFile.exists()) {
+            try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+                IndexContent content = JsonHelper.GSON.fromJson(reader, IndexContent.class);
+                if (content != null && content.version == INDEX_VERSION && content.entries != null) {
+                    content.entries.forEach((key, metadata) -> {
+                        if (metadata != null && metadata.sha256 != null) {
+                            entries.put(key, metadata);
+                        }
+                    });
+                } else {
+                    LOGGER.warn("Image metadata index {} is from an other version or is empty, will be rebuilt", indexFile);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Couldn't read image metadata index {}, will be rebuilt", indexFile, e);
+                entries.clear();
+            }
+        }
+        dirty = false;
+        LOGGER.info("Image metadata index loaded in {} ms ({} entries)", System.currentTimeMillis() - start, entries.size());
+    }
+
+    /**
+     * Save the index if it was modified since last load/save.<br>
+     * Entries for files that don't exist anymore are removed.
+     */
+    public synchronized void saveIfNeeded() {
+        if (dirty) {
+            save();
+        }
+    }
+
+    public synchronized void save() {
+        long start = System.currentTimeMillis();
+        List<String> removedKeys = new ArrayList<>();
+        entries.keySet().forEach(key -> {
+            if (!new File(key).exists()) removedKeys.add(key);
+        });
+        removedKeys.forEach(entries::remove);
+
+        IndexContent content = new IndexContent();
+        content.version = INDEX_VERSION;
+        content.entries = entries;
+        IOUtils.createParentDirectoryIfNeeded(indexFile);
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8));
+                JsonHelper.GSON.toJson(content, writer);
+                writer.flush();
+                fos.getFD().sync();
+            }
+            try {
+                Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            dirty = false;
+            LOGGER.info("Image metadata index saved in {} ms ({} entries, {} removed)", System.currentTimeMillis() - start, entries.size(), removedKeys.size());
+        } catch (Exception e) {
+            LOGGER.error("Couldn't save image metadata index to {}", indexFile, e);
+            tempFile.delete();
+        }
+    }
+    //========================================================================
+
+    // MODEL
+    //========================================================================
+    public static class ImageMetadata {
+        private long size;
+        private long lastModified;
+        private String sha256;
+        private int width = -1, height = -1;
+        private String dictionaryId;
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        /**
+         * @return image width, -1 if unknown
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * @return image height, -1 if unknown
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        public String getDictionaryId() {
+            return dictionaryId;
+        }
+    }
+
+    private static class IndexContent {
+        private int version;
+        private Map<String, ImageMetadata> entries;
+    }
+    //========================================================================
+}
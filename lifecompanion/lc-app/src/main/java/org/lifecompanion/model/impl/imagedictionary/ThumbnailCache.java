@@ -0,0 +1,164 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import javafx.scene.image.Image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache for decoded thumbnails, bounded both by entry count and by decoded pixel bytes.<br>
+ * Least recently used thumbnails are evicted first when a limit is reached.<br>
+ * Keep hit/miss/eviction counts to check the cache efficiency.
+ */
+public class ThumbnailCache {
+    private final long maxBytes;
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, CachedThumbnail> entries;
+    private long residentBytes;
+    private long hitCount, missCount, evictionCount;
+
+    public ThumbnailCache(long maxBytes, int maxEntries) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    // CACHE
+    //========================================================================
+    public synchronized CachedThumbnailInformation get(String imageId) {
+        CachedThumbnail cachedThumbnail = entries.get(imageId);
+        if (cachedThumbnail != null) {
+            hitCount++;
+            return cachedThumbnail.information;
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Same as {@link #get(String)} but doesn't change access order or hit/miss counts
+     */
+    public synchronized boolean contains(String imageId) {
+        return entries.containsKey(imageId);
+    }
+
+    /**
+     * Add a thumbnail to the cache, evicting least recently used thumbnails if needed.<br>
+     * A thumbnail bigger than the whole cache budget is not cached.
+     *
+     * @param imageId     the image id
+     * @param information the loaded thumbnail
+     * @param bytes       decoded size of the thumbnail (see {@link #getDecodedBytes(Image)})
+     */
+    public synchronized void put(String imageId, CachedThumbnailInformation information, long bytes) {
+        if (bytes > maxBytes) {
+            return;
+        }
+        CachedThumbnail previous = entries.put(imageId, new CachedThumbnail(information, bytes));
+        if (previous != null) {
+            residentBytes -= previous.bytes;
+        }
+        residentBytes += bytes;
+        Iterator<Map.Entry<String, CachedThumbnail>> iterator = entries.entrySet().iterator();
+        while ((residentBytes > maxBytes || entries.size() > maxEntries) && iterator.hasNext()) {
+            Map.Entry<String, CachedThumbnail> eldest = iterator.next();
+            if (!eldest.getKey().equals(imageId)) {
+                iterator.remove();
+                residentBytes -= eldest.getValue().bytes;
+                evictionCount++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        residentBytes = 0;
+    }
+
+    public static long getDecodedBytes(Image image) {
+        return image != null ? (long) image.getWidth() * (long) image.getHeight() * 4L : 0L;
+    }
+    //========================================================================
+
+    // METRICS
+    //========================================================================
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return hit count / request count, or 0 if there was no request
+     */
+    public synchronized double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount > 0 ? (double) hitCount / requestCount : 0.0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d thumbnails, %.1f/%.1f MB, hit rate %.1f%% (%d hits, %d misses), %d evictions",
+                entries.size(),
+                residentBytes / 1_000_000.0,
+                maxBytes / 1_000_000.0,
+                getHitRate() * 100.0,
+                hitCount,
+                missCount,
+                evictionCount);
+    }
+    //========================================================================
+
+    private static class CachedThumbnail {
+        private final CachedThumbnailInformation information;
+        private final long bytes;
+
+        private CachedThumbnail(CachedThumbnailInformation information, long bytes) {
+            this.information = information;
+            this.bytes = bytes;
+        }
+    }
+}
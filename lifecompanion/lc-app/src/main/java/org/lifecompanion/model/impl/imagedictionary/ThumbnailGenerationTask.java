@@ -34,6 +34,9 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 class ThumbnailGenerationTask extends Task<Void> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ThumbnailGenerationTask.class);
@@ -50,6 +53,8 @@ class ThumbnailGenerationTask extends Task<Void> {
     protected Void call() throws Exception {
         File imagePath = imageElement.getOrGenerateDecodedFilePath();
         IOUtils.createParentDirectoryIfNeeded(thumbnailPath);
+        // Written to a temp file then moved : thumbnail file is never read while partially written
+        File tempThumbnailPath = File.createTempFile(imageElement.getId(), ".tmp", thumbnailPath.getParentFile());
         try (FileInputStream fis = new FileInputStream(imagePath)) {
             Image image = new Image(fis, ImageDictionaries.THUMBNAIL_WIDTH, ImageDictionaries.THUMBNAIL_HEIGHT, true, true);
             BufferedImage buffImage = SwingFXUtils.fromFXImage(image, null);
@@ -62,9 +67,19 @@ class ThumbnailGenerationTask extends Task<Void> {
                 g2d.drawImage(ci, 0, 0, null);
                 g2d.dispose();
             }
-            ImageIO.write(buffImage, FileNameUtils.getExtension(thumbnailPath), thumbnailPath);
+            if (ImageIO.write(buffImage, FileNameUtils.getExtension(thumbnailPath), tempThumbnailPath)) {
+                try {
+                    Files.move(tempThumbnailPath.toPath(), thumbnailPath.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempThumbnailPath.toPath(), thumbnailPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                LOGGER.warn("No image writer found to write thumbnail {}", thumbnailPath);
+            }
         } catch (Exception e) {
             LOGGER.error("Thumbnail couldn't be generated for {}", imagePath, e);
+        } finally {
+            tempThumbnailPath.delete();
         }
         return null;
     }
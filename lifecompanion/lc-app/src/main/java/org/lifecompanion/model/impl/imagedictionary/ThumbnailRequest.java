@@ -0,0 +1,158 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import javafx.scene.image.Image;
+import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.util.javafx.FXThreadUtils;
+import org.lifecompanion.util.javafx.ImageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A thumbnail loading request, executed on the thumbnail worker pool : generate the thumbnail file if needed, decode it and put it in cache.<br>
+ * Requests are ordered by priority (visible thumbnails first) and then by submission order.
+ * A cancelled request is ignored if it was not started yet and doesn't call its callback.<br>
+ * When another request is already loading the same thumbnail, the request waits for its result instead of loading it again.
+ */
+public class ThumbnailRequest implements Runnable, Comparable<ThumbnailRequest> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThumbnailRequest.class);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    public enum Priority {
+        /**
+         * Thumbnail is displayed to the user
+         */
+        VISIBLE,
+        /**
+         * Thumbnail could be displayed soon (e.g. next result page)
+         */
+        PREFETCH
+    }
+
+    private final ImageElementI imageElement;
+    private final File thumbnailPath;
+    private final ThumbnailCache thumbnailCache;
+    private final ConcurrentHashMap<String, CompletableFuture<CachedThumbnailInformation>> runningLoadings;
+    private final ThreadPoolExecutor executor;
+    private final Priority priority;
+    private final Consumer<CachedThumbnailInformation> callback;
+    private final long sequence;
+    private volatile boolean cancelled;
+
+    ThumbnailRequest(ImageElementI imageElement, File thumbnailPath, ThumbnailCache thumbnailCache, ConcurrentHashMap<String, CompletableFuture<CachedThumbnailInformation>> runningLoadings,
+                     ThreadPoolExecutor executor, Priority priority, Consumer<CachedThumbnailInformation> callback) {
+        this.imageElement = imageElement;
+        this.thumbnailPath = thumbnailPath;
+        this.thumbnailCache = thumbnailCache;
+        this.runningLoadings = runningLoadings;
+        this.executor = executor;
+        this.priority = priority;
+        this.callback = callback;
+        this.sequence = SEQUENCE.getAndIncrement();
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancel this request : if it wasn't executed yet, thumbnail will not be loaded, and callback will never be called.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        executor.remove(this);
+    }
+
+    @Override
+    public void run() {
+        if (cancelled) return;
+        try {
+            // Could have been loaded by another request while this one was waiting
+            CachedThumbnailInformation info = thumbnailCache.get(imageElement.getId());
+            if (info == null) {
+                CompletableFuture<CachedThumbnailInformation> loading = new CompletableFuture<>();
+                CompletableFuture<CachedThumbnailInformation> runningLoading = runningLoadings.putIfAbsent(imageElement.getId(), loading);
+                if (runningLoading != null) {
+                    // Running loading is executed by another worker : just wait for its result
+                    info = runningLoading.get();
+                } else {
+                    try {
+                        info = loadThumbnail();
+                        loading.complete(info);
+                    } catch (Exception e) {
+                        loading.completeExceptionally(e);
+                        throw e;
+                    } finally {
+                        runningLoadings.remove(imageElement.getId(), loading);
+                    }
+                }
+            }
+            if (callback != null && !cancelled) {
+                CachedThumbnailInformation loadedInfo = info;
+                FXThreadUtils.runOnFXThread(() -> {
+                    if (!cancelled) {
+                        callback.accept(loadedInfo);
+                    }
+                });
+            }
+        } catch (ExecutionException e) {
+            LOGGER.warn("Loading thumbnail {} failed", thumbnailPath, e.getCause());
+        } catch (Exception e) {
+            LOGGER.warn("Loading thumbnail {} failed", thumbnailPath, e);
+        }
+    }
+
+    private CachedThumbnailInformation loadThumbnail() throws Exception {
+        // Could have been loaded by a request that ended just before this one started loading
+        CachedThumbnailInformation info = thumbnailCache.get(imageElement.getId());
+        if (info == null) {
+            if (!thumbnailPath.exists()) {
+                new ThumbnailGenerationTask(imageElement, thumbnailPath).call();
+            }
+            Image loadedImage;
+            try (FileInputStream fis = new FileInputStream(thumbnailPath)) {
+                loadedImage = new Image(fis, ImageDictionaries.THUMBNAIL_WIDTH, -1, true, true);
+            }
+            info = new CachedThumbnailInformation(loadedImage, ImageUtils.computeFullImageViewPort(loadedImage));
+            thumbnailCache.put(imageElement.getId(), info, ThumbnailCache.getDecodedBytes(loadedImage));
+        }
+        return info;
+    }
+
+    @Override
+    public int compareTo(ThumbnailRequest other) {
+        int priorityComparison = priority.compareTo(other.priority);
+        return priorityComparison != 0 ? priorityComparison : Long.compare(sequence, other.sequence);
+    }
+}
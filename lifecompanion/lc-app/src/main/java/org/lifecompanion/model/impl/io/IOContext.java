@@ -55,6 +55,11 @@ public class IOContext implements IOContextI {
 
     private boolean fallbackOnDefaultInstanceOnFail = true;
 
+    /**
+     * Instantiated types while loading with this context
+     */
+    private final Map<Class<?>, InstantiationMetric> instantiationMetrics;
+
 
     public IOContext(final File directoryP) {
         imagesV2 = new ArrayList<>();
@@ -62,6 +67,7 @@ public class IOContext implements IOContextI {
         backwardImageCompatibilityIdsMap = new HashMap<>();
         this.pluginIdDependencies = new HashSet<>();
         this.videos = new HashMap<>();
+        this.instantiationMetrics = new HashMap<>();
         this.directory = directoryP;
     }
 
@@ -107,6 +113,11 @@ public class IOContext implements IOContextI {
         return this.directory;
     }
 
+    @Override
+    public void instanceCreated(Class<?> type, long durationNanos) {
+        this.instantiationMetrics.computeIfAbsent(type, InstantiationMetric::new).add(durationNanos);
+    }
+
     //========================================================================
 
     @Override
@@ -123,4 +134,13 @@ public class IOContext implements IOContextI {
         return ioResource.getId();
     }
 
+    /**
+     * @return instance count and creation time per type instantiated with this context, ordered by descending total creation time
+     */
+    public List<InstantiationMetric> getInstantiationMetrics() {
+        List<InstantiationMetric> metrics = new ArrayList<>(instantiationMetrics.values());
+        metrics.sort(Comparator.comparingLong(InstantiationMetric::getTotalNanos).reversed());
+        return metrics;
+    }
+
 }
@@ -16,36 +16,36 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.lifecompanion.model.impl.textprediction.charprediction;
+
+
+package org.lifecompanion.model.impl.io;
 
 /**
- * Represent a char prediction.
+ * Instance count and creation time of a type created while loading (see {@link IOContext#getInstantiationMetrics()})
  */
-public class CharPrediction {
-    /**
-     * The next char after the starting char
-     */
-    private final char[] nextChars;
-
-    /**
-     * Times this ngram is found
-     */
-    private final int count;
-
-    public CharPrediction(char[] nextChars, int count) {
-        this.nextChars = nextChars;
-        this.count = count;
+public class InstantiationMetric {
+    private final Class<?> type;
+    private long count;
+    private long totalNanos;
+
+    InstantiationMetric(Class<?> type) {
+        this.type = type;
+    }
+
+    void add(long durationNanos) {
+        count++;
+        totalNanos += durationNanos;
     }
 
-    public char[] getNextChars() {
-        return nextChars;
+    public Class<?> getType() {
+        return type;
     }
 
-    public int getCount() {
+    public long getCount() {
         return count;
     }
 
-    public String toString() {
-        return new String(nextChars, 0, nextChars.length) + " = " + count;
+    public long getTotalNanos() {
+        return totalNanos;
     }
 }
@@ -53,6 +53,11 @@ public abstract class AbstractDirectKeyScanSelectionMode extends AbstractScannin
      */
     private List<GridComponentInformation> currentScanList;
 
+    /**
+     * Generated components to scan, kept while scanned grids don't change
+     */
+    private final ScanPlanCache<GridComponentInformation> scanPlanCache = new ScanPlanCache<>(getClass().getSimpleName(), this::generateComponentToScan);
+
     /**
      * The current component index in the scanning list
      */
@@ -116,20 +121,27 @@ public abstract class AbstractDirectKeyScanSelectionMode extends AbstractScannin
 
     @Override
     protected void generateScannedComponents() {
-        this.currentScanList = this.generateComponentToScan(this.currentGrid.get(), !this.parameters.skipEmptyComponentProperty().get());
+        this.currentScanList = this.scanPlanCache.getPlan(this.currentGrid.get(), !this.parameters.skipEmptyComponentProperty().get());
         if (CollectionUtils.isEmpty(this.currentScanList)) {
             AbstractDirectKeyScanSelectionMode.LOGGER.warn("No component to scan found for {}, so the empty check will be bypassed",
                     this.getClass().getSimpleName());
-            this.currentScanList = this.generateComponentToScan(this.currentGrid.get(), true);
+            this.currentScanList = this.scanPlanCache.getPlan(this.currentGrid.get(), true);
         }
     }
 
     @Override
     public void init(LCConfigurationI configuration, SelectionModeI previousSelectionMode) {
+        this.scanPlanCache.clear();
         super.init(configuration, previousSelectionMode);
         this.currentIndex = 0;
         this.currentPart.set(null);
     }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.scanPlanCache.clear();
+    }
     //========================================================================
 
     // Class part : "Subclass"
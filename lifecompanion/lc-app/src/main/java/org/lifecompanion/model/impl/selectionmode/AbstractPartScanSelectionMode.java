@@ -51,6 +51,11 @@ public abstract class AbstractPartScanSelectionMode<T extends AbstractPartScanSe
      */
     private List<ComponentToScanI> components;
 
+    /**
+     * Generated part to scan, kept while scanned grids don't change
+     */
+    private final ScanPlanCache<ComponentToScanI> scanPlanCache = new ScanPlanCache<>(getClass().getSimpleName(), this::generateComponentsToScan);
+
     /**
      * The selected part, if the part is selected, we are currently components inside this part with secondary index.
      */
@@ -117,11 +122,11 @@ public abstract class AbstractPartScanSelectionMode<T extends AbstractPartScanSe
 
     @Override
     protected void generateScannedComponents() {
-        this.components = this.generateComponentsToScan(this.currentGrid.get(), !this.parameters.skipEmptyComponentProperty().get());
+        this.components = this.scanPlanCache.getPlan(this.currentGrid.get(), !this.parameters.skipEmptyComponentProperty().get());
         if (CollectionUtils.isEmpty(this.components)) {
             AbstractPartScanSelectionMode.LOGGER.warn("No component to scan found for {}, so the empty check will be bypassed",
                     this.getClass().getSimpleName());
-            this.components = this.generateComponentsToScan(this.currentGrid.get(), true);
+            this.components = this.scanPlanCache.getPlan(this.currentGrid.get(), true);
         }
     }
 
@@ -155,10 +160,17 @@ public abstract class AbstractPartScanSelectionMode<T extends AbstractPartScanSe
 
     @Override
     public void init(LCConfigurationI configuration, SelectionModeI previousSelectionMode) {
+        this.scanPlanCache.clear();
         super.init(configuration, previousSelectionMode);
         this.reinitParts();
     }
 
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.scanPlanCache.clear();
+    }
+
     private void reinitParts() {
         this.primaryIndex = 0;
         this.secondaryIndex = 0;
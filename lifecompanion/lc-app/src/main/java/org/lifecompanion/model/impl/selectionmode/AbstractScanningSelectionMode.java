@@ -19,16 +19,12 @@
 
 package org.lifecompanion.model.impl.selectionmode;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.beans.InvalidationListener;
 import javafx.beans.WeakInvalidationListener;
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.Node;
-import javafx.util.Duration;
 import org.lifecompanion.model.api.configurationcomponent.GridComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartComponentI;
 import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
@@ -60,9 +56,9 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractScanningSelectionMode.class);
 
     /**
-     * Timeline to repeat the scanning
+     * Clock to repeat the scanning
      */
-    private final Timeline scanningTimeLine;
+    private final ScanningClock scanningClock;
 
     private InvalidationListener scanPauseInvalidationListener;
 
@@ -117,8 +113,7 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
     protected boolean skipNextPauseOnRestart;
 
     protected AbstractScanningSelectionMode() {
-        this.scanningTimeLine = new Timeline();
-        this.scanningTimeLine.setCycleCount(Animation.INDEFINITE);
+        this.scanningClock = new ScanningClock(this::updateNextMove);
         this.currentPart = new SimpleObjectProperty<>();
         this.view = this.createView();
         //Each time the current part change, we ends the over event on it
@@ -325,27 +320,12 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
     @Override
     public void parameterChanged(final SelectionModeParameterI parameters) {
         AbstractScanningSelectionMode.LOGGER.info("Parameters changed for mode {}", parameters);
-        updateKeyFrames(parameters.scanPauseProperty().get(), parameters.scanningModeProperty().get() == ScanningMode.AUTO);
-        this.scanPauseInvalidationListener = inv -> {
-            synchronized (scanningTimeLine) {
-                boolean wasRunning = scanningTimeLine.getStatus() == Animation.Status.RUNNING;
-                scanningTimeLine.stop();
-                updateKeyFrames(parameters.scanPauseProperty().get(), parameters.scanningModeProperty().get() == ScanningMode.AUTO);
-                if (wasRunning) scanningTimeLine.play();
-            }
-        };
+        this.scanningClock.setPeriod(parameters.scanPauseProperty().get(), parameters.scanningModeProperty().get() == ScanningMode.AUTO);
+        // Clock is restarted if it was running
+        this.scanPauseInvalidationListener = inv -> scanningClock.setPeriod(parameters.scanPauseProperty().get(), parameters.scanningModeProperty().get() == ScanningMode.AUTO);
         parameters.scanPauseProperty().addListener(new WeakInvalidationListener(scanPauseInvalidationListener));
     }
 
-    private void updateKeyFrames(int timeInMs, boolean add) {
-        synchronized (this.scanningTimeLine) {
-            this.scanningTimeLine.getKeyFrames().clear();
-            if (add) {
-                this.scanningTimeLine.getKeyFrames().add(new KeyFrame(Duration.millis(timeInMs), (ae) -> this.updateNextMove()));
-            }
-        }
-    }
-
     @Override
     public void dispose() {
         this.view.dispose();
@@ -420,12 +400,12 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
     }
 
     /**
-     * This will restart the scanning timeline with the initial delay
+     * This will restart the scanning clock with the initial delay
      */
-    private void restartTimeLine() {
+    private void restartScanningClock() {
         if (!this.executingActionOnCurrentPart && !this.pauseToExecuteSimpleActions && !this.disposed) {
-            synchronized (this.scanningTimeLine) {
-                this.scanningTimeLine.stop();
+            synchronized (this.scanningClock) {
+                this.scanningClock.stop();
                 if ((this.parameters.startScanningOnClicProperty().get() && this.parameters.scanningModeProperty()
                         .get() != ScanningMode.MANUAL) && !this.restartScanningOnNextAction && !skipNextPauseOnRestart) {
                     this.restartScanningOnNextAction = true;
@@ -433,8 +413,8 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
                 } else {
                     this.skipNextPauseOnRestart = false;
                     this.restartScanningOnNextAction = false;
-                    this.scanningTimeLine.setDelay(Duration.millis(this.parameters.scanFirstPauseProperty().get()));
-                    this.scanningTimeLine.playFrom(Duration.ZERO);
+                    this.scanningClock.setDelay(this.parameters.scanFirstPauseProperty().get());
+                    this.scanningClock.restart();
                     this.playingProperty.set(true);
                 }
             }
@@ -453,7 +433,7 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
     protected void updateCurrentPart(final GridPartComponentI newPart, final boolean firstScan) {
         this.currentPart.set(newPart);
         //Execute the action after simple OVER actions executed (block play because scanning should not be playing until simple action ended)
-        Runnable actionAfter = firstScan ? this::restartTimeLine : this::play;
+        Runnable actionAfter = firstScan ? this::restartScanningClock : this::play;
         Consumer<ActionExecutionResultI> actionAfterRunnable = (result) -> {
             this.executingActionOnCurrentPart = false;
             /*
@@ -485,7 +465,7 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
         if (firstScan && !executeActionOver) {
             AbstractScanningSelectionMode.LOGGER.debug("In {}, update current part {} with a first scan {}, disposed {}",
                     this.getClass().getSimpleName(), newPart, firstScan, this.disposed);
-            this.restartTimeLine();
+            this.restartScanningClock();
         }
     }
 
@@ -496,11 +476,9 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
         if (this.disposed) {
             // KNOWN-ISSUE
             // this happens sometimes, can't know why, bug is not reproducible efficiently.
-            // stop() has not effect because when it happens, animation status is already STOPPED...
-            AbstractScanningSelectionMode.LOGGER.warn("Scanning selection mode was disposed updateNextMove is called, stop scanning time line, timeLine statut {}", this.scanningTimeLine.getStatus());
-            synchronized (this.scanningTimeLine) {
-                this.scanningTimeLine.stop();
-            }
+            // stop() has not effect because when it happens, clock is already stopped...
+            AbstractScanningSelectionMode.LOGGER.warn("Scanning selection mode was disposed updateNextMove is called, stop scanning clock, clock running {}", this.scanningClock.isRunning());
+            this.scanningClock.stop();
         } else {
             SelectionModeController.INSTANCE.showScanningSelectionModeView(); // Request to display main view
 
@@ -526,34 +504,34 @@ public abstract class AbstractScanningSelectionMode<T extends AbstractSelectionM
     @Override
     public void play() {
         if (!this.executingActionOnCurrentPart && !this.pauseToExecuteSimpleActions && !this.disposed) {
-            synchronized (this.scanningTimeLine) {
+            synchronized (this.scanningClock) {
                 this.playingProperty.set(true);
-                this.scanningTimeLine.play();
+                this.scanningClock.play();
             }
         }
     }
 
     @Override
     public void pause() {
-        synchronized (this.scanningTimeLine) {
+        synchronized (this.scanningClock) {
             this.playingProperty.set(false);
-            this.scanningTimeLine.pause();
+            this.scanningClock.pause();
         }
     }
 
     @Override
     public void stop() {
-        synchronized (this.scanningTimeLine) {
+        synchronized (this.scanningClock) {
             this.playingProperty.set(false);
-            this.scanningTimeLine.stop();
+            this.scanningClock.stop();
         }
     }
 
     @Override
     public void pauseUntilNextSelection(final Supplier<Boolean> isRestartOrPlay) {
-        synchronized (this.scanningTimeLine) {
+        synchronized (this.scanningClock) {
             this.nextSelectionListener = isRestartOrPlay;
-            this.scanningTimeLine.stop();
+            this.scanningClock.stop();
             this.playingProperty.set(false);
             this.restartScanningOnNextAction = true;
             this.pauseForUntilNextSelection = true;
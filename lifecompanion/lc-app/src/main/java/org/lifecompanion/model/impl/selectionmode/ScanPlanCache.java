@@ -0,0 +1,283 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.selectionmode;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import org.lifecompanion.model.api.configurationcomponent.GridComponentI;
+import org.lifecompanion.model.api.configurationcomponent.GridPartComponentI;
+import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.api.configurationcomponent.keyoption.KeyOptionI;
+import org.lifecompanion.util.model.SelectionModeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of the scan plans (components to scan, in scanning order) built by a selection mode for the grids it scans.<br>
+ * A plan is built once for a grid and then reused while the grid doesn't change : grid content, size and component positions are observed (structure version),
+ * and every key property used to know if a key is empty for scanning is observed (content version).<br>
+ * Key changes are incremental : a changed key is only marked, and on next plan request, its empty state is computed again.
+ * The plan is then built again only if a key empty state changed (e.g. dynamic key list page with the same empty keys reuse the plan).
+ * Plans built without empty check only depend on structure.<br>
+ * Returned plans are immutable and can be kept by the selection mode.
+ *
+ * @param <T> type of the scanned elements
+ */
+public class ScanPlanCache<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanPlanCache.class);
+
+    private final String name;
+    private final BiFunction<GridComponentI, Boolean, List<T>> planBuilder;
+    private final Map<GridComponentI, GridScanPlans> gridPlans;
+
+    private int buildCount, reuseCount;
+    private long buildTime;
+
+    /**
+     * @param name        cache name (for logs)
+     * @param planBuilder function to build the plan for a grid (second parameter is true when empty check should be bypassed)
+     */
+    public ScanPlanCache(String name, BiFunction<GridComponentI, Boolean, List<T>> planBuilder) {
+        this.name = name;
+        this.planBuilder = planBuilder;
+        this.gridPlans = new HashMap<>();
+    }
+
+    /**
+     * Get the scan plan for the given grid, built again only if the grid changed since the plan was built.
+     *
+     * @param grid             the scanned grid
+     * @param byPassEmptyCheck true if empty components should be scanned
+     * @return the scan plan (immutable)
+     */
+    public synchronized List<T> getPlan(GridComponentI grid, boolean byPassEmptyCheck) {
+        GridScanPlans plans = gridPlans.computeIfAbsent(grid, GridScanPlans::new);
+        plans.updateDirtyKeys();
+        int planIndex = byPassEmptyCheck ? 1 : 0;
+        if (plans.plans[planIndex] != null && plans.planStructureVersions[planIndex] == plans.structureVersion
+                && (byPassEmptyCheck || plans.planContentVersions[planIndex] == plans.contentVersion)) {
+            reuseCount++;
+            return plans.plans[planIndex];
+        }
+        long start = System.nanoTime();
+        List<T> plan = Collections.unmodifiableList(new ArrayList<>(planBuilder.apply(grid, byPassEmptyCheck)));
+        long time = System.nanoTime() - start;
+        buildCount++;
+        buildTime += time;
+        plans.plans[planIndex] = plan;
+        plans.planStructureVersions[planIndex] = plans.structureVersion;
+        plans.planContentVersions[planIndex] = plans.contentVersion;
+        LOGGER.debug("Scan plan for {} built in {} ms ({} scanned elements)", name, time / 1_000_000.0, plan.size());
+        return plan;
+    }
+
+    public synchronized int getBuildCount() {
+        return buildCount;
+    }
+
+    public synchronized int getReuseCount() {
+        return reuseCount;
+    }
+
+    /**
+     * @return average plan build time, in ms
+     */
+    public synchronized double getAverageBuildTime() {
+        return buildCount > 0 ? buildTime / 1_000_000.0 / buildCount : 0.0;
+    }
+
+    /**
+     * @return requested plans that were reused (0 - 1)
+     */
+    public synchronized double getReuseRate() {
+        int total = buildCount + reuseCount;
+        return total > 0 ? (double) reuseCount / total : 0.0;
+    }
+
+    /**
+     * Remove every cached plan and stop observing grids
+     */
+    public synchronized void clear() {
+        if (buildCount + reuseCount > 0) {
+            LOGGER.info("Scan plans for {} : {} built (average {} ms), {} reused (reuse rate {} %)", name, buildCount, getAverageBuildTime(), reuseCount,
+                    (int) (getReuseRate() * 100.0));
+        }
+        gridPlans.values().forEach(GridScanPlans::dispose);
+        gridPlans.clear();
+        buildCount = 0;
+        reuseCount = 0;
+        buildTime = 0;
+    }
+
+    // GRID OBSERVATION
+    //========================================================================
+    private class GridScanPlans {
+        private final GridComponentI grid;
+        private final Map<GridPartComponentI, ComponentObserver> componentObservers;
+        private final Set<ComponentObserver> dirtyObservers;
+        private final ListChangeListener<GridPartComponentI> gridContentListener;
+        private final InvalidationListener structureListener;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final List<T>[] plans = new List[2];
+        private final int[] planStructureVersions = new int[2], planContentVersions = new int[2];
+        private int structureVersion, contentVersion;
+
+        private GridScanPlans(GridComponentI grid) {
+            this.grid = grid;
+            this.componentObservers = new IdentityHashMap<>();
+            this.dirtyObservers = new HashSet<>();
+            this.structureListener = inv -> structureChanged();
+            this.gridContentListener = change -> {
+                synchronized (ScanPlanCache.this) {
+                    while (change.next()) {
+                        change.getRemoved().forEach(this::stopObserving);
+                        change.getAddedSubList().forEach(this::observe);
+                    }
+                    structureVersion++;
+                }
+            };
+            grid.getGrid().getGridContent().addListener(gridContentListener);
+            grid.getGrid().rowProperty().addListener(structureListener);
+            grid.getGrid().columnProperty().addListener(structureListener);
+            grid.getGrid().getGridContent().forEach(this::observe);
+        }
+
+        private void structureChanged() {
+            synchronized (ScanPlanCache.this) {
+                structureVersion++;
+            }
+        }
+
+        private void observe(GridPartComponentI component) {
+            if (!componentObservers.containsKey(component)) {
+                componentObservers.put(component, new ComponentObserver(this, component));
+            }
+        }
+
+        private void stopObserving(GridPartComponentI component) {
+            // Component can still be in grid (e.g. replaced on one of its spanned cell)
+            if (!grid.getGrid().getGridContent().contains(component)) {
+                ComponentObserver observer = componentObservers.remove(component);
+                if (observer != null) {
+                    observer.dispose();
+                    dirtyObservers.remove(observer);
+                }
+            }
+        }
+
+        private void keyChanged(ComponentObserver observer) {
+            synchronized (ScanPlanCache.this) {
+                dirtyObservers.add(observer);
+            }
+        }
+
+        private void updateDirtyKeys() {
+            for (ComponentObserver observer : dirtyObservers) {
+                boolean empty = SelectionModeUtils.isPartConsideredEmptyForScanning(observer.component);
+                if (empty != observer.empty) {
+                    observer.empty = empty;
+                    contentVersion++;
+                }
+            }
+            dirtyObservers.clear();
+        }
+
+        private void dispose() {
+            grid.getGrid().getGridContent().removeListener(gridContentListener);
+            grid.getGrid().rowProperty().removeListener(structureListener);
+            grid.getGrid().columnProperty().removeListener(structureListener);
+            componentObservers.values().forEach(ComponentObserver::dispose);
+            componentObservers.clear();
+            dirtyObservers.clear();
+        }
+    }
+
+    private class ComponentObserver {
+        private final GridPartComponentI component;
+        private final List<Runnable> removeListeners;
+        private boolean empty;
+
+        private ComponentObserver(GridScanPlans plans, GridPartComponentI component) {
+            this.component = component;
+            this.removeListeners = new ArrayList<>(12);
+            this.empty = SelectionModeUtils.isPartConsideredEmptyForScanning(component);
+            InvalidationListener structureListener = plans.structureListener;
+            addListener(component.rowProperty(), structureListener);
+            addListener(component.columnProperty(), structureListener);
+            addListener(component.rowSpanProperty(), structureListener);
+            addListener(component.columnSpanProperty(), structureListener);
+            if (component instanceof GridPartKeyComponentI) {
+                GridPartKeyComponentI key = (GridPartKeyComponentI) component;
+                InvalidationListener keyListener = inv -> plans.keyChanged(this);
+                addListener(key.textContentProperty(), keyListener);
+                addListener(key.imageVTwoProperty(), keyListener);
+                addListener(key.videoProperty(), keyListener);
+                key.getActionManager().componentActions().values().forEach(actions -> addListener(actions, keyListener));
+                // Key option can change : observe the current key option "consider empty" property
+                KeyOptionObserver keyOptionObserver = new KeyOptionObserver(keyListener);
+                keyOptionObserver.changed(null, null, key.keyOptionProperty().get());
+                key.keyOptionProperty().addListener(keyOptionObserver);
+                removeListeners.add(() -> {
+                    key.keyOptionProperty().removeListener(keyOptionObserver);
+                    keyOptionObserver.changed(null, key.keyOptionProperty().get(), null);
+                });
+            }
+        }
+
+        private void addListener(Observable observable, InvalidationListener listener) {
+            observable.addListener(listener);
+            removeListeners.add(() -> observable.removeListener(listener));
+        }
+
+        private void dispose() {
+            removeListeners.forEach(Runnable::run);
+            removeListeners.clear();
+        }
+    }
+
+    private static class KeyOptionObserver implements ChangeListener<KeyOptionI> {
+        private final InvalidationListener keyListener;
+
+        private KeyOptionObserver(InvalidationListener keyListener) {
+            this.keyListener = keyListener;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends KeyOptionI> observable, KeyOptionI oldValue, KeyOptionI newValue) {
+            if (oldValue != null) {
+                oldValue.considerKeyEmptyProperty().removeListener(keyListener);
+            }
+            if (newValue != null) {
+                newValue.considerKeyEmptyProperty().addListener(keyListener);
+            }
+            if (observable != null) {
+                keyListener.invalidated(observable);
+            }
+        }
+    }
+    //========================================================================
+}
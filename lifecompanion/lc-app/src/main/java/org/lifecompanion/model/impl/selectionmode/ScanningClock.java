@@ -0,0 +1,233 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.selectionmode;
+
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
+import org.lifecompanion.util.javafx.FXThreadUtils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Clock that runs scanning steps at a fixed interval (replaces a repeating JavaFX timeline).<br>
+ * Step deadlines are computed from a monotonic time base ({@link System#nanoTime()}) : deadline of step n is <code>start + delay + n * period</code>,
+ * so a step executed a bit late doesn't delay the next ones (no drift).
+ * Deadlines are waited on a dedicated scheduling thread, and only the step itself is posted to the FX thread, so waiting doesn't depend on FX pulses.<br>
+ * There is never more than one step waiting to be executed : next step is scheduled once the current one is executed.<br>
+ * When a step is executed late (e.g. FX thread busy), following steps catch up with the scheduled times, but two steps are never closer than
+ * {@link #MIN_STEP_INTERVAL_RATIO} period : the scanned part is always displayed long enough to be selected.
+ * When a step is more than one period late, the time is not caught up (scheduled times start again from this step).<br>
+ * Behaves as the timeline it replaces : {@link #pause()} keeps the time remaining before next step, {@link #play()} after {@link #stop()} waits for the delay again.
+ */
+public class ScanningClock {
+    private static final double MIN_STEP_INTERVAL_RATIO = 0.75;
+
+    private static ScheduledExecutorService sharedScheduler;
+
+    private enum Status {
+        STOPPED, PAUSED, RUNNING
+    }
+
+    private final Runnable step;
+    private final ScheduledExecutorService scheduler;
+    private final Executor stepExecutor;
+    private final LongSupplier nanoTime;
+
+    private Status status;
+    private long periodNanos, delayNanos;
+    private boolean stepEnabled;
+
+    /**
+     * Deadline of next step, and remaining time before next step while paused
+     */
+    private long nextDeadline, pausedRemaining;
+    /**
+     * Time when next step should run without any lateness (next deadline can be after while catching up)
+     */
+    private long nextScheduledTime;
+    /**
+     * Incremented on each status change : steps scheduled before are ignored
+     */
+    private long generation;
+    private ScheduledFuture<?> scheduledStep;
+    private long currentStepDeadline;
+
+    /**
+     * Create a clock executing step on FX thread
+     *
+     * @param step the step to run on each period
+     */
+    public ScanningClock(Runnable step) {
+        this(step, getSharedScheduler(), FXThreadUtils::runOnFXThread, System::nanoTime);
+    }
+
+    /**
+     * @param step         the step to run on each period
+     * @param scheduler    scheduler used to wait for step deadlines
+     * @param stepExecutor executor to run the step (FX thread)
+     * @param nanoTime     monotonic time base, in nanoseconds
+     */
+    public ScanningClock(Runnable step, ScheduledExecutorService scheduler, Executor stepExecutor, LongSupplier nanoTime) {
+        this.step = step;
+        this.scheduler = scheduler;
+        this.stepExecutor = stepExecutor;
+        this.nanoTime = nanoTime;
+        this.status = Status.STOPPED;
+    }
+
+    private static synchronized ScheduledExecutorService getSharedScheduler() {
+        if (sharedScheduler == null) {
+            sharedScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = LCNamedThreadFactory.daemonThreadFactory("ScanningClock").newThread(r);
+                thread.setPriority(Thread.MAX_PRIORITY);
+                return thread;
+            });
+        }
+        return sharedScheduler;
+    }
+
+    // CONFIGURATION
+    //========================================================================
+
+    /**
+     * Change step period.<br>
+     * If the clock is running, it is restarted (and will wait for the delay again).
+     *
+     * @param periodMs    time between two steps
+     * @param stepEnabled false if steps should never be run (clock can still be played)
+     */
+    public synchronized void setPeriod(long periodMs, boolean stepEnabled) {
+        boolean wasRunning = status == Status.RUNNING;
+        stop();
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+        this.stepEnabled = stepEnabled && periodMs > 0;
+        if (wasRunning) {
+            play();
+        }
+    }
+
+    /**
+     * @param delayMs time waited before first step period, when clock is played after being stopped
+     */
+    public synchronized void setDelay(long delayMs) {
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMs);
+    }
+    //========================================================================
+
+    // STATUS
+    //========================================================================
+
+    /**
+     * Play the clock : first step is after delay and period if the clock was stopped, after the remaining time if the clock was paused.<br>
+     * Does nothing if already running.
+     */
+    public synchronized void play() {
+        if (status != Status.RUNNING) {
+            long now = nanoTime.getAsLong();
+            long catchUp = nextDeadline - nextScheduledTime;
+            if (status == Status.PAUSED) {
+                nextDeadline = now + pausedRemaining;
+                nextScheduledTime = nextDeadline - catchUp;
+            } else {
+                nextDeadline = now + delayNanos + periodNanos;
+                nextScheduledTime = nextDeadline;
+            }
+            changeStatus(Status.RUNNING);
+            scheduleNextStep();
+        }
+    }
+
+    /**
+     * Stop then play the clock : first step will be after delay and period
+     */
+    public synchronized void restart() {
+        stop();
+        play();
+    }
+
+    public synchronized void pause() {
+        if (status == Status.RUNNING) {
+            pausedRemaining = Math.max(0, nextDeadline - nanoTime.getAsLong());
+            changeStatus(Status.PAUSED);
+        }
+    }
+
+    public synchronized void stop() {
+        changeStatus(Status.STOPPED);
+    }
+
+    public synchronized boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    /**
+     * @return the deadline of the step currently executed (based on clock time base), or of the last executed step
+     */
+    public synchronized long getCurrentStepDeadline() {
+        return currentStepDeadline;
+    }
+
+    private void changeStatus(Status status) {
+        this.status = status;
+        this.generation++;
+        if (scheduledStep != null) {
+            scheduledStep.cancel(false);
+            scheduledStep = null;
+        }
+    }
+    //========================================================================
+
+    // STEPS
+    //========================================================================
+    private void scheduleNextStep() {
+        if (stepEnabled) {
+            long stepGeneration = generation;
+            long deadline = nextDeadline;
+            scheduledStep = scheduler.schedule(() -> stepExecutor.execute(() -> runStep(stepGeneration, deadline)), deadline - nanoTime.getAsLong(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void runStep(long stepGeneration, long deadline) {
+        synchronized (this) {
+            if (stepGeneration != generation) {
+                return;
+            }
+            long now = nanoTime.getAsLong();
+            if (now - nextScheduledTime > periodNanos) {
+                nextScheduledTime = now;
+            }
+            nextScheduledTime += periodNanos;
+            nextDeadline = Math.max(nextScheduledTime, now + (long) (periodNanos * MIN_STEP_INTERVAL_RATIO));
+            currentStepDeadline = deadline;
+        }
+        step.run();
+        // Step can change clock status : next step is then already scheduled (or shouldn't be)
+        synchronized (this) {
+            if (stepGeneration == generation) {
+                scheduleNextStep();
+            }
+        }
+    }
+    //========================================================================
+}
@@ -20,6 +20,7 @@
 package org.lifecompanion.model.impl.style;
 
 import org.jdom2.Element;
+import org.lifecompanion.framework.commons.fx.io.XMLObjectSerializer;
 import org.lifecompanion.model.api.style.*;
 import org.lifecompanion.model.impl.exception.LCException;
 import org.lifecompanion.model.api.io.IOContextI;
@@ -89,4 +90,30 @@ public class StyleSerialializer {
     }
     //========================================================================
 
+    // Class part : "Copy"
+    //========================================================================
+    public static void copyGridStyle(final GridStyleUserI source, final GridStyleUserI target) {
+        copyStyle(source.getGridShapeStyle(), target.getGridShapeStyle());
+    }
+
+    public static void copyKeyStyle(final KeyStyleUserI source, final KeyStyleUserI target) {
+        copyStyle(source.getKeyStyle(), target.getKeyStyle());
+        copyStyle(source.getKeyTextStyle(), target.getKeyTextStyle());
+    }
+
+    public static void copyTextDisplayerStyle(final TextDisplayerStyleUserI source, final TextDisplayerStyleUserI target) {
+        copyStyle(source.getTextDisplayerShapeStyle(), target.getTextDisplayerShapeStyle());
+        copyStyle(source.getTextDisplayerTextStyle(), target.getTextDisplayerTextStyle());
+    }
+
+    /**
+     * Copy the selected style values : each style class only serialize its own fields with {@link XMLObjectSerializer}, so every class of the hierarchy is copied the same way.
+     */
+    private static void copyStyle(final Object source, final Object target) {
+        for (Class<?> type = source.getClass(); type != Object.class; type = type.getSuperclass()) {
+            XMLObjectSerializer.copyInto(type, source, target);
+        }
+    }
+    //========================================================================
+
 }
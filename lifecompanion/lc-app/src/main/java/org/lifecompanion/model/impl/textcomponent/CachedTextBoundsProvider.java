@@ -0,0 +1,105 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.textcomponent;
+
+import javafx.geometry.Bounds;
+import javafx.scene.text.Font;
+import org.lifecompanion.model.api.style.TextCompStyleI;
+import org.lifecompanion.model.api.textcomponent.TextBoundsProviderI;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Text bounds provider that keeps measured bounds for each font, to avoid measuring again the same words and chars on each text layout.<br>
+ * Single chars (glyphs) are kept in a table per font, words in a LRU cache per font ({@link #MAX_WORD_COUNT_PER_FONT}).
+ * Only the last used fonts are kept ({@link #MAX_FONT_COUNT}).<br>
+ * Measured bounds only depend on text and font, so cached bounds are the same as the measured bounds.
+ */
+public class CachedTextBoundsProvider implements TextBoundsProviderI {
+    private static final int MAX_FONT_COUNT = 8, MAX_WORD_COUNT_PER_FONT = 5_000, GLYPH_TABLE_SIZE = 512;
+
+    private final BiFunction<String, Font, Bounds> measure;
+    private final Map<Font, FontCache> fontCaches;
+    private long hitCount, missCount;
+
+    public CachedTextBoundsProvider(BiFunction<String, Font, Bounds> measure) {
+        this.measure = measure;
+        this.fontCaches = new LinkedHashMap<>(MAX_FONT_COUNT + 1, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Font, FontCache> eldest) {
+                return size() > MAX_FONT_COUNT;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Bounds getBounds(String text, TextCompStyleI textStyle) {
+        Font font = textStyle != null ? textStyle.fontProperty().get() : null;
+        FontCache fontCache = fontCaches.computeIfAbsent(font, f -> new FontCache());
+        Bounds bounds;
+        boolean glyph = text.length() == 1 && text.charAt(0) < GLYPH_TABLE_SIZE;
+        if (glyph) {
+            bounds = fontCache.glyphs[text.charAt(0)];
+        } else {
+            bounds = fontCache.words.get(text);
+        }
+        if (bounds != null) {
+            hitCount++;
+            return bounds;
+        }
+        missCount++;
+        bounds = measure.apply(text, font);
+        if (glyph) {
+            fontCache.glyphs[text.charAt(0)] = bounds;
+        } else {
+            fontCache.words.put(text, bounds);
+        }
+        return bounds;
+    }
+
+    public synchronized void clear() {
+        fontCaches.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static class FontCache {
+        private final Bounds[] glyphs;
+        private final Map<String, Bounds> words;
+
+        private FontCache() {
+            this.glyphs = new Bounds[GLYPH_TABLE_SIZE];
+            this.words = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bounds> eldest) {
+                    return size() > MAX_WORD_COUNT_PER_FONT;
+                }
+            };
+        }
+    }
+}
@@ -19,7 +19,6 @@
 
 package org.lifecompanion.model.impl.textcomponent;
 
-import javafx.scene.text.Font;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
 import org.lifecompanion.model.api.configurationcomponent.WriterDisplayerI;
 import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
@@ -31,7 +30,6 @@ import org.lifecompanion.util.javafx.FXUtils;
 import org.predict4all.nlp.Separator;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -42,36 +40,66 @@ import java.util.List;
  */
 public class TextDisplayerLineHelper {
 
-    public static final TextBoundsProviderI BOUNDS_PROVIDER = (text, textStyle) -> {
-        Font originalFont = textStyle.fontProperty().get();
-        return FXUtils.getTextBounds(text, originalFont);
-    };
+    /**
+     * Bounds provider used for every text displayer : measured text bounds are kept per font (see {@link CachedTextBoundsProvider})
+     */
+    public static final CachedTextBoundsProvider BOUNDS_PROVIDER = new CachedTextBoundsProvider(FXUtils::getTextBounds);
 
     public static List<TextDisplayerLineI> generateLines(WritingStateControllerI writingStateController, WriterDisplayerI component, TextCompStyleI defaultTextStyle, double maxWidth) {
         return generateLines(writingStateController.getWriterEntries(), defaultTextStyle, maxWidth, component.enableWordWrapProperty().get());
     }
 
     public static List<TextDisplayerLineI> generateLines(List<WriterEntryI> originalEntriesList, TextCompStyleI defaultTextStyle, double maxWidth, boolean enableWordWrap) {
-        // long splitStart = System.currentTimeMillis();
+        return generateLines(originalEntriesList, defaultTextStyle, maxWidth, enableWordWrap, BOUNDS_PROVIDER);
+    }
+
+    public static List<TextDisplayerLineI> generateLines(List<WriterEntryI> originalEntriesList, TextCompStyleI defaultTextStyle, double maxWidth, boolean enableWordWrap,
+                                                         TextBoundsProviderI boundsProvider) {
         // Copy entries (thread-safe)
         List<WriterEntryI> entries = new ArrayList<>(originalEntriesList);
+        List<String> entryTexts = new ArrayList<>(entries.size());
+        for (WriterEntryI entry : entries) {
+            entryTexts.add(getDisplayedText(entry.entryTextProperty().get(), defaultTextStyle));
+        }
+        return layoutLines(entries, entryTexts, 0, false, defaultTextStyle, maxWidth, enableWordWrap, boundsProvider);
+    }
 
+    /**
+     * Layout lines for the text starting at the given offset.<br>
+     * The given offset should be the start of a line previously generated for the same text before this offset (see {@link TextDisplayerLineLayout}) :
+     * the first line will then start with the remaining of the word containing the offset.
+     *
+     * @param entries          writer entries
+     * @param entryTexts       displayed text for each entry (see {@link #getDisplayedText(String, TextCompStyleI)})
+     * @param fromOffset       the offset in text where layout should start
+     * @param firstWordWrapped true if the first word was already moved to the line starting at the given offset by a word wrap
+     * @return generated lines, starting on the given offset
+     */
+    static List<TextDisplayerLineI> layoutLines(List<WriterEntryI> entries, List<String> entryTexts, int fromOffset, boolean firstWordWrapped, TextCompStyleI defaultTextStyle,
+                                                double maxWidth, boolean enableWordWrap, TextBoundsProviderI boundsProvider) {
         // Create lines (without wrap)
-        List<TextDisplayerLineI> lines = createSimpleLines(entries, defaultTextStyle);
+        List<TextDisplayerLineI> lines = createSimpleLines(entries, entryTexts, fromOffset);
+        lines.get(0).getWords().get(0).setPreviousLineSplittedOnThisWord(firstWordWrapped);
 
         // Split on multiples lines
-        splitLineForWidth(BOUNDS_PROVIDER, defaultTextStyle, maxWidth, enableWordWrap, lines);
+        splitLineForWidth(boundsProvider, defaultTextStyle, maxWidth, enableWordWrap, lines);
 
         // Split can create empty lines (when width is too small, so we clear thoses empty lines)
         lines.removeIf(textDisplayerLineI -> textDisplayerLineI.getWords().isEmpty());
-        addCaretBoundsAndComputeSizeAndImage(lines, BOUNDS_PROVIDER, defaultTextStyle);
+        addCaretBoundsAndComputeSizeAndImage(lines, boundsProvider, defaultTextStyle, fromOffset);
 
         return lines;
     }
 
+    static String getDisplayedText(String entryText, TextCompStyleI defaultTextStyle) {
+        return LangUtils.nullToEmpty(LangUtils.isTrue(defaultTextStyle != null ? defaultTextStyle.upperCaseProperty().value().getValue() : false)
+                ? StringUtils.toUpperCase(entryText)
+                : entryText);
+    }
+
     private static void addCaretBoundsAndComputeSizeAndImage(List<TextDisplayerLineI> lines, TextBoundsProviderI boundsProvider,
-                                                             TextCompStyleI defaultTextStyle) {
-        int caret = 0;
+                                                             TextCompStyleI defaultTextStyle, int caretStart) {
+        int caret = caretStart;
 
         // final HashMap<WriterEntryI, WordPart> imageAddedForEntries = new HashMap<>();
 
@@ -192,9 +220,10 @@ public class TextDisplayerLineHelper {
                         // Move remaining part of the word to the word on next line
                         splitList(wordParts, w + (c > 0 ? 1 : 0), nextLineFirstWord.getParts(), -1);
 
-                        // Create/get next line (because it should shift line content)
-                        TextDisplayerLineI nextLine = getOrCreateNextLine(lines, lineIndex);
-                        nextLine.getWords().add(0, nextLineFirstWord);
+                        // Create next line (existing next line is always the next paragraph)
+                        TextDisplayerLineI nextLine = new TextDisplayerLine();
+                        lines.add(lineIndex + 1, nextLine);
+                        nextLine.getWords().add(nextLineFirstWord);
 
                         // Move remaining words to the next line (after the inserted word)
                         splitList(line.getWords(), wordIndex + 1, nextLine.getWords(), 1);
@@ -212,25 +241,15 @@ public class TextDisplayerLineHelper {
             word.setWordSeparatorChar(null);
 
             // Add the word as the first word in the next line
-            TextDisplayerLineI nextLine = getOrCreateNextLine(lines, lineIndex);
-            nextLine.getWords().add(0, nextLineFirstWord);
+            TextDisplayerLineI nextLine = new TextDisplayerLine();
+            lines.add(lineIndex + 1, nextLine);
+            nextLine.getWords().add(nextLineFirstWord);
 
             // Move remaining words to the next line (after the inserted word)
             splitList(line.getWords(), wordIndex + 1, nextLine.getWords(), 1);
         }
     }
 
-    private static TextDisplayerLineI getOrCreateNextLine(List<TextDisplayerLineI> lines, int lineIndex) {
-        TextDisplayerLineI nextLine;
-        if (lineIndex + 1 < lines.size()) {
-            nextLine = lines.get(lineIndex + 1);
-        } else {
-            nextLine = new TextDisplayerLine();
-            lines.add(lineIndex + 1, nextLine);
-        }
-        return nextLine;
-    }
-
     /**
      * To split a line on a specific word.</br>
      * This is useful to execute a word wrap.
@@ -260,11 +279,12 @@ public class TextDisplayerLineHelper {
      * This method split the given entries by their {@link Separator} to produce words.</br>
      * This method doesn't take into account line width, but can create a multiple lines if entry contains the {@link Separator#NEWLINE}.
      *
-     * @param entries          writer's entries
-     * @param defaultTextStyle
+     * @param entries    writer's entries
+     * @param entryTexts displayed text for each entry
+     * @param fromOffset text before this offset is ignored (first word can then be the end of a word)
      * @return line for the given entries, each line is divided by its words and separator ( {@link Separator} )
      */
-    protected static List<TextDisplayerLineI> createSimpleLines(List<WriterEntryI> entries, TextCompStyleI defaultTextStyle) {
+    static List<TextDisplayerLineI> createSimpleLines(List<WriterEntryI> entries, List<String> entryTexts, int fromOffset) {
         List<TextDisplayerLineI> lines = new ArrayList<>();
 
         // Initialize first line and word
@@ -273,19 +293,21 @@ public class TextDisplayerLineHelper {
         TextDisplayerWordI currentWordEntry = new TextDisplayerWord();
         currentLine.getWords().add(currentWordEntry);
 
-        for (WriterEntryI entry : entries) {
+        int entryStart = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            WriterEntryI entry = entries.get(i);
+            final String entryText = entryTexts.get(i);
+            int firstChar = Math.max(0, fromOffset - entryStart);
+            entryStart += entryText.length();
+            if (firstChar >= entryText.length()) {
+                continue;
+            }
 
             // At least a different word part by entry (because word part is linked to entry)
             StringBuilder currentWordPart = new StringBuilder();
 
             // Go thought each entry char
-            final String entryTextBefore = entry.entryTextProperty().get();
-            final String entryText = LangUtils
-                    .nullToEmpty(LangUtils.isTrue(defaultTextStyle != null ? defaultTextStyle.upperCaseProperty().value().getValue() : false)
-                            ? StringUtils.toUpperCase(entryTextBefore)
-                            : entryTextBefore);
-            for (int c = 0; c < entryText.length(); c++) {
-
+            for (int c = firstChar; c < entryText.length(); c++) {
                 final char chartAtC = entryText.charAt(c);
                 Separator stopChar = Separator.getSeparatorFor(chartAtC);
                 // Found a stop char : finish current word part
@@ -332,17 +354,13 @@ public class TextDisplayerLineHelper {
      * @param insertFrom         the insert index in the target list. If specified (insertFrom >= 0), add in the target list will start on insertFrom and finish on insertFrom + moved element count
      */
     private static <T> void splitList(List<T> source, int fromIndexInclusive, List<T> target, int insertFrom) {
-        int currentIndex = 0;
-        Iterator<T> sourceCollectionIterator = source.iterator();
-        while (sourceCollectionIterator.hasNext()) {
-            T value = sourceCollectionIterator.next();
-            if (currentIndex >= fromIndexInclusive) {
-                sourceCollectionIterator.remove();
-                if (insertFrom >= 0)
-                    target.add(insertFrom++, value);
-                else target.add(value);
-            }
-            currentIndex++;
+        if (fromIndexInclusive < source.size()) {
+            // Move the whole end at once (removing element one by one shift every next elements)
+            List<T> movedElements = source.subList(fromIndexInclusive, source.size());
+            if (insertFrom >= 0)
+                target.addAll(insertFrom, movedElements);
+            else target.addAll(movedElements);
+            movedElements.clear();
         }
     }
 }
@@ -0,0 +1,199 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.textcomponent;
+
+import javafx.scene.text.Font;
+import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
+import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.model.api.style.TextCompStyleI;
+import org.lifecompanion.model.api.textcomponent.TextBoundsProviderI;
+import org.lifecompanion.model.api.textcomponent.TextDisplayerLineI;
+import org.lifecompanion.util.LangUtils;
+import org.predict4all.nlp.Separator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Incremental version of {@link TextDisplayerLineHelper#generateLines(List, TextCompStyleI, double, boolean)} : keep the last generated lines and only layout again the lines from the first changed line.<br>
+ * Lines are laid out forward, and a line only depends on its own words and on the first word of the next line (word that doesn't fit in the line) :
+ * every line before the line containing the word with the first changed char can then be kept (except the previous one).<br>
+ * Kept lines are never modified, so previously returned lines can still be used.
+ * Layout is done again from the start when width, word wrap, font or upper case change.<br>
+ * One instance should be used for each generated line list (e.g. per max width).
+ */
+public class TextDisplayerLineLayout {
+    private final TextBoundsProviderI boundsProvider;
+
+    private List<TextDisplayerLineI> lines;
+    private List<WriterEntryI> entries;
+    private List<String> entryTexts, displayedTexts;
+    private List<ImageElementI> entryImages;
+    private double maxWidth;
+    private boolean enableWordWrap, upperCase;
+    private Font font;
+
+    private int lastLayoutStartLine;
+
+    public TextDisplayerLineLayout() {
+        this(TextDisplayerLineHelper.BOUNDS_PROVIDER);
+    }
+
+    public TextDisplayerLineLayout(TextBoundsProviderI boundsProvider) {
+        this.boundsProvider = boundsProvider;
+    }
+
+    /**
+     * @return index of the first line laid out by the last {@link #generateLines(List, TextCompStyleI, double, boolean)} call (previous lines were kept)
+     */
+    public synchronized int getLastLayoutStartLine() {
+        return lastLayoutStartLine;
+    }
+
+    public synchronized void clear() {
+        this.lines = null;
+        this.entries = null;
+        this.entryTexts = null;
+        this.displayedTexts = null;
+        this.entryImages = null;
+    }
+
+    public synchronized List<TextDisplayerLineI> generateLines(List<WriterEntryI> originalEntriesList, TextCompStyleI defaultTextStyle, double maxWidth, boolean enableWordWrap) {
+        // Copy entries (thread-safe)
+        List<WriterEntryI> newEntries = new ArrayList<>(originalEntriesList);
+        Font newFont = defaultTextStyle != null ? defaultTextStyle.fontProperty().get() : null;
+        boolean newUpperCase = defaultTextStyle != null && LangUtils.isTrue(defaultTextStyle.upperCaseProperty().value().getValue());
+        boolean fullLayout = lines == null || maxWidth != this.maxWidth || enableWordWrap != this.enableWordWrap || newUpperCase != upperCase || !Objects.equals(newFont, font);
+
+        // Snapshot entries and find the first changed char (when entry, text or image is different)
+        List<String> newEntryTexts = new ArrayList<>(newEntries.size());
+        List<String> newDisplayedTexts = new ArrayList<>(newEntries.size());
+        List<ImageElementI> newEntryImages = new ArrayList<>(newEntries.size());
+        int changeOffset = 0, changeEntryIndex = -1, changeCharIndex = 0;
+        for (int i = 0; i < newEntries.size(); i++) {
+            WriterEntryI entry = newEntries.get(i);
+            String entryText = entry.entryTextProperty().get();
+            ImageElementI entryImage = entry.imageProperty().get();
+            boolean sameEntry = !fullLayout && i < entries.size() && entries.get(i) == entry;
+            String displayedText = sameEntry && StringUtils.isEquals(entryText, entryTexts.get(i)) ? displayedTexts.get(i) : TextDisplayerLineHelper.getDisplayedText(entryText, defaultTextStyle);
+            if (!fullLayout && changeEntryIndex < 0) {
+                if (sameEntry && entryImage == entryImages.get(i) && displayedText.equals(displayedTexts.get(i))) {
+                    changeOffset += displayedText.length();
+                } else {
+                    changeEntryIndex = i;
+                    if (sameEntry && entryImage == entryImages.get(i)) {
+                        changeCharIndex = getCommonPrefixLength(displayedText, displayedTexts.get(i));
+                        changeOffset += changeCharIndex;
+                    }
+                }
+            }
+            newEntryTexts.add(entryText);
+            newDisplayedTexts.add(displayedText);
+            newEntryImages.add(entryImage);
+        }
+
+        // Find the line to layout again from : the line before the line containing the changed word
+        int startLine = 0;
+        if (!fullLayout) {
+            // No changed entry : text is unchanged, or entries were removed/added at end
+            if (changeEntryIndex < 0) {
+                changeEntryIndex = newEntries.size();
+            }
+            int changedWordStart = getWordStart(newDisplayedTexts, changeEntryIndex, changeCharIndex, changeOffset);
+            startLine = Math.max(0, getLineIndexContaining(changedWordStart) - 1);
+        }
+
+        List<TextDisplayerLineI> newLines = new ArrayList<>(lines != null ? lines.size() + 1 : 10);
+        int startOffset = 0;
+        boolean firstWordWrapped = false;
+        if (startLine > 0) {
+            newLines.addAll(lines.subList(0, startLine));
+        }
+        if (!fullLayout) {
+            startOffset = getLineStart(startLine);
+            firstWordWrapped = lines.get(startLine).getWords().get(0).isPreviousLineSplittedOnThisWord();
+        }
+        newLines.addAll(TextDisplayerLineHelper.layoutLines(newEntries, newDisplayedTexts, startOffset, firstWordWrapped, defaultTextStyle, maxWidth, enableWordWrap, boundsProvider));
+
+        this.lines = newLines;
+        this.entries = newEntries;
+        this.entryTexts = newEntryTexts;
+        this.displayedTexts = newDisplayedTexts;
+        this.entryImages = newEntryImages;
+        this.maxWidth = maxWidth;
+        this.enableWordWrap = enableWordWrap;
+        this.upperCase = newUpperCase;
+        this.font = newFont;
+        this.lastLayoutStartLine = startLine;
+        return new ArrayList<>(newLines);
+    }
+
+    /**
+     * @return the start offset of the word containing the given char (after the previous separator)
+     */
+    private static int getWordStart(List<String> displayedTexts, int entryIndex, int charIndex, int offset) {
+        int entryEnd = offset + (entryIndex < displayedTexts.size() ? displayedTexts.get(entryIndex).length() - charIndex : 0);
+        for (int i = Math.min(entryIndex, displayedTexts.size() - 1); i >= 0; i--) {
+            String text = displayedTexts.get(i);
+            int entryStart = entryEnd - text.length();
+            int c = i == entryIndex ? charIndex : text.length();
+            while (--c >= 0) {
+                if (Separator.getSeparatorFor(text.charAt(c)) != null) {
+                    return entryStart + c + 1;
+                }
+            }
+            entryEnd = entryStart;
+        }
+        return 0;
+    }
+
+    private static int getCommonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private int getLineStart(int lineIndex) {
+        return lines.get(lineIndex).getWords().get(0).getCaretStart();
+    }
+
+    /**
+     * @return the first line that ends after the given offset (or the last line)
+     */
+    private int getLineIndexContaining(int offset) {
+        // Line start are increasing : find the first line starting after the offset
+        int low = 1, high = lines.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getLineStart(middle) > offset) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low - 1;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.textprediction.charprediction;
+
+import gnu.trove.list.array.TCharArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Compact trie on char n-grams, stored in primitive arrays.<br>
+ * Nodes are stored in breadth first order : children of a node are contiguous, and are sorted by descending count (then by char), so the most probable next chars
+ * after a prefix are directly the first children of the prefix node.<br>
+ * Count of a node is the sum of the counts of every n-gram starting with the node prefix.<br>
+ * This trie is immutable once built (see {@link Builder}) and can be read from multiple threads.<br>
+ * Trie can be written to a file (see {@link #writeTo(File, long, long)}) that can then be memory mapped and read in place (see {@link #map(File)}) :
+ * file starts with a header (magic, version, depth, node count, source file size and date), followed by labels, counts and child starts (big endian).
+ */
+public class CharNGramTrie {
+    public static final int ROOT = 0;
+    public static final int NOT_FOUND = -1;
+
+    private static final int FILE_MAGIC = 0x4C435452;
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 32;
+
+    /**
+     * Char for each node (root label is not used)
+     */
+    private final CharBuffer labels;
+
+    /**
+     * Count for each node
+     */
+    private final IntBuffer counts;
+
+    /**
+     * Children of node i are nodes from childStarts[i] (inclusive) to childStarts[i + 1] (exclusive)
+     */
+    private final IntBuffer childStarts;
+
+    /**
+     * N-gram size (max node depth)
+     */
+    private final int depth;
+
+    /**
+     * Source file size and date (only for mapped trie)
+     */
+    private final long sourceSize, sourceDate;
+
+    private final boolean mapped;
+
+    private CharNGramTrie(CharBuffer labels, IntBuffer counts, IntBuffer childStarts, int depth, long sourceSize, long sourceDate, boolean mapped) {
+        this.labels = labels;
+        this.counts = counts;
+        this.childStarts = childStarts;
+        this.depth = depth;
+        this.sourceSize = sourceSize;
+        this.sourceDate = sourceDate;
+        this.mapped = mapped;
+    }
+
+    // Class part : "Public API"
+    //========================================================================
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getNodeCount() {
+        return labels.limit();
+    }
+
+    public char getLabel(int node) {
+        return labels.get(node);
+    }
+
+    public int getCount(int node) {
+        return counts.get(node);
+    }
+
+    public int getFirstChild(int node) {
+        return childStarts.get(node);
+    }
+
+    /**
+     * @return the index after the last child of the given node (if node has no child, equals to {@link #getFirstChild(int)})
+     */
+    public int getChildEnd(int node) {
+        return childStarts.get(node + 1);
+    }
+
+    /**
+     * @return the child of the given node with the given char, or {@link #NOT_FOUND}
+     */
+    public int getChild(int node, char c) {
+        for (int i = childStarts.get(node), end = childStarts.get(node + 1); i < end; i++) {
+            if (labels.get(i) == c) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return the size of this trie data, in bytes (on heap, or in the mapped file)
+     */
+    public long getMemorySize() {
+        return 2L * labels.limit() + 4L * counts.limit() + 4L * childStarts.limit();
+    }
+
+    /**
+     * @return true if this trie is read in place from a memory mapped file (data is then not on heap)
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    public long getSourceDate() {
+        return sourceDate;
+    }
+
+    /**
+     * Call the consumer for every full n-gram in this trie (node with {@link #getDepth()} depth)
+     */
+    public void forEachNGram(NGramConsumer consumer) throws Exception {
+        forEachNGram(ROOT, new char[depth], 0, consumer);
+    }
+
+    private void forEachNGram(int node, char[] gram, int length, NGramConsumer consumer) throws Exception {
+        if (length == depth) {
+            consumer.accept(gram, counts.get(node));
+        } else {
+            for (int child = childStarts.get(node), end = childStarts.get(node + 1); child < end; child++) {
+                gram[length] = labels.get(child);
+                forEachNGram(child, gram, length + 1, consumer);
+            }
+        }
+    }
+
+    public interface NGramConsumer {
+        void accept(char[] gram, int count) throws Exception;
+    }
+    //========================================================================
+
+    // Class part : "IO"
+    //========================================================================
+
+    /**
+     * Write this trie to a file that can be mapped with {@link #map(File)}.<br>
+     * File is written to a temp file and then moved : an existing file is kept if writing fails.
+     *
+     * @param file       the target file
+     * @param sourceSize size of the file this trie was loaded from (to check later that mapped file is up to date)
+     * @param sourceDate last modified date of the file this trie was loaded from
+     */
+    public void writeTo(File file, long sourceSize, long sourceDate) throws IOException {
+        int nodeCount = getNodeCount();
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+                DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos));
+                dos.writeInt(FILE_MAGIC);
+                dos.writeInt(FILE_VERSION);
+                dos.writeInt(depth);
+                dos.writeInt(nodeCount);
+                dos.writeLong(sourceSize);
+                dos.writeLong(sourceDate);
+                for (int i = 0; i < nodeCount; i++) {
+                    dos.writeChar(labels.get(i));
+                }
+                // Align ints on 4 bytes
+                if (nodeCount % 2 != 0) {
+                    dos.writeChar(0);
+                }
+                for (int i = 0; i < nodeCount; i++) {
+                    dos.writeInt(counts.get(i));
+                }
+                for (int i = 0; i <= nodeCount; i++) {
+                    dos.writeInt(childStarts.get(i));
+                }
+                dos.flush();
+                fos.getFD().sync();
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Map a file written with {@link #writeTo(File, long, long)}.<br>
+     * Trie data is not copied on heap : it is read from the file on each query (and cached by the system).
+     *
+     * @param file the file to map
+     * @return the mapped trie
+     * @throws IOException if the file can't be read, or if it is not a valid trie file for the current version
+     */
+    public static CharNGramTrie map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < FILE_HEADER_SIZE) {
+                throw new IOException("Invalid char n-gram trie file " + file + " (too small)");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != FILE_VERSION) {
+                throw new IOException("Invalid char n-gram trie file " + file + " (not a trie file or from an other version)");
+            }
+            int depth = buffer.getInt(8);
+            int nodeCount = buffer.getInt(12);
+            int labelsSize = 2 * (nodeCount + nodeCount % 2);
+            if (nodeCount <= 0 || fileSize != FILE_HEADER_SIZE + labelsSize + 4L * nodeCount + 4L * (nodeCount + 1)) {
+                throw new IOException("Invalid char n-gram trie file " + file + " (unexpected size)");
+            }
+            CharBuffer labels = buffer.slice(FILE_HEADER_SIZE, 2 * nodeCount).asCharBuffer();
+            IntBuffer counts = buffer.slice(FILE_HEADER_SIZE + labelsSize, 4 * nodeCount).asIntBuffer();
+            IntBuffer childStarts = buffer.slice(FILE_HEADER_SIZE + labelsSize + 4 * nodeCount, 4 * (nodeCount + 1)).asIntBuffer();
+            if (childStarts.get(nodeCount) != nodeCount) {
+                throw new IOException("Invalid char n-gram trie file " + file + " (corrupted)");
+            }
+            return new CharNGramTrie(labels, counts, childStarts, depth, buffer.getLong(16), buffer.getLong(24), true);
+        }
+    }
+    //========================================================================
+
+    // Class part : "Builder"
+    //========================================================================
+
+    /**
+     * Mutable trie used to count n-grams (on training or loading), then converted to a compact {@link CharNGramTrie}
+     */
+    public static class Builder {
+        private final int depth;
+        private final TCharArrayList labels;
+        private final TIntArrayList counts, firstChildren, nextSiblings;
+        /**
+         * Child for (parent node, char) : key is parent << 16 | char
+         */
+        private final TLongIntHashMap children;
+
+        public Builder(int depth) {
+            this.depth = depth;
+            this.labels = new TCharArrayList();
+            this.counts = new TIntArrayList();
+            this.firstChildren = new TIntArrayList();
+            this.nextSiblings = new TIntArrayList();
+            this.children = new TLongIntHashMap(1024, 0.5f, -1L, NOT_FOUND);
+            this.addNode((char) 0, NOT_FOUND);
+        }
+
+        /**
+         * Add the n-gram from gram[offset] to gram[offset + depth - 1] with the given count
+         */
+        public void add(char[] gram, int offset, int count) {
+            int node = ROOT;
+            counts.setQuick(ROOT, counts.getQuick(ROOT) + count);
+            for (int i = offset; i < offset + depth; i++) {
+                long key = ((long) node << 16) | gram[i];
+                int child = children.get(key);
+                if (child == NOT_FOUND) {
+                    child = addNode(gram[i], node);
+                    children.put(key, child);
+                }
+                counts.setQuick(child, counts.getQuick(child) + count);
+                node = child;
+            }
+        }
+
+        private int addNode(char label, int parent) {
+            int node = labels.size();
+            labels.add(label);
+            counts.add(0);
+            firstChildren.add(NOT_FOUND);
+            nextSiblings.add(parent != NOT_FOUND ? firstChildren.getQuick(parent) : NOT_FOUND);
+            if (parent != NOT_FOUND) {
+                firstChildren.setQuick(parent, node);
+            }
+            return node;
+        }
+
+        public CharNGramTrie build() {
+            int nodeCount = labels.size();
+            char[] compactLabels = new char[nodeCount];
+            int[] compactCounts = new int[nodeCount];
+            int[] childStarts = new int[nodeCount + 1];
+            // Compact node index > builder node index
+            int[] builderNodes = new int[nodeCount];
+            int size = 1;
+            compactCounts[ROOT] = counts.getQuick(ROOT);
+            long[] sortedChildren = new long[16];
+            for (int i = 0; i < nodeCount; i++) {
+                childStarts[i] = size;
+                int builderNode = builderNodes[i];
+                // Sort on descending count, then on char : key is (max - count) << 16 | char
+                int childCount = 0;
+                for (int child = firstChildren.getQuick(builderNode); child != NOT_FOUND; child = nextSiblings.getQuick(child)) {
+                    if (childCount == sortedChildren.length) {
+                        sortedChildren = Arrays.copyOf(sortedChildren, childCount * 2);
+                    }
+                    sortedChildren[childCount++] = ((long) (Integer.MAX_VALUE - counts.getQuick(child)) << 16) | labels.getQuick(child);
+                }
+                Arrays.sort(sortedChildren, 0, childCount);
+                for (int c = 0; c < childCount; c++) {
+                    char label = (char) sortedChildren[c];
+                    int child = children.get(((long) builderNode << 16) | label);
+                    builderNodes[size] = child;
+                    compactLabels[size] = label;
+                    compactCounts[size] = counts.getQuick(child);
+                    size++;
+                }
+            }
+            childStarts[nodeCount] = nodeCount;
+            return new CharNGramTrie(CharBuffer.wrap(compactLabels), IntBuffer.wrap(compactCounts), IntBuffer.wrap(childStarts), depth, -1, -1, false);
+        }
+    }
+    //========================================================================
+}
@@ -18,22 +18,19 @@
  */
 package org.lifecompanion.model.impl.textprediction.charprediction;
 
-import org.lifecompanion.framework.commons.utils.lang.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.IntPredicate;
 
 
 /**
- * OLD CHAR PREDICTOR IMPLEMENTATION EXTRACT FROM OLD PREDICTOR.<br>
- * This implementation is surely not optimized nor efficient, but it works :-)<br>
- * Might be reimplemented later if needed.
+ * Predict next chars from the previous chars, with char n-grams stored in a {@link CharNGramTrie}.<br>
+ * The longest known context (last {@link #CHAR_NGRAM_SIZE} - 1 chars) is used first, then shorter contexts until the wanted prediction count is reached,
+ * and then the most frequent chars after a space.<br>
+ * {@link #predict(CharSequence, char[], IntPredicate)} doesn't allocate anything and can be called on each typed char.
  */
 public class CharPredictor {
-    private final static Logger LOGGER = LoggerFactory.getLogger(CharPredictor.class);
-
     public static int CHAR_NGRAM_SIZE = 5;
     public static int FREQUENT_CHAR_SIZE = 50;
 
@@ -42,15 +39,29 @@ public class CharPredictor {
      */
     private final CharPredictorData predictorData;
 
+    /**
+     * N-gram trie (from data)
+     */
+    private final CharNGramTrie trie;
+
     /**
      * First characters, returned if string is blank
      */
-    private final List<Character> firstCharacter;
+    private final char[] firstCharacters;
 
     public CharPredictor(CharPredictorData predictorData) {
         this.predictorData = predictorData;
-        this.firstCharacter = predictorData.getPredictionFor(' ').stream().map(cp -> cp.getNextChars()[0]).distinct()
-                .limit(FREQUENT_CHAR_SIZE).collect(Collectors.toList());
+        this.trie = predictorData.getTrie();
+        int spaceNode = trie.getChild(CharNGramTrie.ROOT, ' ');
+        if (spaceNode != CharNGramTrie.NOT_FOUND) {
+            int start = trie.getFirstChild(spaceNode);
+            this.firstCharacters = new char[Math.min(FREQUENT_CHAR_SIZE, trie.getChildEnd(spaceNode) - start)];
+            for (int i = 0; i < firstCharacters.length; i++) {
+                firstCharacters[i] = trie.getLabel(start + i);
+            }
+        } else {
+            this.firstCharacters = new char[0];
+        }
     }
 
     // Class part : "Public API"
@@ -60,36 +71,42 @@ public class CharPredictor {
     }
 
     public List<Character> predict(String text, final int wantedPrediction, HashSet<Character> acceptedCharacters) {
-        return predictImpl(text, wantedPrediction, acceptedCharacters);
+        char[] result = new char[wantedPrediction];
+        int count = predict(text, result, acceptedCharacters != null ? c -> acceptedCharacters.contains((char) c) : null);
+        List<Character> predictions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            predictions.add(result[i]);
+        }
+        return predictions;
     }
 
-    private List<Character> predictImpl(String text, final int wantedPrediction, HashSet<Character> acceptedCharacters) {
-        if (StringUtils.isBlank(text)) {
-            return this.firstCharacter.stream()//
-                    .filter(c -> acceptedCharacters == null || acceptedCharacters.contains(c))//
-                    .limit(wantedPrediction)//
-                    .collect(Collectors.toList());
-        }
-        //While the wanted count is not produced
-        String lastTextPart = getLastTextPart(this.predictorData.cleanText(text));
-        HashSet<Character> alreadyPredicted = new HashSet<>();
-        List<Character> predictions = new ArrayList<>(wantedPrediction);
-        while (lastTextPart.length() >= 1 && predictions.size() < wantedPrediction) {
-            List<Character> currentPrediction = addPredictionFor(lastTextPart, alreadyPredicted, wantedPrediction - predictions.size(),
-                    acceptedCharacters);
-            predictions.addAll(currentPrediction);
-            alreadyPredicted.addAll(currentPrediction);
-            lastTextPart = lastTextPart.substring(1);
+    /**
+     * Predict the next chars for the given text, the most probable first.
+     *
+     * @param text               the text before the predicted char (can be null)
+     * @param result             array filled with predicted chars, its length is the wanted prediction count
+     * @param acceptedCharacters filter on predicted chars (null to accept every char)
+     * @return the predicted char count in result
+     */
+    public int predict(CharSequence text, char[] result, IntPredicate acceptedCharacters) {
+        int count = 0;
+        if (!isBlank(text)) {
+            // Try from the longest context to the shortest
+            int contextLength = Math.min(text.length(), CHAR_NGRAM_SIZE - 1);
+            for (int contextStart = text.length() - contextLength; contextStart < text.length() && count < result.length; contextStart++) {
+                int node = findNode(text, contextStart);
+                if (node != CharNGramTrie.NOT_FOUND) {
+                    for (int child = trie.getFirstChild(node), end = trie.getChildEnd(node); child < end && count < result.length; child++) {
+                        count = addPrediction(trie.getLabel(child), result, count, acceptedCharacters);
+                    }
+                }
+            }
         }
         //If ended without matching the wanted prediction count
-        if (predictions.size() < wantedPrediction) {
-            this.firstCharacter.stream()//
-                    .filter(w -> !alreadyPredicted.contains(w))//
-                    .filter(c -> acceptedCharacters == null || acceptedCharacters.contains(c))//
-                    .limit(wantedPrediction - predictions.size())//
-                    .forEachOrdered(w -> predictions.add(w));
+        for (int i = 0; i < firstCharacters.length && count < result.length; i++) {
+            count = addPrediction(firstCharacters[i], result, count, acceptedCharacters);
         }
-        return predictions;
+        return count;
     }
 
     public void dispose() {
@@ -101,61 +118,38 @@ public class CharPredictor {
     //========================================================================
 
     /**
-     * @param text the text we want the last part
-     * @return the last char in the text, to predict the next chars
+     * @return the trie node for the text part from contextStart to text end (lower cased), or {@link CharNGramTrie#NOT_FOUND}
      */
-    private static String getLastTextPart(String text) {
-        if (text.length() >= CHAR_NGRAM_SIZE - 1) {
-            return text.substring(text.length() - (CHAR_NGRAM_SIZE - 1), text.length());
-        } else {
-            return text;
+    private int findNode(CharSequence text, int contextStart) {
+        int node = CharNGramTrie.ROOT;
+        for (int i = contextStart; i < text.length() && node != CharNGramTrie.NOT_FOUND; i++) {
+            node = trie.getChild(node, Character.toLowerCase(text.charAt(i)));
         }
+        return node;
     }
 
-    private char[] getCharAfterFirst(String lastTextPart) {
-        return lastTextPart.substring(1).toCharArray();
-    }
-
-    private boolean areFirstEquals(char[] c1, char[] c2) {
-        int min = Math.min(c1.length, c2.length);
-        for (int i = 0; i < min; i++) {
-            if (c1[i] != c2[i]) {
-                return false;
+    private static int addPrediction(char c, char[] result, int count, IntPredicate acceptedCharacters) {
+        for (int i = 0; i < count; i++) {
+            if (result[i] == c) {
+                return count;
             }
         }
-        return true;
+        if (acceptedCharacters == null || acceptedCharacters.test(c)) {
+            result[count++] = c;
+        }
+        return count;
     }
 
-    private List<Character> addPredictionFor(String lastTextPart, HashSet<Character> alreadyPredicted, int wantedCount,
-                                             HashSet<Character> acceptedCharacters) {
-        int charIndex = lastTextPart.length() - 1;
-        char startingChar = lastTextPart.charAt(0);
-        char[] charAfter = getCharAfterFirst(lastTextPart);
-        //Predict
-        List<CharPrediction> predictionFor = this.predictorData.getPredictionFor(startingChar);
-        LOGGER.debug("Prediction for \"{}\", wanted char index {}", lastTextPart, charIndex);
-        //Compute the score for each char (only char that are not already predicted)
-        Map<Character, Integer> scores = new HashMap<>();
-        if (predictionFor != null) {
-            predictionFor.stream().filter(p -> areFirstEquals(charAfter, p.getNextChars())).forEach(p -> {
-                char charAt = p.getNextChars()[charIndex];
-                if (!alreadyPredicted.contains(charAt) && (acceptedCharacters == null || acceptedCharacters.contains(charAt))) {
-                    //LOGGER.debug("Char {} :  {} (count {})", charAt, Arrays.toString(p.getNextChars()), p.getCount());
-                    if (scores.containsKey(charAt)) {
-                        scores.put(charAt, scores.get(charAt) + p.getCount());
-                    } else {
-                        scores.put(charAt, p.getCount());
-                    }
+    private static boolean isBlank(CharSequence text) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) > ' ') {
+                    return false;
                 }
-            });
+            }
         }
-        //Sort on score, and return characters
-        List<Character> collect = scores.entrySet().stream().sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
-                .limit(wantedCount).map(e -> e.getKey()).collect(Collectors.toList());
-        LOGGER.debug("Result are {} from a {} total map", collect, scores.size());
-        return collect;
+        return true;
     }
-
     //========================================================================
 
 }
@@ -18,38 +18,33 @@
  */
 
 package org.lifecompanion.model.impl.textprediction.charprediction;
-
-import gnu.trove.map.hash.TCharObjectHashMap;
+import gnu.trove.map.hash.TCharIntHashMap;
+import org.lifecompanion.framework.commons.utils.io.FileNameUtils;
 import org.predict4all.nlp.Separator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.util.*;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 
 /**
- * Represents the data for char predictor.
+ * Represents the data for char predictor.<br>
+ * Char n-grams are stored in a {@link CharNGramTrie}.
  */
 public class CharPredictorData {
     private final static Logger LOGGER = LoggerFactory.getLogger(CharPredictorData.class);
 
-    /**
-     * Data that are currently in this prediction
-     */
-    private TCharObjectHashMap<List<CharPrediction>> data;
+    public static final String MAPPED_FILE_EXTENSION = ".trie";
 
     /**
-     * Comparator to compare char prediction on their count
+     * Data that are currently in this prediction
      */
-    private static final Comparator<CharPrediction> CHAR_PREDICTION_COMPARATOR = (p1, p2) -> {
-        return Integer.compare(p2.getCount(), p1.getCount());
-    };
+    private CharNGramTrie trie;
 
     public CharPredictorData() {
-        data = new TCharObjectHashMap<>(120);//About 120 different char
+        trie = new CharNGramTrie.Builder(CharPredictor.CHAR_NGRAM_SIZE).build();
     }
 
     // Class part : "Public API"
@@ -61,52 +56,26 @@ public class CharPredictorData {
      * @param text the text to train data
      */
     public void executeTraining(String text) {
-        //Clean text
-        text = cleanText(text);
-
-        //Create the char, and the ngram for all the text
-        char[] charArray = text.toCharArray();
-        Map<String, Integer> ngramMap = new HashMap<>();
-        String currentGram = "";
+        //Clean text and convert the char to a valid one
+        char[] charArray = cleanText(text).toCharArray();
         for (int index = 0; index < charArray.length; index++) {
-            //Convert the char to a valid one
-            char currentChar = charArray[index];
-            Separator separator = Separator.getSeparatorFor(currentChar);
+            Separator separator = Separator.getSeparatorFor(charArray[index]);
             if (separator != null) {
-                currentChar = separator.getOfficialChar();
-            }
-            //Add to NGram (increase count, or create the one)
-            if (currentGram.length() == CharPredictor.CHAR_NGRAM_SIZE) {
-                currentGram = currentGram.substring(1, currentGram.length());
+                charArray[index] = separator.getOfficialChar();
             }
-            currentGram += currentChar;
-            addToNGramCountMap(currentGram, ngramMap);
         }
-
-        //Transform to prediction data
-        ngramMap.forEach((key, value) -> {
-            addPrediction(key, value);
-        });
-        //Sort predictions
-        char[] keys = data.keys();
-        for (char c : keys) {
-            Collections.sort(data.get(c), CHAR_PREDICTION_COMPARATOR);
+        //Add each ngram
+        CharNGramTrie.Builder builder = new CharNGramTrie.Builder(CharPredictor.CHAR_NGRAM_SIZE);
+        for (int index = 0; index + CharPredictor.CHAR_NGRAM_SIZE <= charArray.length; index++) {
+            builder.add(charArray, index, 1);
         }
-        LOGGER.info("Found {} char ngram with training ({} different char)", ngramMap.size(), data.size());
+        trie = builder.build();
+        LOGGER.info("Found {} char ngram with training ({} different char, {} trie nodes)", trie.getCount(CharNGramTrie.ROOT),
+                trie.getChildEnd(CharNGramTrie.ROOT) - trie.getFirstChild(CharNGramTrie.ROOT), trie.getNodeCount());
     }
 
-    public void printAll() {
-        char[] keys = data.keys();
-        for (char c : keys) {
-            System.out.println("========== \"" + c + "\"");
-            List<CharPrediction> pred = data.get(c);
-            pred.forEach(System.out::println);
-            System.out.println("\n\n");
-        }
-    }
-
-    public List<CharPrediction> getPredictionFor(char c) {
-        return this.data.get(c);
+    public CharNGramTrie getTrie() {
+        return trie;
     }
 
     public void dispose() {
@@ -118,54 +87,96 @@ public class CharPredictorData {
      * @param file the file that is use to save the data
      */
     public void saveTo(File file) throws Exception {
-        try (DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(file)))) {
-            dos.writeInt(this.data.size());
-            char[] keys = data.keys();
-            for (char startChar : keys) {
-                List<CharPrediction> charPredictions = this.data.get(startChar);
+        // Prediction count for each start char
+        TCharIntHashMap predictionCounts = new TCharIntHashMap();
+        trie.forEachNGram((gram, count) -> predictionCounts.adjustOrPutValue(gram[0], 1, 1));
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))))) {
+            dos.writeInt(predictionCounts.size());
+            //N-gram are iterated grouped by start char
+            char[] previousStartChar = {0};
+            boolean[] first = {true};
+            trie.forEachNGram((gram, count) -> {
                 //Write start char and prediction size
-                dos.writeChar(startChar);
-                dos.writeInt(charPredictions.size());
+                if (first[0] || gram[0] != previousStartChar[0]) {
+                    dos.writeChar(gram[0]);
+                    dos.writeInt(predictionCounts.get(gram[0]));
+                    previousStartChar[0] = gram[0];
+                    first[0] = false;
+                }
                 //Write each prediction
-                for (CharPrediction prediction : charPredictions) {
-                    dos.writeInt(prediction.getCount());
-                    char[] predChars = prediction.getNextChars();
-                    for (int i = 0; i < predChars.length; i++) {
-                        dos.writeChar(predChars[i]);
-                    }
+                dos.writeInt(count);
+                for (int i = 1; i < gram.length; i++) {
+                    dos.writeChar(gram[i]);
                 }
+            });
+        }
+    }
+
+    /**
+     * Load data from the mapped file (see {@link CharNGramTrie#map(File)}) if it was converted from the current prediction file.<br>
+     * Otherwise, the prediction file is loaded and converted to the mapped file for next loading.
+     * If the mapped file can't be written, data are kept on heap.
+     *
+     * @param file       the prediction file (see {@link #saveTo(File)})
+     * @param mappedFile the mapped file, created if needed
+     */
+    public void loadFrom(File file, File mappedFile) throws Exception {
+        long start = System.currentTimeMillis();
+        if (mappedFile.exists()) {
+            try {
+                CharNGramTrie mappedTrie = CharNGramTrie.map(mappedFile);
+                if (mappedTrie.getDepth() == CharPredictor.CHAR_NGRAM_SIZE && mappedTrie.getSourceSize() == file.length() && mappedTrie.getSourceDate() == file.lastModified()) {
+                    trie = mappedTrie;
+                    LOGGER.info("Mapped char ngram from file {} in {} ms ({} trie nodes)", mappedFile, System.currentTimeMillis() - start, trie.getNodeCount());
+                    return;
+                }
+                LOGGER.info("Mapped char ngram file {} is not up to date with {}, will convert it again", mappedFile, file);
+            } catch (IOException e) {
+                LOGGER.warn("Couldn't map char ngram file {}, will convert it again", mappedFile, e);
             }
         }
+        loadFrom(file);
+        try {
+            trie.writeTo(mappedFile, file.length(), file.lastModified());
+            trie = CharNGramTrie.map(mappedFile);
+            LOGGER.info("Char ngram converted to mapped file {} in {} ms", mappedFile, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't convert char ngram to mapped file {}, data will be kept in memory", mappedFile, e);
+        }
+    }
+
+    /**
+     * @return the default mapped file for a prediction file (in the same directory)
+     */
+    public static File getMappedFileFor(File file) {
+        return new File(file.getParentFile(), FileNameUtils.getNameWithoutExtension(file) + MAPPED_FILE_EXTENSION);
     }
 
     public void loadFrom(File file) throws Exception {
         long start = System.currentTimeMillis();
-        try (DataInputStream dis = new DataInputStream(new GZIPInputStream(new FileInputStream(file)))) {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            CharNGramTrie.Builder builder = new CharNGramTrie.Builder(CharPredictor.CHAR_NGRAM_SIZE);
+            char[] gram = new char[CharPredictor.CHAR_NGRAM_SIZE];
             int totalLoad = 0;
             //Read char count
             int totalCharCount = dis.readInt();
             for (int i = 0; i < totalCharCount; i++) {
                 //Read starting char and prediction count
-                char startChar = dis.readChar();
+                gram[0] = dis.readChar();
                 int predictionCount = dis.readInt();
-                List<CharPrediction> predictionList = new ArrayList<>(predictionCount);
-                this.data.put(startChar, predictionList);
                 //Read all prediction
                 for (int j = 0; j < predictionCount; j++) {
                     int predCount = dis.readInt();
-                    char[] predNextChars = new char[CharPredictor.CHAR_NGRAM_SIZE - 1];
-                    for (int c = 0; c < CharPredictor.CHAR_NGRAM_SIZE - 1; c++) {
-                        predNextChars[c] = dis.readChar();
+                    for (int c = 1; c < CharPredictor.CHAR_NGRAM_SIZE; c++) {
+                        gram[c] = dis.readChar();
                     }
-                    predictionList.add(new CharPrediction(predNextChars, predCount));
+                    builder.add(gram, 0, predCount);
                     totalLoad++;
                 }
-                //Sort char prediction
-                //TODO : use another sort implementation : this one increase memory usage on loading
-                Collections.sort(predictionList, CHAR_PREDICTION_COMPARATOR);
             }
-            LOGGER.info("Loaded {} char ngram from file {} in {} ms ({} different char)", totalLoad, file, System.currentTimeMillis() - start,
-                    data.size());
+            trie = builder.build();
+            LOGGER.info("Loaded {} char ngram from file {} in {} ms ({} different char, {} trie nodes, {} KB)", totalLoad, file, System.currentTimeMillis() - start,
+                    totalCharCount, trie.getNodeCount(), trie.getMemorySize() / 1024);
         }
     }
 
@@ -176,25 +187,6 @@ public class CharPredictorData {
     public String cleanText(String text) {
         return text.toLowerCase();
     }
-
-    private void addPrediction(String ngram, int count) {
-        char firstChar = ngram.charAt(0);
-        CharPrediction pred = new CharPrediction(ngram.substring(1, ngram.length()).toCharArray(), count);
-        if (!data.containsKey(firstChar)) {
-            data.put(firstChar, new ArrayList<>());
-        }
-        data.get(firstChar).add(pred);
-    }
-
-    private void addToNGramCountMap(String charNGram, Map<String, Integer> ngramMap) {
-        if (charNGram.length() == CharPredictor.CHAR_NGRAM_SIZE) {
-            if (ngramMap.containsKey(charNGram)) {
-                ngramMap.put(charNGram, ngramMap.get(charNGram) + 1);
-            } else {
-                ngramMap.put(charNGram, 1);
-            }
-        }
-    }
     //========================================================================
 
 }
@@ -33,6 +33,7 @@ import java.io.File;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.IntPredicate;
 
 /**
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
@@ -86,7 +87,7 @@ public enum LCCharPredictor implements CharPredictorI {
     @Override
     public synchronized void initialize() throws Exception {
         CharPredictorData datas = new CharPredictorData();
-        datas.loadFrom(this.predictionFile);
+        datas.loadFrom(this.predictionFile, CharPredictorData.getMappedFileFor(this.predictionFile));
         this.charPredictor = new CharPredictor(datas);
     }
 
@@ -111,6 +112,13 @@ public enum LCCharPredictor implements CharPredictorI {
         return this.charPredictor.predict(text, limit, acceptedCharacters);
     }
 
+    /**
+     * Same as {@link #predict(String, int, HashSet)} without allocation (see {@link CharPredictor#predict(CharSequence, char[], IntPredicate)})
+     */
+    public int predict(final CharSequence text, final char[] result, final IntPredicate acceptedCharacters) {
+        return this.charPredictor.predict(text, result, acceptedCharacters);
+    }
+
     @Override
     public void modeStart(final LCConfigurationI configuration) {
     }
@@ -0,0 +1,235 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.textprediction.predict4all;
+
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
+import org.predict4all.nlp.ngram.dictionary.DynamicNGramDictionary;
+import org.predict4all.nlp.ngram.dictionary.StaticNGramTrieDictionary;
+import org.predict4all.nlp.prediction.PredictionParameter;
+import org.predict4all.nlp.prediction.WordPredictor;
+import org.predict4all.nlp.words.WordDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keep Predict4All resources loaded for the whole LifeCompanion session, so entering use mode or switching configuration doesn't open again every predictor file.<br>
+ * Static ngram dictionary ({@link Predict4AllWordPredictorHelper#P4A_STATIC_PREDICTION}) is opened once and shared by every configuration predictor.
+ * Word dictionary (containing the configuration user words) and dynamic ngram dictionary are specific to each configuration : they are kept loaded for the last used configurations
+ * and are only loaded again when their files were modified by something else than the pool (e.g. Predict4All configuration in edit mode).<br>
+ * Configuration models are loaded and saved on a single background thread : a model can't be loaded while it is still being saved.
+ */
+public enum Predict4AllResourcePool {
+    INSTANCE;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Predict4AllResourcePool.class);
+
+    /**
+     * Max configuration model count kept loaded (each model contains a full word dictionary)
+     */
+    private static final int MAX_LOADED_MODEL_COUNT = 3;
+
+    private final Map<String, ConfigurationModel> loadedModels;
+    private final ExecutorService modelExecutor;
+    private final AtomicInteger loadCount, reuseCount;
+    private StaticNGramTrieDictionary staticNGramDictionary;
+
+    Predict4AllResourcePool() {
+        this.loadedModels = new LinkedHashMap<>(MAX_LOADED_MODEL_COUNT + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConfigurationModel> eldest) {
+                return size() > MAX_LOADED_MODEL_COUNT;
+            }
+        };
+        this.modelExecutor = Executors.newSingleThreadExecutor(LCNamedThreadFactory.daemonThreadFactory("Predict4AllResourcePool"));
+        this.loadCount = new AtomicInteger();
+        this.reuseCount = new AtomicInteger();
+    }
+
+    /**
+     * @return the shared static ngram dictionary, opened on first call
+     * @throws IOException if the static ngram file can't be opened
+     */
+    public synchronized StaticNGramTrieDictionary getStaticNGramDictionary() throws IOException {
+        if (staticNGramDictionary == null) {
+            long start = System.currentTimeMillis();
+            staticNGramDictionary = Predict4AllWordPredictorHelper.loadStaticNGramDictionary();
+            LOGGER.info("Shared P4A static ngram dictionary opened in {} ms", System.currentTimeMillis() - start);
+        }
+        return staticNGramDictionary;
+    }
+
+    // MODELS
+    //========================================================================
+
+    /**
+     * Get the model for a configuration, with a new predictor using the current configuration prediction parameter.<br>
+     * Model is loaded in background if it isn't loaded yet or if its files were modified since it was loaded/saved, otherwise the loaded one is returned.
+     *
+     * @param p4aDirectory the configuration P4A directory (see {@link Predict4AllWordPredictorHelper#getAndInitializeCurrentProfileRoot(String)})
+     * @return the future model
+     */
+    public Future<ConfigurationModel> getModel(File p4aDirectory) {
+        return modelExecutor.submit(() -> getOrLoadModel(p4aDirectory));
+    }
+
+    /**
+     * Save the model user dictionary and dynamic ngram dictionary in background.<br>
+     * Model can still be used while it is saved (only training is blocked).
+     *
+     * @param model the model to save
+     * @return the future save end
+     */
+    public Future<?> saveModel(ConfigurationModel model) {
+        return modelExecutor.submit(() -> {
+            long start = System.currentTimeMillis();
+            synchronized (model) {
+                Predict4AllWordPredictorHelper.saveUserDictionary(model.directory, model.wordDictionary);
+                Predict4AllWordPredictorHelper.saveDynamicNGramDictionary(model.directory, model.dynamicNGramDictionary);
+                model.updateFileStates();
+            }
+            LOGGER.info("P4A model for {} saved in {} ms", model.directory, System.currentTimeMillis() - start);
+        });
+    }
+
+    private ConfigurationModel getOrLoadModel(File p4aDirectory) throws IOException {
+        long start = System.currentTimeMillis();
+        PredictionParameter predictionParameter = Predict4AllWordPredictorHelper.loadOrGetCurrentPredictionParameter(p4aDirectory);
+        String key = p4aDirectory.getAbsolutePath();
+        ConfigurationModel model;
+        synchronized (loadedModels) {
+            model = loadedModels.get(key);
+        }
+        boolean reused = model != null && model.isUpToDate(predictionParameter);
+        if (reused) {
+            reuseCount.incrementAndGet();
+        } else {
+            loadCount.incrementAndGet();
+            PredictorModelDto predictorModelDto = Predict4AllWordPredictorHelper.loadData(p4aDirectory, predictionParameter);
+            model = new ConfigurationModel(p4aDirectory, predictorModelDto.getWordDictionary(), predictorModelDto.getDynamicNGramDictionary());
+            model.updateFileStates();
+            synchronized (loadedModels) {
+                loadedModels.put(key, model);
+            }
+        }
+        model.wordPredictor = new WordPredictor(predictionParameter,
+                model.wordDictionary,
+                getStaticNGramDictionary(),
+                predictionParameter.isDynamicModelEnabled() ? model.dynamicNGramDictionary : null);
+        LOGGER.info("P4A model for {} ready in {} ms ({})", p4aDirectory, System.currentTimeMillis() - start, reused ? "already loaded" : "loaded");
+        return model;
+    }
+
+    public int getLoadCount() {
+        return loadCount.get();
+    }
+
+    public int getReuseCount() {
+        return reuseCount.get();
+    }
+    //========================================================================
+
+    // DISPOSE
+    //========================================================================
+
+    /**
+     * Wait for pending saves, then close the static ngram dictionary and unload every configuration model.<br>
+     * Pool can still be used after (resources will be loaded again).
+     */
+    public void dispose() {
+        try {
+            modelExecutor.submit(() -> {
+            }).get();
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't wait for pending P4A model saves", e);
+        }
+        synchronized (loadedModels) {
+            loadedModels.clear();
+        }
+        synchronized (this) {
+            if (staticNGramDictionary != null) {
+                try {
+                    staticNGramDictionary.close();
+                } catch (Exception e) {
+                    LOGGER.error("Couldn't close shared P4A static ngram dictionary", e);
+                }
+                staticNGramDictionary = null;
+            }
+        }
+        LOGGER.info("P4A resource pool disposed ({} model loaded, {} model reused)", loadCount.get(), reuseCount.get());
+    }
+    //========================================================================
+
+    // MODEL
+    //========================================================================
+
+    /**
+     * Configuration specific Predict4All data.<br>
+     * Model should be used as lock when modifying its dictionaries (e.g. training) as it can be saved in background.
+     */
+    public static class ConfigurationModel {
+        private final File directory;
+        private final WordDictionary wordDictionary;
+        private final DynamicNGramDictionary dynamicNGramDictionary;
+        private volatile WordPredictor wordPredictor;
+        private String userDictionaryFileState, dynamicNGramFileState;
+
+        private ConfigurationModel(File directory, WordDictionary wordDictionary, DynamicNGramDictionary dynamicNGramDictionary) {
+            this.directory = directory;
+            this.wordDictionary = wordDictionary;
+            this.dynamicNGramDictionary = dynamicNGramDictionary;
+        }
+
+        public File getDirectory() {
+            return directory;
+        }
+
+        /**
+         * @return predictor created on last {@link Predict4AllResourcePool#getModel(File)} call (should not be disposed : static dictionary is shared)
+         */
+        public WordPredictor getWordPredictor() {
+            return wordPredictor;
+        }
+
+        private synchronized void updateFileStates() {
+            this.userDictionaryFileState = getFileState(Predict4AllWordPredictorHelper.getUserDictionaryFile(directory));
+            this.dynamicNGramFileState = getFileState(Predict4AllWordPredictorHelper.getDynamicNGramFile(directory));
+        }
+
+        private synchronized boolean isUpToDate(PredictionParameter predictionParameter) {
+            return (dynamicNGramDictionary != null || !predictionParameter.isDynamicModelEnabled())
+                    && userDictionaryFileState.equals(getFileState(Predict4AllWordPredictorHelper.getUserDictionaryFile(directory)))
+                    && dynamicNGramFileState.equals(getFileState(Predict4AllWordPredictorHelper.getDynamicNGramFile(directory)));
+        }
+
+        private static String getFileState(File file) {
+            return file.exists() ? file.length() + "/" + file.lastModified() : "";
+        }
+    }
+    //========================================================================
+}
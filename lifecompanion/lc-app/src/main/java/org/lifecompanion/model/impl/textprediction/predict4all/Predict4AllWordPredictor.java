@@ -27,20 +27,21 @@ import org.lifecompanion.model.api.textprediction.WordPredictorI;
 import org.lifecompanion.framework.commons.SystemType;
 import org.lifecompanion.framework.commons.translation.Translation;
 import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.lifecompanion.model.impl.textprediction.WordPredictionResult;
 import org.predict4all.nlp.Separator;
-import org.predict4all.nlp.ngram.dictionary.DynamicNGramDictionary;
 import org.predict4all.nlp.prediction.WordPredictor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
- * Predict4All integration
+ * Predict4All integration.<br>
+ * Predictor resources are kept loaded between use mode starts in {@link Predict4AllResourcePool} : on mode start, configuration model is loaded in background
+ * (first predictions wait for it) and on mode stop, it is saved in background.
  *
  * @author Mathieu THEBAUD <math.thebaud@gmail.com>
  */
@@ -50,10 +51,13 @@ public class Predict4AllWordPredictor implements WordPredictorI {
     private static final boolean USER_TEXTS_ENCRYPTED = false;
     private final static Logger LOGGER = LoggerFactory.getLogger(Predict4AllWordPredictor.class);
 
-    private WordPredictor wordPredictor;
-
     private final Set<String> usedConfigurationIds;
 
+    /**
+     * Model for the current configuration (between mode start and stop)
+     */
+    private volatile Future<Predict4AllResourcePool.ConfigurationModel> currentModel;
+
     public Predict4AllWordPredictor() {
         usedConfigurationIds = new HashSet<>();
     }
@@ -90,25 +94,59 @@ public class Predict4AllWordPredictor implements WordPredictorI {
 
     @Override
     public WordPredictionResultI predict(final String textBeforeCaret, final String textAfterCaret, final int count) {
-        this.wordPredictor.getPredictionParameter().setEnableDebugInformation(false);
-        return Predict4AllWordPredictorHelper.predictorOn(this.wordPredictor, textBeforeCaret, textAfterCaret, count);
+        Predict4AllResourcePool.ConfigurationModel model = getCurrentModel();
+        if (model == null) {
+            return new WordPredictionResult(textBeforeCaret, 0, new ArrayList<>());
+        }
+        // Same lock as training and saving : dictionaries can be modified by incremental training while predicting
+        synchronized (model) {
+            model.getWordPredictor().getPredictionParameter().setEnableDebugInformation(false);
+            return Predict4AllWordPredictorHelper.predictorOn(model.getWordPredictor(), textBeforeCaret, textAfterCaret, count);
+        }
     }
 
+    /**
+     * @return the current predictor, or null if there is no current configuration or if it is still loading
+     */
     public WordPredictor getWordPredictor() {
-        return this.wordPredictor;
+        Future<Predict4AllResourcePool.ConfigurationModel> model = this.currentModel;
+        if (model != null && model.isDone()) {
+            try {
+                return model.get().getWordPredictor();
+            } catch (Exception e) {
+                // Loading failed : already logged on prediction
+            }
+        }
+        return null;
+    }
+
+    private synchronized Predict4AllResourcePool.ConfigurationModel getCurrentModel() {
+        if (currentModel != null) {
+            try {
+                return currentModel.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOGGER.error("Problem on P4A word predictor initialization", e.getCause());
+                currentModel = null;
+            }
+        }
+        return null;
     }
 
 
     @Override
-    public void trainDynamicModel(final String text) {
-        // Train dynamic model is quite particular here : because predictor is disposed on modeStop(), training should initialize the predictor again and then dispose it
+    public synchronized void trainDynamicModel(final String text) {
+        // Train dynamic model is quite particular here : every configuration used in this session should be trained, not only the current one
         if (!StringUtils.isBlank(text)) {
             for (String usedConfigurationId : usedConfigurationIds) {
                 Predict4AllWordPredictor.LOGGER.info("Will train P4A data for configuration {} with a text of length {}", usedConfigurationId, text.length());
                 try {
-                    this.loadWordPredictor(usedConfigurationId);
-                    this.wordPredictor.trainDynamicModel(text, Predict4AllWordPredictor.USER_TEXTS_ENCRYPTED);
-                    this.dispose();
+                    Predict4AllResourcePool.ConfigurationModel model = Predict4AllResourcePool.INSTANCE.getModel(Predict4AllWordPredictorHelper.getAndInitializeCurrentProfileRoot(usedConfigurationId)).get();
+                    synchronized (model) {
+                        model.getWordPredictor().trainDynamicModel(text, Predict4AllWordPredictor.USER_TEXTS_ENCRYPTED);
+                    }
+                    Predict4AllResourcePool.INSTANCE.saveModel(model).get();
                 } catch (Exception e) {
                     Predict4AllWordPredictor.LOGGER.error("Couldn't train Predict4All", e);
                 }
@@ -121,51 +159,56 @@ public class Predict4AllWordPredictor implements WordPredictorI {
 
 
     @Override
-    public void dispose() {
-        if (wordPredictor != null) {
-            try {
-                this.wordPredictor.dispose();
-                this.wordPredictor = null;
-            } catch (Exception e) {
-                LOGGER.error("Wasn't able to dispose word predictor on mode stop", e);
+    public boolean isIncrementalTrainingSupported() {
+        return true;
+    }
+
+    @Override
+    public void trainDynamicModelIncrementally(final String text) throws IOException {
+        Predict4AllResourcePool.ConfigurationModel model = getCurrentModel();
+        if (model != null) {
+            synchronized (model) {
+                model.getWordPredictor().trainDynamicModel(text, Predict4AllWordPredictor.USER_TEXTS_ENCRYPTED);
             }
         }
     }
 
     @Override
-    public boolean isInitialized() {
-        return true;
+    public void saveDynamicModel() {
+        Predict4AllResourcePool.ConfigurationModel model = getCurrentModel();
+        if (model != null) {
+            Predict4AllResourcePool.INSTANCE.saveModel(model);
+        }
     }
 
     @Override
-    public void initialize() throws Exception {
+    public synchronized void dispose() {
+        this.currentModel = null;
+        Predict4AllResourcePool.INSTANCE.dispose();
     }
 
     @Override
-    public void modeStart(final LCConfigurationI configuration) {
-        try {
-            loadWordPredictor(configuration.getID());
-        } catch (Exception e) {
-            LOGGER.error("Problem on P4A word predictor initialization", e);
-        }
+    public boolean isInitialized() {
+        return true;
     }
 
-    private void loadWordPredictor(String configurationId) throws IOException {
-        PredictorModelDto predictorModelDto = Predict4AllWordPredictorHelper.loadData(configurationId);
-        this.wordPredictor = new WordPredictor(predictorModelDto.getPredictionParameter(),
-                predictorModelDto.getWordDictionary(),
-                Predict4AllWordPredictorHelper.loadStaticNGramDictionary(),
-                predictorModelDto.getDynamicNGramDictionary());
+    @Override
+    public void initialize() throws Exception {
     }
 
+    @Override
+    public synchronized void modeStart(final LCConfigurationI configuration) {
+        this.currentModel = Predict4AllResourcePool.INSTANCE.getModel(Predict4AllWordPredictorHelper.getAndInitializeCurrentProfileRoot(configuration.getID()));
+    }
 
     @Override
-    public void modeStop(final LCConfigurationI configuration) {
-        if (this.wordPredictor != null) {
+    public synchronized void modeStop(final LCConfigurationI configuration) {
+        Predict4AllResourcePool.ConfigurationModel model = getCurrentModel();
+        if (model != null) {
             usedConfigurationIds.add(configuration.getID());
-            Predict4AllWordPredictorHelper.saveUserDictionary(configuration.getID(), this.wordPredictor.getWordDictionary());
-            Predict4AllWordPredictorHelper.saveDynamicNGramDictionary(configuration.getID(), (DynamicNGramDictionary) this.wordPredictor.getDynamicNGramDictionary());
+            Predict4AllResourcePool.INSTANCE.saveModel(model);
         }
+        this.currentModel = null;
     }
 
 
@@ -109,8 +109,21 @@ public class Predict4AllWordPredictorHelper {
     // LOADING
     //========================================================================
     public static PredictorModelDto loadData(String configurationId) throws IOException {
-        PredictionParameter predictionParameter = loadOrGetCurrentPredictionParameter(configurationId);
-        Pair<Boolean, WordDictionary> wordDictionaryAndFailed = loadDictionaryAndUserDictionary(configurationId);
+        return loadData(getAndInitializeCurrentProfileRoot(configurationId));
+    }
+
+    public static PredictorModelDto loadData(File p4aDirectory) throws IOException {
+        return loadData(p4aDirectory, loadOrGetCurrentPredictionParameter(p4aDirectory));
+    }
+
+    /**
+     * Load the configuration word dictionary (with user dictionary) and dynamic ngram dictionary (if enabled in prediction parameter)
+     *
+     * @param p4aDirectory        the configuration P4A directory (see {@link #getAndInitializeCurrentProfileRoot(String)})
+     * @param predictionParameter the configuration prediction parameter
+     */
+    public static PredictorModelDto loadData(File p4aDirectory, PredictionParameter predictionParameter) throws IOException {
+        Pair<Boolean, WordDictionary> wordDictionaryAndFailed = loadDictionaryAndUserDictionary(p4aDirectory);
         WordDictionary wordDictionary = wordDictionaryAndFailed.getRight();
         DynamicNGramDictionary dynamicNGramDictionary = null;
         if (predictionParameter.isDynamicModelEnabled()) {
@@ -118,14 +131,14 @@ public class Predict4AllWordPredictorHelper {
                 LOGGER.warn("Ignore dynamic ngram dictionary loading because the user dictionary loading failed (create a new model)");
                 dynamicNGramDictionary = new DynamicNGramDictionary(4);
             } else {
-                dynamicNGramDictionary = loadOrCreateDynamicNGramDictionary(configurationId);
+                dynamicNGramDictionary = loadOrCreateDynamicNGramDictionary(p4aDirectory);
             }
         }
         return new PredictorModelDto(wordDictionary, dynamicNGramDictionary, predictionParameter);
     }
 
-    private static PredictionParameter loadOrGetCurrentPredictionParameter(String configurationId) {
-        File predictionParamPath = getCurrentConfigurationPath(configurationId);
+    public static PredictionParameter loadOrGetCurrentPredictionParameter(File p4aDirectory) {
+        File predictionParamPath = new File(p4aDirectory + File.separator + P4A_PROFILE_CONFIG_NAME);
         if (predictionParamPath.exists()) {
             try {
                 return PredictionParameter.loadFrom(languageModel, predictionParamPath);
@@ -144,8 +157,8 @@ public class Predict4AllWordPredictorHelper {
         return predictionParameter;
     }
 
-    private static DynamicNGramDictionary loadOrCreateDynamicNGramDictionary(String configurationId) {
-        File dynamicNGramFile = new File(getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_USER_PREDICTION_NAME);
+    private static DynamicNGramDictionary loadOrCreateDynamicNGramDictionary(File p4aDirectory) {
+        File dynamicNGramFile = getDynamicNGramFile(p4aDirectory);
         if (dynamicNGramFile.exists()) {
             try {
                 return DynamicNGramDictionary.load(dynamicNGramFile);
@@ -162,17 +175,17 @@ public class Predict4AllWordPredictorHelper {
         return StaticNGramTrieDictionary.open(PREDICTION_FILE);
     }
 
-    private static Pair<Boolean, WordDictionary> loadDictionaryAndUserDictionary(String configurationId) throws IOException {
+    private static Pair<Boolean, WordDictionary> loadDictionaryAndUserDictionary(File p4aDirectory) throws IOException {
         boolean userDictionaryFailed = false;
         WordDictionary wordDictionary = WordDictionary.loadDictionary(languageModel, DICTIONARY_FILE);
-        File dynamicDictionaryFile = new File(getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_USER_DICTIONARY_NAME);
+        File dynamicDictionaryFile = getUserDictionaryFile(p4aDirectory);
         if (dynamicDictionaryFile.exists()) {
             try {
                 wordDictionary.loadUserDictionary(dynamicDictionaryFile);
             } catch (Exception e) {
                 userDictionaryFailed = true;
                 LOGGER.error("Loading user dictionary failed, will try to load last temp file", e);
-                File[] tempFiles = new File(getAndInitializeCurrentProfileRoot(configurationId) + File.separator).listFiles();
+                File[] tempFiles = p4aDirectory.listFiles();
                 Optional<File> lastModifiedUserDic = Arrays.stream(tempFiles)//
                         .filter(f -> StringUtils.startWithIgnoreCase(f.getName(), P4A_USER_DICTIONARY_NAME))//
                         .filter(f -> StringUtils.endsWithIgnoreCase(f.getName(), ".tmp"))//
@@ -201,10 +214,13 @@ public class Predict4AllWordPredictorHelper {
     // SAVING
     //========================================================================
     public static void saveDynamicNGramDictionary(String configurationId, final DynamicNGramDictionary ngramDictionary) {
+        saveDynamicNGramDictionary(getAndInitializeCurrentProfileRoot(configurationId), ngramDictionary);
+    }
+
+    public static void saveDynamicNGramDictionary(File p4aDirectory, final DynamicNGramDictionary ngramDictionary) {
         if (ngramDictionary != null) {
-            File dynamicNGramFile = new File(getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_USER_PREDICTION_NAME);
-            File dynamicNGramFileTemp = new File(
-                    getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_USER_PREDICTION_NAME + "_" + UUID.randomUUID().toString() + ".tmp");
+            File dynamicNGramFile = getDynamicNGramFile(p4aDirectory);
+            File dynamicNGramFileTemp = new File(p4aDirectory + File.separator + P4A_USER_PREDICTION_NAME + "_" + UUID.randomUUID().toString() + ".tmp");
             try {
                 ngramDictionary.saveDictionary(dynamicNGramFileTemp);
                 IOUtils.copyFiles(dynamicNGramFileTemp, dynamicNGramFile);
@@ -216,10 +232,13 @@ public class Predict4AllWordPredictorHelper {
     }
 
     public static void saveUserDictionary(String configurationId, final WordDictionary wordDictionary) {
+        saveUserDictionary(getAndInitializeCurrentProfileRoot(configurationId), wordDictionary);
+    }
+
+    public static void saveUserDictionary(File p4aDirectory, final WordDictionary wordDictionary) {
         if (wordDictionary != null) {
-            File dynamicDictionaryFileTemp = new File(
-                    getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_USER_DICTIONARY_NAME + "_" + UUID.randomUUID().toString() + ".tmp");
-            File dynamicDictionaryFile = new File(getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_USER_DICTIONARY_NAME);
+            File dynamicDictionaryFileTemp = new File(p4aDirectory + File.separator + P4A_USER_DICTIONARY_NAME + "_" + UUID.randomUUID().toString() + ".tmp");
+            File dynamicDictionaryFile = getUserDictionaryFile(p4aDirectory);
             try {
                 wordDictionary.saveUserDictionary(dynamicDictionaryFileTemp);
                 IOUtils.copyFiles(dynamicDictionaryFileTemp, dynamicDictionaryFile);
@@ -254,5 +273,13 @@ public class Predict4AllWordPredictorHelper {
         return new File(getAndInitializeCurrentProfileRoot(configurationId) + File.separator + P4A_PROFILE_CONFIG_NAME);
     }
 
+    public static File getUserDictionaryFile(File p4aDirectory) {
+        return new File(p4aDirectory + File.separator + P4A_USER_DICTIONARY_NAME);
+    }
+
+    public static File getDynamicNGramFile(File p4aDirectory) {
+        return new File(p4aDirectory + File.separator + P4A_USER_PREDICTION_NAME);
+    }
+
     //========================================================================
 }
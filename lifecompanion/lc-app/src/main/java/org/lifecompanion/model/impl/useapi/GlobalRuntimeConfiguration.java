@@ -284,6 +284,30 @@ public enum GlobalRuntimeConfiguration implements GlobalRuntimeConfigurationI {
             "When enabled, a checking Thread is launched in background to display the loaded image count. This can be useful to detect memory leaks on images. See [`ImageDictionaries#startImageLoadingDebug()`](../lifecompanion/lc-app/src/main/java/org/lifecompanion/model/impl/imagedictionary/ImageDictionaries.java) for details"
     ),
 
+    PROP_THUMBNAIL_CACHE_MAX_SIZE(
+            "org.lifecompanion.thumbnail.cache.max.size",
+            GlobalRuntimeConfigurationType.JAVA_PROPERTY,
+            "megabytes",
+            "Set the maximum memory size (in MB, for decoded pixels) of the image dictionary thumbnail cache. When the limit is reached, least recently displayed thumbnails are removed from cache. Default size is 48 MB.",
+            "100",
+            1
+    ),
+
+    PROP_START_THREAD_COUNT(
+            "org.lifecompanion.start.thread.count",
+            GlobalRuntimeConfigurationType.JAVA_PROPERTY,
+            "thread count",
+            "Set the max count of controllers started at the same time on LifeCompanion startup (controllers are started once the controllers they depend on are started). Default is 4 (or processor count if lower), 1 starts controllers one after the other.",
+            "1",
+            1
+    ),
+
+    PROP_BINARY_CONFIGURATION(
+            "org.lifecompanion.binary.configuration",
+            GlobalRuntimeConfigurationType.JAVA_PROPERTY,
+            "When enabled, a compact binary copy of configuration, keylist and sequence XML is saved with each configuration, and is read instead of XML files when they didn't change since. XML files are still saved, so configurations stay readable without this option. See [`BinaryConfigurationHelper`](../lifecompanion/lc-app/src/main/java/org/lifecompanion/controller/io/BinaryConfigurationHelper.java) for details"
+    ),
+
     PROP_DEBUG_LOADED_CONFIGURATION(
             "org.lifecompanion.debug.loaded.configuration",
             GlobalRuntimeConfigurationType.JAVA_PROPERTY,
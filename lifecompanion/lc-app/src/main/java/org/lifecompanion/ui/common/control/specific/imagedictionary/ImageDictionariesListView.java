@@ -39,6 +39,8 @@ import org.lifecompanion.ui.controlsfx.glyphfont.Glyph;
 import org.lifecompanion.controller.editmode.LCStateController;
 import org.lifecompanion.model.api.imagedictionary.ImageDictionaryI;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.model.impl.imagedictionary.ImageDictionaries;
+import org.lifecompanion.model.impl.imagedictionary.ThumbnailRequest;
 import org.lifecompanion.util.DesktopUtils;
 import org.lifecompanion.model.impl.constant.LCGraphicStyle;
 import org.lifecompanion.controller.resource.GlyphFontHelper;
@@ -135,6 +137,10 @@ class ImageDictionariesListView extends VBox implements LCViewInitHelper {
                 currentPageIndex.addListener((obs, ov, nv) -> {
                     tilePaneImages.getChildren().clear();
                     tilePaneImages.getChildren().addAll(dictionaryAndResult.getValue().get(nv.intValue()).stream().map(imageElement -> new ImageElementView(imageElement, selectionCallback)).collect(Collectors.toList()));
+                    // Prefetch next page thumbnails (loaded after visible thumbnails)
+                    if (nv.intValue() + 1 < dictionaryAndResult.getValue().size()) {
+                        dictionaryAndResult.getValue().get(nv.intValue() + 1).forEach(imageElement -> ImageDictionaries.INSTANCE.requestLoadThumbnail(imageElement, ThumbnailRequest.Priority.PREFETCH, null));
+                    }
                 });
                 currentPageIndex.set(0);
 
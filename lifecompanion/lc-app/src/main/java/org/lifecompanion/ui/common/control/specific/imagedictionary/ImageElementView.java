@@ -26,6 +26,7 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.text.TextAlignment;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
 import org.lifecompanion.model.impl.imagedictionary.ImageDictionaries;
+import org.lifecompanion.model.impl.imagedictionary.ThumbnailRequest;
 import org.lifecompanion.framework.commons.ui.LCViewInitHelper;
 import org.lifecompanion.util.javafx.FXControlUtils;
 
@@ -37,6 +38,7 @@ public class ImageElementView extends BorderPane implements LCViewInitHelper {
     private final Consumer<ImageElementI> selectionCallback;
     private Label labelName;
     private ImageView imageView;
+    private ThumbnailRequest thumbnailRequest;
 
     public ImageElementView(ImageElementI imageElement, Consumer<ImageElementI> selectionCallback) {
         this.imageElement = imageElement;
@@ -68,11 +70,19 @@ public class ImageElementView extends BorderPane implements LCViewInitHelper {
     @Override
     public void initListener() {
         this.setOnMousePressed(e -> selectionCallback.accept(this.imageElement));
+        // When the view is removed (page change, new search...) thumbnail is not needed anymore
+        this.sceneProperty().addListener((obs, ov, nv) -> {
+            if (nv == null && thumbnailRequest != null) {
+                thumbnailRequest.cancel();
+                thumbnailRequest = null;
+            }
+        });
     }
 
     @Override
     public void initBinding() {
-        ImageDictionaries.INSTANCE.requestLoadThumbnail(imageElement, cachedThumbnailInformation -> {
+        thumbnailRequest = ImageDictionaries.INSTANCE.requestLoadThumbnail(imageElement, cachedThumbnailInformation -> {
+            thumbnailRequest = null;
             imageView.setImage(cachedThumbnailInformation.getLoadedImage());
             imageView.setViewport(cachedThumbnailInformation.getViewport());
         });
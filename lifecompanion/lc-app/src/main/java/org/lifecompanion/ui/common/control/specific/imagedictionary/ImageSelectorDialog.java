@@ -25,7 +25,6 @@ import javafx.stage.StageStyle;
 import org.lifecompanion.controller.systemvk.SystemVirtualKeyboardController;
 import org.lifecompanion.model.api.imagedictionary.ImageElementI;
 import org.lifecompanion.model.impl.constant.LCConstant;
-import org.lifecompanion.model.impl.imagedictionary.ImageDictionaries;
 import org.lifecompanion.framework.commons.ui.LCViewInitHelper;
 
 public class ImageSelectorDialog extends Dialog<ImageElementI> implements LCViewInitHelper {
@@ -78,7 +77,6 @@ public class ImageSelectorDialog extends Dialog<ImageElementI> implements LCView
         });
         this.setOnHidden(e -> {
             imageSelectorSearchView.clearResult();
-            ImageDictionaries.INSTANCE.clearThumbnailCache();
         });
     }
 
@@ -34,6 +34,7 @@ import org.lifecompanion.model.impl.notification.LCNotification;
 import org.lifecompanion.util.javafx.StageUtils;
 
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -125,6 +126,11 @@ public enum LCNotificationController implements LCStateListener {
         });
     }
 
+    @Override
+    public List<LCStateListener> getStartDependencies() {
+        return List.of(AsyncExecutorController.INSTANCE);
+    }
+
     @Override
     public void lcExit() {
     }
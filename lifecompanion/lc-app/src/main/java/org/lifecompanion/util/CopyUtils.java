@@ -21,7 +21,9 @@ package org.lifecompanion.util;
 import org.jdom2.Element;
 import org.lifecompanion.controller.io.ConfigurationComponentIOHelper;
 import org.lifecompanion.model.api.configurationcomponent.DuplicableComponentI;
+import org.lifecompanion.model.api.configurationcomponent.StructuralCopyI;
 import org.lifecompanion.model.api.configurationcomponent.TreeIdentifiableComponentI;
+import org.lifecompanion.model.api.io.ComponentCopyContextI;
 import org.lifecompanion.model.impl.exception.LCException;
 import org.lifecompanion.model.api.io.IOContextI;
 import org.lifecompanion.model.api.io.XMLSerializable;
@@ -44,6 +46,24 @@ import java.util.function.Supplier;
 public class CopyUtils {
     private final static Logger LOGGER = LoggerFactory.getLogger(CopyUtils.class);
 
+    /**
+     * Types that can be copied with {@link StructuralCopyI} : they implement it and declare {@link StructuralCopyI#copyStateFrom(StructuralCopyI, ComponentCopyContextI)} themselves
+     */
+    private static final ClassValue<Boolean> STRUCTURAL_COPY_SUPPORTED = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            if (!StructuralCopyI.class.isAssignableFrom(type)) {
+                return false;
+            }
+            try {
+                type.getDeclaredMethod("copyStateFrom", StructuralCopyI.class, ComponentCopyContextI.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     public static <C, T extends XMLSerializable<C>> T createSimpleCopy(T source, C context, Supplier<T> constructor) throws LCException {
         Element xmlElement = source.serialize(context);
         T result = constructor.get();
@@ -51,6 +71,37 @@ public class CopyUtils {
         return result;
     }
 
+    /**
+     * Create a deep copy of a given component.<br>
+     * Components that support {@link StructuralCopyI} are copied directly (properties, styles, children), without XML serialization.
+     * Parts that don't support it (use actions, key options, plugin components...) are copied with their XML serialization.<br>
+     * ID changes are collected while copying and dispatched once on the copied tree.
+     *
+     * @param source   the component that should be copied
+     * @param changeID if the copied component should have a different ID than the source
+     * @return the cloned component, or null if the copy fails
+     */
+    public static <T extends DuplicableComponentI & XMLSerializable<IOContextI>> DuplicableComponentI createDeepCopy(final T source, final boolean changeID) {
+        if (!isStructuralCopySupported(source.getClass())) {
+            return createDeepCopyViaXMLSerialization(source, changeID);
+        }
+        ComponentCopyContext context = new ComponentCopyContext(changeID);
+        try {
+            XMLSerializable<IOContextI> duplicated = context.copy(source);
+            if (changeID && duplicated instanceof TreeIdentifiableComponentI) {
+                CopyUtils.dispatchIdChanges((TreeIdentifiableComponentI) duplicated, context.idChanges);
+            }
+            return (DuplicableComponentI) duplicated;
+        } catch (LCException e) {
+            CopyUtils.LOGGER.warn("Couldn't create the component copy", e);
+            return null;
+        }
+    }
+
+    public static boolean isStructuralCopySupported(Class<?> type) {
+        return STRUCTURAL_COPY_SUPPORTED.get(type);
+    }
+
     /**
      * Create a deep copy of a given component.<br>
      * The copy use the XML serialization to copy the component.
@@ -130,4 +181,58 @@ public class CopyUtils {
             }
         }
     }
+
+    private static class ComponentCopyContext implements ComponentCopyContextI {
+        private final boolean changeID;
+        private final HashMap<String, String> idChanges;
+        private IOContext ioContext;
+
+        private ComponentCopyContext(boolean changeID) {
+            this.changeID = changeID;
+            this.idChanges = new HashMap<>();
+        }
+
+        @Override
+        public boolean isChangeID() {
+            return changeID;
+        }
+
+        @Override
+        public void idChanged(String previousId, String newId) {
+            idChanges.put(previousId, newId);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends XMLSerializable<IOContextI>> T copy(T source) throws LCException {
+            if (isStructuralCopySupported(source.getClass())) {
+                StructuralCopyI copy = (StructuralCopyI) ConfigurationComponentIOHelper.createInstance(source.getClass());
+                copy.copyStateFrom((StructuralCopyI) source, this);
+                return (T) copy;
+            } else {
+                IOContext context = getIOContext();
+                Element serialized = source.serialize(context);
+                XMLSerializable<IOContextI> copy = ConfigurationComponentIOHelper.create(serialized, context, null).getRight();
+                copy.deserialize(serialized, context);
+                if (changeID && copy instanceof TreeIdentifiableComponentI) {
+                    CopyUtils.changeIDs((TreeIdentifiableComponentI) copy, idChanges);
+                }
+                return (T) copy;
+            }
+        }
+
+        @Override
+        public <T extends XMLSerializable<IOContextI>> void copyInto(T source, T target) throws LCException {
+            IOContext context = getIOContext();
+            target.deserialize(source.serialize(context), context);
+        }
+
+        private IOContext getIOContext() {
+            if (ioContext == null) {
+                ioContext = new IOContext(IOUtils.getTempDir("componentcopy"));
+                ioContext.setFallbackOnDefaultInstanceOnFail(false);
+            }
+            return ioContext;
+        }
+    }
 }
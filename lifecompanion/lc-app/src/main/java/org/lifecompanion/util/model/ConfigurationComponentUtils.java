@@ -120,16 +120,26 @@ public class ConfigurationComponentUtils {
         return getSimilarityScoreFor(termRaw, comp, getDisplayableComponentSearchGetter(comp));
     }
 
+    /**
+     * Clean a text before computing similarity : remove accents and lower case
+     *
+     * @param text the text to clean
+     * @return the cleaned text (never null)
+     */
+    public static String normalizeForSimilarity(String text) {
+        return StringUtils.stripAccents(StringUtils.toLowerCase(LangUtils.safeTrimToEmpty(text)));
+    }
+
     public static <T> double getSimilarityScoreFor(String termRaw, T comp, Function<T, org.lifecompanion.framework.utils.Pair<String, Double>>... sourceNameAndFactorGetters) {
         // Clean input terms : remove accents and lower case
-        termRaw = StringUtils.stripAccents(StringUtils.toLowerCase(LangUtils.safeTrimToEmpty(termRaw)));
+        termRaw = normalizeForSimilarity(termRaw);
         final String[] splitTerms = termRaw.split(" ");
         double factorToDivideContains = Arrays.stream(splitTerms).mapToDouble(String::length).sum();
 
         double score = 0.0;
         for (Function<T, org.lifecompanion.framework.utils.Pair<String, Double>> sourceNameAndFactorGetter : sourceNameAndFactorGetters) {
             final org.lifecompanion.framework.utils.Pair<String, Double> nameAndFactor = sourceNameAndFactorGetter.apply(comp);
-            String source = StringUtils.stripAccents(StringUtils.toLowerCase(LangUtils.safeTrimToEmpty(nameAndFactor.getLeft())));
+            String source = normalizeForSimilarity(nameAndFactor.getLeft());
             if (StringUtils.isEquals(source, termRaw)) {
                 score += SIMILARITY_EXACT_MATCH * nameAndFactor.getRight();
             }
@@ -174,15 +184,10 @@ public class ConfigurationComponentUtils {
 
     public static <T extends KeyOptionI> int findKeyOptionsByGrid(final Class<T> optionType, final LCConfigurationI configuration,
                                                                   final Map<GridComponentI, List<T>> gridMaps, final Predicate<GridPartKeyComponentI> keyPredicate) {
-        ObservableMap<String, DisplayableComponentI> allComponent = configuration.getAllComponent();
         // Find all keys grouped by their highest grid parent
-        final Map<GridComponentI, List<GridPartKeyComponentI>> keysByHighestGridParent = allComponent.values().stream()
-                .filter(c -> c instanceof GridPartKeyComponentI)
-                .map(c -> (GridPartKeyComponentI) c)
-                .filter(key -> {
-                    KeyOptionI option = key.keyOptionProperty().get();
-                    return option != null && optionType.isAssignableFrom(option.getClass()) && (keyPredicate == null || keyPredicate.test(key));
-                }).collect(Collectors.groupingBy(ConfigurationComponentUtils::findHighestGridBeforeStackParent));
+        final Map<GridComponentI, List<GridPartKeyComponentI>> keysByHighestGridParent = configuration.getComponentIndex().getKeysByKeyOptionType(optionType).stream()
+                .filter(key -> keyPredicate == null || keyPredicate.test(key))
+                .collect(Collectors.groupingBy(ConfigurationComponentUtils::findHighestGridBeforeStackParent));
         // Sort them top-left > bottom-right
         AtomicInteger count = new AtomicInteger(0);
         keysByHighestGridParent.forEach((grid, keys) -> {
@@ -281,13 +286,7 @@ public class ConfigurationComponentUtils {
     }
 
     public static <T> T findById(LCConfigurationI configuration, String id, Class<? extends T> componentType) {
-        return (T) configuration.getAllComponent()
-                .values()
-                .stream()
-                .filter(c -> componentType.isAssignableFrom(c.getClass()))
-                .filter(c -> StringUtils.isEquals(c.getID(), id))
-                .findAny()
-                .orElse(null);
+        return configuration.getComponentIndex().getById(id, componentType);
     }
 
     public static void setImageViewWithImageUseComponent(ImageView imageView, ImageUseComponentI imageUseComponent) {
@@ -10,6 +10,8 @@ package org.lifecompanion;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 import javafx.geometry.BoundingBox;
@@ -20,10 +22,14 @@ import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
 import org.lifecompanion.model.api.style.TextCompStyleI;
 import org.lifecompanion.model.api.textcomponent.TextBoundsProviderI;
 import org.lifecompanion.model.api.textcomponent.TextDisplayerLineI;
+import org.lifecompanion.model.api.textcomponent.TextDisplayerWordI;
+import org.lifecompanion.model.api.textcomponent.TextDisplayerWordPartI;
 import org.lifecompanion.model.impl.configurationcomponent.TextEditorComponent;
 import org.lifecompanion.model.impl.configurationcomponent.WriterDisplayerComponentBaseImpl;
 import org.lifecompanion.model.impl.configurationcomponent.WriterEntry;
+import org.lifecompanion.model.impl.textcomponent.CachedTextBoundsProvider;
 import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineHelper;
+import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineLayout;
 import org.predict4all.nlp.Separator;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -422,4 +428,146 @@ public class TextDisplayerLineHelperTest {
 //		}
 //		return entries;
 //	}
+
+	// LAYOUT (fixed width chars : 10 x 20)
+	//========================================================================
+	private static final TextBoundsProviderI FIXED_BOUNDS_PROVIDER = (text, textStyle) -> new BoundingBox(0.0, 0.0, text.length() * 10.0, 20.0);
+
+	@Test
+	public void testWordWrapAndCaret() {
+		List<WriterEntryI> entries = createEntryList("test ", "ceci", " est");
+		List<TextDisplayerLineI> lines = TextDisplayerLineHelper.generateLines(entries, null, 105, true, FIXED_BOUNDS_PROVIDER);
+		assertEquals(2, lines.size());
+		assertEquals("test ceci ", getLineText(lines.get(0)));
+		assertEquals("est", getLineText(lines.get(1)));
+		assertEquals(100.0, lines.get(0).getWidth());
+		assertEquals(10, lines.get(1).getWords().get(0).getCaretStart());
+		assertEquals(13, lines.get(1).getWords().get(0).getCaretEnd());
+		assertEquals(entries.get(2), lines.get(1).getWords().get(0).getParts().get(0).getEntry());
+	}
+
+	@Test
+	public void testLongWordAtParagraphEndKeepsNextParagraphOnItsLine() {
+		List<WriterEntryI> entries = createEntryList("abcdefghijkl\nnext");
+		List<TextDisplayerLineI> lines = TextDisplayerLineHelper.generateLines(entries, null, 55, false, FIXED_BOUNDS_PROVIDER);
+		assertEquals(4, lines.size());
+		assertEquals("abcde", getLineText(lines.get(0)));
+		assertEquals("fghij", getLineText(lines.get(1)));
+		assertEquals("kl\n", getLineText(lines.get(2)));
+		assertEquals("next", getLineText(lines.get(3)));
+	}
+
+	@Test
+	public void testIncrementalLayoutSameAsFullLayout() {
+		Random random = new Random(45781);
+		String[] words = {"le", "chat", "mange", "une", "souris", "anticonstitutionnellement", "!", ".", "\n", "a", "b"};
+		for (double maxWidth : new double[]{35, 95, 250}) {
+			for (boolean wordWrap : new boolean[]{true, false}) {
+				TextDisplayerLineLayout lineLayout = new TextDisplayerLineLayout(FIXED_BOUNDS_PROVIDER);
+				List<WriterEntryI> entries = new ArrayList<>();
+				for (int i = 0; i < 400; i++) {
+					int action = random.nextInt(10);
+					if (action < 4 || entries.isEmpty()) {
+						// Type a word or a space at end
+						entries.add(new WriterEntry(random.nextBoolean() ? " " : words[random.nextInt(words.length)], false));
+					} else if (action < 6) {
+						// Insert in the middle
+						entries.add(random.nextInt(entries.size()), new WriterEntry(words[random.nextInt(words.length)] + " ", false));
+					} else if (action < 8) {
+						// Modify an existing entry
+						WriterEntryI entry = entries.get(random.nextInt(entries.size()));
+						String text = entry.entryTextProperty().get();
+						entry.entryTextProperty().set(random.nextBoolean() && !text.isEmpty() ? text.substring(0, text.length() - 1) : text + words[random.nextInt(words.length)]);
+					} else {
+						entries.remove(random.nextInt(entries.size()));
+					}
+					List<TextDisplayerLineI> incrementalLines = lineLayout.generateLines(entries, null, maxWidth, wordWrap);
+					List<TextDisplayerLineI> fullLines = TextDisplayerLineHelper.generateLines(entries, null, maxWidth, wordWrap, FIXED_BOUNDS_PROVIDER);
+					assertEquals(describe(fullLines, entries), describe(incrementalLines, entries), "Step " + i + ", width " + maxWidth + ", word wrap " + wordWrap);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIncrementalLayoutOnlyLayoutChangedLines() {
+		TextDisplayerLineLayout lineLayout = new TextDisplayerLineLayout(FIXED_BOUNDS_PROVIDER);
+		List<WriterEntryI> entries = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			entries.add(new WriterEntry("word" + i + " ", false));
+		}
+		List<TextDisplayerLineI> firstLines = lineLayout.generateLines(entries, null, 200, true);
+		assertEquals(0, lineLayout.getLastLayoutStartLine());
+
+		// Typing at end : only last lines
+		entries.get(199).entryTextProperty().set("word199 and");
+		List<TextDisplayerLineI> lines = lineLayout.generateLines(entries, null, 200, true);
+		assertTrue(lineLayout.getLastLayoutStartLine() >= firstLines.size() - 2);
+		assertSame(firstLines.get(0), lines.get(0));
+
+		// Change in the middle : lines before are kept
+		entries.get(100).entryTextProperty().set("changed ");
+		lineLayout.generateLines(entries, null, 200, true);
+		int startLine = lineLayout.getLastLayoutStartLine();
+		assertTrue(startLine > 0 && startLine < firstLines.size() / 2 + 2);
+
+		// Width change : full layout
+		lineLayout.generateLines(entries, null, 150, true);
+		assertEquals(0, lineLayout.getLastLayoutStartLine());
+	}
+
+	@Test
+	public void testCachedBoundsProvider() {
+		AtomicInteger measureCount = new AtomicInteger();
+		CachedTextBoundsProvider boundsProvider = new CachedTextBoundsProvider((text, font) -> {
+			measureCount.incrementAndGet();
+			return FIXED_BOUNDS_PROVIDER.getBounds(text, null);
+		});
+		List<WriterEntryI> entries = createEntryList("le chat mange le chat\nle chat");
+		List<TextDisplayerLineI> expected = TextDisplayerLineHelper.generateLines(entries, null, 75, true, FIXED_BOUNDS_PROVIDER);
+		assertEquals(describe(expected, entries), describe(TextDisplayerLineHelper.generateLines(entries, null, 75, true, boundsProvider), entries));
+		int firstMeasureCount = measureCount.get();
+		assertEquals(describe(expected, entries), describe(TextDisplayerLineHelper.generateLines(entries, null, 75, true, boundsProvider), entries));
+		assertEquals(firstMeasureCount, measureCount.get());
+		assertTrue(boundsProvider.getHitCount() > boundsProvider.getMissCount());
+	}
+
+	private static List<WriterEntryI> createEntryList(String... values) {
+		List<WriterEntryI> entries = new ArrayList<>();
+		for (String value : values) {
+			entries.add(new WriterEntry(value, false));
+		}
+		return entries;
+	}
+
+	private static String getLineText(TextDisplayerLineI line) {
+		StringBuilder text = new StringBuilder();
+		for (TextDisplayerWordI word : line.getWords()) {
+			for (TextDisplayerWordPartI part : word.getParts()) {
+				text.append(part.getPart());
+			}
+			if (word.getWordSeparatorChar() != null) {
+				text.append(word.getWordSeparatorChar());
+			}
+		}
+		return text.toString();
+	}
+
+	private static String describe(List<TextDisplayerLineI> lines, List<WriterEntryI> entries) {
+		StringBuilder description = new StringBuilder();
+		for (TextDisplayerLineI line : lines) {
+			description.append("LINE ").append(line.getWidth()).append("x").append(line.getTextHeight()).append(line.isImageOnLine() ? " image" : "").append("\n");
+			for (TextDisplayerWordI word : line.getWords()) {
+				description.append("\t[").append(word.getCaretStart()).append("-").append(word.getCaretEnd()).append("] ").append(word.getWidth()).append(" sep=")
+						.append(word.getWordSeparatorChar() != null ? (int) word.getWordSeparatorChar() : -1).append(" sepWidth=").append(word.getWordSeparatorCharWidth());
+				for (TextDisplayerWordPartI part : word.getParts()) {
+					description.append(" (").append(part.getPart()).append(", entry ").append(entries.indexOf(part.getEntry())).append(", ").append(part.getCaretStart()).append("-")
+							.append(part.getCaretEnd()).append(", ").append(part.getWidth()).append(part.isImageStart() ? ", image " + part.getImageWidth() : "").append(")");
+				}
+				description.append("\n");
+			}
+		}
+		return description.toString();
+	}
+	//========================================================================
 }
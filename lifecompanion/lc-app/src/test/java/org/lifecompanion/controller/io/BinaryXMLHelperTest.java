@@ -0,0 +1,103 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+import org.lifecompanion.model.impl.constant.LCConstant;
+import org.lifecompanion.model.impl.io.IOContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryXMLHelperTest {
+
+    @Test
+    public void testRandomConfigurationRoundTrip() throws Exception {
+        File directory = Files.createTempDirectory("binary-xml-test").toFile();
+        LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(21541254), null, null);
+        Element element = configuration.serialize(new IOContext(directory));
+
+        byte[] encoded = BinaryXMLHelper.encode(element);
+        assertEquals(XMLHelper.toXmlString(element), XMLHelper.toXmlString(BinaryXMLHelper.decode(encoded)));
+        assertTrue(encoded.length < XMLHelper.toXmlString(element).getBytes().length);
+    }
+
+    @Test
+    public void testAttributeValuesAreKept() throws Exception {
+        Element root = new Element("Cmp");
+        String[] values = {"1", "-12", "007", "-0", "+5", "1.0", "1.5", "0.6499999999999997", "1e10", "NaN", "true", "false", "True", "", "a\nb\tc", "é😀 <&>", "99999999999999999999"};
+        for (int i = 0; i < values.length; i++) {
+            root.setAttribute("a" + i, values[i]);
+        }
+        root.addContent(new Element("Text").setText("text\n<&>"));
+
+        Element decoded = BinaryXMLHelper.decode(BinaryXMLHelper.encode(root));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], decoded.getAttributeValue("a" + i));
+        }
+        assertEquals("text\n<&>", decoded.getChildText("Text"));
+    }
+
+    @Test
+    public void testFileSectionsAndStaleness() throws Exception {
+        File directory = Files.createTempDirectory("binary-xml-test").toFile();
+        File xmlFile = new File(directory, LCConstant.CONFIGURATION_XML_NAME);
+        Element configuration = new Element("Configuration").setAttribute("id", "first");
+        XMLHelper.writeXml(xmlFile, configuration);
+        File keyListDirectory = new File(directory, LCConstant.CONFIGURATION_KEYLIST_DIRECTORY);
+        keyListDirectory.mkdirs();
+        XMLHelper.writeXml(new File(keyListDirectory, LCConstant.KEYLIST_XML_NAME), new Element("KeyList"));
+
+        BinaryConfigurationHelper.convertXmlToBinary(directory);
+        BinaryXMLFile binaryFile = BinaryXMLFile.open(BinaryConfigurationHelper.getBinaryFile(directory));
+        assertEquals(2, binaryFile.getSectionNames().size());
+        assertNull(binaryFile.readSection("sequence"));
+        assertEquals("KeyList", binaryFile.readSection("keylist").getName());
+
+        assertEquals("first", BinaryConfigurationHelper.readElementIfUpToDate(directory, LCConstant.CONFIGURATION_XML_NAME).getAttributeValue("id"));
+        assertEquals("KeyList", BinaryConfigurationHelper.readElementIfUpToDate(keyListDirectory, LCConstant.KEYLIST_XML_NAME).getName());
+
+        // XML modified after conversion : binary should be ignored
+        XMLHelper.writeXml(xmlFile, configuration.setAttribute("id", "second-value"));
+        assertNull(BinaryConfigurationHelper.readElementIfUpToDate(directory, LCConstant.CONFIGURATION_XML_NAME));
+    }
+
+    @Test
+    public void testWriteFileReplacesPrevious() throws Exception {
+        File file = new File(Files.createTempDirectory("binary-xml-test").toFile(), "test.lcb");
+        Map<String, BinaryXMLHelper.Section> sections = new LinkedHashMap<>();
+        sections.put("a", new BinaryXMLHelper.Section(new Element("A")));
+        BinaryXMLHelper.writeFile(file, sections);
+        sections.put("b", new BinaryXMLHelper.Section(new Element("B")));
+        BinaryXMLHelper.writeFile(file, sections);
+        BinaryXMLFile binaryFile = BinaryXMLFile.open(file);
+        assertEquals("A", binaryFile.readSection("a").getName());
+        assertEquals("B", binaryFile.readSection("b").getName());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.lifecompanion.controller.io;
+
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.controller.io.ConfigurationSectionTracker.Section;
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+import org.lifecompanion.model.impl.configurationcomponent.dynamickey.KeyListNode;
+import org.lifecompanion.model.impl.constant.LCConstant;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationSectionTrackerTest {
+
+    @Test
+    public void testSectionChangedWhenRootIsReplaced() throws Exception {
+        File directory = createConfigurationDirectory();
+        LCConfigurationI configuration = new LCConfigurationComponent();
+        ConfigurationSectionTracker.markLoaded(configuration, directory);
+        assertTrue(isUnchanged(configuration, directory, Section.KEY_LIST));
+        assertTrue(isUnchanged(configuration, directory, Section.SEQUENCES));
+
+        configuration.rootKeyListNodeProperty().set(new KeyListNode());
+        assertFalse(isUnchanged(configuration, directory, Section.KEY_LIST));
+        assertTrue(isUnchanged(configuration, directory, Section.SEQUENCES));
+
+        ConfigurationSectionTracker.markSaved(configuration, directory, ConfigurationSectionTracker.getSectionRoots(configuration));
+        assertTrue(isUnchanged(configuration, directory, Section.KEY_LIST));
+    }
+
+    @Test
+    public void testSectionChangedInAnotherDirectoryOrWithoutFile() throws Exception {
+        File directory = createConfigurationDirectory();
+        LCConfigurationI configuration = new LCConfigurationComponent();
+        assertFalse(isUnchanged(configuration, directory, Section.KEY_LIST));
+        ConfigurationSectionTracker.markLoaded(configuration, directory);
+        assertFalse(isUnchanged(configuration, createConfigurationDirectory(), Section.KEY_LIST));
+        Files.delete(new File(directory, LCConstant.CONFIGURATION_KEYLIST_DIRECTORY + File.separator + LCConstant.KEYLIST_XML_NAME).toPath());
+        assertFalse(isUnchanged(configuration, directory, Section.KEY_LIST));
+    }
+
+    private static boolean isUnchanged(LCConfigurationI configuration, File directory, Section section) {
+        Map<Section, Object> sectionRoots = ConfigurationSectionTracker.getSectionRoots(configuration);
+        return ConfigurationSectionTracker.isUnchanged(configuration, directory, sectionRoots, section);
+    }
+
+    private static File createConfigurationDirectory() throws Exception {
+        File directory = Files.createTempDirectory("section-tracker-test").toFile();
+        new File(directory, LCConstant.CONFIGURATION_KEYLIST_DIRECTORY).mkdirs();
+        Files.write(new File(directory, LCConstant.CONFIGURATION_KEYLIST_DIRECTORY + File.separator + LCConstant.KEYLIST_XML_NAME).toPath(), new byte[]{1});
+        new File(directory, LCConstant.CONFIGURATION_SEQUENCE_DIRECTORY).mkdirs();
+        Files.write(new File(directory, LCConstant.CONFIGURATION_SEQUENCE_DIRECTORY + File.separator + LCConstant.SEQUENCE_XML_NAME).toPath(), new byte[]{1});
+        return directory;
+    }
+}
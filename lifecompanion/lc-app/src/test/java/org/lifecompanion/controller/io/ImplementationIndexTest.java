@@ -0,0 +1,57 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.lifecompanion.controller.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImplementationIndexTest {
+
+    private static ImplementationIndex read(String content) throws Exception {
+        return ImplementationIndex.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        ImplementationIndex index = read("# Generated on build for packages com.example.plugin, do not edit\n" +
+                "org.lifecompanion.model.api.io.XMLSerializable=com.example.plugin.ActionA,com.example.plugin.sub.ActionB\n" +
+                "org.lifecompanion.model.api.lifecycle.ModeListenerI=\n");
+        assertEquals(2, index.getIndexedTypeCount());
+        assertEquals(Arrays.asList("com.example.plugin.ActionA", "com.example.plugin.sub.ActionB"), index.getImplementationNames("org.lifecompanion.model.api.io.XMLSerializable"));
+        assertTrue(index.getImplementationNames("org.lifecompanion.model.api.lifecycle.ModeListenerI").isEmpty());
+        assertTrue(index.getImplementationNames("java.lang.Runnable").isEmpty());
+    }
+
+    @Test
+    public void testContainsImplementationsIn() throws Exception {
+        ImplementationIndex index = read("org.lifecompanion.model.api.io.XMLSerializable=com.example.plugin.sub.ActionB\n");
+        assertTrue(index.containsImplementationsIn("com.example.plugin"));
+        assertTrue(index.containsImplementationsIn("org.other", " com.example.plugin.sub"));
+        assertFalse(index.containsImplementationsIn("com.example.plug"));
+        assertFalse(index.containsImplementationsIn("org.lifecompanion"));
+        assertFalse(read("").containsImplementationsIn("com.example.plugin"));
+    }
+}
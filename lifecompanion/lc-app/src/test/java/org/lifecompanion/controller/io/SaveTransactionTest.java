@@ -0,0 +1,204 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.model.impl.constant.LCConstant;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SaveTransactionTest {
+
+    @AfterEach
+    public void clearFaultInjector() {
+        SaveTransaction.faultInjector = null;
+    }
+
+    @Test
+    public void testCommit() throws Exception {
+        File directory = createOldState();
+        File source = Files.createTempFile("save-transaction", ".png").toFile();
+        Files.write(source.toPath(), new byte[]{4, 5, 6});
+        Map<String, String> expected = applyNewState(directory, source, "new");
+        assertEquals(expected, snapshot(directory));
+        assertFalse(SaveTransaction.recoverIfNeeded(directory));
+    }
+
+    @Test
+    public void testRollbackKeepsPreviousState() throws Exception {
+        File directory = createOldState();
+        Map<String, String> oldState = snapshot(directory);
+        SaveTransaction transaction = SaveTransaction.begin(directory);
+        transaction.writeXmlIfChanged(new File(directory, LCConstant.CONFIGURATION_XML_NAME), new Element("Configuration").setAttribute("id", "new"));
+        transaction.delete(new File(directory, "images/b.png"));
+        transaction.rollback();
+        assertEquals(oldState, snapshot(directory));
+    }
+
+    @Test
+    public void testRandomCrashesKeepConsistentState() throws Exception {
+        File source = Files.createTempFile("save-transaction", ".png").toFile();
+        Files.write(source.toPath(), new byte[]{4, 5, 6});
+
+        // Count every step of a full save
+        List<String> points = new ArrayList<>();
+        SaveTransaction.faultInjector = points::add;
+        File reference = createOldState();
+        Map<String, String> newState = applyNewState(reference, source, "new");
+        SaveTransaction.faultInjector = null;
+        int commitIndex = points.indexOf("commit");
+        assertTrue(commitIndex > 0);
+
+        Random random = new Random(4578124);
+        for (int i = 0; i < 60; i++) {
+            File directory = createOldState();
+            Map<String, String> oldState = snapshot(directory);
+            int crashIndex = random.nextInt(points.size());
+            SaveTransaction.faultInjector = crashAt(crashIndex);
+            assertThrows(SimulatedCrash.class, () -> applyNewState(directory, source, "new"));
+            SaveTransaction.clearRunningTransactions();
+
+            // Recovery can also be interrupted
+            if (random.nextBoolean()) {
+                SaveTransaction.faultInjector = crashAt(random.nextInt(3));
+                try {
+                    SaveTransaction.recoverIfNeeded(directory);
+                } catch (SimulatedCrash e) {
+                    // Expected : will be recovered again on next load
+                }
+            }
+            SaveTransaction.faultInjector = null;
+            SaveTransaction.recoverIfNeeded(directory);
+
+            Map<String, String> recoveredState = snapshot(directory);
+            assertEquals(crashIndex >= commitIndex ? newState : oldState, recoveredState, "Crash at " + points.get(crashIndex) + " (" + crashIndex + ")");
+            assertNotNull(XMLHelper.readXml(new File(directory, LCConstant.CONFIGURATION_XML_NAME)));
+        }
+    }
+
+    @Test
+    public void testRecoveryIsSkippedWhileTransactionIsRunning() throws Exception {
+        File directory = createOldState();
+        SaveTransaction transaction = SaveTransaction.begin(directory);
+        transaction.writeXmlIfChanged(new File(directory, LCConstant.CONFIGURATION_XML_NAME), new Element("Configuration").setAttribute("id", "new"));
+        assertFalse(SaveTransaction.recoverIfNeeded(directory));
+        transaction.commit();
+        assertEquals("new", XMLHelper.readXml(new File(directory, LCConstant.CONFIGURATION_XML_NAME)).getAttributeValue("id"));
+        assertFalse(new File(directory, SaveTransaction.STAGING_DIRECTORY).exists());
+    }
+
+    @Test
+    public void testBeginWaitsForRunningTransaction() throws Exception {
+        File directory = createOldState();
+        SaveTransaction first = SaveTransaction.begin(directory);
+        first.writeXmlIfChanged(new File(directory, LCConstant.CONFIGURATION_XML_NAME), new Element("Configuration").setAttribute("id", "first"));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            try {
+                SaveTransaction transaction = SaveTransaction.begin(directory);
+                transaction.writeXmlIfChanged(new File(directory, "keylist/" + LCConstant.KEYLIST_XML_NAME), new Element("KeyList").setAttribute("id", "second"));
+                transaction.commit();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(second.isDone());
+        first.commit();
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals("first", XMLHelper.readXml(new File(directory, LCConstant.CONFIGURATION_XML_NAME)).getAttributeValue("id"));
+        assertEquals("second", XMLHelper.readXml(new File(directory, "keylist/" + LCConstant.KEYLIST_XML_NAME)).getAttributeValue("id"));
+    }
+
+    @Test
+    public void testRecoveryIsFastWhenNothingToRecover() throws Exception {
+        File directory = createOldState();
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(SaveTransaction.recoverIfNeeded(directory));
+        }
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    }
+
+    // UTILS
+    //========================================================================
+    private static File createOldState() throws IOException {
+        File directory = Files.createTempDirectory("save-transaction-test").toFile();
+        XMLHelper.writeXml(new File(directory, LCConstant.CONFIGURATION_XML_NAME), new Element("Configuration").setAttribute("id", "old"));
+        new File(directory, "keylist").mkdirs();
+        XMLHelper.writeXml(new File(directory, "keylist/" + LCConstant.KEYLIST_XML_NAME), new Element("KeyList"));
+        new File(directory, "images").mkdirs();
+        Files.write(new File(directory, "images/a.png").toPath(), new byte[]{1, 2, 3});
+        Files.write(new File(directory, "images/b.png").toPath(), new byte[]{1, 2});
+        new File(directory, "resources").mkdirs();
+        Files.write(new File(directory, "resources/r1").toPath(), new byte[]{9});
+        return directory;
+    }
+
+    private static Map<String, String> applyNewState(File directory, File source, String id) throws IOException {
+        SaveTransaction transaction = SaveTransaction.begin(directory);
+        transaction.writeXmlIfChanged(new File(directory, LCConstant.CONFIGURATION_XML_NAME), new Element("Configuration").setAttribute("id", id));
+        assertFalse(transaction.writeXmlIfChanged(new File(directory, "keylist/" + LCConstant.KEYLIST_XML_NAME), new Element("KeyList")));
+        transaction.copyFile(source, new File(directory, "images/c.png"));
+        transaction.delete(new File(directory, "images/b.png"));
+        transaction.copyFile(source, new File(directory, "resources/r1"));
+        transaction.writeXmlIfChanged(new File(directory, "sequences/" + LCConstant.SEQUENCE_XML_NAME), new Element("Sequences"));
+        transaction.commit();
+        return snapshot(directory);
+    }
+
+    private static Map<String, String> snapshot(File directory) throws IOException {
+        Map<String, String> content = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(path)) {
+                    content.put(directory.toPath().relativize(path).toString(), Base64.getEncoder().encodeToString(Files.readAllBytes(path)));
+                }
+            }
+        }
+        return content;
+    }
+
+    private static SaveTransaction.FaultInjector crashAt(int index) {
+        int[] count = {0};
+        return point -> {
+            if (count[0]++ == index) {
+                throw new SimulatedCrash(point);
+            }
+        };
+    }
+
+    private static class SimulatedCrash extends RuntimeException {
+        SimulatedCrash(String point) {
+            super("Simulated crash at " + point);
+        }
+    }
+    //========================================================================
+}
@@ -0,0 +1,75 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.io;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XMLHelperTest {
+
+    @Test
+    public void testWriteAndReadKeepAttributes() throws Exception {
+        Element root = new Element("Cmp").setAttribute("ntyp", "LCConfigurationComponent");
+        Element key = new Element("Cmp")
+                .setAttribute("textContent", "first line\nsecond line\twith tab \"quoted\" <&> éà 😀")
+                .setAttribute("empty", "");
+        root.addContent(new Element("Components").addContent(key));
+        root.addContent(new Element("Text").setText("text <&> é"));
+
+        File file = File.createTempFile("xml-helper-test", ".xml");
+        file.deleteOnExit();
+        XMLHelper.writeXml(file, root);
+        Element read = XMLHelper.readXml(file);
+
+        assertEquals(XMLHelper.toXmlString(root), XMLHelper.toXmlString(read));
+        Element readKey = read.getChild("Components").getChild("Cmp");
+        assertEquals(key.getAttributeValue("textContent"), readKey.getAttributeValue("textContent"));
+        assertEquals("", readKey.getAttributeValue("empty"));
+        assertEquals("text <&> é", read.getChildText("Text"));
+    }
+
+    @Test
+    public void testReadInvalidXml() throws Exception {
+        File file = File.createTempFile("xml-helper-test", ".xml");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "<Cmp><Components></Cmp>");
+        assertThrows(Exception.class, () -> XMLHelper.readXml(file));
+    }
+
+    @Test
+    public void testWriteXmlIfChanged() throws Exception {
+        File file = File.createTempFile("xml-helper-test", ".xml");
+        file.deleteOnExit();
+        Element root = new Element("Cmp").setAttribute("id", "a");
+        assertTrue(XMLHelper.writeXmlIfChanged(file, root));
+        assertFalse(XMLHelper.writeXmlIfChanged(file, root.clone()));
+        assertEquals(XMLHelper.toXmlString(root), XMLHelper.toXmlString(XMLHelper.readXml(file)));
+
+        // Same length, different content
+        root.setAttribute("id", "b");
+        assertTrue(XMLHelper.writeXmlIfChanged(file, root));
+        assertEquals("b", XMLHelper.readXml(file).getAttributeValue("id"));
+    }
+}
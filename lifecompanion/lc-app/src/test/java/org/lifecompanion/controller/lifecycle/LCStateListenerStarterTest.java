@@ -0,0 +1,137 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.lifecycle;
+
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.model.api.lifecycle.LCStateListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LCStateListenerStarterTest {
+
+    @Test
+    public void testDependenciesAreStartedBefore() {
+        Map<TestListener, Long> endTimes = new ConcurrentHashMap<>();
+        TestListener a = new TestListener("a", 40, endTimes);
+        TestListener b = new TestListener("b", 10, endTimes);
+        TestListener c = new TestListener("c", 20, endTimes, a, b);
+        TestListener d = new TestListener("d", 10, endTimes, c);
+        TestListener e = new TestListener("e", 30, endTimes, b);
+        new LCStateListenerStarter(Arrays.asList(a, b, c, d, e), 4).start();
+        for (TestListener listener : Arrays.asList(a, b, c, d, e)) {
+            assertTrue(listener.started);
+            for (LCStateListener dependency : listener.getStartDependencies()) {
+                assertTrue(endTimes.get((TestListener) dependency) <= listener.startTime, listener.name + " started before " + ((TestListener) dependency).name);
+            }
+        }
+    }
+
+    @Test
+    public void testIndependentListenersAreStartedConcurrently() {
+        List<LCStateListener> listeners = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            listeners.add(new TestListener("l" + i, 100, new ConcurrentHashMap<>()));
+        }
+        LCStateListenerStarter starter = new LCStateListenerStarter(listeners, 4);
+        starter.start();
+        assertTrue(starter.getSequentialDuration() >= 400_000_000L);
+        assertTrue(starter.getDuration() < 300_000_000L);
+    }
+
+    @Test
+    public void testCriticalPath() {
+        Map<TestListener, Long> endTimes = new ConcurrentHashMap<>();
+        TestListener a = new TestListener("a", 10, endTimes);
+        TestListener b = new TestListener("b", 120, endTimes);
+        TestListener c = new TestListener("c", 10, endTimes, a, b);
+        TestListener d = new TestListener("d", 40, endTimes, a);
+        TestListener e = new TestListener("e", 60, endTimes, c);
+        LCStateListenerStarter starter = new LCStateListenerStarter(Arrays.asList(a, b, c, d, e), 4);
+        starter.start();
+        assertEquals(Arrays.asList(b, c, e), starter.getCriticalPath());
+    }
+
+    @Test
+    public void testDependencyShouldBeDeclaredBefore() {
+        Map<TestListener, Long> endTimes = new ConcurrentHashMap<>();
+        TestListener a = new TestListener("a", 0, endTimes);
+        TestListener b = new TestListener("b", 0, endTimes, a);
+        assertThrows(IllegalArgumentException.class, () -> new LCStateListenerStarter(Arrays.asList(b, a), 2));
+        assertThrows(IllegalArgumentException.class, () -> new LCStateListenerStarter(List.of(b), 2));
+    }
+
+    @Test
+    public void testFailedListenerDoesntStopStart() {
+        Map<TestListener, Long> endTimes = new ConcurrentHashMap<>();
+        TestListener a = new TestListener("a", 0, endTimes) {
+            @Override
+            public void lcStart() {
+                super.lcStart();
+                throw new IllegalStateException("Simulated failure");
+            }
+        };
+        TestListener b = new TestListener("b", 0, endTimes, a);
+        new LCStateListenerStarter(Arrays.asList(a, b), 2).start();
+        assertTrue(b.started);
+    }
+
+    private static class TestListener implements LCStateListener {
+        private final String name;
+        private final long duration;
+        private final Map<TestListener, Long> endTimes;
+        private final List<LCStateListener> dependencies;
+        private volatile boolean started;
+        private volatile long startTime;
+
+        private TestListener(String name, long duration, Map<TestListener, Long> endTimes, LCStateListener... dependencies) {
+            this.name = name;
+            this.duration = duration;
+            this.endTimes = endTimes;
+            this.dependencies = Arrays.asList(dependencies);
+        }
+
+        @Override
+        public void lcStart() {
+            startTime = System.nanoTime();
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            started = true;
+            endTimes.put(this, System.nanoTime());
+        }
+
+        @Override
+        public void lcExit() {
+        }
+
+        @Override
+        public List<LCStateListener> getStartDependencies() {
+            return dependencies;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.lifecycle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.api.lifecycle.ModeStartPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModeListenerStarterTest {
+    private ExecutorService executor;
+    private List<String> startOrder;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        startOrder = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testStartPolicies() {
+        TestListener s1 = new TestListener("s1", ModeStartPolicy.SEQUENTIAL, 30);
+        TestListener c1 = new TestListener("c1", ModeStartPolicy.CONCURRENT, 60);
+        TestListener d1 = new TestListener("d1", ModeStartPolicy.DEFERRED, 20);
+        TestListener s2 = new TestListener("s2", ModeStartPolicy.SEQUENTIAL, 30);
+        TestListener c2 = new TestListener("c2", ModeStartPolicy.CONCURRENT, 60);
+        TestListener d2 = new TestListener("d2", ModeStartPolicy.DEFERRED, 20);
+        ModeListenerStarter starter = new ModeListenerStarter(Arrays.asList(s1, c1, d1, s2, c2, d2), executor, false);
+
+        starter.startBeforeFirstFrame(null);
+        assertTrue(s1.started && s2.started && c1.started && c2.started);
+        assertFalse(d1.started || d2.started);
+        assertEquals(Thread.currentThread().getName(), s1.threadName);
+        assertEquals(Thread.currentThread().getName(), s2.threadName);
+        assertNotEquals(Thread.currentThread().getName(), c1.threadName);
+        assertTrue(startOrder.indexOf("s1") < startOrder.indexOf("s2"));
+        // Concurrent listeners are started at the same time than sequential ones
+        assertTrue(starter.getReadyDuration() < 120_000_000L, "Ready after " + starter.getReadyDuration());
+
+        starter.startDeferred(null);
+        starter.awaitDeferredStart();
+        assertTrue(d1.started && d2.started);
+        assertTrue(startOrder.indexOf("d1") < startOrder.indexOf("d2"));
+        assertNotEquals(Thread.currentThread().getName(), d1.threadName);
+        assertEquals(6, starter.getTimeline().size());
+        assertTrue(starter.getDuration() >= starter.getReadyDuration());
+    }
+
+    @Test
+    public void testSequentialIgnoresPolicies() {
+        TestListener s1 = new TestListener("s1", ModeStartPolicy.SEQUENTIAL, 0);
+        TestListener c1 = new TestListener("c1", ModeStartPolicy.CONCURRENT, 0);
+        TestListener d1 = new TestListener("d1", ModeStartPolicy.DEFERRED, 0);
+        ModeListenerStarter starter = new ModeListenerStarter(Arrays.asList(d1, c1, s1), executor, true);
+        starter.startBeforeFirstFrame(null);
+        assertEquals(Arrays.asList("d1", "c1", "s1"), startOrder);
+        assertEquals(Thread.currentThread().getName(), d1.threadName);
+        assertTrue(starter.getTimeline().stream().allMatch(e -> e.getPolicy() == ModeStartPolicy.SEQUENTIAL));
+    }
+
+    @Test
+    public void testConcurrentFailureIsThrown() {
+        TestListener s1 = new TestListener("s1", ModeStartPolicy.SEQUENTIAL, 20);
+        TestListener c1 = new TestListener("c1", ModeStartPolicy.CONCURRENT, 0) {
+            @Override
+            public void modeStart(LCConfigurationI configuration) {
+                super.modeStart(configuration);
+                throw new IllegalStateException("Simulated failure");
+            }
+        };
+        ModeListenerStarter starter = new ModeListenerStarter(Arrays.asList(s1, c1), executor, false);
+        assertThrows(IllegalStateException.class, () -> starter.startBeforeFirstFrame(null));
+        assertTrue(s1.started);
+    }
+
+    @Test
+    public void testDeferredFailureDoesntStopNextListeners() {
+        TestListener d1 = new TestListener("d1", ModeStartPolicy.DEFERRED, 0) {
+            @Override
+            public void modeStart(LCConfigurationI configuration) {
+                super.modeStart(configuration);
+                throw new IllegalStateException("Simulated failure");
+            }
+        };
+        TestListener d2 = new TestListener("d2", ModeStartPolicy.DEFERRED, 0);
+        ModeListenerStarter starter = new ModeListenerStarter(Arrays.asList(d1, d2), executor, false);
+        starter.startBeforeFirstFrame(null);
+        starter.startDeferred(null);
+        starter.awaitDeferredStart();
+        assertTrue(d2.started);
+        assertEquals(Arrays.asList("d1", "d2"), startOrder);
+        assertEquals(2, starter.getTimeline().size());
+    }
+
+    @Test
+    public void testStopDoesntWaitForDeferredStart() {
+        TestListener s1 = new TestListener("s1", ModeStartPolicy.SEQUENTIAL, 0);
+        TestListener d1 = new TestListener("d1", ModeStartPolicy.DEFERRED, 200);
+        TestListener d2 = new TestListener("d2", ModeStartPolicy.DEFERRED, 0);
+        ModeListenerStarter starter = new ModeListenerStarter(Arrays.asList(s1, d1, d2), executor, false);
+        starter.startBeforeFirstFrame(null);
+        starter.startDeferred(null);
+        while (!startOrder.contains("d1")) {
+            Thread.onSpinWait();
+        }
+        CompletableFuture<Void> stopped = starter.stop(null);
+        // Sequential listener is stopped right away, deferred listener once its start ends
+        assertTrue(s1.stopped);
+        assertFalse(d1.stopped);
+        stopped.join();
+        assertTrue(d1.started && d1.stopped);
+        // Not started before stop : never started nor stopped
+        assertFalse(d2.started || d2.stopped);
+    }
+
+    @Test
+    public void testDeferredStartWaitsForPreviousStop() {
+        CompletableFuture<Void> previousStop = new CompletableFuture<>();
+        TestListener d1 = new TestListener("d1", ModeStartPolicy.DEFERRED, 0);
+        ModeListenerStarter starter = new ModeListenerStarter(Collections.singletonList(d1), executor, false);
+        starter.startBeforeFirstFrame(null);
+        starter.startDeferred(null, previousStop);
+        assertFalse(d1.started);
+        previousStop.complete(null);
+        starter.awaitDeferredStart();
+        assertTrue(d1.started);
+    }
+
+    private class TestListener implements ModeListenerI {
+        private final String name;
+        private final ModeStartPolicy policy;
+        private final long duration;
+        private volatile boolean started, stopped;
+        private volatile String threadName;
+
+        private TestListener(String name, ModeStartPolicy policy, long duration) {
+            this.name = name;
+            this.policy = policy;
+            this.duration = duration;
+        }
+
+        @Override
+        public void modeStart(LCConfigurationI configuration) {
+            startOrder.add(name);
+            threadName = Thread.currentThread().getName();
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            started = true;
+        }
+
+        @Override
+        public void modeStop(LCConfigurationI configuration) {
+            stopped = true;
+        }
+
+        @Override
+        public ModeStartPolicy getModeStartPolicy() {
+            return policy;
+        }
+    }
+}
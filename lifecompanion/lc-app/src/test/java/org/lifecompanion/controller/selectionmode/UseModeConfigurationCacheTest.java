@@ -0,0 +1,111 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.selectionmode;
+
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UseModeConfigurationCacheTest {
+
+    @Test
+    public void testCachedConfigurationIsCopied() throws Exception {
+        UseModeConfigurationCache cache = new UseModeConfigurationCache(2, 0.1, () -> 1.0);
+        LCConfigurationI loaded = new LCConfigurationComponent();
+        LCConfigurationI first = cache.getOrLoad("a", 1, () -> loaded);
+        LCConfigurationI second = cache.getOrLoad("a", 1, () -> loaded);
+        LCConfigurationI third = cache.getOrLoad("a", 1, () -> loaded);
+        // First is used directly, then copies are used
+        assertSame(loaded, first);
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertNotSame(loaded, third);
+        assertEquals(loaded.getID(), second.getID());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testChangedVersionIsLoadedAgain() throws Exception {
+        UseModeConfigurationCache cache = new UseModeConfigurationCache(2, 0.1, () -> 1.0);
+        cache.getOrLoad("a", 1, LCConfigurationComponent::new);
+        cache.getOrLoad("a", 2, LCConfigurationComponent::new);
+        cache.getOrLoad("a", 2, LCConfigurationComponent::new);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedRemoved() throws Exception {
+        UseModeConfigurationCache cache = new UseModeConfigurationCache(2, 0.1, () -> 1.0);
+        cache.getOrLoad("a", 1, LCConfigurationComponent::new);
+        cache.getOrLoad("b", 1, LCConfigurationComponent::new);
+        cache.getOrLoad("a", 1, LCConfigurationComponent::new);
+        cache.getOrLoad("c", 1, LCConfigurationComponent::new);
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2, cache.size());
+        // "b" was removed, "a" is still cached
+        cache.getOrLoad("a", 1, LCConfigurationComponent::new);
+        assertEquals(3, cache.getMissCount());
+        cache.getOrLoad("b", 1, LCConfigurationComponent::new);
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testNotCachedWhenHeapIsLow() throws Exception {
+        double[] freeHeap = {1.0};
+        UseModeConfigurationCache cache = new UseModeConfigurationCache(2, 0.3, () -> freeHeap[0]);
+        cache.getOrLoad("a", 1, LCConfigurationComponent::new);
+        assertEquals(1, cache.size());
+        freeHeap[0] = 0.2;
+        cache.getOrLoad("b", 1, LCConfigurationComponent::new);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPrefetchedConfigurationIsUsed() throws Exception {
+        UseModeConfigurationCache cache = new UseModeConfigurationCache(2, 0.1, () -> 1.0);
+        AtomicInteger loadCount = new AtomicInteger();
+        cache.prefetch("a", 1, () -> {
+            Thread.sleep(100);
+            loadCount.incrementAndGet();
+            return new LCConfigurationComponent();
+        });
+        cache.getOrLoad("a", 1, () -> fail("Configuration should be prefetched"));
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testFailedBackgroundLoadingFallbackToLoader() throws Exception {
+        UseModeConfigurationCache cache = new UseModeConfigurationCache(2, 0.1, () -> 1.0);
+        cache.prefetch("a", 1, () -> {
+            throw new IllegalStateException("Loading failed");
+        });
+        LCConfigurationI loaded = new LCConfigurationComponent();
+        assertSame(loaded, cache.getOrLoad("a", 1, () -> loaded));
+        assertEquals(1, cache.getMissCount());
+    }
+
+}
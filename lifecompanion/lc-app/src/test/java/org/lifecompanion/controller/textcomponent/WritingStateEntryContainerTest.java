@@ -0,0 +1,148 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textcomponent;
+
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
+import org.lifecompanion.model.api.textcomponent.WritingEventSource;
+import org.lifecompanion.model.impl.configurationcomponent.WriterEntry;
+import org.predict4all.nlp.Separator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WritingStateEntryContainerTest {
+    private static final String[] TEXTS = {"a", "b", "bonjour", " ", ".", "\n", "toi", "!", "l'", ", ", "é"};
+
+    @Test
+    public void testRandomEditsMatchEntries() {
+        WritingStateEntryContainer container = new WritingStateEntryContainer();
+        Random random = new Random(7845125);
+        for (int i = 0; i < 3000; i++) {
+            int operation = random.nextInt(10);
+            String text = TEXTS[random.nextInt(TEXTS.length)];
+            if (operation <= 2) {
+                container.insertText(WritingEventSource.USER_ACTIONS, text);
+            } else if (operation == 3) {
+                container.insert(WritingEventSource.USER_ACTIONS, new WriterEntry(text, random.nextBoolean()), null);
+            } else if (operation == 4) {
+                container.removeLastChar(WritingEventSource.USER_ACTIONS);
+            } else if (operation == 5) {
+                container.removeNextChar(WritingEventSource.USER_ACTIONS);
+            } else if (operation == 6) {
+                if (random.nextBoolean()) container.moveCaretBackward(WritingEventSource.USER_ACTIONS);
+                else container.moveCaretForward(WritingEventSource.USER_ACTIONS);
+            } else if (operation == 7 && !container.getWriterEntries().isEmpty()) {
+                // Entry modified outside of the container
+                WriterEntryI entry = container.getWriterEntries().get(random.nextInt(container.getWriterEntries().size()));
+                entry.entryTextProperty().set(entry.entryTextProperty().get() + text);
+                container.moveCaretToEnd(WritingEventSource.USER_ACTIONS);
+            } else if (operation == 8) {
+                container.removeLastWord(WritingEventSource.USER_ACTIONS);
+            } else if (random.nextInt(20) == 0) {
+                container.setWriterEntries(Arrays.asList(new WriterEntry("nouveau texte. ", false), new WriterEntry("ok", false)));
+            }
+            assertStateEquals(container);
+        }
+    }
+
+    @Test
+    public void testLazyTextProperties() {
+        WritingStateEntryContainer container = new WritingStateEntryContainer();
+        int[] invalidationCount = {0};
+        container.currentTextProperty().addListener(inv -> invalidationCount[0]++);
+        container.insertText(WritingEventSource.USER_ACTIONS, "a");
+        container.insertText(WritingEventSource.USER_ACTIONS, "b");
+        // Text was not read between changes : only invalidated once
+        assertEquals(1, invalidationCount[0]);
+        assertEquals("ab", container.currentTextProperty().get());
+        container.insertText(WritingEventSource.USER_ACTIONS, "c");
+        assertEquals(2, invalidationCount[0]);
+        assertEquals("abc", container.textBeforeCaretProperty().get());
+        assertEquals("", container.textAfterCaretProperty().get());
+    }
+
+    // REFERENCE (text based implementation)
+    //========================================================================
+    private static void assertStateEquals(WritingStateEntryContainer container) {
+        StringBuilder expectedText = new StringBuilder();
+        container.getWriterEntries().forEach(e -> expectedText.append(e.entryTextProperty().get()));
+        String text = expectedText.toString();
+        int caret = container.caretPosition().get();
+        assertEquals(text, container.currentTextProperty().get());
+        assertEquals(text.substring(0, Math.min(caret, text.length())), container.textBeforeCaretProperty().get());
+        assertEquals(caret >= text.length() ? "" : text.substring(caret), container.textAfterCaretProperty().get());
+        String before = container.textBeforeCaretProperty().get();
+        assertEquals(lastToken(before, false), container.getLastWord(), before);
+        assertEquals(lastToken(before, true), container.getLastSentence(), before);
+        int currentWordStart = before.length();
+        while (currentWordStart > 0 && !isSeparator(before.charAt(currentWordStart - 1), false)) {
+            currentWordStart--;
+        }
+        assertEquals(currentWordStart == 0 ? "" : lastToken(before.substring(0, currentWordStart), false), container.getLastCompleteWord(), before);
+
+        int position = 0;
+        for (int e = 0; e < container.getWriterEntries().size(); e++) {
+            WriterEntryI entry = container.getWriterEntries().get(e);
+            assertEquals(position, container.getTextLengthBefore(entry));
+            int length = entry.entryTextProperty().get().length();
+            for (int p = position; p <= position + length; p++) {
+                if (p > position && p < position + length) {
+                    assertSame(entry, container.getEntryAtCaretPosition(p));
+                }
+            }
+            position += length;
+        }
+        for (int p = 0; p <= text.length(); p++) {
+            assertEquals(expectedEntryIndex(container, p), container.getCaretEntryIndex(p));
+        }
+    }
+
+    private static int expectedEntryIndex(WritingStateEntryContainer container, int caretPosition) {
+        int end = 0;
+        for (int i = 0; i < container.getWriterEntries().size(); i++) {
+            end += container.getWriterEntries().get(i).entryTextProperty().get().length();
+            if (end > caretPosition) {
+                return i;
+            }
+        }
+        return container.getWriterEntries().size();
+    }
+
+    private static String lastToken(String text, boolean sentence) {
+        int end = text.length();
+        while (end > 0 && isSeparator(text.charAt(end - 1), sentence)) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !isSeparator(text.charAt(start - 1), sentence)) {
+            start--;
+        }
+        return text.substring(start, end);
+    }
+
+    private static boolean isSeparator(char c, boolean sentence) {
+        Separator separator = Separator.getSeparatorFor(c);
+        return separator != null && (!sentence || separator.isSentenceSeparator());
+    }
+    //========================================================================
+}
@@ -0,0 +1,105 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textprediction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptivePredictionDelayTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void testDefaultDelay() {
+        AdaptivePredictionDelay delay = new AdaptivePredictionDelay();
+        assertEquals(AdaptivePredictionDelay.DEFAULT_DELAY_MS, delay.getDelay());
+        assertTrue(delay.isWaitingElementNeeded());
+        assertFalse(delay.isIdleTimeExpected(1));
+    }
+
+    @Test
+    public void testSlowInputIsNotDelayed() {
+        // Scanning user : one char each 1.5 s, prediction takes 40 ms
+        AdaptivePredictionDelay delay = simulate(1500, 40, 20);
+        assertEquals(0, delay.getDelay());
+        assertFalse(delay.isWaitingElementNeeded());
+        assertTrue(delay.isIdleTimeExpected(3));
+    }
+
+    @Test
+    public void testFastInputIsDelayed() {
+        // Fast typist : one char each 120 ms, prediction takes 80 ms
+        AdaptivePredictionDelay delay = simulate(120, 80, 20);
+        assertEquals(144, delay.getDelay(), 2);
+        assertTrue(delay.isWaitingElementNeeded());
+        assertFalse(delay.isIdleTimeExpected(3));
+
+        // Slow predictor : delay is limited
+        delay = simulate(300, 400, 20);
+        assertEquals(AdaptivePredictionDelay.MAX_DELAY_MS, delay.getDelay());
+    }
+
+    @Test
+    public void testDelayAdaptsToInputRate() {
+        AdaptivePredictionDelay delay = simulate(120, 80, 20);
+        assertTrue(delay.getDelay() > 0);
+        long time = 20 * 120 * MS;
+        for (int i = 0; i < 10; i++) {
+            time += 1000 * MS;
+            delay.inputReceived(time);
+        }
+        assertEquals(0, delay.getDelay());
+        delay.reset();
+        assertEquals(AdaptivePredictionDelay.DEFAULT_DELAY_MS, delay.getDelay());
+    }
+
+    @Test
+    public void testMetricsAndCache() {
+        PredictionMetrics metrics = new PredictionMetrics();
+        assertEquals(0.0, metrics.getLatencyPercentile(50));
+        for (int i = 1; i <= 100; i++) {
+            metrics.predictionDispatched(i * MS, i % 4 == 0);
+        }
+        assertEquals(50.0, metrics.getLatencyPercentile(50));
+        assertEquals(99.0, metrics.getLatencyPercentile(99));
+        assertEquals(100.0, metrics.getLatencyPercentile(100));
+        assertEquals(0.25, metrics.getCacheHitRate(), 0.0001);
+
+        PredictionCache<String> cache = new PredictionCache<>(2);
+        cache.put("a", null, Collections.singletonList("a"));
+        cache.put("b", "", Collections.singletonList("b"));
+        assertNotNull(cache.get("a", ""));
+        cache.put("c", "", Collections.singletonList("c"));
+        assertTrue(cache.contains("a", ""));
+        assertFalse(cache.contains("b", ""));
+        assertEquals(2, cache.size());
+    }
+
+    private static AdaptivePredictionDelay simulate(long inputIntervalMs, long predictionCostMs, int inputCount) {
+        AdaptivePredictionDelay delay = new AdaptivePredictionDelay();
+        for (int i = 0; i < inputCount; i++) {
+            delay.inputReceived(i * inputIntervalMs * MS);
+            delay.predictionDone(predictionCostMs * MS);
+        }
+        return delay;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.controller.textprediction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicModelTrainerTest {
+    private static final String[] WORDS = {"je", "veux", "manger", "boire", "une", "pomme", "de", "l'eau", "merci", "bonjour", "maman", "papa", "dormir"};
+
+    private DynamicModelTrainer trainer;
+
+    @BeforeEach
+    public void beforeEach() {
+        trainer = new DynamicModelTrainer("test", 5, 60, 0);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        trainer.shutdown();
+    }
+
+    @Test
+    public void testIncrementalTrainingMatchesBatchTraining() throws Exception {
+        BigramModel incrementalModel = new BigramModel();
+        trainer.setTarget(incrementalModel);
+        Random random = new Random(45781);
+        StringBuilder totalText = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            String text = randomText(random);
+            totalText.append(text).append("\n");
+            trainer.submit(text);
+            if (random.nextInt(20) == 0) {
+                Thread.sleep(10);
+            }
+        }
+        trainer.flush();
+
+        BigramModel batchModel = new BigramModel();
+        batchModel.train(totalText.toString());
+        assertEquals(batchModel.counts, incrementalModel.counts);
+        assertEquals(0, trainer.getPendingLength());
+        assertEquals(totalText.length(), trainer.getMetrics().getTrainedLength());
+        assertTrue(trainer.getMetrics().getBatchCount() > 1);
+        assertTrue(trainer.getMetrics().getCheckpointCount() > 0);
+        assertTrue(trainer.getMetrics().getThroughput() > 0);
+        assertEquals(Thread.MIN_PRIORITY, incrementalModel.trainingThreadPriority);
+    }
+
+    @Test
+    public void testTextsWithoutTargetAreKept() throws Exception {
+        trainer.submit("je veux manger");
+        trainer.submit("  ");
+        trainer.flush();
+        assertEquals("je veux manger".length(), trainer.getPendingLength());
+
+        BigramModel model = new BigramModel();
+        trainer.setTarget(model);
+        trainer.flush();
+        assertEquals(1, model.counts.get("je veux"));
+        assertEquals(1, model.checkpointCount);
+
+        trainer.setTarget(null);
+        trainer.submit("je veux boire");
+        assertEquals("je veux boire\n", trainer.drainPendingText());
+        assertEquals(0, trainer.getPendingLength());
+    }
+
+    @Test
+    public void testFlushWithoutSavingModel() {
+        DynamicModelTrainer slowTrainer = new DynamicModelTrainer("test-slow", 60_000, 1_000, 60_000);
+        try {
+            BigramModel model = new BigramModel();
+            slowTrainer.setTarget(model);
+            slowTrainer.submit("je veux boire");
+            slowTrainer.flush(false);
+            assertEquals(1, model.counts.get("veux boire"));
+            assertEquals(0, model.checkpointCount);
+            slowTrainer.submit("je veux manger");
+            slowTrainer.flush();
+            assertEquals(1, model.checkpointCount);
+        } finally {
+            slowTrainer.shutdown();
+        }
+    }
+
+    // UTILS
+    //========================================================================
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int wordCount = 1 + random.nextInt(8);
+        for (int w = 0; w < wordCount; w++) {
+            text.append(w > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Word bigram count, sentences are separated by new lines
+     */
+    private static class BigramModel implements DynamicModelTrainer.TrainingTarget {
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int checkpointCount;
+        private int trainingThreadPriority = -1;
+
+        @Override
+        public void train(String text) {
+            trainingThreadPriority = Thread.currentThread().getPriority();
+            for (String line : text.split("\n")) {
+                String[] words = line.split(" ");
+                for (int i = 1; i < words.length; i++) {
+                    counts.merge(words[i - 1] + " " + words[i], 1, Integer::sum);
+                }
+            }
+        }
+
+        @Override
+        public void checkpoint() {
+            checkpointCount++;
+        }
+    }
+    //========================================================================
+}
@@ -0,0 +1,100 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.configurationcomponent;
+
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.model.api.configurationcomponent.*;
+import org.lifecompanion.model.impl.configurationcomponent.keyoption.BasicKeyOption;
+import org.lifecompanion.model.impl.configurationcomponent.keyoption.QuickComKeyOption;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationComponentIndexTest {
+
+    @Test
+    public void testIndexOnLoadedConfiguration() {
+        LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(21541254), null, null);
+        ConfigurationComponentIndex index = configuration.getComponentIndex();
+        assertEquals(List.of(), index.checkConsistency());
+
+        List<GridPartKeyComponentI> keys = index.getByType(GridPartKeyComponentI.class);
+        assertEquals(configuration.getAllComponent().values().stream().filter(c -> c instanceof GridPartKeyComponentI).count(), keys.size());
+        assertEquals(keys.size(), index.getKeysByKeyOptionType(BasicKeyOption.class).size());
+        assertEquals(1, index.getByType(StackComponentI.class).size());
+
+        GridComponentI grid = index.getByType(GridPartGridComponent.class).get(0);
+        assertSame(grid, index.getById(grid.getID(), GridComponentI.class));
+        assertNull(index.getById(grid.getID(), GridPartKeyComponentI.class));
+        assertEquals(new HashSet<>(grid.getGrid().getGridContent()), new HashSet<>(index.getByParentGrid(grid)));
+    }
+
+    @Test
+    public void testIndexIsUpdatedOnChanges() {
+        LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(4578124), null, null);
+        ConfigurationComponentIndex index = configuration.getComponentIndex();
+        StackComponentI stack = index.getByType(StackComponentI.class).get(0);
+        Random random = new Random(21541254);
+        for (int i = 0; i < 200; i++) {
+            List<GridPartGridComponent> grids = index.getByType(GridPartGridComponent.class);
+            GridPartGridComponent grid = grids.get(random.nextInt(grids.size()));
+            ComponentGridI componentGrid = grid.getGrid();
+            GridPartComponentI component = componentGrid.getComponent(random.nextInt(componentGrid.getRow()), random.nextInt(componentGrid.getColumn()));
+            switch (random.nextInt(6)) {
+                case 0:
+                    componentGrid.setRow(1 + random.nextInt(10));
+                    break;
+                case 1:
+                    componentGrid.setColumn(1 + random.nextInt(10));
+                    break;
+                case 2:
+                    if (component instanceof GridPartKeyComponentI) {
+                        ((GridPartKeyComponentI) component).changeKeyOption(random.nextBoolean() ? new QuickComKeyOption() : new BasicKeyOption(), true);
+                    }
+                    break;
+                case 3:
+                    GridPartGridComponent childGrid = new GridPartGridComponent();
+                    childGrid.getGrid().setRow(2);
+                    childGrid.getGrid().setColumn(2);
+                    componentGrid.replaceComponent(component, childGrid);
+                    break;
+                case 4:
+                    if (stack.getComponentList().contains(grid) && stack.getComponentList().size() > 1) {
+                        stack.getComponentList().remove(grid);
+                    }
+                    break;
+                case 5:
+                    if (component.columnProperty().get() + component.columnSpanProperty().get() < componentGrid.getColumn()) {
+                        component.expandRight();
+                    }
+                    break;
+            }
+            assertEquals(List.of(), index.checkConsistency(), "After change " + i);
+        }
+        assertFalse(index.getKeysByKeyOptionType(QuickComKeyOption.class).isEmpty());
+        for (GridPartKeyComponentI key : index.getKeysByKeyOptionType(QuickComKeyOption.class)) {
+            assertInstanceOf(QuickComKeyOption.class, key.keyOptionProperty().get());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2023 CMRRF KERPAPE (Lorient, France) and CoWork'HIT (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.framework.utils.FluentHashMap;
+import org.lifecompanion.framework.utils.Pair;
+import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.util.model.ConfigurationComponentUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageKeywordIndexTest {
+    private static final double MIN_SCORE = ConfigurationComponentUtils.SIMILARITY_CONTAINS / 2.0;
+
+    private List<ImageElementI> images;
+    private ImageKeywordIndex index;
+
+    @BeforeEach
+    public void beforeEach() {
+        images = new ArrayList<>();
+        addImage("maison", "maison", "habitation");
+        addImage("maisonnette", "maisonnette", "petite maison");
+        addImage("école", "école", "élève", "classe");
+        addImage("manger", "manger", "repas");
+        addImage("pomme de terre", "pomme de terre", "patate", "légume");
+        addImage("pomme", "pomme", "fruit");
+        addImage("a", "a", "lettre a");
+        index = ImageKeywordIndex.build(images, "fr");
+    }
+
+    private void addImage(String name, String... keywords) {
+        images.add(new ImageElement(String.valueOf(images.size()), name, FluentHashMap.map("fr", keywords), null));
+    }
+
+    @Test
+    public void testSameResultAsFullScan() {
+        for (String search : List.of("maison", "mai", "ma", "m", "ecole", "ÉCOLE", "pomme", "pomme de", "de terre", "terre pomme", "xyz", "a", "  pomme   terre ", "eleve classe")) {
+            assertIterableEquals(fullScan(search), index.search(search, MIN_SCORE, -1), "Different result for \"" + search + "\"");
+        }
+    }
+
+    @Test
+    public void testTopResults() {
+        List<ImageElementI> all = index.search("pomme", MIN_SCORE, -1);
+        List<ImageElementI> top = index.search("pomme", MIN_SCORE, 1);
+        assertEquals(1, top.size());
+        assertEquals(all.get(0), top.get(0));
+        assertEquals("pomme", top.get(0).getName());
+    }
+
+    @Test
+    public void testEmptySearch() {
+        assertTrue(index.search("  ", MIN_SCORE, -1).isEmpty());
+    }
+
+    private List<ImageElementI> fullScan(String search) {
+        List<Pair<ImageElementI, Double>> scores = new ArrayList<>();
+        for (ImageElementI image : images) {
+            double score = 0.0;
+            for (String keyword : image.getKeywords()) {
+                score += ConfigurationComponentUtils.getSimilarityScoreFor(search, keyword, s -> Pair.of(s, 1.0));
+            }
+            scores.add(Pair.of(image, score));
+        }
+        return scores.stream()
+                .sorted(Comparator.comparingDouble((Pair<ImageElementI, Double> p) -> p.getRight()).reversed())
+                .filter(p -> p.getRight() >= MIN_SCORE)
+                .map(Pair::getLeft)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2023 CMRRF KERPAPE (Lorient, France) and CoWork'HIT (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageMetadataIndexTest {
+    @TempDir
+    File tempDir;
+
+    private File indexFile;
+    private File imageFile;
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        indexFile = new File(tempDir, "index.json");
+        imageFile = new File(tempDir, "image.png");
+        ImageIO.write(new BufferedImage(32, 16, BufferedImage.TYPE_INT_ARGB), "png", imageFile);
+    }
+
+    @Test
+    public void testComputeAndReloadWithoutHashing() throws Exception {
+        ImageMetadataIndex index = new ImageMetadataIndex(indexFile);
+        index.load();
+        ImageMetadataIndex.ImageMetadata metadata = index.getOrCompute(imageFile);
+        assertEquals(IOUtils.fileSha256HexToString(imageFile), metadata.getSha256());
+        assertEquals(32, metadata.getWidth());
+        assertEquals(16, metadata.getHeight());
+        index.setDictionaryId(imageFile, "configuration-images");
+        index.saveIfNeeded();
+
+        ImageMetadataIndex reloaded = new ImageMetadataIndex(indexFile);
+        reloaded.load();
+        assertEquals(1, reloaded.size());
+        ImageMetadataIndex.ImageMetadata reloadedMetadata = reloaded.getOrCompute(imageFile);
+        assertEquals(metadata.getSha256(), reloadedMetadata.getSha256());
+        assertEquals("configuration-images", reloadedMetadata.getDictionaryId());
+        assertEquals(1, reloaded.getHitCount());
+        assertEquals(0, reloaded.getMissCount());
+    }
+
+    @Test
+    public void testChangedFileIsHashedAgain() throws Exception {
+        ImageMetadataIndex index = new ImageMetadataIndex(indexFile);
+        index.load();
+        String firstHash = index.getSha256(imageFile);
+        ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "png", imageFile);
+        imageFile.setLastModified(imageFile.lastModified() + 10_000);
+        ImageMetadataIndex.ImageMetadata metadata = index.getOrCompute(imageFile);
+        assertNotEquals(firstHash, metadata.getSha256());
+        assertEquals(IOUtils.fileSha256HexToString(imageFile), metadata.getSha256());
+        assertEquals(64, metadata.getWidth());
+        assertEquals(2, index.getMissCount());
+    }
+
+    @Test
+    public void testCorruptedIndexIsIgnored() throws Exception {
+        Files.writeString(indexFile.toPath(), "{\"version\":1,\"entries\":{\"trunc");
+        ImageMetadataIndex index = new ImageMetadataIndex(indexFile);
+        index.load();
+        assertEquals(0, index.size());
+        assertEquals(IOUtils.fileSha256HexToString(imageFile), index.getSha256(imageFile));
+        index.saveIfNeeded();
+        assertFalse(new File(indexFile.getPath() + ".tmp").exists());
+
+        ImageMetadataIndex reloaded = new ImageMetadataIndex(indexFile);
+        reloaded.load();
+        assertEquals(1, reloaded.size());
+    }
+
+    @Test
+    public void testDeletedFilesAreRemovedOnSave() throws Exception {
+        ImageMetadataIndex index = new ImageMetadataIndex(indexFile);
+        index.load();
+        index.getSha256(imageFile);
+        assertTrue(imageFile.delete());
+        index.save();
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.imagedictionary;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThumbnailCacheTest {
+
+    private static CachedThumbnailInformation thumbnail() {
+        return new CachedThumbnailInformation(null, null);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsedOnByteLimit() {
+        ThumbnailCache cache = new ThumbnailCache(300, 100);
+        CachedThumbnailInformation first = thumbnail();
+        cache.put("1", first, 100);
+        cache.put("2", thumbnail(), 100);
+        cache.put("3", thumbnail(), 100);
+        // Access 1 : 2 becomes the least recently used
+        assertSame(first, cache.get("1"));
+        cache.put("4", thumbnail(), 100);
+        assertTrue(cache.contains("1"));
+        assertFalse(cache.contains("2"));
+        assertTrue(cache.contains("3"));
+        assertTrue(cache.contains("4"));
+        assertEquals(300, cache.getResidentBytes());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictOnEntryLimit() {
+        ThumbnailCache cache = new ThumbnailCache(10_000, 2);
+        cache.put("1", thumbnail(), 10);
+        cache.put("2", thumbnail(), 10);
+        cache.put("3", thumbnail(), 10);
+        assertEquals(2, cache.size());
+        assertFalse(cache.contains("1"));
+        assertEquals(20, cache.getResidentBytes());
+    }
+
+    @Test
+    public void testReplaceAndTooBigEntry() {
+        ThumbnailCache cache = new ThumbnailCache(100, 10);
+        cache.put("1", thumbnail(), 40);
+        cache.put("1", thumbnail(), 60);
+        assertEquals(1, cache.size());
+        assertEquals(60, cache.getResidentBytes());
+        cache.put("2", thumbnail(), 101);
+        assertFalse(cache.contains("2"));
+        cache.put("3", thumbnail(), 90);
+        assertFalse(cache.contains("1"));
+        assertEquals(90, cache.getResidentBytes());
+    }
+
+    @Test
+    public void testHitRate() {
+        ThumbnailCache cache = new ThumbnailCache(100, 10);
+        assertEquals(0.0, cache.getHitRate());
+        assertNull(cache.get("1"));
+        cache.put("1", thumbnail(), 10);
+        assertNotNull(cache.get("1"));
+        assertNotNull(cache.get("1"));
+        assertNull(cache.get("2"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getResidentBytes());
+    }
+}
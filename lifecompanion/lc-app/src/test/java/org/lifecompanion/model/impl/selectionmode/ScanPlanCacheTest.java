@@ -0,0 +1,142 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.selectionmode;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.model.api.configurationcomponent.GridPartComponentI;
+import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.api.selectionmode.ComponentToScanI;
+import org.lifecompanion.model.impl.configurationcomponent.GridComponentInformation;
+import org.lifecompanion.model.impl.configurationcomponent.GridPartGridComponent;
+import org.lifecompanion.model.impl.configurationcomponent.GridPartKeyComponent;
+import org.lifecompanion.util.model.SelectionModeUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScanPlanCacheTest {
+    private GridPartGridComponent grid;
+    private ScanPlanCache<ComponentToScanI> rowColumnCache;
+    private ScanPlanCache<GridComponentInformation> directKeyCache;
+
+    @BeforeEach
+    public void setUp() {
+        this.grid = new GridPartGridComponent();
+        this.grid.getGrid().setRow(4);
+        this.grid.getGrid().setColumn(5);
+        this.rowColumnCache = new ScanPlanCache<>("RowColumn", SelectionModeUtils::getRowColumnScanningComponents);
+        this.directKeyCache = new ScanPlanCache<>("HorizontalDirectKey", SelectionModeUtils::getDirectHorizontalScanningComponents);
+    }
+
+    @Test
+    public void testPlanReusedWhenGridDoesNotChange() {
+        List<ComponentToScanI> plan = rowColumnCache.getPlan(grid, false);
+        assertSame(plan, rowColumnCache.getPlan(grid, false));
+        assertThrows(UnsupportedOperationException.class, () -> plan.remove(0));
+        assertEquals(1, rowColumnCache.getBuildCount());
+        assertEquals(1, rowColumnCache.getReuseCount());
+    }
+
+    @Test
+    public void testPlanReusedWhenKeyEmptyStateDoesNotChange() {
+        getKey(0, 0).textContentProperty().set("a");
+        List<ComponentToScanI> plan = rowColumnCache.getPlan(grid, false);
+        List<ComponentToScanI> byPassPlan = rowColumnCache.getPlan(grid, true);
+
+        // Still not empty : same plan
+        getKey(0, 0).textContentProperty().set("b");
+        assertSame(plan, rowColumnCache.getPlan(grid, false));
+
+        // Now empty : only plan with empty check is built again
+        getKey(0, 0).textContentProperty().set("");
+        assertNotSame(plan, rowColumnCache.getPlan(grid, false));
+        assertSame(byPassPlan, rowColumnCache.getPlan(grid, true));
+    }
+
+    @Test
+    public void testPlanSameAsGeneratedPlan() {
+        Random random = new Random(784512);
+        for (int i = 0; i < 400; i++) {
+            applyRandomChange(random);
+            boolean byPass = random.nextInt(4) == 0;
+            assertEquals(describeParts(SelectionModeUtils.getRowColumnScanningComponents(grid, byPass)), describeParts(rowColumnCache.getPlan(grid, byPass)), "Change " + i);
+            assertEquals(describeKeys(SelectionModeUtils.getDirectHorizontalScanningComponents(grid, byPass)), describeKeys(directKeyCache.getPlan(grid, byPass)), "Change " + i);
+        }
+        assertTrue(rowColumnCache.getReuseCount() > 0);
+    }
+
+    @Test
+    public void testClearStopObservingGrid() {
+        rowColumnCache.getPlan(grid, false);
+        rowColumnCache.clear();
+        assertEquals(0, rowColumnCache.getBuildCount());
+        getKey(0, 0).textContentProperty().set("a");
+        rowColumnCache.getPlan(grid, false);
+        assertEquals(1, rowColumnCache.getBuildCount());
+    }
+
+    // UTILS
+    //========================================================================
+    private void applyRandomChange(Random random) {
+        int action = random.nextInt(10);
+        GridPartComponentI component = grid.getGrid().getGridContent().get(random.nextInt(grid.getGrid().getGridContent().size()));
+        if (action < 6) {
+            if (component instanceof GridPartKeyComponentI) {
+                ((GridPartKeyComponentI) component).textContentProperty().set(random.nextBoolean() ? "" : "k" + random.nextInt(3));
+            }
+        } else if (action == 6) {
+            if (component.columnProperty().get() + component.columnSpanProperty().get() < grid.getGrid().getColumn()
+                    && component.rowProperty().get() + component.rowSpanProperty().get() <= grid.getGrid().getRow()) {
+                grid.getGrid().expandSpanRight(component);
+            }
+        } else if (action == 7) {
+            if (component.columnSpanProperty().get() > 1) {
+                grid.getGrid().collapseSpanRight(component);
+            }
+        } else if (action == 8 && component.rowSpanProperty().get() == 1 && component.columnSpanProperty().get() == 1) {
+            GridPartKeyComponent key = new GridPartKeyComponent();
+            key.textContentProperty().set(random.nextBoolean() ? "" : "new");
+            grid.getGrid().replaceComponent(component, key);
+        } else if (action == 9) {
+            if (random.nextBoolean()) {
+                grid.getGrid().setRow(Math.max(1, Math.min(6, grid.getGrid().getRow() + (random.nextBoolean() ? 1 : -1))));
+            } else {
+                grid.getGrid().setColumn(Math.max(1, Math.min(6, grid.getGrid().getColumn() + (random.nextBoolean() ? 1 : -1))));
+            }
+        }
+    }
+
+    private GridPartKeyComponentI getKey(int row, int column) {
+        return (GridPartKeyComponentI) grid.getGrid().getComponent(row, column);
+    }
+
+    private static String describeParts(List<ComponentToScanI> parts) {
+        return parts.stream().map(p -> p.getIndex() + "/" + p.getSpan() + describeKeys(p.getComponents())).collect(Collectors.joining(";"));
+    }
+
+    private static String describeKeys(List<GridComponentInformation> keys) {
+        return keys.stream().map(k -> k.getRow() + "," + k.getColumn()).collect(Collectors.joining(" ", "[", "]"));
+    }
+    //========================================================================
+}
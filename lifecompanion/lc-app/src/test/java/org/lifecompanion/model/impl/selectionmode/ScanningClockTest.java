@@ -0,0 +1,112 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.selectionmode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScanningClockTest {
+    private static final long PERIOD_MS = 40;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService stepThread;
+    private List<Long> stepTimes;
+
+    @BeforeEach
+    public void setUp() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.stepThread = Executors.newSingleThreadExecutor();
+        this.stepTimes = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+        this.stepThread.shutdownNow();
+    }
+
+    @Test
+    public void testNoDriftWhenStepsAreSlow() throws Exception {
+        CountDownLatch latch = new CountDownLatch(20);
+        ScanningClock clock = new ScanningClock(() -> {
+            stepTimes.add(System.nanoTime());
+            // Slow step : would delay every next step without drift compensation
+            sleep(8);
+            latch.countDown();
+        }, scheduler, stepThread, System::nanoTime);
+        clock.setPeriod(PERIOD_MS, true);
+        long start = System.nanoTime();
+        clock.restart();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        clock.stop();
+        double lastStepLateness = (stepTimes.get(19) - start - 20 * TimeUnit.MILLISECONDS.toNanos(PERIOD_MS)) / 1_000_000.0;
+        assertTrue(lastStepLateness < PERIOD_MS / 2.0, "Last step is " + lastStepLateness + " ms late");
+    }
+
+    @Test
+    public void testLateStepIsDisplayedLongEnough() throws Exception {
+        CountDownLatch latch = new CountDownLatch(4);
+        ScanningClock clock = new ScanningClock(() -> {
+            stepTimes.add(System.nanoTime());
+            latch.countDown();
+        }, scheduler, stepThread, System::nanoTime);
+        clock.setPeriod(PERIOD_MS, true);
+        clock.restart();
+        // Busy step thread : second step is late
+        sleep(PERIOD_MS + PERIOD_MS / 2);
+        stepThread.execute(() -> sleep(PERIOD_MS + PERIOD_MS / 8));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        clock.stop();
+        for (int i = 1; i < stepTimes.size(); i++) {
+            double interval = (stepTimes.get(i) - stepTimes.get(i - 1)) / 1_000_000.0;
+            assertTrue(interval >= PERIOD_MS * 0.75 - 2, "Interval " + i + " is " + interval + " ms");
+        }
+    }
+
+    @Test
+    public void testNoStepAfterStopOrPause() {
+        List<Long> steps = new ArrayList<>();
+        ScanningClock clock = new ScanningClock(() -> steps.add(System.nanoTime()), scheduler, stepThread, System::nanoTime);
+        clock.setPeriod(PERIOD_MS, true);
+        clock.restart();
+        clock.pause();
+        assertFalse(clock.isRunning());
+        sleep(PERIOD_MS * 2);
+        clock.play();
+        clock.stop();
+        sleep(PERIOD_MS * 2);
+        assertTrue(steps.isEmpty());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
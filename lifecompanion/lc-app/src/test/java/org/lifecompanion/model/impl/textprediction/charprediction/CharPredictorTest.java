@@ -0,0 +1,167 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.model.impl.textprediction.charprediction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharPredictorTest {
+    private static final String TEXT = "le chat mange la souris. la souris mange le fromage. le chien mange le chat ! "
+            + "les enfants mangent des pommes, le chat dort sur le canapé et la maison est calme. "
+            + "le chat, le chien et la souris sont des animaux ; les animaux mangent et dorment.";
+
+    private CharPredictorData data;
+    private CharPredictor predictor;
+
+    @BeforeEach
+    public void beforeEach() {
+        data = new CharPredictorData();
+        data.executeTraining(TEXT);
+        predictor = new CharPredictor(data);
+    }
+
+    @Test
+    public void testSameResultAsNGramCount() {
+        Map<String, Integer> ngrams = countNGrams(data.cleanText(TEXT));
+        Random random = new Random(457812);
+        for (int i = 0; i < 500; i++) {
+            int end = 1 + random.nextInt(TEXT.length() - 1);
+            String text = TEXT.substring(Math.max(0, end - random.nextInt(8)), end);
+            int wanted = 1 + random.nextInt(8);
+            assertEquals(predictFromNGrams(ngrams, text, wanted), predictor.predict(text, wanted), "Prediction for \"" + text + "\"");
+        }
+    }
+
+    @Test
+    public void testPredictWithAcceptedCharacters() {
+        HashSet<Character> accepted = new HashSet<>(Arrays.asList('a', 'e', 'i', 'o', 'u'));
+        List<Character> predictions = predictor.predict("le ch", 3, accepted);
+        assertEquals(Arrays.asList('a', 'i', 'e'), predictions);
+        assertTrue(predictor.predict("", 10, accepted).stream().allMatch(accepted::contains));
+    }
+
+    @Test
+    public void testPredictBlankText() {
+        assertEquals(predictor.predict(null, 5), predictor.predict("  ", 5));
+        assertEquals(5, predictor.predict("", 5).size());
+        assertEquals('l', predictor.predict("", 1).get(0));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = Files.createTempFile("char-predictions", ".bin").toFile();
+        data.saveTo(file);
+        CharPredictorData loaded = new CharPredictorData();
+        loaded.loadFrom(file);
+        assertEquals(data.getTrie().getNodeCount(), loaded.getTrie().getNodeCount());
+        CharPredictor loadedPredictor = new CharPredictor(loaded);
+        for (String text : Arrays.asList("", "l", "le c", "la sou", "mang", "xyz")) {
+            assertEquals(predictor.predict(text, 6), loadedPredictor.predict(text, 6));
+        }
+    }
+
+    @Test
+    public void testMappedFile() throws Exception {
+        File file = Files.createTempFile("char-predictions", ".bin").toFile();
+        data.saveTo(file);
+        File mappedFile = CharPredictorData.getMappedFileFor(file);
+        List<String> texts = Arrays.asList("", "l", "le c", "la sou", "mang", "xyz");
+
+        // Converted on first load, then mapped
+        for (int i = 0; i < 2; i++) {
+            CharPredictorData mapped = new CharPredictorData();
+            mapped.loadFrom(file, mappedFile);
+            assertTrue(mapped.getTrie().isMapped());
+            assertEquals(data.getTrie().getNodeCount(), mapped.getTrie().getNodeCount());
+            CharPredictor mappedPredictor = new CharPredictor(mapped);
+            for (String text : texts) {
+                assertEquals(predictor.predict(text, 6), mappedPredictor.predict(text, 6));
+            }
+        }
+
+        // Source changed : converted again
+        CharPredictorData otherData = new CharPredictorData();
+        otherData.executeTraining("abcdefghijklmnop");
+        otherData.saveTo(file);
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        CharPredictorData reloaded = new CharPredictorData();
+        reloaded.loadFrom(file, mappedFile);
+        assertEquals(otherData.getTrie().getNodeCount(), reloaded.getTrie().getNodeCount());
+
+        // Invalid mapped file : source is loaded
+        Files.write(mappedFile.toPath(), new byte[]{1, 2, 3, 4});
+        assertThrows(IOException.class, () -> CharNGramTrie.map(mappedFile));
+        reloaded = new CharPredictorData();
+        reloaded.loadFrom(file, mappedFile);
+        assertEquals(otherData.getTrie().getNodeCount(), reloaded.getTrie().getNodeCount());
+    }
+
+    // UTILS
+    //========================================================================
+    private static Map<String, Integer> countNGrams(String text) {
+        Map<String, Integer> ngrams = new HashMap<>();
+        for (int i = 0; i + CharPredictor.CHAR_NGRAM_SIZE <= text.length(); i++) {
+            ngrams.merge(text.substring(i, i + CharPredictor.CHAR_NGRAM_SIZE), 1, Integer::sum);
+        }
+        return ngrams;
+    }
+
+    /**
+     * Straightforward implementation : score each next char with the n-gram starting with the context, from the longest context to the shortest
+     */
+    private static List<Character> predictFromNGrams(Map<String, Integer> ngrams, String text, int wanted) {
+        List<Character> predictions = new ArrayList<>();
+        String context = text.substring(Math.max(0, text.length() - (CharPredictor.CHAR_NGRAM_SIZE - 1))).toLowerCase();
+        if (!text.trim().isEmpty()) {
+            for (; !context.isEmpty(); context = context.substring(1)) {
+                addBestNextChars(ngrams, context, predictions, wanted);
+            }
+        }
+        addBestNextChars(ngrams, " ", predictions, Math.min(wanted, predictions.size() + CharPredictor.FREQUENT_CHAR_SIZE));
+        return predictions;
+    }
+
+    private static void addBestNextChars(Map<String, Integer> ngrams, String context, List<Character> predictions, int wanted) {
+        Map<Character, Integer> scores = new HashMap<>();
+        ngrams.forEach((ngram, count) -> {
+            if (ngram.startsWith(context)) {
+                scores.merge(ngram.charAt(context.length()), count, Integer::sum);
+            }
+        });
+        List<Character> sorted = scores.entrySet().stream()
+                .sorted(Map.Entry.<Character, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (Character c : sorted) {
+            if (predictions.size() < wanted && !predictions.contains(c)) {
+                predictions.add(c);
+            }
+        }
+    }
+    //========================================================================
+}
@@ -0,0 +1,117 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.lifecompanion.util;
+
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+import org.lifecompanion.controller.io.XMLHelper;
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.model.api.categorizedelement.useaction.UseActionEvent;
+import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.impl.categorizedelement.useaction.available.MoveToGridAction;
+import org.lifecompanion.model.impl.configurationcomponent.*;
+import org.lifecompanion.model.impl.configurationcomponent.keyoption.QuickComKeyOption;
+import org.lifecompanion.model.impl.io.IOContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopyUtilsTest {
+
+    @Test
+    public void testStructuralCopyIsSameAsXmlCopy() throws Exception {
+        StackComponent stack = (StackComponent) GenerateRandomConfigurationTask.generateConfiguration(new Random(21541254), null, null).getChildren().get(0);
+        stack.getComponentList().add(createGridWithActions());
+        assertTrue(CopyUtils.isStructuralCopySupported(StackComponent.class));
+
+        StackComponent structuralCopy = (StackComponent) CopyUtils.createDeepCopy(stack, false);
+        StackComponent xmlCopy = (StackComponent) CopyUtils.createDeepCopyViaXMLSerialization(stack, false);
+        assertEquals(toXml(xmlCopy), toXml(structuralCopy));
+        assertEquals(toXml(stack), toXml(structuralCopy));
+    }
+
+    @Test
+    public void testStructuralCopyChangeIds() throws Exception {
+        GridPartGridComponent grid = createGridWithActions();
+        GridPartGridComponent copy = (GridPartGridComponent) CopyUtils.createDeepCopy(grid, true);
+
+        Set<String> sourceIds = getIds(grid.serialize(new IOContext(getTempDirectory())), new HashSet<>());
+        Set<String> copyIds = getIds(copy.serialize(new IOContext(getTempDirectory())), new HashSet<>());
+        assertEquals(sourceIds.size(), copyIds.size());
+        copyIds.retainAll(sourceIds);
+        assertTrue(copyIds.isEmpty());
+
+        // Reference to a copied component should target the copy
+        GridPartKeyComponentI copiedKey = (GridPartKeyComponentI) copy.getGrid().getComponent(0, 0);
+        MoveToGridAction copiedAction = copiedKey.getActionManager().getFirstActionOfType(UseActionEvent.ACTIVATION, MoveToGridAction.class);
+        assertEquals(copy.getGrid().getComponent(1, 1).getID(), copiedAction.targetGridIdProperty().get());
+        assertInstanceOf(QuickComKeyOption.class, ((GridPartKeyComponentI) copy.getGrid().getComponent(0, 1)).keyOptionProperty().get());
+        assertEquals(2, copy.getGrid().getComponent(2, 0).columnSpanProperty().get());
+    }
+
+    // UTILS
+    //========================================================================
+    private static GridPartGridComponent createGridWithActions() {
+        GridPartGridComponent grid = new GridPartGridComponent();
+        grid.getGrid().setRow(3);
+        grid.getGrid().setColumn(3);
+        GridPartGridComponent childGrid = new GridPartGridComponent();
+        childGrid.getGrid().setRow(2);
+        childGrid.getGrid().setColumn(2);
+        grid.getGrid().replaceComponent(grid.getGrid().getComponent(1, 1), childGrid);
+
+        GridPartKeyComponentI moveKey = (GridPartKeyComponentI) grid.getGrid().getComponent(0, 0);
+        MoveToGridAction moveToGridAction = new MoveToGridAction();
+        moveToGridAction.targetGridIdProperty().set(childGrid.getID());
+        moveKey.getActionManager().componentActions().get(UseActionEvent.ACTIVATION).add(moveToGridAction);
+
+        GridPartKeyComponentI quickComKey = (GridPartKeyComponentI) grid.getGrid().getComponent(0, 1);
+        quickComKey.changeKeyOption(new QuickComKeyOption(), true);
+        quickComKey.textContentProperty().set("Hello");
+
+        grid.getGrid().expandSpanRight(grid.getGrid().getComponent(2, 0));
+        return grid;
+    }
+
+    private static String toXml(StackComponent stack) throws Exception {
+        return XMLHelper.toXmlString(stack.serialize(new IOContext(getTempDirectory())));
+    }
+
+    private static Set<String> getIds(Element element, Set<String> ids) {
+        String id = element.getAttributeValue("id");
+        if (id != null) {
+            ids.add(id);
+        }
+        for (Element child : element.getChildren()) {
+            getIds(child, ids);
+        }
+        return ids;
+    }
+
+    private static File getTempDirectory() throws Exception {
+        return Files.createTempDirectory("copy-utils-test").toFile();
+    }
+    //========================================================================
+}
@@ -0,0 +1,119 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.lifecompanion.build;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Generate the implementation index read by LifeCompanion (see ImplementationIndex in LifeCompanion app) : a properties file where key is the interface name
+ * and value the comma separated list of concrete implementation names.<br>
+ * Every class from the classpath is scanned to resolve implemented interfaces (e.g. a plugin use action that extends an app base class),
+ * but only classes from the classes directories and in indexed packages are indexed.
+ */
+public abstract class GenerateImplementationIndexTask extends DefaultTask {
+    private static final Logger LOGGER = Logging.getLogger(GenerateImplementationIndexTask.class);
+
+    static final String INDEX_PATH = "META-INF/lifecompanion/implementation-index.properties";
+
+    @Classpath
+    public abstract ConfigurableFileCollection getClassesDirectories();
+
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    @Input
+    public abstract ListProperty<String> getPackages();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @TaskAction
+    void generate() throws IOException {
+        long start = System.currentTimeMillis();
+        List<String> packages = getPackages().get();
+        Set<File> indexedDirectories = new HashSet<>();
+        for (File classesDirectory : getClassesDirectories().getFiles()) {
+            indexedDirectories.add(classesDirectory.getCanonicalFile());
+        }
+        // App packages are always scanned : implemented interfaces can come from app classes
+        Set<String> scannedPackages = new HashSet<>(packages);
+        scannedPackages.add(ImplementationIndexPlugin.APP_PACKAGE);
+        List<File> classpath = new ArrayList<>(getClassesDirectories().getFiles());
+        classpath.addAll(getClasspath().getFiles());
+
+        // Sorted to get a reproducible file
+        SortedMap<String, SortedSet<String>> implementationsByType = new TreeMap<>();
+        try (ScanResult scanResult = new ClassGraph()
+                .overrideClasspath(classpath)
+                .enableClassInfo()
+                .whitelistPackages(scannedPackages.toArray(new String[0]))
+                .scan()) {
+            for (ClassInfo classInfo : scanResult.getAllStandardClasses()) {
+                if (!classInfo.isAbstract() && !classInfo.isInterface() && isInPackages(classInfo, packages) && isInDirectories(classInfo, indexedDirectories)) {
+                    for (ClassInfo interfaceInfo : classInfo.getInterfaces()) {
+                        implementationsByType.computeIfAbsent(interfaceInfo.getName(), n -> new TreeSet<>()).add(classInfo.getName());
+                    }
+                }
+            }
+        }
+        File outputFile = getOutputDirectory().file(INDEX_PATH).get().getAsFile();
+        outputFile.getParentFile().mkdirs();
+        try (PrintWriter pw = new PrintWriter(outputFile, StandardCharsets.UTF_8)) {
+            pw.println("# Generated on build for packages " + String.join(",", packages) + ", do not edit");
+            implementationsByType.forEach((typeName, implementations) -> pw.println(typeName + "=" + String.join(",", implementations)));
+        }
+        LOGGER.info("Implementation index generated in {} ms ({} types) : {}", System.currentTimeMillis() - start, implementationsByType.size(), outputFile);
+    }
+
+    private static boolean isInPackages(ClassInfo classInfo, List<String> packages) {
+        String packageName = classInfo.getPackageName();
+        for (String indexedPackage : packages) {
+            if (packageName.equals(indexedPackage) || packageName.startsWith(indexedPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInDirectories(ClassInfo classInfo, Set<File> directories) {
+        File classpathElement = classInfo.getClasspathElementFile();
+        try {
+            return classpathElement != null && directories.contains(classpathElement.getCanonicalFile());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
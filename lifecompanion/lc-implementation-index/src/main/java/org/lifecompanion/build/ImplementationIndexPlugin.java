@@ -0,0 +1,67 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.lifecompanion.build;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.bundling.Jar;
+import org.gradle.language.jvm.tasks.ProcessResources;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Add a <code>generateImplementationIndex</code> task to a Java project (LifeCompanion app or plugin), its result is included in jar resources.<br>
+ * Indexed packages are the plugin scanning base packages (<code>LifeCompanion-Plugin-Package-Scanning-Base</code> in jar manifest),
+ * or LifeCompanion packages when there is no scanning base (app).
+ */
+public class ImplementationIndexPlugin implements Plugin<Project> {
+    static final String PLUGIN_PACKAGE_SCANNING_BASE_ATTRIBUTE = "LifeCompanion-Plugin-Package-Scanning-Base";
+    static final String APP_PACKAGE = "org.lifecompanion";
+
+    @Override
+    public void apply(Project project) {
+        project.getPluginManager().withPlugin("java", javaPlugin -> {
+            SourceSet mainSourceSet = project.getExtensions().getByType(SourceSetContainer.class).getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+            TaskProvider<GenerateImplementationIndexTask> generateTask = project.getTasks().register("generateImplementationIndex", GenerateImplementationIndexTask.class, task -> {
+                task.setGroup("lifecompanion");
+                task.setDescription("Generate the implementation index to avoid scanning classes when LifeCompanion (or the plugin) is loaded");
+                task.getClassesDirectories().from(mainSourceSet.getOutput().getClassesDirs());
+                task.getClasspath().from(mainSourceSet.getCompileClasspath());
+                task.getPackages().convention(project.provider(() -> getIndexedPackages(project)));
+                task.getOutputDirectory().convention(project.getLayout().getBuildDirectory().dir("generated/implementation-index"));
+            });
+            project.getTasks().named(mainSourceSet.getProcessResourcesTaskName(), ProcessResources.class, processResources -> processResources.from(generateTask));
+        });
+    }
+
+    private static List<String> getIndexedPackages(Project project) {
+        Object scanningBase = project.getTasks().named("jar", Jar.class).get().getManifest().getAttributes().get(PLUGIN_PACKAGE_SCANNING_BASE_ATTRIBUTE);
+        if (scanningBase == null) {
+            return List.of(APP_PACKAGE);
+        }
+        return Arrays.stream(String.valueOf(scanningBase).split(",")).map(String::trim).filter(p -> !p.isEmpty()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+import org.lifecompanion.model.impl.constant.LCConstant;
+import org.lifecompanion.model.impl.textprediction.charprediction.CharPredictor;
+import org.lifecompanion.model.impl.textprediction.charprediction.CharPredictorData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measure char predictor data loading (from prediction file and from mapped file), char prediction latency and allocation for each typed char,
+ * and memory used by char predictor data.<br>
+ * Use the char prediction file given as first argument (default to installed one), or train the predictor on french translations if there is no file.<br>
+ * Typing is simulated on french translations : prediction is done after each char.
+ */
+public class CharPredictionBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(CharPredictionBenchmark.class);
+
+    private static final int WARMUP = 3, ITERATIONS = 10, PREDICTION_COUNT = 8, TYPED_CHAR_COUNT = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        File predictionFile = new File(args.length > 0 ? args[0] : LCConstant.FUS_CHAR_PREDICTION_FILE);
+        String text = loadTranslationText();
+        if (!predictionFile.exists()) {
+            LOGGER.info("No char prediction file {}, will train on french translations ({} chars)", predictionFile, text.length());
+            CharPredictorData trainedData = new CharPredictorData();
+            trainedData.executeTraining(text);
+            predictionFile = File.createTempFile("char-predictions", ".bin");
+            trainedData.saveTo(predictionFile);
+        }
+        File mappedFile = File.createTempFile("char-predictions", CharPredictorData.MAPPED_FILE_EXTENSION);
+        mappedFile.delete();
+
+        // Loading
+        long start = System.nanoTime();
+        new CharPredictorData().loadFrom(predictionFile, mappedFile);
+        LOGGER.info("Converted to mapped file in {} ms", (System.nanoTime() - start) / 1_000_000.0);
+        CharPredictorData data = null, mappedData = null;
+        long loadTime = 0, mappedLoadTime = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            long s = System.nanoTime();
+            data = new CharPredictorData();
+            data.loadFrom(predictionFile);
+            long t = System.nanoTime();
+            mappedData = new CharPredictorData();
+            mappedData.loadFrom(predictionFile, mappedFile);
+            if (i >= WARMUP) {
+                loadTime += t - s;
+                mappedLoadTime += System.nanoTime() - t;
+            }
+        }
+        LOGGER.info("Prediction file : loaded in {} ms, {} KB on heap ({} trie nodes)", loadTime / ITERATIONS / 1_000_000.0, data.getTrie().getMemorySize() / 1024,
+                data.getTrie().getNodeCount());
+        LOGGER.info("Mapped file : loaded in {} ms, {} KB on heap", mappedLoadTime / ITERATIONS / 1_000_000.0,
+                mappedData.getTrie().isMapped() ? 0 : mappedData.getTrie().getMemorySize() / 1024);
+
+        // Prediction
+        String typedText = text.length() > TYPED_CHAR_COUNT ? text.substring(0, TYPED_CHAR_COUNT) : text;
+        runPrediction("Prediction", new CharPredictor(data), typedText);
+        runPrediction("Prediction (mapped)", new CharPredictor(mappedData), typedText);
+
+        // List API (used by predictor interface)
+        CharPredictor predictor = new CharPredictor(data);
+        long time = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long s = System.nanoTime();
+            for (int c = 1; c <= typedText.length(); c++) {
+                predictor.predict(typedText.substring(Math.max(0, c - 20), c), PREDICTION_COUNT);
+            }
+            time += System.nanoTime() - s;
+        }
+        LOGGER.info("Prediction (list) : {} µs per typed char", time / ((double) ITERATIONS * typedText.length()) / 1_000.0);
+        System.exit(0);
+    }
+
+    private static void runPrediction(String name, CharPredictor predictor, String typedText) {
+        char[] result = new char[PREDICTION_COUNT];
+        StringBuilder typed = new StringBuilder(typedText.length());
+        for (int i = 0; i < WARMUP; i++) {
+            runTyping(predictor, typedText, typed, result);
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long time = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long s = System.nanoTime();
+            runTyping(predictor, typedText, typed, result);
+            time += System.nanoTime() - s;
+        }
+        long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+        double keystrokeCount = (double) ITERATIONS * typedText.length();
+        LOGGER.info("{} : {} µs per typed char, {} bytes allocated per typed char", name, time / keystrokeCount / 1_000.0, allocated / keystrokeCount);
+    }
+
+    private static int runTyping(CharPredictor predictor, String text, StringBuilder typed, char[] result) {
+        int total = 0;
+        typed.setLength(0);
+        for (int c = 0; c < text.length(); c++) {
+            typed.append(text.charAt(c));
+            total += predictor.predict(typed, result, null);
+        }
+        return total;
+    }
+
+    private static String loadTranslationText() throws Exception {
+        try (InputStream is = CharPredictionBenchmark.class.getResourceAsStream("/translation/fr_translations.xml")) {
+            String xml = IOUtils.readStreamLines(is, StandardCharsets.UTF_8.name());
+            return xml.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ");
+        }
+    }
+}
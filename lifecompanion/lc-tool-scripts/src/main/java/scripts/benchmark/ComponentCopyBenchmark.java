@@ -0,0 +1,80 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.model.api.categorizedelement.useaction.UseActionEvent;
+import org.lifecompanion.model.impl.categorizedelement.useaction.available.WriteLabelAction;
+import org.lifecompanion.model.impl.configurationcomponent.GridPartGridComponent;
+import org.lifecompanion.util.CopyUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compare component duplication with XML serialization (previous behavior) and with the structural copy ({@link CopyUtils#createDeepCopy(org.lifecompanion.model.api.configurationcomponent.DuplicableComponentI, boolean)}).<br>
+ * Duplicated grids are generated with the given sizes (default to 100x100 and 150x150), each key has a text and a write action.<br>
+ * Creating a blank grid of the same size is also measured : it is the minimum cost of a copy (keys creation and bindings).
+ */
+public class ComponentCopyBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ComponentCopyBenchmark.class);
+
+    private static final int WARMUP = 3, ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : new int[]{100, 150};
+        for (int size : sizes) {
+            GridPartGridComponent grid = createGrid(size);
+            for (int i = 0; i < WARMUP; i++) {
+                CopyUtils.createDeepCopyViaXMLSerialization(grid, true);
+                CopyUtils.createDeepCopy(grid, true);
+            }
+            long xmlTime = 0, structuralTime = 0, blankTime = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                GridPartGridComponent blankGrid = new GridPartGridComponent();
+                blankGrid.getGrid().setRow(size);
+                blankGrid.getGrid().setColumn(size);
+                blankTime += System.nanoTime() - start;
+                start = System.nanoTime();
+                CopyUtils.createDeepCopyViaXMLSerialization(grid, true);
+                xmlTime += System.nanoTime() - start;
+                start = System.nanoTime();
+                CopyUtils.createDeepCopy(grid, true);
+                structuralTime += System.nanoTime() - start;
+            }
+            LOGGER.info("Grid {}x{} ({} keys)", size, size, size * size);
+            LOGGER.info("\tBlank grid creation : {} ms", blankTime / ITERATIONS / 1_000_000.0);
+            LOGGER.info("\tXML copy : {} ms", xmlTime / ITERATIONS / 1_000_000.0);
+            LOGGER.info("\tStructural copy : {} ms", structuralTime / ITERATIONS / 1_000_000.0);
+        }
+        System.exit(0);
+    }
+
+    private static GridPartGridComponent createGrid(int size) {
+        GridPartGridComponent grid = new GridPartGridComponent();
+        grid.getGrid().setRow(size);
+        grid.getGrid().setColumn(size);
+        grid.forEachKeys(key -> {
+            key.textContentProperty().set("key " + key.rowProperty().get() + "x" + key.columnProperty().get());
+            WriteLabelAction writeLabelAction = new WriteLabelAction();
+            key.getActionManager().componentActions().get(UseActionEvent.ACTIVATION).add(writeLabelAction);
+        });
+        return grid;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.framework.commons.utils.lang.StringUtils;
+import org.lifecompanion.model.api.configurationcomponent.*;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+import org.lifecompanion.model.impl.configurationcomponent.keyoption.BasicKeyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Compare component lookups by iterating on every configuration component (previous behavior) and with {@link ConfigurationComponentIndexI}.<br>
+ * Use a random configuration (see {@link GenerateRandomConfigurationTask}) : lookups are done on grid IDs (as move to grid actions), on grids (as on selection mode start)
+ * and on key option type (as on use mode start for each dynamic key controller).
+ */
+public class ConfigurationComponentIndexBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ConfigurationComponentIndexBenchmark.class);
+
+    private static final int WARMUP = 3, ITERATIONS = 20;
+
+    public static void main(String[] args) {
+        LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(21541254), null, null);
+        ConfigurationComponentIndexI index = configuration.getComponentIndex();
+        List<String> gridIds = index.getByType(GridComponentI.class).stream().map(IdentifiableComponentI::getID).collect(Collectors.toList());
+        LOGGER.info("{} components, {} grids", configuration.getAllComponent().size(), gridIds.size());
+
+        for (int i = 0; i < WARMUP; i++) {
+            runScan(configuration, gridIds);
+            runIndex(index, gridIds);
+        }
+        long scanTime = 0, indexTime = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            int scanCount = runScan(configuration, gridIds);
+            scanTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            int indexCount = runIndex(index, gridIds);
+            indexTime += System.nanoTime() - start;
+            if (scanCount != indexCount) {
+                LOGGER.warn("Different result count between scan ({}) and index ({})", scanCount, indexCount);
+            }
+        }
+        LOGGER.info("Full scan : {} ms per iteration", scanTime / ITERATIONS / 1_000_000.0);
+        LOGGER.info("Index : {} ms per iteration", indexTime / ITERATIONS / 1_000_000.0);
+        System.exit(0);
+    }
+
+    private static int runScan(LCConfigurationI configuration, List<String> gridIds) {
+        int count = 0;
+        for (String gridId : gridIds) {
+            count += configuration.getAllComponent().values().stream()
+                    .filter(c -> GridComponentI.class.isAssignableFrom(c.getClass()))
+                    .filter(c -> StringUtils.isEquals(c.getID(), gridId))
+                    .findAny()
+                    .map(c -> 1)
+                    .orElse(0);
+        }
+        List<GridComponentI> grids = new ArrayList<>();
+        for (DisplayableComponentI component : configuration.getAllComponent().values()) {
+            if (component instanceof GridComponentI) {
+                grids.add((GridComponentI) component);
+            }
+        }
+        count += grids.size();
+        count += configuration.getAllComponent().values().stream()
+                .filter(c -> c instanceof GridPartKeyComponentI)
+                .map(c -> (GridPartKeyComponentI) c)
+                .filter(key -> key.keyOptionProperty().get() instanceof BasicKeyOption)
+                .count();
+        return count;
+    }
+
+    private static int runIndex(ConfigurationComponentIndexI index, List<String> gridIds) {
+        int count = 0;
+        for (String gridId : gridIds) {
+            count += index.getById(gridId, GridComponentI.class) != null ? 1 : 0;
+        }
+        count += index.getByType(GridComponentI.class).size();
+        count += index.getKeysByKeyOptionType(BasicKeyOption.class).size();
+        return count;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import javafx.application.Platform;
+import org.lifecompanion.controller.io.task.AbstractLoadUtilsTask;
+import org.lifecompanion.controller.io.task.ConfigurationSavingTask;
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.controller.selectionmode.UseModeConfigurationCache;
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+import org.lifecompanion.model.impl.profile.LCConfigurationDescription;
+import org.lifecompanion.model.impl.profile.LCProfile;
+import org.lifecompanion.util.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Measure configuration switch latency in use mode (time to get the configuration to start), loading the configuration from disk on each switch
+ * and with {@link UseModeConfigurationCache}.<br>
+ * {@link #CONFIGURATION_COUNT} random configurations are saved, then the user is simulated going from a main configuration to a linked configuration and back :
+ * the previous configuration is prefetched after each switch, as in use mode. The user stays {@link #TIME_IN_CONFIGURATION} ms in each configuration.<br>
+ * Configurations are saved and loaded with JavaFX tasks, so JavaFX toolkit should be available.<br>
+ * Args : [switch count]
+ */
+public class ConfigurationSwitchBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ConfigurationSwitchBenchmark.class);
+
+    private static final int WARMUP = 10, CONFIGURATION_COUNT = 3, TIME_IN_CONFIGURATION = 500;
+
+    public static void main(String[] args) throws Exception {
+        Platform.startup(() -> {
+        });
+        int switchCount = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        File root = Files.createTempDirectory("lc-configuration-switch").toFile();
+        LCProfile profile = new LCProfile();
+        List<Callable<LCConfigurationI>> loaders = new ArrayList<>();
+        for (int i = 0; i < CONFIGURATION_COUNT; i++) {
+            LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(5478 + i), null, null);
+            LCConfigurationDescription description = new LCConfigurationDescription();
+            description.loadedConfigurationProperty().set(configuration);
+            profile.getConfiguration().add(description);
+            File directory = new File(root, configuration.getID());
+            ThreadUtils.executeInCurrentThread(new ConfigurationSavingTask(directory, configuration, profile));
+            loaders.add(() -> AbstractLoadUtilsTask.loadConfiguration(directory, null, null));
+        }
+        runBenchmark(switchCount, loaders);
+        System.exit(0);
+    }
+
+    static void runBenchmark(int switchCount, List<Callable<LCConfigurationI>> loaders) throws Exception {
+        run("Load on each switch", switchCount, index -> loaders.get(index).call());
+        UseModeConfigurationCache cache = new UseModeConfigurationCache();
+        int[] previous = {-1};
+        run("Configuration cache", switchCount, index -> {
+            LCConfigurationI configuration = cache.getOrLoad(String.valueOf(index), 0, loaders.get(index));
+            if (previous[0] >= 0) {
+                cache.prefetch(String.valueOf(previous[0]), 0, loaders.get(previous[0]));
+            }
+            previous[0] = index;
+            return configuration;
+        });
+        LOGGER.info("Configuration cache : {} hits (average {} ms), {} misses (average {} ms)", cache.getHitCount(), cache.getAverageHitTime(), cache.getMissCount(),
+                cache.getAverageMissTime());
+    }
+
+    private static void run(String name, int switchCount, SwitchFunction switchFunction) throws Exception {
+        double[] latencies = new double[switchCount];
+        for (int i = 0; i < WARMUP + switchCount; i++) {
+            // Main configuration, then one of the linked configurations
+            int index = i % 2 == 0 ? 0 : 1 + (i / 2) % (CONFIGURATION_COUNT - 1);
+            long start = System.nanoTime();
+            switchFunction.getConfiguration(index);
+            if (i >= WARMUP) {
+                latencies[i - WARMUP] = (System.nanoTime() - start) / 1_000_000.0;
+            }
+            // User stays some time in the configuration
+            Thread.sleep(TIME_IN_CONFIGURATION);
+        }
+        Arrays.sort(latencies);
+        LOGGER.info("{} : switch latency p50 {} ms, p95 {} ms, max {} ms, mean {} ms", name, format(latencies[switchCount / 2]), format(latencies[(int) (switchCount * 0.95)]),
+                format(latencies[switchCount - 1]), format(Arrays.stream(latencies).average().orElse(0)));
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private interface SwitchFunction {
+        LCConfigurationI getConfiguration(int index) throws Exception;
+    }
+}
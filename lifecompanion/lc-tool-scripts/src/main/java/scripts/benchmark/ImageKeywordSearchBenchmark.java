@@ -0,0 +1,164 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import javafx.util.Pair;
+import org.lifecompanion.framework.commons.utils.io.FileNameUtils;
+import org.lifecompanion.framework.utils.FluentHashMap;
+import org.lifecompanion.model.api.imagedictionary.ImageElementI;
+import org.lifecompanion.model.impl.constant.LCConstant;
+import org.lifecompanion.model.impl.imagedictionary.ImageDictionaries;
+import org.lifecompanion.model.impl.imagedictionary.ImageDictionary;
+import org.lifecompanion.model.impl.imagedictionary.ImageElement;
+import org.lifecompanion.model.impl.imagedictionary.ImageKeywordIndex;
+import org.lifecompanion.util.model.ConfigurationComponentUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Compare image search with a full scan on every keyword (previous behavior) and with {@link ImageKeywordIndex}.<br>
+ * Use the dictionaries found in the given directory (default to installed dictionaries), or generate a random dictionary if there is no dictionary.<br>
+ * Searches simulate "search as you type" : every prefix of the searched words is searched.
+ */
+public class ImageKeywordSearchBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ImageKeywordSearchBenchmark.class);
+
+    private static final String[] SEARCHES = {"maison", "manger", "ecole", "pomme de terre", "voiture", "content", "chien", "boire"};
+    private static final int WARMUP = 3, ITERATIONS = 10;
+    private static final double MIN_SCORE = ConfigurationComponentUtils.SIMILARITY_CONTAINS / 2.0;
+
+    public static void main(String[] args) {
+        File dictionaryDirectory = new File(args.length > 0 ? args[0] : LCConstant.DEFAULT_IMAGE_DICTIONARIES);
+        List<ImageDictionary> dictionaries = loadDictionaries(dictionaryDirectory);
+        if (dictionaries.isEmpty()) {
+            LOGGER.info("No dictionary found in {}, will generate a random dictionary", dictionaryDirectory);
+            dictionaries.add(generateDictionary(60_000));
+        }
+        List<String> searches = Arrays.stream(SEARCHES)
+                .flatMap(s -> java.util.stream.IntStream.rangeClosed(1, s.length()).mapToObj(i -> s.substring(0, i)))
+                .collect(Collectors.toList());
+        int imageCount = dictionaries.stream().mapToInt(d -> d.getImages().size()).sum();
+        LOGGER.info("{} dictionaries, {} images, {} searches per iteration", dictionaries.size(), imageCount, searches.size());
+
+        long start = System.nanoTime();
+        List<ImageKeywordIndex> indexes = dictionaries.stream().map(ImageDictionary::getKeywordIndex).collect(Collectors.toList());
+        LOGGER.info("Indexes built in {} ms", (System.nanoTime() - start) / 1_000_000.0);
+
+        for (int i = 0; i < WARMUP; i++) {
+            runScan(dictionaries, searches);
+            runIndex(indexes, searches);
+        }
+        long scanTime = 0, indexTime = 0;
+        int checkedSearches = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long s = System.nanoTime();
+            List<List<ImageElementI>> scanResults = runScan(dictionaries, searches);
+            scanTime += System.nanoTime() - s;
+            s = System.nanoTime();
+            List<List<ImageElementI>> indexResults = runIndex(indexes, searches);
+            indexTime += System.nanoTime() - s;
+            if (i == 0) {
+                for (int r = 0; r < scanResults.size(); r++) {
+                    if (!scanResults.get(r).equals(indexResults.get(r))) {
+                        LOGGER.warn("Result {} is different between scan and index", r);
+                    } else {
+                        checkedSearches++;
+                    }
+                }
+            }
+        }
+        double searchCount = ITERATIONS * searches.size();
+        LOGGER.info("Same result for {}/{} searches", checkedSearches, searches.size() * dictionaries.size());
+        LOGGER.info("Full scan : {} ms per search", scanTime / searchCount / 1_000_000.0);
+        LOGGER.info("Index : {} ms per search", indexTime / searchCount / 1_000_000.0);
+        System.exit(0);
+    }
+
+    private static List<List<ImageElementI>> runScan(List<ImageDictionary> dictionaries, List<String> searches) {
+        List<List<ImageElementI>> results = new ArrayList<>();
+        for (String search : searches) {
+            for (ImageDictionary dictionary : dictionaries) {
+                results.add(dictionary.getImages()
+                        .parallelStream()
+                        .map(e -> new Pair<>(e, ImageDictionaries.INSTANCE.getSimilarityScore(e.getKeywords(), search)))
+                        .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
+                        .filter(e -> e.getValue() >= MIN_SCORE)
+                        .map(Pair::getKey)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return results;
+    }
+
+    private static List<List<ImageElementI>> runIndex(List<ImageKeywordIndex> indexes, List<String> searches) {
+        List<List<ImageElementI>> results = new ArrayList<>();
+        for (String search : searches) {
+            for (ImageKeywordIndex index : indexes) {
+                results.add(index.search(search, MIN_SCORE, -1));
+            }
+        }
+        return results;
+    }
+
+    private static List<ImageDictionary> loadDictionaries(File directory) {
+        List<ImageDictionary> dictionaries = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile() && "json".equalsIgnoreCase(FileNameUtils.getExtension(file))) {
+                    ImageDictionary dictionary = ImageDictionaries.INSTANCE.loadImageDictionary(file);
+                    if (dictionary != null) {
+                        dictionaries.add(dictionary);
+                    }
+                }
+            }
+        }
+        return dictionaries;
+    }
+
+    private static ImageDictionary generateDictionary(int imageCount) {
+        Random random = new Random(21541254);
+        ImageDictionary dictionary = new ImageDictionary();
+        dictionary.setName("random");
+        List<String> words = new ArrayList<>(Arrays.asList(SEARCHES));
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        for (int i = 0; i < imageCount; i++) {
+            String[] keywords = new String[1 + random.nextInt(4)];
+            for (int k = 0; k < keywords.length; k++) {
+                keywords[k] = words.get(random.nextInt(words.size())) + (random.nextInt(4) == 0 ? " " + words.get(random.nextInt(words.size())) : "");
+            }
+            ImageElement image = new ImageElement("img" + i, keywords[0], FluentHashMap.map("fr", keywords), null);
+            image.setDictionary(dictionary);
+            dictionary.getImages().add(image);
+        }
+        return dictionary;
+    }
+}
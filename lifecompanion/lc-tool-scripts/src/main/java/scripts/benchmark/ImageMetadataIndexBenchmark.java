@@ -0,0 +1,101 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+import org.lifecompanion.model.impl.constant.LCConstant;
+import org.lifecompanion.model.impl.imagedictionary.ImageMetadataIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Compare configuration image hashing with and without {@link ImageMetadataIndex}.<br>
+ * Generate a configuration image directory (args : image count, image size) then measure :
+ * <ul>
+ *     <li>direct hashing (previous behavior)</li>
+ *     <li>cold index (no index file, every image is hashed and indexed)</li>
+ *     <li>warm index (index loaded from disk, no image is read)</li>
+ * </ul>
+ */
+public class ImageMetadataIndexBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ImageMetadataIndexBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        int imageCount = args.length > 0 ? Integer.parseInt(args[0]) : 800;
+        int imageSize = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+
+        File root = Files.createTempDirectory("lc-image-index-benchmark").toFile();
+        File imageDirectory = new File(root.getPath() + File.separator + LCConstant.CONFIGURATION_IMAGE_DIRECTORY);
+        File indexFile = new File(root.getPath() + File.separator + LCConstant.IMAGE_METADATA_INDEX_NAME);
+        try {
+            generateImages(imageDirectory, imageCount, imageSize);
+            File[] images = imageDirectory.listFiles();
+
+            long start = System.currentTimeMillis();
+            for (File image : images) {
+                IOUtils.fileSha256HexToString(image);
+            }
+            LOGGER.info("Direct hashing : {} ms for {} images", System.currentTimeMillis() - start, images.length);
+
+            start = System.currentTimeMillis();
+            ImageMetadataIndex coldIndex = new ImageMetadataIndex(indexFile);
+            coldIndex.load();
+            for (File image : images) {
+                coldIndex.getSha256(image);
+            }
+            coldIndex.saveIfNeeded();
+            LOGGER.info("Cold index : {} ms ({} hits / {} misses, index file {} KB)", System.currentTimeMillis() - start, coldIndex.getHitCount(), coldIndex.getMissCount(),
+                    indexFile.length() / 1024);
+
+            start = System.currentTimeMillis();
+            ImageMetadataIndex warmIndex = new ImageMetadataIndex(indexFile);
+            warmIndex.load();
+            for (File image : images) {
+                warmIndex.getSha256(image);
+            }
+            warmIndex.saveIfNeeded();
+            LOGGER.info("Warm index : {} ms ({} hits / {} misses)", System.currentTimeMillis() - start, warmIndex.getHitCount(), warmIndex.getMissCount());
+        } finally {
+            IOUtils.deleteDirectoryAndChildren(root);
+        }
+    }
+
+    private static void generateImages(File imageDirectory, int imageCount, int imageSize) throws Exception {
+        long start = System.currentTimeMillis();
+        imageDirectory.mkdirs();
+        Random random = new Random(21541254);
+        for (int i = 0; i < imageCount; i++) {
+            BufferedImage image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < imageSize; x++) {
+                for (int y = 0; y < imageSize; y++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+            ImageIO.write(image, "png", new File(imageDirectory, i + ".png"));
+        }
+        LOGGER.info("Generated {} images ({}x{}) in {} ms", imageCount, imageSize, imageSize, System.currentTimeMillis() - start);
+    }
+}
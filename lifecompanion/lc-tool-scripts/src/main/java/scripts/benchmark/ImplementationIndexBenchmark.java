@@ -0,0 +1,96 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.controller.io.ImplementationIndex;
+import org.lifecompanion.controller.io.ReflectionHelper;
+import org.lifecompanion.model.api.categorizedelement.useaction.BaseUseActionI;
+import org.lifecompanion.model.api.categorizedelement.useaction.UseActionConfigurationViewI;
+import org.lifecompanion.model.api.categorizedelement.useevent.UseEventGeneratorConfigurationViewI;
+import org.lifecompanion.model.api.categorizedelement.useevent.UseEventGeneratorI;
+import org.lifecompanion.model.api.configurationcomponent.keyoption.KeyOptionConfigurationViewI;
+import org.lifecompanion.model.api.io.XMLSerializable;
+import org.lifecompanion.model.api.selectionmode.SelectionModeI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Compare startup implementation discovery : classes scan (ClassGraph) versus {@link ImplementationIndex} generated on build.<br>
+ * Index is the one generated by lc-app build (generateImplementationIndex task), then every type searched on startup is found with both.<br>
+ * Args : [lc-app implementation index file]
+ */
+public class ImplementationIndexBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ImplementationIndexBenchmark.class);
+
+    private static final List<Class<?>> STARTUP_TYPES = Arrays.asList(XMLSerializable.class, SelectionModeI.class, BaseUseActionI.class, UseEventGeneratorI.class,
+            UseActionConfigurationViewI.class, UseEventGeneratorConfigurationViewI.class, KeyOptionConfigurationViewI.class);
+
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        File indexFile = new File(args.length > 0 ? args[0] : "lc-app/build/generated/implementation-index/" + ImplementationIndex.INDEX_PATH);
+        LOGGER.info("Index size : {} KB", indexFile.length() / 1000.0);
+
+        // Index first : it pays the class loading cost
+        for (int i = 0; i < ITERATIONS; i++) {
+            long indexStart = System.nanoTime();
+            Map<Class<?>, Set<String>> fromIndex = findWithIndex(indexFile);
+            long indexTime = System.nanoTime() - indexStart;
+
+            long scanStart = System.nanoTime();
+            Map<Class<?>, Set<String>> fromScan = findWithScan();
+            long scanTime = System.nanoTime() - scanStart;
+
+            LOGGER.info("Run {} : scan {} ms, index {} ms, same implementations : {}", i, scanTime / 1_000_000.0, indexTime / 1_000_000.0, fromIndex.equals(fromScan));
+        }
+        System.exit(0);
+    }
+
+    private static Map<Class<?>, Set<String>> findWithScan() {
+        Map<Class<?>, Set<String>> result = new HashMap<>();
+        for (Class<?> type : STARTUP_TYPES) {
+            result.put(type, toNames(ReflectionHelper.scanImplementationsInModules(type)));
+        }
+        return result;
+    }
+
+    private static Map<Class<?>, Set<String>> findWithIndex(File indexFile) throws Exception {
+        ImplementationIndex index;
+        try (InputStream is = new FileInputStream(indexFile)) {
+            index = ImplementationIndex.read(is);
+        }
+        Map<Class<?>, Set<String>> result = new HashMap<>();
+        for (Class<?> type : STARTUP_TYPES) {
+            result.put(type, toNames(index.loadImplementations(type, type.getClassLoader())));
+        }
+        return result;
+    }
+
+    private static Set<String> toNames(List<? extends Class<?>> classes) {
+        Set<String> names = new HashSet<>();
+        classes.forEach(c -> names.add(c.getName()));
+        return names;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.model.impl.textprediction.predict4all.Predict4AllResourcePool;
+import org.lifecompanion.model.impl.textprediction.predict4all.Predict4AllWordPredictorHelper;
+import org.lifecompanion.model.impl.textprediction.predict4all.PredictorModelDto;
+import org.predict4all.nlp.prediction.WordPredictor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.Future;
+
+/**
+ * Measure Predict4All predictor initialization on use mode entry, when switching between two configurations :
+ * loading every predictor file on each mode start (previous behavior) versus getting configuration models from {@link Predict4AllResourcePool}.<br>
+ * Should be launched from LifeCompanion installation directory (Predict4All data is loaded from {@link Predict4AllWordPredictorHelper#EXT_PATH_P4A_WORD_PREDICTOR})
+ */
+public class Predict4AllPoolBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(Predict4AllPoolBenchmark.class);
+
+    private static final int WARMUP = 2, ITERATIONS = 10;
+    private static final String TRAINING_TEXT = "bonjour je voudrais aller au parc cet après-midi avec mes amis";
+
+    public static void main(String[] args) throws Exception {
+        if (!Predict4AllWordPredictorHelper.PREDICTION_FILE.exists() || !Predict4AllWordPredictorHelper.DICTIONARY_FILE.exists()) {
+            LOGGER.error("Predict4All data not found in {}, benchmark should be launched from LifeCompanion installation directory",
+                    new File(Predict4AllWordPredictorHelper.EXT_PATH_P4A_WORD_PREDICTOR).getAbsolutePath());
+            System.exit(1);
+        }
+        File[] configurationDirectories = {
+                Files.createTempDirectory("p4a-configuration-a").toFile(),
+                Files.createTempDirectory("p4a-configuration-b").toFile()
+        };
+
+        // Previous behavior : load everything on mode start, train and save on mode stop
+        long loadTime = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            File directory = configurationDirectories[i % configurationDirectories.length];
+            long start = System.nanoTime();
+            PredictorModelDto predictorModelDto = Predict4AllWordPredictorHelper.loadData(directory);
+            WordPredictor wordPredictor = new WordPredictor(predictorModelDto.getPredictionParameter(), predictorModelDto.getWordDictionary(),
+                    Predict4AllWordPredictorHelper.loadStaticNGramDictionary(), predictorModelDto.getDynamicNGramDictionary());
+            if (i >= WARMUP) {
+                loadTime += System.nanoTime() - start;
+            }
+            wordPredictor.trainDynamicModel(TRAINING_TEXT, false);
+            Predict4AllWordPredictorHelper.saveUserDictionary(directory, predictorModelDto.getWordDictionary());
+            Predict4AllWordPredictorHelper.saveDynamicNGramDictionary(directory, predictorModelDto.getDynamicNGramDictionary());
+            wordPredictor.dispose();
+        }
+        LOGGER.info("Load on each mode start : predictor ready in {} ms", loadTime / ITERATIONS / 1_000_000.0);
+
+        // Pool : mode start only submits loading, first prediction waits for it, save is done in background
+        long submitTime = 0, readyTime = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            File directory = configurationDirectories[i % configurationDirectories.length];
+            long start = System.nanoTime();
+            Future<Predict4AllResourcePool.ConfigurationModel> modelFuture = Predict4AllResourcePool.INSTANCE.getModel(directory);
+            long submitted = System.nanoTime();
+            Predict4AllResourcePool.ConfigurationModel model = modelFuture.get();
+            if (i >= WARMUP) {
+                submitTime += submitted - start;
+                readyTime += System.nanoTime() - start;
+            }
+            synchronized (model) {
+                model.getWordPredictor().trainDynamicModel(TRAINING_TEXT, false);
+            }
+            Predict4AllResourcePool.INSTANCE.saveModel(model);
+        }
+        LOGGER.info("Resource pool : mode start in {} ms, predictor ready in {} ms ({} model loaded, {} model reused)", submitTime / ITERATIONS / 1_000_000.0,
+                readyTime / ITERATIONS / 1_000_000.0, Predict4AllResourcePool.INSTANCE.getLoadCount(), Predict4AllResourcePool.INSTANCE.getReuseCount());
+        Predict4AllResourcePool.INSTANCE.dispose();
+        System.exit(0);
+    }
+}
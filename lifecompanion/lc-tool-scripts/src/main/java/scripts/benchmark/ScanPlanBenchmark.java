@@ -0,0 +1,96 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.model.api.configurationcomponent.GridPartComponentI;
+import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.api.selectionmode.ComponentToScanI;
+import org.lifecompanion.model.impl.configurationcomponent.GridComponentInformation;
+import org.lifecompanion.model.impl.configurationcomponent.GridPartGridComponent;
+import org.lifecompanion.model.impl.selectionmode.ScanPlanCache;
+import org.lifecompanion.util.model.SelectionModeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Measure scanned component generation time for row/column and direct key scanning, with and without the scan plan cache.<br>
+ * Dynamic key list navigation is simulated : every key text is changed (as on a key list page change) and components to scan are generated again.
+ * Last page keeps some empty keys, so the plan is built again only when empty keys change.
+ */
+public class ScanPlanBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ScanPlanBenchmark.class);
+
+    private static final int WARMUP = 3, ITERATIONS = 10, ROWS = 8, COLUMNS = 10, PAGE_COUNT = 1000, LAST_PAGE_KEY_COUNT = 35;
+
+    public static void main(String[] args) {
+        runBenchmark();
+        System.exit(0);
+    }
+
+    static void runBenchmark() {
+        GridPartGridComponent grid = new GridPartGridComponent();
+        grid.getGrid().setRow(ROWS);
+        grid.getGrid().setColumn(COLUMNS);
+
+        ScanPlanCache<ComponentToScanI> rowColumnCache = new ScanPlanCache<>("RowColumn", SelectionModeUtils::getRowColumnScanningComponents);
+        ScanPlanCache<GridComponentInformation> directKeyCache = new ScanPlanCache<>("HorizontalDirectKey", SelectionModeUtils::getDirectHorizontalScanningComponents);
+        long generatedTime = 0, cachedTime = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            long[] generated = navigate(grid, () -> SelectionModeUtils.getRowColumnScanningComponents(grid, false).size()
+                    + SelectionModeUtils.getDirectHorizontalScanningComponents(grid, false).size());
+            long[] cached = navigate(grid, () -> rowColumnCache.getPlan(grid, false).size() + directKeyCache.getPlan(grid, false).size());
+            if (generated[1] != cached[1]) {
+                throw new IllegalStateException("Generated and cached plans are different : " + generated[1] + " / " + cached[1]);
+            }
+            if (i >= WARMUP) {
+                generatedTime += generated[0];
+                cachedTime += cached[0];
+            }
+        }
+        double pageCount = (double) ITERATIONS * PAGE_COUNT;
+        LOGGER.info("Generated on each page : {} µs per page (scan generation only)", generatedTime / pageCount / 1_000.0);
+        LOGGER.info("Scan plan cache : {} µs per page", cachedTime / pageCount / 1_000.0);
+        LOGGER.info("Row/column plans : {} built (average {} ms), reuse rate {} %", rowColumnCache.getBuildCount(), rowColumnCache.getAverageBuildTime(),
+                (int) (rowColumnCache.getReuseRate() * 100.0));
+        LOGGER.info("Direct key plans : {} built (average {} ms), reuse rate {} %", directKeyCache.getBuildCount(), directKeyCache.getAverageBuildTime(),
+                (int) (directKeyCache.getReuseRate() * 100.0));
+    }
+
+    /**
+     * @return scan generation time (key changes excluded) and total scanned element count
+     */
+    private static long[] navigate(GridPartGridComponent grid, IntSupplier scanGeneration) {
+        long time = 0, total = 0;
+        List<GridPartComponentI> keys = grid.getGrid().getGridContent();
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            boolean lastPage = page % 10 == 9;
+            for (int k = 0; k < keys.size(); k++) {
+                ((GridPartKeyComponentI) keys.get(k)).textContentProperty().set(!lastPage || k < LAST_PAGE_KEY_COUNT ? "p" + page + "k" + k : "");
+            }
+            long s = System.nanoTime();
+            total += scanGeneration.getAsInt();
+            time += System.nanoTime() - s;
+        }
+        return new long[]{time, total};
+    }
+}
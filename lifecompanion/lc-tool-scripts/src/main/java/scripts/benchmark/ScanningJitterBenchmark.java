@@ -0,0 +1,165 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import org.lifecompanion.model.impl.selectionmode.ScanningClock;
+import org.lifecompanion.util.javafx.FXThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measure scanning step jitter : actual step times are recorded and compared to scheduled step times (start + n * period).<br>
+ * Each clock is measured without load and with a synthetic FX thread load (tasks busy for {@link #MIN_LOAD_MS} to {@link #MAX_LOAD_MS} ms,
+ * posted every 0 to {@link #MAX_LOAD_INTERVAL_MS} ms, as image decoding, text layout or prediction updates would do).<br>
+ * Compare {@link ScanningClock} to a JavaFX timeline (as used before scanning clock), so JavaFX toolkit should be available.
+ */
+public class ScanningJitterBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ScanningJitterBenchmark.class);
+
+    private static final int PERIOD_MS = 100, STEP_COUNT = 100, MIN_LOAD_MS = 2, MAX_LOAD_MS = 25, MAX_LOAD_INTERVAL_MS = 40;
+
+    public static void main(String[] args) throws Exception {
+        Platform.startup(() -> {
+        });
+        Executor fxExecutor = FXThreadUtils::runOnFXThread;
+        runBenchmark("Timeline", fxExecutor, false, ScanningJitterBenchmark::createTimelineClock);
+        runBenchmark("Timeline", fxExecutor, true, ScanningJitterBenchmark::createTimelineClock);
+        runBenchmark(fxExecutor);
+        System.exit(0);
+    }
+
+    static void runBenchmark(Executor fxExecutor) throws Exception {
+        Function<Runnable, StepClock> scanningClock = step -> {
+            ScanningClock clock = new ScanningClock(step, Executors.newSingleThreadScheduledExecutor(), fxExecutor, System::nanoTime);
+            clock.setPeriod(PERIOD_MS, true);
+            return new StepClock() {
+                @Override
+                public void start() {
+                    clock.restart();
+                }
+
+                @Override
+                public void stop() {
+                    clock.stop();
+                }
+            };
+        };
+        runBenchmark("Scanning clock", fxExecutor, false, scanningClock);
+        runBenchmark("Scanning clock", fxExecutor, true, scanningClock);
+    }
+
+    private static StepClock createTimelineClock(Runnable step) {
+        Timeline timeline = new Timeline(new KeyFrame(Duration.millis(PERIOD_MS), e -> step.run()));
+        timeline.setCycleCount(Animation.INDEFINITE);
+        return new StepClock() {
+            @Override
+            public void start() {
+                FXThreadUtils.runOnFXThread(() -> timeline.playFrom(Duration.ZERO));
+            }
+
+            @Override
+            public void stop() {
+                FXThreadUtils.runOnFXThread(timeline::stop);
+            }
+        };
+    }
+
+    private static void runBenchmark(String name, Executor fxExecutor, boolean withLoad, Function<Runnable, StepClock> clockFactory) throws Exception {
+        long[] stepTimes = new long[STEP_COUNT];
+        int[] stepIndex = {0};
+        CountDownLatch stepsDone = new CountDownLatch(1);
+        StepClock clock = clockFactory.apply(() -> {
+            if (stepIndex[0] < STEP_COUNT) {
+                stepTimes[stepIndex[0]++] = System.nanoTime();
+                if (stepIndex[0] == STEP_COUNT) {
+                    stepsDone.countDown();
+                }
+            }
+        });
+
+        // Synthetic FX thread load
+        Thread loadThread = new Thread(() -> {
+            Random random = new Random(2478);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(random.nextInt(MAX_LOAD_INTERVAL_MS));
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long loadNanos = TimeUnit.MILLISECONDS.toNanos(MIN_LOAD_MS + random.nextInt(MAX_LOAD_MS - MIN_LOAD_MS));
+                fxExecutor.execute(() -> {
+                    long end = System.nanoTime() + loadNanos;
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                });
+            }
+        });
+        if (withLoad) {
+            loadThread.start();
+        }
+
+        long start = System.nanoTime();
+        clock.start();
+        stepsDone.await();
+        clock.stop();
+        loadThread.interrupt();
+        loadThread.join();
+
+        // Lateness compared to scheduled time, and interval compared to period
+        double[] lateness = new double[STEP_COUNT], intervalError = new double[STEP_COUNT];
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(PERIOD_MS);
+        for (int i = 0; i < STEP_COUNT; i++) {
+            lateness[i] = (stepTimes[i] - (start + (i + 1) * periodNanos)) / 1_000_000.0;
+            intervalError[i] = Math.abs((stepTimes[i] - (i > 0 ? stepTimes[i - 1] : start)) - periodNanos) / 1_000_000.0;
+        }
+        double finalDrift = lateness[STEP_COUNT - 1];
+        Arrays.sort(lateness);
+        Arrays.sort(intervalError);
+        LOGGER.info("{} ({}) : lateness mean {} ms, p95 {} ms, max {} ms / interval error mean {} ms, p95 {} ms, max {} ms / drift after {} steps {} ms",
+                name, withLoad ? "FX load" : "no load",
+                format(Arrays.stream(lateness).average().orElse(0)), format(lateness[(int) (STEP_COUNT * 0.95)]), format(lateness[STEP_COUNT - 1]),
+                format(Arrays.stream(intervalError).average().orElse(0)), format(intervalError[(int) (STEP_COUNT * 0.95)]), format(intervalError[STEP_COUNT - 1]),
+                STEP_COUNT, format(finalDrift));
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private interface StepClock {
+        void start();
+
+        void stop();
+    }
+}
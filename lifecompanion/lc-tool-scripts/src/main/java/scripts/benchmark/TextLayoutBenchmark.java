@@ -0,0 +1,134 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import javafx.application.Platform;
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
+import org.lifecompanion.model.api.style.TextCompStyleI;
+import org.lifecompanion.model.api.textcomponent.TextBoundsProviderI;
+import org.lifecompanion.model.api.textcomponent.TextDisplayerLineI;
+import org.lifecompanion.model.impl.configurationcomponent.WriterEntry;
+import org.lifecompanion.model.impl.style.TextDisplayerTextCompStyle;
+import org.lifecompanion.model.impl.textcomponent.CachedTextBoundsProvider;
+import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineHelper;
+import org.lifecompanion.model.impl.textcomponent.TextDisplayerLineLayout;
+import org.lifecompanion.util.javafx.FXUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Measure text displayer layout time per keystroke in a long text (french translations, {@link #DOCUMENT_LENGTH} chars), typing at text end and in the middle of the text :
+ * full layout measuring every word, full layout with cached text bounds and incremental layout with cached text bounds.<br>
+ * Text is measured with JavaFX, so JavaFX toolkit should be available.
+ */
+public class TextLayoutBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(TextLayoutBenchmark.class);
+
+    private static final int WARMUP = 2, ITERATIONS = 5, DOCUMENT_LENGTH = 20_000, TYPED_CHAR_COUNT = 300;
+    private static final double MAX_WIDTH = 800.0;
+
+    public static void main(String[] args) throws Exception {
+        Platform.startup(() -> {
+        });
+        TextCompStyleI textStyle = new TextDisplayerTextCompStyle();
+        TextBoundsProviderI measuringProvider = (text, style) -> FXUtils.getTextBounds(text, style.fontProperty().get());
+        runBenchmark(textStyle, measuringProvider, new CachedTextBoundsProvider(FXUtils::getTextBounds));
+        System.exit(0);
+    }
+
+    static void runBenchmark(TextCompStyleI textStyle, TextBoundsProviderI measuringProvider, CachedTextBoundsProvider cachedProvider) throws Exception {
+        runBenchmark("Full layout", textStyle, entries -> TextDisplayerLineHelper.generateLines(entries, textStyle, MAX_WIDTH, true, measuringProvider));
+        runBenchmark("Full layout with cached bounds", textStyle, entries -> TextDisplayerLineHelper.generateLines(entries, textStyle, MAX_WIDTH, true, cachedProvider));
+        TextDisplayerLineLayout lineLayout = new TextDisplayerLineLayout(cachedProvider);
+        runBenchmark("Incremental layout with cached bounds", textStyle, entries -> lineLayout.generateLines(entries, textStyle, MAX_WIDTH, true));
+        LOGGER.info("Cached bounds : {} hits, {} misses", cachedProvider.getHitCount(), cachedProvider.getMissCount());
+    }
+
+    private static void runBenchmark(String name, TextCompStyleI textStyle, Function<List<WriterEntryI>, List<TextDisplayerLineI>> layout) throws Exception {
+        String text = loadTranslationText();
+        String document = text.substring(0, DOCUMENT_LENGTH);
+        String typedText = text.substring(DOCUMENT_LENGTH, DOCUMENT_LENGTH + TYPED_CHAR_COUNT);
+        long endTime = 0, middleTime = 0;
+        int lineCount = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            List<WriterEntryI> entries = createEntries(document);
+            lineCount = layout.apply(entries).size();
+            long start = System.nanoTime();
+            type(entries, entries.size(), typedText, layout);
+            long typedEnd = System.nanoTime();
+
+            entries = createEntries(document);
+            layout.apply(entries);
+            long middleStart = System.nanoTime();
+            type(entries, entries.size() / 2, typedText, layout);
+            if (i >= WARMUP) {
+                endTime += typedEnd - start;
+                middleTime += System.nanoTime() - middleStart;
+            }
+        }
+        double count = (double) ITERATIONS * TYPED_CHAR_COUNT * 1_000.0;
+        LOGGER.info("{} ({} chars, {} lines) : typing at end {} µs/char, typing in middle {} µs/char", name, DOCUMENT_LENGTH, lineCount, endTime / count, middleTime / count);
+    }
+
+    private static List<WriterEntryI> createEntries(String document) {
+        // Entries as created while typing : one entry per word and per space
+        List<WriterEntryI> entries = new ArrayList<>();
+        int wordStart = 0;
+        for (int c = 0; c < document.length(); c++) {
+            if (document.charAt(c) == ' ') {
+                entries.add(new WriterEntry(document.substring(wordStart, c), false));
+                entries.add(new WriterEntry(" ", false));
+                wordStart = c + 1;
+            }
+        }
+        entries.add(new WriterEntry(document.substring(wordStart), false));
+        return entries;
+    }
+
+    private static void type(List<WriterEntryI> entries, int entryIndex, String typedText, Function<List<WriterEntryI>, List<TextDisplayerLineI>> layout) {
+        WriterEntryI currentEntry = new WriterEntry("", false);
+        entries.add(entryIndex++, currentEntry);
+        for (int c = 0; c < typedText.length(); c++) {
+            char typed = typedText.charAt(c);
+            if (typed == ' ') {
+                entries.add(entryIndex++, new WriterEntry(" ", false));
+                currentEntry = new WriterEntry("", false);
+                entries.add(entryIndex++, currentEntry);
+            } else {
+                currentEntry.entryTextProperty().set(currentEntry.entryTextProperty().get() + typed);
+            }
+            layout.apply(entries);
+        }
+    }
+
+    private static String loadTranslationText() throws Exception {
+        try (InputStream is = TextLayoutBenchmark.class.getResourceAsStream("/translation/fr_translations.xml")) {
+            String xml = IOUtils.readStreamLines(is, StandardCharsets.UTF_8.name());
+            return xml.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import javafx.application.Platform;
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.controller.lifecycle.AppModeController;
+import org.lifecompanion.controller.lifecycle.ModeListenerStarter;
+import org.lifecompanion.framework.utils.LCNamedThreadFactory;
+import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.api.configurationcomponent.LCConfigurationI;
+import org.lifecompanion.model.api.lifecycle.ModeListenerI;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+import org.lifecompanion.model.impl.configurationcomponent.keyoption.WordPredictionKeyOption;
+import org.lifecompanion.model.impl.configurationcomponent.keyoption.note.NoteKeyOption;
+import org.lifecompanion.ui.UseModeScene;
+import org.lifecompanion.util.javafx.FXThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measure time to first interaction when use mode starts on a large generated configuration (with word prediction and note keys) :
+ * time to create the use mode scene and to start every listener needed before use mode is displayed, and time before every listener is started.<br>
+ * Compare every listener started sequentially (as before start policies) with listener start policies (concurrent and deferred starts).
+ * The first start is measured apart as predictor is then initialized.<br>
+ * Listeners and use mode scene need JavaFX, so JavaFX toolkit should be available.
+ */
+public class UseModeStartBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(UseModeStartBenchmark.class);
+
+    private static final int ITERATIONS = 10, PREDICTION_KEY_INTERVAL = 12, NOTE_KEY_INTERVAL = 40;
+
+    public static void main(String[] args) throws Exception {
+        Platform.startup(() -> {
+        });
+        LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(7845), null, null);
+        List<GridPartKeyComponentI> keys = configuration.getComponentIndex().getByType(GridPartKeyComponentI.class);
+        for (int i = 0; i < keys.size(); i++) {
+            if (i % PREDICTION_KEY_INTERVAL == 0) {
+                keys.get(i).changeKeyOption(new WordPredictionKeyOption(), true);
+            } else if (i % NOTE_KEY_INTERVAL == 1) {
+                keys.get(i).changeKeyOption(new NoteKeyOption(), true);
+            }
+        }
+        LOGGER.info("Generated configuration with {} keys", keys.size());
+        runBenchmark(configuration, AppModeController.INSTANCE.getUseModeListeners());
+        System.exit(0);
+    }
+
+    static void runBenchmark(LCConfigurationI configuration, List<ModeListenerI> listeners) {
+        ExecutorService executor = Executors.newFixedThreadPool(4, LCNamedThreadFactory.daemonThreadFactory("UseModeStart"));
+        runBenchmark("Sequential start", configuration, listeners, executor, true);
+        runBenchmark("Start policies", configuration, listeners, executor, false);
+        executor.shutdown();
+    }
+
+    private static void runBenchmark(String name, LCConfigurationI baseConfiguration, List<ModeListenerI> listeners, ExecutorService executor, boolean sequential) {
+        double firstInteraction = 0.0, allStarted = 0.0;
+        for (int i = 0; i <= ITERATIONS; i++) {
+            LCConfigurationI configuration = (LCConfigurationI) baseConfiguration.duplicate(false);
+            ModeListenerStarter starter = new ModeListenerStarter(listeners, executor, sequential);
+            long start = System.nanoTime();
+            UseModeScene useModeScene = new UseModeScene(configuration);
+            useModeScene.initAll();
+            starter.startBeforeFirstFrame(configuration);
+            long ready = System.nanoTime();
+            starter.startDeferred(configuration);
+            starter.awaitDeferredStart();
+            long end = System.nanoTime();
+            FXThreadUtils.runOnFXThreadAndWaitFor(() -> listeners.forEach(listener -> listener.modeStop(configuration)));
+            if (i == 0) {
+                LOGGER.info("{} : first start, first interaction after {} ms, every listener started after {} ms", name, (ready - start) / 1_000_000.0, (end - start) / 1_000_000.0);
+                LOGGER.info(starter.getTimelineReport());
+            } else {
+                firstInteraction += (ready - start) / 1_000_000.0;
+                allStarted += (end - start) / 1_000_000.0;
+            }
+        }
+        LOGGER.info("{} : next starts, first interaction after {} ms, every listener started after {} ms", name, firstInteraction / ITERATIONS, allStarted / ITERATIONS);
+    }
+}
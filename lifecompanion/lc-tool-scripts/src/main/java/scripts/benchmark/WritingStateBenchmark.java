@@ -0,0 +1,136 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.lifecompanion.controller.textcomponent.WritingStateEntryContainer;
+import org.lifecompanion.framework.commons.utils.io.IOUtils;
+import org.lifecompanion.model.api.configurationcomponent.WriterEntryI;
+import org.lifecompanion.model.api.textcomponent.WritingEventSource;
+import org.lifecompanion.model.api.textcomponent.WritingStateControllerI;
+import org.lifecompanion.model.impl.configurationcomponent.WriterEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measure writing state cost per keystroke in a long text (french translations, {@link #DOCUMENT_LENGTH} chars) :
+ * typing at text end and in the middle of the text, deleting chars, and getting the last sentence.<br>
+ * After each keystroke, current word is read (as done by use variables), and text before caret is read in a second run (as done by word prediction).
+ */
+public class WritingStateBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(WritingStateBenchmark.class);
+
+    private static final int WARMUP = 2, ITERATIONS = 5, DOCUMENT_LENGTH = 100_000, TYPED_CHAR_COUNT = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        runBenchmark("Entry container", WritingStateEntryContainer::new);
+        System.exit(0);
+    }
+
+    static void runBenchmark(String name, Supplier<WritingStateControllerI> writingStateSupplier) throws Exception {
+        runBenchmark(name, writingStateSupplier, false);
+        runBenchmark(name + " with text before caret", writingStateSupplier, true);
+    }
+
+    private static void runBenchmark(String name, Supplier<WritingStateControllerI> writingStateSupplier, boolean readTextBeforeCaret) throws Exception {
+        String text = loadTranslationText();
+        String document = text.substring(0, DOCUMENT_LENGTH);
+        String typedText = text.substring(DOCUMENT_LENGTH, DOCUMENT_LENGTH + TYPED_CHAR_COUNT);
+        long endTime = 0, middleTime = 0, deleteTime = 0, sentenceTime = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            WritingStateControllerI writingState = createDocument(writingStateSupplier, document);
+            long start = System.nanoTime();
+            type(writingState, typedText, readTextBeforeCaret);
+            long typedEnd = System.nanoTime();
+            for (int c = 0; c < TYPED_CHAR_COUNT; c++) {
+                writingState.removeLastChar(WritingEventSource.USER_ACTIONS);
+                readState(writingState, readTextBeforeCaret);
+            }
+            long deleted = System.nanoTime();
+            for (int c = 0; c < TYPED_CHAR_COUNT; c++) {
+                writingState.getLastSentence();
+            }
+            long sentenceEnd = System.nanoTime();
+
+            writingState = createDocument(writingStateSupplier, document);
+            for (int c = 0; c < DOCUMENT_LENGTH / 2; c++) {
+                writingState.moveCaretBackward(WritingEventSource.USER_ACTIONS);
+            }
+            long middleStart = System.nanoTime();
+            type(writingState, typedText, readTextBeforeCaret);
+            if (i >= WARMUP) {
+                endTime += typedEnd - start;
+                deleteTime += deleted - typedEnd;
+                sentenceTime += sentenceEnd - deleted;
+                middleTime += System.nanoTime() - middleStart;
+            }
+        }
+        double count = (double) ITERATIONS * TYPED_CHAR_COUNT * 1_000.0;
+        LOGGER.info("{} ({} chars) : typing at end {} µs/char, typing in middle {} µs/char, deleting {} µs/char, last sentence {} µs", name, DOCUMENT_LENGTH,
+                endTime / count, middleTime / count, deleteTime / count, sentenceTime / count);
+    }
+
+    private static WritingStateControllerI createDocument(Supplier<WritingStateControllerI> writingStateSupplier, String document) {
+        WritingStateControllerI writingState = writingStateSupplier.get();
+        // Entries as created while typing : one entry per word and per space
+        List<WriterEntryI> entries = new ArrayList<>();
+        int wordStart = 0;
+        for (int c = 0; c < document.length(); c++) {
+            if (document.charAt(c) == ' ') {
+                entries.add(new WriterEntry(document.substring(wordStart, c), false));
+                entries.add(new WriterEntry(" ", false));
+                wordStart = c + 1;
+            }
+        }
+        entries.add(new WriterEntry(document.substring(wordStart), false));
+        writingState.getWriterEntries().setAll(entries);
+        writingState.moveCaretToEnd(WritingEventSource.SYSTEM);
+        return writingState;
+    }
+
+    private static void type(WritingStateControllerI writingState, String typedText, boolean readTextBeforeCaret) {
+        for (int c = 0; c < typedText.length(); c++) {
+            char typed = typedText.charAt(c);
+            if (typed == ' ') {
+                writingState.insert(WritingEventSource.USER_ACTIONS, new WriterEntry(" ", false), null);
+            } else {
+                writingState.insertText(WritingEventSource.USER_ACTIONS, String.valueOf(typed));
+            }
+            readState(writingState, readTextBeforeCaret);
+        }
+    }
+
+    private static int readState(WritingStateControllerI writingState, boolean readTextBeforeCaret) {
+        int length = writingState.getLastWord().length() + writingState.getLastCompleteWord().length();
+        return readTextBeforeCaret ? length + writingState.textBeforeCaretProperty().get().length() : length;
+    }
+
+    private static String loadTranslationText() throws Exception {
+        try (InputStream is = WritingStateBenchmark.class.getResourceAsStream("/translation/fr_translations.xml")) {
+            String xml = IOUtils.readStreamLines(is, StandardCharsets.UTF_8.name());
+            return xml.replaceAll("<[^>]*>", " ").replaceAll("\\s+", " ");
+        }
+    }
+}
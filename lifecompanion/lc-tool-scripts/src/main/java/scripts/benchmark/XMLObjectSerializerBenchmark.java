@@ -0,0 +1,317 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import javafx.beans.property.*;
+import org.jdom2.Attribute;
+import org.jdom2.Element;
+import org.lifecompanion.controller.io.XMLHelper;
+import org.lifecompanion.controller.io.task.GenerateRandomConfigurationTask;
+import org.lifecompanion.framework.commons.fx.io.*;
+import org.lifecompanion.model.api.configurationcomponent.DisplayableComponentI;
+import org.lifecompanion.model.api.configurationcomponent.GridPartKeyComponentI;
+import org.lifecompanion.model.impl.configurationcomponent.LCConfigurationComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compare {@link XMLObjectSerializer} (accessor plans) with the previous reflective implementation (copied in {@link ReflectiveSerializer}).<br>
+ * Serialize then deserialize every class level of every component (and key styles) of a large random configuration.<br>
+ * Args : [configuration count]
+ */
+public class XMLObjectSerializerBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(XMLObjectSerializerBenchmark.class);
+
+    private static final int WARMUP = 5, ITERATIONS = 20, THREADS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int configurationCount = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<SerializedLevel> levels = new ArrayList<>();
+        for (int i = 0; i < configurationCount; i++) {
+            LCConfigurationComponent configuration = GenerateRandomConfigurationTask.generateConfiguration(new Random(21541254 + i), null, null);
+            addLevels(configuration, levels);
+            for (DisplayableComponentI component : configuration.getAllComponent().values()) {
+                addLevels(component, levels);
+                if (component instanceof GridPartKeyComponentI) {
+                    addLevels(((GridPartKeyComponentI) component).getKeyStyle(), levels);
+                    addLevels(((GridPartKeyComponentI) component).getKeyTextStyle(), levels);
+                }
+            }
+        }
+        LOGGER.info("Benchmark on {} serialized class levels", levels.size());
+
+        // Check that both implementations give the same result
+        boolean sameResult = true;
+        for (SerializedLevel level : levels) {
+            Element reflective = ReflectiveSerializer.serializeInto(level.type, level.instance, new Element("E"));
+            Element plan = XMLObjectSerializer.serializeInto(level.type, level.instance, new Element("E"));
+            sameResult &= XMLHelper.toXmlString(reflective).equals(XMLHelper.toXmlString(plan));
+        }
+        LOGGER.info("Same result with both implementations : {}", sameResult);
+
+        run("Reflective", levels, ReflectiveSerializer::serializeInto, ReflectiveSerializer::deserializeInto);
+        run("Accessor plans", levels, XMLObjectSerializer::serializeInto, XMLObjectSerializer::deserializeInto);
+        runConcurrent(levels);
+        System.exit(0);
+    }
+
+    private static void addLevels(Object instance, List<SerializedLevel> levels) {
+        for (Class<?> type = instance.getClass(); type != Object.class; type = type.getSuperclass()) {
+            levels.add(new SerializedLevel(type, instance));
+        }
+    }
+
+    private static void run(String name, List<SerializedLevel> levels, Serializer serializer, Deserializer deserializer) {
+        Element[] elements = new Element[levels.size()];
+        long serializeTime = 0, deserializeTime = 0;
+        for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+            long start = System.nanoTime();
+            for (int l = 0; l < elements.length; l++) {
+                SerializedLevel level = levels.get(l);
+                elements[l] = serializer.serializeInto(level.type, level.instance, new Element("E"));
+            }
+            long serializeEnd = System.nanoTime();
+            for (int l = 0; l < elements.length; l++) {
+                SerializedLevel level = levels.get(l);
+                deserializer.deserializeInto(level.type, level.instance, elements[l]);
+            }
+            if (i >= WARMUP) {
+                serializeTime += serializeEnd - start;
+                deserializeTime += System.nanoTime() - serializeEnd;
+            }
+        }
+        LOGGER.info("{} : serialize {} ms, deserialize {} ms", name, serializeTime / ITERATIONS / 1_000_000.0, deserializeTime / ITERATIONS / 1_000_000.0);
+    }
+
+    private static void runConcurrent(List<SerializedLevel> levels) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<String>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                StringBuilder result = new StringBuilder();
+                for (SerializedLevel level : levels) {
+                    result.append(XMLHelper.toXmlString(XMLObjectSerializer.serializeInto(level.type, level.instance, new Element("E"))));
+                }
+                return result.toString();
+            }));
+        }
+        Set<String> distinctResults = new HashSet<>();
+        for (Future<String> result : results) {
+            distinctResults.add(result.get());
+        }
+        executor.shutdown();
+        LOGGER.info("Accessor plans, {} concurrent serializations in {} ms, same result on every thread : {}", THREADS, (System.nanoTime() - start) / 1_000_000.0, distinctResults.size() == 1);
+    }
+
+    private static class SerializedLevel {
+        private final Class<?> type;
+        private final Object instance;
+
+        private SerializedLevel(Class<?> type, Object instance) {
+            this.type = type;
+            this.instance = instance;
+        }
+    }
+
+    private interface Serializer {
+        Element serializeInto(Class<?> type, Object instance, Element element);
+    }
+
+    private interface Deserializer {
+        void deserializeInto(Class<?> type, Object instance, Element element);
+    }
+
+    // PREVIOUS IMPLEMENTATION
+    //========================================================================
+
+    /**
+     * Previous {@link XMLObjectSerializer} implementation : fields, annotations and data types are read by reflection on each call.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class ReflectiveSerializer {
+        private static final List<Class<?>> VALID_PROPERTY_TYPE = Arrays.asList(DoubleProperty.class, IntegerProperty.class, LongProperty.class,
+                FloatProperty.class, StringProperty.class, BooleanProperty.class);
+        private static final Map<Class, CustomPropertyConverter> CACHED_CONVERTER = new HashMap<>();
+        private static final Map<Class<?>, List<Field>> CACHED_FIELD_FOR_TYPE = new HashMap<>(50);
+
+        static Element serializeInto(final Class<?> type, final Object instance, final Element element) {
+            for (Field field : getAllValidAccessibleField(type)) {
+                if (Property.class.isAssignableFrom(field.getType())) {
+                    Property<?> prop = getFieldValue(instance, field);
+                    if (prop != null && isValidPropertyField(field)) {
+                        writeFieldValueIn(field, prop.getValue(), element);
+                    }
+                } else if (isDirectlyAssignedField(field)) {
+                    writeFieldValueIn(field, getFieldValue(instance, field), element);
+                } else if (field.isAnnotationPresent(XMLCustomProperty.class)) {
+                    XMLCustomProperty customProp = field.getAnnotation(XMLCustomProperty.class);
+                    writeFieldValueIn(field, getConverterFor(customProp).getValue(getFieldValue(instance, field)), element);
+                }
+            }
+            return element;
+        }
+
+        static void deserializeInto(final Class<?> type, final Object instance, final Element element) {
+            for (Field field : getAllValidAccessibleField(type)) {
+                try {
+                    if (Property.class.isAssignableFrom(field.getType())) {
+                        Property prop = getFieldValue(instance, field);
+                        if (prop != null && isValidPropertyField(field)) {
+                            prop.setValue(readFieldValue(field, element, getPropertyGenericType(prop, field)));
+                        }
+                    } else if (isDirectlyAssignedField(field)) {
+                        field.set(instance, readFieldValue(field, element, null));
+                    } else if (field.isAnnotationPresent(XMLCustomProperty.class)) {
+                        XMLCustomProperty customProp = field.getAnnotation(XMLCustomProperty.class);
+                        getConverterFor(customProp).setValue(getFieldValue(instance, field), readFieldValue(field, element, customProp.value()));
+                    }
+                } catch (Exception e) {
+                    // Ignored as in previous implementation
+                }
+            }
+        }
+
+        private static CustomPropertyConverter getConverterFor(XMLCustomProperty customProp) {
+            return CACHED_CONVERTER.computeIfAbsent(customProp.converter(), t -> {
+                try {
+                    return (CustomPropertyConverter) t.getDeclaredConstructor().newInstance();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        private static boolean isValidPropertyField(final Field field) {
+            Class<?> propertyType = field.getType();
+            if (ObjectProperty.class.isAssignableFrom(propertyType) && field.isAnnotationPresent(XMLGenericProperty.class)) {
+                return field.getAnnotation(XMLGenericProperty.class).value() != null;
+            }
+            for (Class<?> validType : VALID_PROPERTY_TYPE) {
+                if (validType.isAssignableFrom(propertyType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Class<?> getPropertyGenericType(final Property<?> prop, final Field field) {
+            Class<?> propertyClass = prop.getClass();
+            if (DoubleProperty.class.isAssignableFrom(propertyClass)) {
+                return Double.class;
+            } else if (IntegerProperty.class.isAssignableFrom(propertyClass)) {
+                return Integer.class;
+            } else if (FloatProperty.class.isAssignableFrom(propertyClass)) {
+                return Float.class;
+            } else if (LongProperty.class.isAssignableFrom(propertyClass)) {
+                return Long.class;
+            } else if (StringProperty.class.isAssignableFrom(propertyClass)) {
+                return String.class;
+            } else if (BooleanProperty.class.isAssignableFrom(propertyClass)) {
+                return Boolean.class;
+            } else if (ObjectProperty.class.isAssignableFrom(propertyClass) && field.isAnnotationPresent(XMLGenericProperty.class)) {
+                return field.getAnnotation(XMLGenericProperty.class).value();
+            }
+            return null;
+        }
+
+        private static Object readFieldValue(final Field field, final Element element, final Class<?> valueType) {
+            Attribute attribute = element.getAttribute(field.getName());
+            if (attribute != null) {
+                String elementValue = attribute.getValue();
+                Class<?> realFieldType = valueType != null ? valueType : field.getType();
+                if (!"null".equalsIgnoreCase(elementValue) && DataWriters.isValidType(realFieldType)) {
+                    return DataWriters.getDataType(realFieldType).stringToValue(elementValue);
+                } else {
+                    return null;
+                }
+            } else if (field.getAnnotation(XMLIgnoreNullValue.class) != null) {
+                return null;
+            } else if (field.getAnnotation(XMLIgnoreDefaultBooleanValue.class) != null) {
+                return field.getAnnotation(XMLIgnoreDefaultBooleanValue.class).value();
+            } else if (field.getAnnotation(XMLIgnoreDefaultDoubleValue.class) != null) {
+                return field.getAnnotation(XMLIgnoreDefaultDoubleValue.class).value();
+            } else {
+                throw new IllegalArgumentException("The xml element doesn't contains any field for the name " + field.getName());
+            }
+        }
+
+        private static void writeFieldValueIn(final Field field, final Object value, final Element element) {
+            if (value == null) {
+                if (field.getAnnotation(XMLIgnoreNullValue.class) == null) {
+                    element.setAttribute(field.getName(), "null");
+                }
+            } else if (checkIfNonNullValueShouldBeWritten(field, value)) {
+                element.setAttribute(field.getName(), DataWriters.getDataType(value.getClass()).valueToString(value));
+            }
+        }
+
+        private static boolean checkIfNonNullValueShouldBeWritten(final Field field, final Object value) {
+            if (value instanceof Boolean) {
+                XMLIgnoreDefaultBooleanValue annotation = field.getAnnotation(XMLIgnoreDefaultBooleanValue.class);
+                if (annotation != null && Objects.equals(value, annotation.value())) {
+                    return false;
+                }
+            }
+            if (value instanceof Double) {
+                XMLIgnoreDefaultDoubleValue annotation = field.getAnnotation(XMLIgnoreDefaultDoubleValue.class);
+                if (annotation != null && Objects.equals(value, annotation.value())) {
+                    return false;
+                }
+            }
+            return !(value instanceof String) || field.getAnnotation(XMLIgnoreEmptyString.class) == null || !((String) value).isEmpty();
+        }
+
+        private static <T> T getFieldValue(final Object object, final Field field) {
+            try {
+                return (T) field.get(object);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private static List<Field> getAllValidAccessibleField(final Class<?> type) {
+            return CACHED_FIELD_FOR_TYPE.computeIfAbsent(type, t -> {
+                List<Field> validFields = new ArrayList<>();
+                for (Field field : t.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    boolean validType = Property.class.isAssignableFrom(field.getType()) || isDirectlyAssignedField(field) || field.isAnnotationPresent(XMLCustomProperty.class);
+                    if (validType && (!isDirectlyAssignedField(field) || !Modifier.isFinal(modifiers)) && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        validFields.add(field);
+                    }
+                }
+                return validFields;
+            });
+        }
+
+        private static boolean isDirectlyAssignedField(Field field) {
+            return DataWriters.isValidType(field.getType());
+        }
+    }
+    //========================================================================
+}
@@ -0,0 +1,165 @@
+/*
+ * LifeCompanion AAC and its sub projects
+ *
+ * Copyright (C) 2014 to 2019 Mathieu THEBAUD
+ * Copyright (C) 2020 to 2021 CMRRF KERPAPE (Lorient, France)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, version 3 of the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package scripts.benchmark;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.input.SAXBuilder;
+import org.lifecompanion.controller.io.XMLHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Compare configuration XML reading with the previous implementation (JDOM {@link SAXBuilder}) and with {@link XMLHelper#readXml(File)} (StAX).<br>
+ * Use the given configuration XML file (e.g. lifecompanion-configuration.xml from an exported configuration) and duplicate its components to get a large configuration,
+ * or generate a configuration-like XML if no file is given.<br>
+ * Args : [configuration xml path or "-"] [copy count]
+ */
+public class XMLReadingBenchmark {
+    private final static Logger LOGGER = LoggerFactory.getLogger(XMLReadingBenchmark.class);
+
+    private static final int WARMUP = 3, ITERATIONS = 8;
+
+    public static void main(String[] args) throws Exception {
+        File sourceFile = args.length > 0 && !"-".equals(args[0]) ? new File(args[0]) : null;
+        int copyCount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Element root = sourceFile != null ? XMLHelper.readXml(sourceFile) : generateConfiguration();
+        Element components = root.getChild("Components");
+        List<Element> sourceComponents = new ArrayList<>(components.getChildren());
+        for (int i = 1; i < copyCount; i++) {
+            sourceComponents.forEach(c -> components.addContent(c.clone()));
+        }
+        File xmlFile = File.createTempFile("lc-configuration-benchmark", ".xml");
+        xmlFile.deleteOnExit();
+        XMLHelper.writeXml(xmlFile, root);
+        LOGGER.info("Benchmark XML file generated : {} MB", xmlFile.length() / 1_000_000.0);
+
+        // Check that both implementations give the same tree
+        boolean sameResult = XMLHelper.toXmlString(readWithSaxBuilder(xmlFile)).equals(XMLHelper.toXmlString(XMLHelper.readXml(xmlFile)));
+        LOGGER.info("Same result with both implementations : {}", sameResult);
+
+        run("SAXBuilder", () -> readWithSaxBuilder(xmlFile));
+        run("XMLHelper (StAX)", () -> XMLHelper.readXml(xmlFile));
+        System.exit(0);
+    }
+
+    private static Element readWithSaxBuilder(File path) throws Exception {
+        SAXBuilder saxBuilder = new SAXBuilder();
+        try (BufferedReader is = new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            Document doc = saxBuilder.build(is);
+            return doc.getRootElement();
+        }
+    }
+
+    private static void run(String name, Callable<Element> reader) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            reader.call();
+        }
+        long totalTime = 0, peakHeap = 0, retainedHeap = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long baseHeap = usedHeapAfterGc();
+            resetPeakUsage();
+            long start = System.nanoTime();
+            Element result = reader.call();
+            totalTime += System.nanoTime() - start;
+            peakHeap = Math.max(peakHeap, getPeakHeap() - baseHeap);
+            retainedHeap = Math.max(retainedHeap, usedHeapAfterGc() - baseHeap);
+            if (result.getChildren().isEmpty()) {
+                throw new IllegalStateException("Empty result");
+            }
+        }
+        LOGGER.info("{} : {} ms per read, peak heap {} MB, retained heap (loaded tree) {} MB",
+                name,
+                totalTime / ITERATIONS / 1_000_000.0,
+                peakHeap / 1_000_000.0,
+                retainedHeap / 1_000_000.0);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    // GENERATION
+    //========================================================================
+    private static Element generateConfiguration() {
+        Random random = new Random(5645);
+        Element root = new Element("Cmp").setAttribute("ntyp", "LCConfigurationComponent").setAttribute("id", randomId(random));
+        Element components = new Element("Components");
+        root.addContent(components);
+        Element grid = new Element("Cmp").setAttribute("ntyp", "GridPartGridComponent").setAttribute("id", randomId(random));
+        components.addContent(grid);
+        Element gridContent = new Element("Grid").setAttribute("row", "10").setAttribute("column", "10");
+        grid.addContent(gridContent);
+        for (int i = 0; i < 100; i++) {
+            Element key = new Element("Cmp")
+                    .setAttribute("ntyp", "GPKC")
+                    .setAttribute("id", randomId(random))
+                    .setAttribute("row", String.valueOf(i / 10))
+                    .setAttribute("column", String.valueOf(i % 10))
+                    .setAttribute("columnSpan", "1")
+                    .setAttribute("rowSpan", "1")
+                    .setAttribute("textContent", "key " + i);
+            key.addContent(new Element("KeyCompStyle").setAttribute("strokeColor", "#7b2e0bff").setAttribute("backgroundColor", "#c6714bff").setAttribute("textPosition", "BOTTOM"));
+            key.addContent(new Element("KeyTextStyle").setAttribute("fontSize", "40").setAttribute("bold", "true").setAttribute("color", "#ffffffff"));
+            Element actions = new Element("Acts").setAttribute("etyp", "ACTIVATION");
+            actions.addContent(new Element("Act").setAttribute("ntyp", "WriteLabelAction").setAttribute("id", randomId(random)));
+            key.addContent(new Element("UAM").setAttribute("ntyp", "SUAM").addContent(new Element("UAE").addContent(actions)));
+            gridContent.addContent(key);
+        }
+        return root;
+    }
+
+    private static String randomId(Random random) {
+        return new java.util.UUID(random.nextLong(), random.nextLong()).toString();
+    }
+    //========================================================================
+}